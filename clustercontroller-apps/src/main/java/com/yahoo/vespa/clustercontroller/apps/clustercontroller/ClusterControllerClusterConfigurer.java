@@ -87,6 +87,7 @@ public class ClusterControllerClusterConfigurer extends AbstractComponent {
         options.cycleWaitTime = (int) (config.cycle_wait_time() * 1000);
         options.minTimeBeforeFirstSystemStateBroadcast = (int) (config.min_time_before_first_system_state_broadcast() * 1000);
         options.nodeStateRequestTimeoutMS = (int) (config.get_node_state_request_timeout() * 1000);
+        options.hostInfoDecoderThreads = config.host_info_decoder_threads();
         options.showLocalSystemStatesInEventLog = config.show_local_systemstates_in_event_log();
         options.minTimeBetweenNewSystemStates = config.min_time_between_new_systemstates();
         options.maxSlobrokDisconnectGracePeriod = (int) (config.max_slobrok_disconnect_grace_period() * 1000);
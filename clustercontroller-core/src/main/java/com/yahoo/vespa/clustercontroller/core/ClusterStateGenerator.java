@@ -8,8 +8,11 @@ import com.yahoo.vdslib.state.NodeType;
 import com.yahoo.vdslib.state.State;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
@@ -20,6 +23,9 @@ import java.util.TreeMap;
  * State version tracking is considered orthogonal to state generation. Therefore,
  * cluster state version is _not_ set here; its incrementing must be handled by the
  * caller.
+ *
+ * A {@link Memo} may be passed to let a generation reuse the results of the previous one
+ * for nodes and groups whose input is unchanged. This does not change the generated state.
  */
 public class ClusterStateGenerator {
 
@@ -124,17 +130,129 @@ public class ClusterStateGenerator {
         }
     }
 
+    /**
+     * The effective node states and group availabilities computed in previous generations.
+     * Generations using the same memo only recompute the effective state of nodes whose
+     * reported state, wanted state or other inputs have changed, or whose state depends on time
+     * and has passed the time where it changes, and only recompute the availability of groups
+     * where the state of some node has changed.
+     *
+     * This is not thread safe.
+     */
+    static class Memo {
+
+        private final Map<Node, NodeEntry> nodes = new HashMap<>();
+        private final GroupAvailabilityCalculator.Memo groups = new GroupAvailabilityCalculator.Memo();
+        private int maxPrematureCrashes;
+        private Map<NodeType, Integer> transitionTimes = Map.of();
+        private int maxInitProgressTimeMs;
+        private int recomputedNodes = 0;
+
+        /** Returns the number of nodes whose effective state was recomputed in the last generation */
+        int recomputedNodes() { return recomputedNodes; }
+
+        /** Returns the number of leaf groups whose availability was recomputed in the last generation */
+        int recomputedGroups() { return groups.recomputedGroups(); }
+
+        private void forgetNodesIfChanged(Params params) {
+            if (params.maxPrematureCrashes == maxPrematureCrashes
+                && params.transitionTimes.equals(transitionTimes)
+                && params.maxInitProgressTimeMs == maxInitProgressTimeMs) return;
+
+            nodes.clear();
+            maxPrematureCrashes = params.maxPrematureCrashes;
+            transitionTimes = Map.copyOf(params.transitionTimes);
+            maxInitProgressTimeMs = params.maxInitProgressTimeMs;
+        }
+
+    }
+
+    /** The effective state of a node, and the input it was computed from */
+    private static class NodeEntry {
+
+        private final NodeState reported;
+        private final NodeState wanted;
+        private final int prematureCrashCount;
+        private final long startTimestamp;
+        private final long transitionTime;
+        private final long initProgressTime;
+        private final boolean unstableDuringInit;
+        private final long computedAt;
+        private final long validUntil;
+        private final NodeState effectiveState;
+        private final NodeStateReason reason;
+
+        NodeEntry(NodeInfo nodeInfo, NodeState wanted, Params params, NodeState effectiveState, NodeStateReason reason) {
+            this.reported = nodeInfo.getReportedState().clone();
+            this.wanted = wanted.clone();
+            this.prematureCrashCount = nodeInfo.getPrematureCrashCount();
+            this.startTimestamp = nodeInfo.getStartTimestamp();
+            this.transitionTime = nodeInfo.getTransitionTime();
+            this.initProgressTime = nodeInfo.getInitProgressTime();
+            this.unstableDuringInit = nodeInfo.recentlyObservedUnstableDuringInit();
+            this.computedAt = params.currentTimeInMillis;
+            this.validUntil = validUntil(nodeInfo, params);
+            this.effectiveState = effectiveState.clone();
+            this.reason = reason;
+        }
+
+        /** Returns whether this is still the effective state of the given node */
+        boolean isValidFor(NodeInfo nodeInfo, NodeState wanted, Params params) {
+            return params.currentTimeInMillis >= computedAt
+                   && params.currentTimeInMillis < validUntil
+                   && prematureCrashCount == nodeInfo.getPrematureCrashCount()
+                   && startTimestamp == nodeInfo.getStartTimestamp()
+                   && transitionTime == nodeInfo.getTransitionTime()
+                   && initProgressTime == nodeInfo.getInitProgressTime()
+                   && unstableDuringInit == nodeInfo.recentlyObservedUnstableDuringInit()
+                   && sameState(reported, nodeInfo.getReportedState())
+                   && sameState(this.wanted, wanted);
+        }
+
+        /** Returns the earliest time at which the effective state may change by time passing alone */
+        private static long validUntil(NodeInfo nodeInfo, Params params) {
+            long validUntil = Long.MAX_VALUE;
+            if (nodeInfo.getReportedState().getState() == State.INITIALIZING && params.maxInitProgressTimeMs > 0)
+                validUntil = earliestFuture(nodeInfo.getInitProgressTime() + params.maxInitProgressTimeMs, validUntil, params);
+            Integer transitionTime = params.transitionTimes.get(nodeInfo.getNode().getType());
+            if (nodeInfo.isStorage() && transitionTime != null && transitionTime != 0)
+                validUntil = earliestFuture(nodeInfo.getTransitionTime() + transitionTime, validUntil, params);
+            return validUntil;
+        }
+
+        private static long earliestFuture(long time, long validUntil, Params params) {
+            return time > params.currentTimeInMillis ? Math.min(time, validUntil) : validUntil;
+        }
+
+        /** Node state equality does not consider descriptions, but these are carried over to the generated state */
+        private static boolean sameState(NodeState a, NodeState b) {
+            return a.equals(b) && Objects.equals(a.getDescription(), b.getDescription());
+        }
+
+    }
+
     static AnnotatedClusterState generatedStateFrom(final Params params) {
+        return generatedStateFrom(params, new Memo());
+    }
+
+    static AnnotatedClusterState generatedStateFrom(final Params params, final Memo memo) {
         final ContentCluster cluster = params.cluster;
         final ClusterState workingState = ClusterState.emptyState();
         final Map<Node, NodeStateReason> nodeStateReasons = new HashMap<>();
 
+        memo.forgetNodesIfChanged(params);
+        memo.recomputedNodes = 0;
         for (final NodeInfo nodeInfo : cluster.getNodeInfos()) {
-            final NodeState nodeState = computeEffectiveNodeState(nodeInfo, params, nodeStateReasons);
+            final NodeState nodeState = effectiveNodeState(nodeInfo, params, nodeStateReasons, memo);
             workingState.setNodeState(nodeInfo.getNode(), nodeState);
         }
+        if (memo.nodes.size() > cluster.getNodeInfos().size()) { // Forget nodes removed from the cluster
+            Set<Node> nodes = new HashSet<>();
+            cluster.getNodeInfos().forEach(nodeInfo -> nodes.add(nodeInfo.getNode()));
+            memo.nodes.keySet().retainAll(nodes);
+        }
 
-        takeDownGroupsWithTooLowAvailability(workingState, nodeStateReasons, params);
+        takeDownGroupsWithTooLowAvailability(workingState, nodeStateReasons, params, memo.groups);
 
         final Optional<ClusterStateReason> reasonToBeDown = clusterDownReason(workingState, params);
         if (reasonToBeDown.isPresent()) {
@@ -157,6 +275,23 @@ public class ClusterStateGenerator {
         baseline.setDescription(wanted.getDescription());
     }
 
+    private static NodeState effectiveNodeState(NodeInfo nodeInfo, Params params,
+                                                Map<Node, NodeStateReason> nodeStateReasons, Memo memo) {
+        final Node node = nodeInfo.getNode();
+        final NodeState wanted = nodeInfo.getWantedState();
+        NodeEntry entry = memo.nodes.get(node);
+        if (entry == null || ! entry.isValidFor(nodeInfo, wanted, params)) {
+            NodeState effectiveState = computeEffectiveNodeState(nodeInfo, params, nodeStateReasons);
+            entry = new NodeEntry(nodeInfo, wanted, params, effectiveState, nodeStateReasons.get(node));
+            memo.nodes.put(node, entry);
+            memo.recomputedNodes++;
+            return effectiveState;
+        }
+        if (entry.reason != null)
+            nodeStateReasons.put(node, entry.reason);
+        return entry.effectiveState.clone();
+    }
+
     private static NodeState computeEffectiveNodeState(final NodeInfo nodeInfo,
                                                        final Params params,
                                                        Map<Node, NodeStateReason> nodeStateReasons)
@@ -262,12 +397,14 @@ public class ClusterStateGenerator {
 
     private static void takeDownGroupsWithTooLowAvailability(final ClusterState workingState,
                                                              Map<Node, NodeStateReason> nodeStateReasons,
-                                                             final Params params)
+                                                             final Params params,
+                                                             GroupAvailabilityCalculator.Memo memo)
     {
         final GroupAvailabilityCalculator calc = new GroupAvailabilityCalculator.Builder()
                 .withMinNodeRatioPerGroup(params.minNodeRatioPerGroup)
                 .withDistribution(params.cluster.getDistribution())
                 .withNodesSafelySetToMaintenance(params.cluster.nodesSafelySetTo(State.MAINTENANCE))
+                .withMemo(memo)
                 .build();
         GroupAvailabilityCalculator.Result result = calc.calculate(workingState);
 
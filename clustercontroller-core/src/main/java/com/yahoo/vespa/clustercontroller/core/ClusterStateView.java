@@ -7,7 +7,6 @@ import com.yahoo.vdslib.state.NodeState;
 import com.yahoo.vdslib.state.NodeType;
 import com.yahoo.vdslib.state.State;
 import com.yahoo.vespa.clustercontroller.core.hostinfo.HostInfo;
-import com.yahoo.vespa.clustercontroller.core.hostinfo.StorageNodeStatsBridge;
 
 import java.text.ParseException;
 import java.util.HashSet;
@@ -95,8 +94,7 @@ public class ClusterStateView {
             return;
         }
 
-        statsAggregator.updateForDistributor(node.getNodeIndex(),
-                StorageNodeStatsBridge.generate(hostInfo.getDistributor()));
+        statsAggregator.updateForDistributor(node.getNodeIndex(), hostInfo.getContentClusterStats());
     }
 
     public ClusterStatsAggregator getStatsAggregator() {
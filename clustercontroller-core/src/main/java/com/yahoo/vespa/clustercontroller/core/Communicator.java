@@ -20,6 +20,9 @@ public interface Communicator {
 
     void activateClusterStateVersion(int clusterStateVersion, NodeInfo node, Waiter<ActivateClusterStateVersionRequest> waiter);
 
+    /** Returns the total number of bytes of cluster state bundles sent by this, if known */
+    default long clusterStateBundleBytesSent() { return 0; }
+
     void shutdown();
 
 }
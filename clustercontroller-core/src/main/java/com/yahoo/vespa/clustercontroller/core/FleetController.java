@@ -63,6 +63,7 @@ public class FleetController implements NodeListener, SlobrokListener, SystemSta
     private final StateChangeHandler stateChangeHandler;
     private final SystemStateBroadcaster systemStateBroadcaster;
     private final StateVersionTracker stateVersionTracker;
+    private final ClusterStateGenerator.Memo stateGeneratorMemo = new ClusterStateGenerator.Memo();
     private final StatusPageServerInterface statusPageServer;
     private final RpcServer rpcServer;
     private final DatabaseHandler database;
@@ -174,7 +175,7 @@ public class FleetController implements NodeListener, SlobrokListener, SystemSta
                 options.clusterName,
                 options.nodes,
                 options.storageDistribution);
-        var stateGatherer = new NodeStateGatherer(timer, timer, log);
+        var stateGatherer = new NodeStateGatherer(timer, timer, log, options.hostInfoDecoderThreads);
         var communicator = new RPCCommunicator(
                 RPCCommunicator.createRealSupervisor(),
                 timer,
@@ -295,6 +296,7 @@ public class FleetController implements NodeListener, SlobrokListener, SystemSta
             rpcServer.shutdown();
         }
         communicator.shutdown();
+        stateGatherer.shutdown();
         nodeLookup.shutdown();
     }
 
@@ -724,9 +726,11 @@ public class FleetController implements NodeListener, SlobrokListener, SystemSta
                 firstAllowedStateBroadcast = currentTime;
                 inMasterMoratorium = false;
             }
+            long bytesSentBefore = communicator.clusterStateBundleBytesSent();
             sentAny = systemStateBroadcaster.broadcastNewStateBundleIfRequired(
                     databaseContext, communicator, database.getLastKnownStateBundleVersionWrittenBySelf());
             if (sentAny) {
+                metricUpdater.addClusterStateBroadcastBytes(communicator.clusterStateBundleBytesSent() - bytesSentBefore);
                 // FIXME won't this inhibit resending to unresponsive nodes?
                 nextStateSendTime = currentTime + options.minTimeBetweenNewSystemStates;
             }
@@ -1022,7 +1026,7 @@ public class FleetController implements NodeListener, SlobrokListener, SystemSta
         params.currentTimeInMilllis(timer.getCurrentTimeInMillis())
                 .cluster(cluster)
                 .lowestObservedDistributionBitCount(stateVersionTracker.getLowestObservedDistributionBits());
-        return ClusterStateGenerator.generatedStateFrom(params);
+        return ClusterStateGenerator.generatedStateFrom(params, stateGeneratorMemo);
     }
 
     private void emitEventsForAlteredStateEdges(final ClusterStateBundle fromState,
@@ -111,6 +111,9 @@ public class FleetControllerOptions implements Cloneable {
     public int nodeStateRequestTimeoutLatestPercentage = 95;
     public int nodeStateRequestRoundTripTimeMaxSeconds = 5;
 
+    /** Number of threads decoding the host info of node state replies, or 0 to decode in the thread receiving them. */
+    public int hostInfoDecoderThreads = 2;
+
     public int minTimeBetweenNewSystemStates = 0;
     public boolean showLocalSystemStatesInEventLog = true;
 
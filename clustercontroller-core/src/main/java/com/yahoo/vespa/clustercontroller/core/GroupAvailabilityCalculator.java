@@ -8,10 +8,13 @@ import com.yahoo.vdslib.distribution.GroupVisitor;
 import com.yahoo.vdslib.state.ClusterState;
 import com.yahoo.vdslib.state.Node;
 import com.yahoo.vdslib.state.NodeType;
+import com.yahoo.vdslib.state.State;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,15 +25,67 @@ class GroupAvailabilityCalculator {
     private final double minNodeRatioPerGroup;
     private final int safeMaintenanceGroupThreshold;
     private final List<Integer> nodesSafelySetToMaintenance;
+    private final Memo memo;
 
     private GroupAvailabilityCalculator(Distribution distribution,
                                         double minNodeRatioPerGroup,
                                         int safeMaintenanceGroupThreshold,
-                                        List<Integer> nodesSafelySetToMaintenance) {
+                                        List<Integer> nodesSafelySetToMaintenance,
+                                        Memo memo) {
         this.distribution = distribution;
         this.minNodeRatioPerGroup = minNodeRatioPerGroup;
         this.safeMaintenanceGroupThreshold = safeMaintenanceGroupThreshold;
         this.nodesSafelySetToMaintenance = nodesSafelySetToMaintenance;
+        this.memo = memo;
+    }
+
+    /**
+     * The results of the leaf groups of previous calculations, which are reused for groups where neither
+     * the states of the nodes nor the number of nodes safely set to maintenance have changed.
+     *
+     * This is not thread safe.
+     */
+    static class Memo {
+
+        private final Map<Group, GroupResult> results = new IdentityHashMap<>();
+        private Distribution distribution;
+        private double minNodeRatioPerGroup;
+        private int safeMaintenanceGroupThreshold;
+        private int recomputedGroups = 0;
+
+        /** Returns the number of leaf groups whose result was computed rather than reused in the last calculation */
+        int recomputedGroups() { return recomputedGroups; }
+
+        private void prepareFor(GroupAvailabilityCalculator calculator) {
+            recomputedGroups = 0;
+            if (calculator.distribution == distribution
+                && calculator.minNodeRatioPerGroup == minNodeRatioPerGroup
+                && calculator.safeMaintenanceGroupThreshold == safeMaintenanceGroupThreshold) return;
+
+            results.clear();
+            distribution = calculator.distribution;
+            minNodeRatioPerGroup = calculator.minNodeRatioPerGroup;
+            safeMaintenanceGroupThreshold = calculator.safeMaintenanceGroupThreshold;
+        }
+
+    }
+
+    /** The nodes to implicitly take down in a leaf group, and the input they were computed from */
+    private static class GroupResult {
+
+        private final State[] nodeStates;
+        private final int nodesSafelySetToMaintenance;
+        private final Set<Integer> implicitlyMaintained;
+        private final Set<Integer> implicitlyDown;
+
+        GroupResult(State[] nodeStates, int nodesSafelySetToMaintenance,
+                    Set<Integer> implicitlyMaintained, Set<Integer> implicitlyDown) {
+            this.nodeStates = nodeStates;
+            this.nodesSafelySetToMaintenance = nodesSafelySetToMaintenance;
+            this.implicitlyMaintained = implicitlyMaintained;
+            this.implicitlyDown = implicitlyDown;
+        }
+
     }
 
     public static class Builder {
@@ -38,6 +93,7 @@ class GroupAvailabilityCalculator {
         private double minNodeRatioPerGroup = 1.0;
         private int safeMaintenanceGroupThreshold = 2;
         private final List<Integer> nodesSafelySetToMaintenance = new ArrayList<>();
+        private Memo memo = new Memo();
 
         Builder withDistribution(Distribution distribution) {
             this.distribution = distribution;
@@ -61,9 +117,14 @@ class GroupAvailabilityCalculator {
             this.nodesSafelySetToMaintenance.addAll(nodesSafelySetToMaintenance);
             return this;
         }
+        /** Sets a memo of previous results to reuse, and to update with the results of this */
+        Builder withMemo(Memo memo) {
+            this.memo = memo;
+            return this;
+        }
         GroupAvailabilityCalculator build() {
             return new GroupAvailabilityCalculator(distribution, minNodeRatioPerGroup,
-                    safeMaintenanceGroupThreshold, nodesSafelySetToMaintenance);
+                    safeMaintenanceGroupThreshold, nodesSafelySetToMaintenance, memo);
         }
     }
 
@@ -129,23 +190,43 @@ class GroupAvailabilityCalculator {
             return nodesInGroupSafelySetToMaintenance.size();
         }
 
-        private void markAllAvailableGroupNodeIndicesAsDown(Group group) {
-            candidateNodesForSettingDown(group).forEach(n -> implicitlyDown.add(n.index()));
+        private State nodeState(ConfiguredNode node) {
+            return clusterState.getNodeState(new Node(NodeType.STORAGE, node.index())).getState();
         }
 
-        private void markAllAvailableGroupNodeIndicesAsMaintained(Group group) {
-            candidateNodesForSettingMaintenance(group).forEach(n -> implicitlyMaintained.add(n.index()));
+        private boolean hasInput(GroupResult result, Group group, int nodesSafelySetToMaintenance) {
+            if (result.nodesSafelySetToMaintenance != nodesSafelySetToMaintenance) return false;
+            List<ConfiguredNode> nodes = group.getNodes();
+            if (result.nodeStates.length != nodes.size()) return false;
+            for (int i = 0; i < result.nodeStates.length; i++)
+                if (result.nodeStates[i] != nodeState(nodes.get(i))) return false;
+            return true;
+        }
+
+        private GroupResult computeGroupResult(Group group, int nodesSafelySetToMaintenance) {
+            Set<Integer> maintained = new HashSet<>();
+            Set<Integer> down = new HashSet<>();
+            if (safeMaintenanceGroupThreshold > 0 && nodesSafelySetToMaintenance >= safeMaintenanceGroupThreshold) {
+                candidateNodesForSettingMaintenance(group).forEach(n -> maintained.add(n.index()));
+            } else if (computeGroupAvailability(group) < minNodeRatioPerGroup) {
+                candidateNodesForSettingDown(group).forEach(n -> down.add(n.index()));
+            }
+            State[] nodeStates = group.getNodes().stream().map(this::nodeState).toArray(State[]::new);
+            return new GroupResult(nodeStates, nodesSafelySetToMaintenance, maintained, down);
         }
 
         @Override
         public boolean visitGroup(Group group) {
             if (group.isLeafGroup()) {
-                if (safeMaintenanceGroupThreshold > 0 &&
-                        computeNodesSafelySetToMaintenance(group) >= safeMaintenanceGroupThreshold) {
-                    markAllAvailableGroupNodeIndicesAsMaintained(group);
-                } else if (computeGroupAvailability(group) < minNodeRatioPerGroup) {
-                    markAllAvailableGroupNodeIndicesAsDown(group);
+                int nodesSafelySetToMaintenance = computeNodesSafelySetToMaintenance(group);
+                GroupResult result = memo.results.get(group);
+                if (result == null || ! hasInput(result, group, nodesSafelySetToMaintenance)) {
+                    result = computeGroupResult(group, nodesSafelySetToMaintenance);
+                    memo.results.put(group, result);
+                    memo.recomputedGroups++;
                 }
+                implicitlyMaintained.addAll(result.implicitlyMaintained);
+                implicitlyDown.addAll(result.implicitlyDown);
             }
             return true;
         }
@@ -188,6 +269,7 @@ class GroupAvailabilityCalculator {
             // Implicit group takedown only applies to hierarchic cluster setups.
             return new Result();
         }
+        memo.prepareFor(this);
         InsufficientAvailabilityGroupVisitor visitor = new InsufficientAvailabilityGroupVisitor(
                 state, nodesSafelySetToMaintenance, safeMaintenanceGroupThreshold);
         distribution.visitGroups(visitor);
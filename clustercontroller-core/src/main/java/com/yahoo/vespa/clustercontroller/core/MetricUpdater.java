@@ -101,6 +101,10 @@ public class MetricUpdater {
         }
     }
 
+    public void addClusterStateBroadcastBytes(long bytes) {
+        metricReporter.add("cluster-state-broadcast-bytes", bytes);
+    }
+
     public void recordNewNodeEvent() {
         // TODO(hakonhall): Replace add() with a persistent aggregate metric.
         metricReporter.add("node-event", 1);
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.clustercontroller.core;
 
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.jrt.ErrorCode;
 import com.yahoo.jrt.Target;
 import java.util.logging.Level;
@@ -9,12 +10,19 @@ import com.yahoo.vdslib.state.State;
 import com.yahoo.vespa.clustercontroller.core.hostinfo.HostInfo;
 import com.yahoo.vespa.clustercontroller.core.listeners.NodeListener;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
 /**
  * Collects the state of all nodes by making remote requests and handling the replies.
+ *
+ * The host info of replies is decoded by a pool of decoder threads, if any, and handed over to
+ * the thread processing responses through a lock-free queue, such that the cost of parsing the
+ * host info of many nodes is not paid by the controller thread.
  */
 public class NodeStateGatherer {
 
@@ -22,14 +30,33 @@ public class NodeStateGatherer {
 
     private final Object monitor;
     private final Timer timer;
-    private final List<GetNodeStateRequest> replies = new LinkedList<>();
+    private final ExecutorService hostInfoDecoder; // null to decode in the thread receiving the reply
+    private final Queue<DecodedReply> replies = new ConcurrentLinkedQueue<>();
+
+    /** A reply to a get node state request, with its host info decoded, if the reply was successful */
+    private static class DecodedReply {
+
+        final GetNodeStateRequest request;
+        final HostInfo hostInfo;
+
+        DecodedReply(GetNodeStateRequest request, HostInfo hostInfo) {
+            this.request = request;
+            this.hostInfo = hostInfo;
+        }
+
+    }
 
     private class NodeStateWaiter implements Communicator.Waiter<GetNodeStateRequest> {
         @Override
         public void done(GetNodeStateRequest reply) {
-            synchronized (monitor) {
-                replies.add(reply);
-                monitor.notifyAll();
+            if (hostInfoDecoder == null) {
+                decode(reply);
+                return;
+            }
+            try {
+                hostInfoDecoder.execute(() -> decode(reply));
+            } catch (RejectedExecutionException e) {
+                log.log(Level.FINE, () -> "Dropping get node state reply from " + reply.getNodeInfo().getNode() + " during shutdown");
             }
         }
     }
@@ -41,9 +68,26 @@ public class NodeStateGatherer {
     private long nodeStateRequestTimeoutMS = 10 * 1000;
 
     public NodeStateGatherer(Object monitor, Timer timer, EventLog log) {
+        this(monitor, timer, log, 0);
+    }
+
+    /**
+     * Creates a node state gatherer which decodes host info using the given number of threads,
+     * or in the thread receiving the reply if this is 0.
+     */
+    public NodeStateGatherer(Object monitor, Timer timer, EventLog log, int hostInfoDecoderThreads) {
         this.monitor = monitor;
         this.timer = timer;
         this.eventLog = log;
+        this.hostInfoDecoder = hostInfoDecoderThreads == 0
+                               ? null
+                               : Executors.newFixedThreadPool(hostInfoDecoderThreads, new DaemonThreadFactory("hostinfo-decoder-"));
+    }
+
+    /** Stops decoding host info. Replies received after this are dropped. */
+    public void shutdown() {
+        if (hostInfoDecoder != null)
+            hostInfoDecoder.shutdownNow();
     }
 
     public void setMaxSlobrokDisconnectGracePeriod(int millisecs) { maxSlobrokDisconnectGracePeriod = millisecs; }
@@ -92,12 +136,32 @@ public class NodeStateGatherer {
         return sentAnyMessages;
     }
 
+    /** Decodes the host info of the given reply, and hands it over to be processed */
+    private void decode(GetNodeStateRequest request) {
+        HostInfo hostInfo = null;
+        if ( ! request.getReply().isError()) {
+            try {
+                hostInfo = HostInfo.createHostInfo(request.getReply().getHostInfo());
+                if (request.getNodeInfo().isDistributor())
+                    hostInfo.getContentClusterStats(); // Compute these here, rather than in the controller thread
+            } catch (Throwable t) { // The reply must be handed over regardless, or the request stays pending
+                log.log(Level.WARNING, "Failed to decode host info from " + request.getNodeInfo().getNode(), t);
+                hostInfo = new HostInfo();
+            }
+        }
+        replies.add(new DecodedReply(request, hostInfo));
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
     /** Reads replies to get node state requests and create events. */
     public boolean processResponses(NodeListener listener) {
         boolean processedAnyResponses = false;
         long currentTime = timer.getCurrentTimeInMillis();
         synchronized(monitor) {
-            for(GetNodeStateRequest req : replies) {
+            for (DecodedReply decoded; (decoded = replies.poll()) != null; ) {
+                GetNodeStateRequest req = decoded.request;
                 processedAnyResponses = true;
                 NodeInfo info = req.getNodeInfo();
 
@@ -141,12 +205,11 @@ public class NodeStateGatherer {
 
                 // Important: The old host info should be accessible in info.getHostInfo(), see interface.
                 // Therefore, setHostInfo() must be called AFTER handleUpdatedHostInfo().
-                HostInfo hostInfo = HostInfo.createHostInfo(reply.getHostInfo());
+                HostInfo hostInfo = decoded.hostInfo;
                 listener.handleUpdatedHostInfo(info, hostInfo);
                 info.setHostInfo(hostInfo);
 
             }
-            replies.clear();
         }
         return processedAnyResponses;
     }
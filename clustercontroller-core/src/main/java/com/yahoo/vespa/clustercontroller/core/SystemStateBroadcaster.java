@@ -297,10 +297,12 @@ public class SystemStateBroadcaster {
         }
 
         List<NodeInfo> recipients = resolveStateVersionSendSet(dbContext);
+        ClusterStateBundle bundleWithStartupTimestamps = null; // The same for all nodes, so computed at most once
         for (NodeInfo node : recipients) {
             if (nodeNeedsToObserveStartupTimestamps(node)) {
-                // TODO this is the same for all nodes, compute only once
-                ClusterStateBundle modifiedBundle = clusterStateBundle.cloneWithMapper(state -> buildModifiedClusterState(state, dbContext));
+                if (bundleWithStartupTimestamps == null)
+                    bundleWithStartupTimestamps = clusterStateBundle.cloneWithMapper(state -> buildModifiedClusterState(state, dbContext));
+                ClusterStateBundle modifiedBundle = bundleWithStartupTimestamps;
                 context.log(log,
                             Level.FINE,
                             () -> "Sending modified cluster state version " + baselineState.getVersion() +
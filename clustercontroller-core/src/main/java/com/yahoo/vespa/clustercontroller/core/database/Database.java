@@ -6,6 +6,7 @@ import com.yahoo.vdslib.state.NodeState;
 import com.yahoo.vespa.clustercontroller.core.ClusterStateBundle;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Abstract class defining the functions needed by a database back end for the fleetcontroller.
@@ -99,4 +100,65 @@ public abstract class Database {
 
     public abstract ClusterStateBundle retrieveLastPublishedStateBundle();
 
+    /**
+     * Stores the non-null values of the given writes, and calls the given callback when done, possibly
+     * in another thread. The callback receives null if all values were stored, a {@link CasWriteFailed}
+     * if the expected version of a znode did not match, in which case nothing has been written,
+     * or some other exception if the writes failed, in which case they may or may not have taken place.
+     *
+     * Preconditions are as for the corresponding store methods. The values written determine the
+     * expected versions of subsequent writes, so a new call should not be made before the previous
+     * one has completed.
+     *
+     * This default implementation stores each value synchronously by the corresponding store method.
+     */
+    public void storeAsync(Writes writes, Consumer<Exception> whenDone) {
+        try {
+            boolean stored = (writes.latestSystemStateVersion() == null || storeLatestSystemStateVersion(writes.latestSystemStateVersion()))
+                             && (writes.startTimestamps() == null || storeStartTimestamps(writes.startTimestamps()))
+                             && (writes.wantedStates() == null || storeWantedStates(writes.wantedStates()))
+                             && (writes.lastPublishedStateBundle() == null || storeLastPublishedStateBundle(writes.lastPublishedStateBundle()));
+            whenDone.accept(stored ? null : new IllegalStateException("Failed to store " + writes));
+        }
+        catch (CasWriteFailed e) {
+            whenDone.accept(e);
+        }
+    }
+
+    /** Values to be stored together. Each value is stored only if it is non-null. */
+    public static class Writes {
+
+        private final Integer latestSystemStateVersion;
+        private final Map<Node, Long> startTimestamps;
+        private final Map<Node, NodeState> wantedStates;
+        private final ClusterStateBundle lastPublishedStateBundle;
+
+        public Writes(Integer latestSystemStateVersion, Map<Node, Long> startTimestamps,
+                      Map<Node, NodeState> wantedStates, ClusterStateBundle lastPublishedStateBundle) {
+            this.latestSystemStateVersion = latestSystemStateVersion;
+            this.startTimestamps = startTimestamps;
+            this.wantedStates = wantedStates;
+            this.lastPublishedStateBundle = lastPublishedStateBundle;
+        }
+
+        public Integer latestSystemStateVersion() { return latestSystemStateVersion; }
+        public Map<Node, Long> startTimestamps() { return startTimestamps; }
+        public Map<Node, NodeState> wantedStates() { return wantedStates; }
+        public ClusterStateBundle lastPublishedStateBundle() { return lastPublishedStateBundle; }
+
+        public boolean isEmpty() {
+            return latestSystemStateVersion == null && startTimestamps == null && wantedStates == null && lastPublishedStateBundle == null;
+        }
+
+        @Override
+        public String toString() {
+            return "writes of" +
+                   (latestSystemStateVersion != null ? " latest system state version " + latestSystemStateVersion : "") +
+                   (startTimestamps != null ? " " + startTimestamps.size() + " start timestamps" : "") +
+                   (wantedStates != null ? " " + wantedStates.size() + " wanted states" : "") +
+                   (lastPublishedStateBundle != null ? " cluster state bundle version " + lastPublishedStateBundle.getVersion() : "");
+        }
+
+    }
+
 }
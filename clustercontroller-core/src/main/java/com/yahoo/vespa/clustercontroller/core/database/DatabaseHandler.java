@@ -55,6 +55,27 @@ public class DatabaseHandler {
             startTimestamps = null;
         }
     }
+
+    /**
+     * Writes of pending data which are in progress, with the outcome once they are completed.
+     * The outcome is set by the database, possibly in another thread.
+     */
+    private static class WritesInProgress {
+        final Database.Writes writes;
+        volatile boolean completed = false;
+        volatile Exception failure = null;
+
+        WritesInProgress(Data pending) {
+            this.writes = new Database.Writes(pending.lastSystemStateVersion, pending.startTimestamps,
+                                              pending.wantedStates, pending.clusterStateBundle);
+        }
+
+        void complete(Exception failure) {
+            this.failure = failure;
+            this.completed = true;
+        }
+    }
+
     private class DatabaseListener implements Database.DatabaseListener {
         public void handleZooKeeperSessionDown() {
             fleetControllerContext.log(logger, Level.FINE, () -> "Lost contact with zookeeper server");
@@ -88,6 +109,9 @@ public class DatabaseHandler {
     private final DatabaseListener dbListener = new DatabaseListener();
     private final Data currentlyStored = new Data();
     private final Data pendingStore = new Data();
+    private WritesInProgress writesInProgress = null;
+    private long retryFailedWritesAt = 0;
+    private int minimumWaitBeforeRetryingFailedWrites = 1000;
     private int lastKnownStateBundleVersionWrittenBySelf = -1;
     private long lastZooKeeperConnectionAttempt = 0;
     private int minimumWaitBetweenFailedConnectionAttempts = 10000;
@@ -157,6 +181,7 @@ public class DatabaseHandler {
             pendingStore.clearNonClusterStateFields();
         }
         pendingStore.masterVote = currentVote;
+        writesInProgress = null; // Any outcome belongs to the previous session, and pending writes are retried
         fleetControllerContext.log(logger, Level.FINE, () -> "Cleared session metadata. Pending master vote is now " + pendingStore.masterVote);
     }
 
@@ -296,52 +321,67 @@ public class DatabaseHandler {
                 return true;
             }
         }
-        if (pendingStore.lastSystemStateVersion != null) {
+        if (writesInProgress != null) {
+            // The znode versions expected by the next writes are those resulting from these, so only one
+            // set of writes is in progress at any time
+            if ( ! writesInProgress.completed) return didWork;
+            completeWrites();
             didWork = true;
-            fleetControllerContext.log(logger, Level.FINE, () -> "Attempting to store last system state version " +
-                                                                 pendingStore.lastSystemStateVersion + " into zookeeper.");
-            if (database.storeLatestSystemStateVersion(pendingStore.lastSystemStateVersion)) {
-                currentlyStored.lastSystemStateVersion = pendingStore.lastSystemStateVersion;
-                pendingStore.lastSystemStateVersion = null;
-            } else {
-                return true;
+        }
+        if (timer.getCurrentTimeInMillis() < retryFailedWritesAt) return didWork;
+        WritesInProgress writes = new WritesInProgress(pendingStore);
+        if (writes.writes.isEmpty()) return didWork;
+
+        fleetControllerContext.log(logger, Level.FINE, () -> "Attempting to store " + writes.writes + " into zookeeper.");
+        writesInProgress = writes;
+        database.storeAsync(writes.writes, failure -> {
+            writes.complete(failure);
+            synchronized (monitor) {
+                monitor.notifyAll();
             }
+        });
+        if (writes.completed) // Completed synchronously
+            completeWrites();
+        return true;
+    }
+
+    /** Records the completed writes in progress as stored and no longer pending, unless they failed */
+    private void completeWrites() {
+        WritesInProgress completed = writesInProgress;
+        writesInProgress = null;
+        if (completed.failure instanceof CasWriteFailed)
+            throw (CasWriteFailed) completed.failure;
+        if (completed.failure != null) {
+            // The database logs failures as warnings, so this is only logged at FINE
+            retryFailedWritesAt = timer.getCurrentTimeInMillis() + minimumWaitBeforeRetryingFailedWrites;
+            fleetControllerContext.log(logger, Level.FINE, () -> "Failed to store " + completed.writes + ": " +
+                                                                 completed.failure.getMessage() + ". Will retry in " +
+                                                                 minimumWaitBeforeRetryingFailedWrites + " ms");
+            return;
+        }
+
+        Database.Writes written = completed.writes;
+        if (written.latestSystemStateVersion() != null) {
+            currentlyStored.lastSystemStateVersion = written.latestSystemStateVersion();
+            if (written.latestSystemStateVersion().equals(pendingStore.lastSystemStateVersion))
+                pendingStore.lastSystemStateVersion = null;
         }
-        if (pendingStore.startTimestamps != null) {
-            didWork = true;
-            fleetControllerContext.log(logger, Level.FINE, () -> "Attempting to store " + pendingStore.startTimestamps.size() +
-                                                                 " start timestamps into zookeeper.");
-            if (database.storeStartTimestamps(pendingStore.startTimestamps)) {
-                currentlyStored.startTimestamps = pendingStore.startTimestamps;
+        if (written.startTimestamps() != null) {
+            currentlyStored.startTimestamps = written.startTimestamps();
+            if (written.startTimestamps() == pendingStore.startTimestamps)
                 pendingStore.startTimestamps = null;
-            } else {
-                return true;
-            }
         }
-        if (pendingStore.wantedStates != null) {
-            didWork = true;
-            fleetControllerContext.log(logger, Level.FINE, () -> "Attempting to store "
-                                                                 + pendingStore.wantedStates.size() + " wanted states into zookeeper.");
-            if (database.storeWantedStates(pendingStore.wantedStates)) {
-                currentlyStored.wantedStates = pendingStore.wantedStates;
+        if (written.wantedStates() != null) {
+            currentlyStored.wantedStates = written.wantedStates();
+            if (written.wantedStates() == pendingStore.wantedStates)
                 pendingStore.wantedStates = null;
-            } else {
-                return true;
-            }
         }
-        if (pendingStore.clusterStateBundle != null) {
-            didWork = true;
-            fleetControllerContext.log(logger, Level.FINE, () -> "Attempting to store last cluster state bundle with version " +
-                                                                 pendingStore.clusterStateBundle.getVersion() + " into zookeeper.");
-            if (database.storeLastPublishedStateBundle(pendingStore.clusterStateBundle)) {
-                lastKnownStateBundleVersionWrittenBySelf = pendingStore.clusterStateBundle.getVersion();
-                currentlyStored.clusterStateBundle = pendingStore.clusterStateBundle;
+        if (written.lastPublishedStateBundle() != null) {
+            lastKnownStateBundleVersionWrittenBySelf = written.lastPublishedStateBundle().getVersion();
+            currentlyStored.clusterStateBundle = written.lastPublishedStateBundle();
+            if (written.lastPublishedStateBundle() == pendingStore.clusterStateBundle)
                 pendingStore.clusterStateBundle = null;
-            } else {
-                return true;
-            }
         }
-        return didWork;
     }
 
     public void setMasterVote(DatabaseContext databaseContext, int wantedMasterCandidate) throws InterruptedException {
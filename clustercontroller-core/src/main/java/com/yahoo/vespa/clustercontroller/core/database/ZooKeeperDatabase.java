@@ -10,8 +10,11 @@ import com.yahoo.vespa.clustercontroller.core.FleetControllerContext;
 import com.yahoo.vespa.clustercontroller.core.rpc.EnvelopedClusterStateBundleCodec;
 import com.yahoo.vespa.clustercontroller.core.rpc.SlimeClusterStateBundleCodec;
 import com.yahoo.vespa.zookeeper.client.ZkClientConfigBuilder;
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs;
@@ -24,10 +27,12 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,8 +51,9 @@ public class ZooKeeperDatabase extends Database {
     private final MasterDataGatherer masterDataGatherer;
     // Expected ZK znode versions. Note: these are _not_ -1 as that would match anything.
     // We expect the caller to invoke the load methods prior to calling any store methods.
-    private int lastKnownStateBundleZNodeVersion = -2;
-    private int lastKnownStateVersionZNodeVersion = -2;
+    // These are volatile as they are also updated on completion of asynchronous writes.
+    private volatile int lastKnownStateBundleZNodeVersion = -2;
+    private volatile int lastKnownStateVersionZNodeVersion = -2;
 
     private class ZooKeeperWatcher implements Watcher {
         private Event.KeeperState state = null;
@@ -235,6 +241,20 @@ public class ZooKeeperDatabase extends Database {
     }
 
     public boolean storeWantedStates(Map<Node, NodeState> states) {
+        byte[] val = serializeWantedStates(states);
+        try{
+            context.log(log, Level.FINE, () -> "Storing wanted states at '" + paths.wantedStates() + "'");
+            session.setData(paths.wantedStates(), val, -1);
+            return true;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            maybeLogExceptionWarning(e, "Failed to store wanted states in ZooKeeper");
+            return false;
+        }
+    }
+
+    private byte[] serializeWantedStates(Map<Node, NodeState> states) {
         if (states == null) states = new TreeMap<>();
         StringBuilder sb = new StringBuilder();
         for (Node node : states.keySet()) {
@@ -248,17 +268,7 @@ public class ZooKeeperDatabase extends Database {
                 sb.append(node.toString()).append(':').append(toStore.serialize(true)).append('\n');
             }
         }
-        byte[] val = sb.toString().getBytes(utf8);
-        try{
-            context.log(log, Level.FINE, () -> "Storing wanted states at '" + paths.wantedStates() + "'");
-            session.setData(paths.wantedStates(), val, -1);
-            return true;
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } catch (Exception e) {
-            maybeLogExceptionWarning(e, "Failed to store wanted states in ZooKeeper");
-            return false;
-        }
+        return sb.toString().getBytes(utf8);
     }
 
     public Map<Node, NodeState> retrieveWantedStates() {
@@ -293,13 +303,7 @@ public class ZooKeeperDatabase extends Database {
 
     @Override
     public boolean storeStartTimestamps(Map<Node, Long> timestamps) {
-        if (timestamps == null) timestamps = new TreeMap<>();
-        StringBuilder sb = new StringBuilder();
-        for (Node n : timestamps.keySet()) {
-            Long timestamp = timestamps.get(n);
-            sb.append(n.toString()).append(':').append(timestamp).append('\n');
-        }
-        byte val[] = sb.toString().getBytes(utf8);
+        byte[] val = serializeStartTimestamps(timestamps);
         try{
             context.log(log, Level.FINE, () -> "Storing start timestamps at '" + paths.startTimestamps() + "'");
             session.setData(paths.startTimestamps(), val, -1);
@@ -312,6 +316,16 @@ public class ZooKeeperDatabase extends Database {
         }
     }
 
+    private static byte[] serializeStartTimestamps(Map<Node, Long> timestamps) {
+        if (timestamps == null) timestamps = new TreeMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (Node n : timestamps.keySet()) {
+            Long timestamp = timestamps.get(n);
+            sb.append(n.toString()).append(':').append(timestamp).append('\n');
+        }
+        return sb.toString().getBytes(utf8);
+    }
+
     @Override
     public Map<Node, Long> retrieveStartTimestamps() {
         try{
@@ -388,4 +402,66 @@ public class ZooKeeperDatabase extends Database {
         return ClusterStateBundle.ofBaselineOnly(AnnotatedClusterState.emptyState());
     }
 
+    /** Stores the given writes in a single ZooKeeper multi-op transaction, which is applied either fully or not at all */
+    @Override
+    public void storeAsync(Writes writes, Consumer<Exception> whenDone) {
+        List<Op> operations = new ArrayList<>();
+        int stateVersionIndex = -1, stateBundleIndex = -1;
+        int expectedStateVersionZNodeVersion = lastKnownStateVersionZNodeVersion;
+        int expectedStateBundleZNodeVersion = lastKnownStateBundleZNodeVersion;
+        if (writes.latestSystemStateVersion() != null) {
+            context.log(log, Level.INFO, "Storing new cluster state version in ZooKeeper: " + writes.latestSystemStateVersion());
+            stateVersionIndex = operations.size();
+            operations.add(Op.setData(paths.latestVersion(),
+                                      Integer.toString(writes.latestSystemStateVersion()).getBytes(utf8),
+                                      expectedStateVersionZNodeVersion));
+        }
+        if (writes.startTimestamps() != null)
+            operations.add(Op.setData(paths.startTimestamps(), serializeStartTimestamps(writes.startTimestamps()), -1));
+        if (writes.wantedStates() != null)
+            operations.add(Op.setData(paths.wantedStates(), serializeWantedStates(writes.wantedStates()), -1));
+        if (writes.lastPublishedStateBundle() != null) {
+            stateBundleIndex = operations.size();
+            byte[] encodedBundle = new SlimeClusterStateBundleCodec().encodeWithEnvelope(writes.lastPublishedStateBundle());
+            operations.add(Op.setData(paths.publishedStateBundle(), encodedBundle, expectedStateBundleZNodeVersion));
+        }
+        if (operations.isEmpty()) {
+            whenDone.accept(null);
+            return;
+        }
+
+        int finalStateVersionIndex = stateVersionIndex, finalStateBundleIndex = stateBundleIndex;
+        AsyncCallback.MultiCallback callback = (resultCode, path, ctx, results) -> {
+            KeeperException.Code code = KeeperException.Code.get(resultCode);
+            if (code == KeeperException.Code.OK) {
+                if (finalStateVersionIndex >= 0)
+                    lastKnownStateVersionZNodeVersion = ((OpResult.SetDataResult) results.get(finalStateVersionIndex)).getStat().getVersion();
+                if (finalStateBundleIndex >= 0)
+                    lastKnownStateBundleZNodeVersion = ((OpResult.SetDataResult) results.get(finalStateBundleIndex)).getStat().getVersion();
+                context.log(log, Level.FINE, () -> "Stored " + writes);
+                whenDone.accept(null);
+            }
+            else if (code == KeeperException.Code.BADVERSION) {
+                String znode = isBadVersion(results, finalStateVersionIndex)
+                               ? String.format("cluster state version znode (expected %d)", expectedStateVersionZNodeVersion)
+                               : String.format("cluster state bundle znode (expected %d)", expectedStateBundleZNodeVersion);
+                whenDone.accept(new CasWriteFailed("version mismatch in " + znode + " when storing " + writes,
+                                                   KeeperException.create(code)));
+            }
+            else {
+                KeeperException e = KeeperException.create(code);
+                maybeLogExceptionWarning(e, "Failed to store " + writes + " in ZooKeeper");
+                whenDone.accept(e);
+            }
+        };
+        context.log(log, Level.FINE, () -> "Storing " + writes + " in a single transaction");
+        session.multi(operations, callback, null);
+    }
+
+    private static boolean isBadVersion(List<OpResult> results, int index) {
+        return results != null && index >= 0 && index < results.size()
+               && results.get(index) instanceof OpResult.ErrorResult
+               && ((OpResult.ErrorResult) results.get(index)).getErr() == KeeperException.Code.BADVERSION.intValue();
+    }
+
 }
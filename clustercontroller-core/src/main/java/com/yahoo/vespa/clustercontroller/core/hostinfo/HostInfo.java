@@ -1,9 +1,11 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.clustercontroller.core.hostinfo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yahoo.vespa.clustercontroller.core.ContentClusterStats;
 
 import java.io.IOException;
 import java.util.logging.Level;
@@ -30,6 +32,8 @@ public class HostInfo {
     @JsonProperty("metrics") private Metrics metrics = new Metrics();
     @JsonProperty("content-node") private ContentNode contentNode = new ContentNode();
 
+    @JsonIgnore private volatile ContentClusterStats contentClusterStats = null;
+
     public Vtag getVtag() {
         return vtag;
     }
@@ -48,6 +52,14 @@ public class HostInfo {
 
     public Integer getClusterStateVersionOrNull() { return clusterStateVersion; }
 
+    /** Returns the stats of the content nodes reported by this distributor, computed on first access */
+    public ContentClusterStats getContentClusterStats() {
+        ContentClusterStats stats = contentClusterStats;
+        if (stats == null)
+            contentClusterStats = stats = StorageNodeStatsBridge.generate(distributor);
+        return stats;
+    }
+
     public static HostInfo createHostInfo(String json) {
         HostInfo hostInfo;
         try {
@@ -24,6 +24,8 @@ import com.yahoo.vespa.clustercontroller.core.NodeInfo;
 import com.yahoo.vespa.clustercontroller.core.SetClusterStateRequest;
 import com.yahoo.vespa.clustercontroller.core.Timer;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -45,6 +47,9 @@ public class RPCCommunicator implements Communicator {
     public static final int LEGACY_SET_SYSTEM_STATE2_RPC_VERSION = 2;
     public static final String LEGACY_SET_SYSTEM_STATE2_RPC_METHOD_NAME = "setsystemstate2";
 
+    // Bundles are sent again as new instances when a broadcast is retried, so bound the encodings kept per version
+    private static final int MAX_ENCODINGS_PER_VERSION = 8;
+
     private final Timer timer;
     private final Supervisor supervisor;
     private double nodeStateRequestTimeoutIntervalMaxSeconds;
@@ -52,6 +57,15 @@ public class RPCCommunicator implements Communicator {
     private int nodeStateRequestTimeoutIntervalStopPercentage;
     private int nodeStateRequestRoundTripTimeMaxSeconds;
     private final int fleetControllerIndex;
+    private final SlimeClusterStateBundleCodec codec = new SlimeClusterStateBundleCodec();
+
+    /**
+     * The encodings of the bundles sent for the current cluster state version, as each bundle is usually sent to
+     * many nodes in turn, interleaved with the variant with startup timestamps sent to some of them
+     */
+    private final Map<ClusterStateBundle, EncodedClusterStateBundle> encodings = new IdentityHashMap<>();
+    private int encodedVersion = -1;
+    private long clusterStateBundleBytesSent = 0;
 
     public static Supervisor createRealSupervisor() {
         return new Supervisor(new Transport("rpc-communicator")).setDropEmptyBuffers(true);
@@ -149,12 +163,12 @@ public class RPCCommunicator implements Communicator {
             req.parameters().add(new StringValue(baselineState.toString(false)));
         } else {
             req = new Request(SET_DISTRIBUTION_STATES_RPC_METHOD_NAME);
-            SlimeClusterStateBundleCodec codec = new SlimeClusterStateBundleCodec();
-            EncodedClusterStateBundle encodedBundle = codec.encode(stateBundle);
+            EncodedClusterStateBundle encodedBundle = encode(stateBundle);
             Values v = req.parameters();
             v.add(new Int8Value(encodedBundle.getCompression().type().getCode()));
             v.add(new Int32Value(encodedBundle.getCompression().uncompressedSize()));
             v.add(new DataValue(encodedBundle.getCompression().data()));
+            clusterStateBundleBytesSent += encodedBundle.getCompression().data().length;
         }
 
         log.log(Level.FINE, () -> String.format("Sending '%s' RPC to %s for state version %d",
@@ -166,6 +180,17 @@ public class RPCCommunicator implements Communicator {
         node.setClusterStateVersionBundleSent(stateBundle);
     }
 
+    @Override
+    public long clusterStateBundleBytesSent() { return clusterStateBundleBytesSent; }
+
+    private EncodedClusterStateBundle encode(ClusterStateBundle stateBundle) {
+        if (stateBundle.getVersion() != encodedVersion || encodings.size() >= MAX_ENCODINGS_PER_VERSION) {
+            encodings.clear();
+            encodedVersion = stateBundle.getVersion();
+        }
+        return encodings.computeIfAbsent(stateBundle, codec::encode);
+    }
+
     @Override
     public void activateClusterStateVersion(int clusterStateVersion, NodeInfo node, Waiter<ActivateClusterStateVersionRequest> externalWaiter) {
         var waiter = new RPCActivateClusterStateVersionWaiter(externalWaiter);
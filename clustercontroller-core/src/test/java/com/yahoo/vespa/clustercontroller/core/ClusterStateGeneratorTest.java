@@ -896,4 +896,74 @@ public class ClusterStateGeneratorTest {
         assertThat(state.toString(), equalTo("distributor:3 storage:3 .0.s:i .0.i:0.5"));
     }
 
+    @Test
+    public void memo_only_recomputes_nodes_and_groups_with_changed_input() {
+        final ClusterFixture fixture = ClusterFixture
+                .forHierarchicCluster(DistributionBuilder.withGroups(3).eachWithNodeCount(3))
+                .bringEntireClusterUp();
+        final ClusterStateGenerator.Params params = fixture.generatorParams().minNodeRatioPerGroup(0.68);
+        final ClusterStateGenerator.Memo memo = new ClusterStateGenerator.Memo();
+
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(), equalTo("distributor:9 storage:9"));
+        assertThat(memo.recomputedNodes(), is(18));
+        assertThat(memo.recomputedGroups(), is(3));
+
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(), equalTo("distributor:9 storage:9"));
+        assertThat(memo.recomputedNodes(), is(0));
+        assertThat(memo.recomputedGroups(), is(0));
+
+        fixture.reportStorageNodeState(4, State.DOWN);
+        final AnnotatedClusterState state = ClusterStateGenerator.generatedStateFrom(params, memo);
+        assertThat(state.toString(), equalTo("distributor:9 storage:9 .3.s:d .4.s:d .5.s:d"));
+        assertThat(state, equalTo(ClusterStateGenerator.generatedStateFrom(params)));
+        assertThat(memo.recomputedNodes(), is(1));
+        assertThat(memo.recomputedGroups(), is(1));
+
+        fixture.proposeStorageNodeWantedState(0, State.MAINTENANCE, "reboot");
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(),
+                   equalTo("distributor:9 storage:9 .0.s:m .3.s:d .4.s:d .5.s:d"));
+        assertThat(memo.recomputedNodes(), is(1));
+        assertThat(memo.recomputedGroups(), is(1));
+
+        fixture.reportStorageNodeState(4, State.UP);
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(),
+                   equalTo("distributor:9 storage:9 .0.s:m"));
+        assertThat(memo.recomputedNodes(), is(1));
+        assertThat(memo.recomputedGroups(), is(1));
+    }
+
+    @Test
+    public void memo_recomputes_node_states_when_their_transition_time_has_passed() {
+        final ClusterFixture fixture = ClusterFixture.forFlatCluster(5).bringEntireClusterUp();
+        final ClusterStateGenerator.Params params = fixture.generatorParams()
+                .currentTimeInMilllis(10_000)
+                .transitionTimes(2000);
+        final ClusterStateGenerator.Memo memo = new ClusterStateGenerator.Memo();
+        fixture.reportStorageNodeState(1, State.DOWN);
+        fixture.cluster.getNodeInfo(storageNode(1)).setTransitionTime(9000);
+
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(), equalTo("distributor:5 storage:5 .1.s:m"));
+        assertThat(memo.recomputedNodes(), is(10));
+
+        params.currentTimeInMilllis(10_999);
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(), equalTo("distributor:5 storage:5 .1.s:m"));
+        assertThat(memo.recomputedNodes(), is(0));
+
+        params.currentTimeInMilllis(11_000);
+        AnnotatedClusterState state = ClusterStateGenerator.generatedStateFrom(params, memo);
+        assertThat(state.toString(), equalTo("distributor:5 storage:5 .1.s:d"));
+        assertThat(memo.recomputedNodes(), is(1));
+
+        params.currentTimeInMilllis(12_000);
+        state = ClusterStateGenerator.generatedStateFrom(params, memo);
+        assertThat(state.toString(), equalTo("distributor:5 storage:5 .1.s:d"));
+        assertThat(state.getNodeStateReasons(),
+                   hasStateReasonForNode(storageNode(1), NodeStateReason.NODE_NOT_BACK_UP_WITHIN_GRACE_PERIOD));
+        assertThat(memo.recomputedNodes(), is(0));
+
+        params.transitionTimes(5000);
+        assertThat(ClusterStateGenerator.generatedStateFrom(params, memo).toString(), equalTo("distributor:5 storage:5 .1.s:m"));
+        assertThat(memo.recomputedNodes(), is(10));
+    }
+
 }
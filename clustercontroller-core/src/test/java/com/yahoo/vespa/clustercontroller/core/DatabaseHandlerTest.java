@@ -17,14 +17,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,7 +40,7 @@ public class DatabaseHandlerTest {
     private AutoCloseable openMock = null;
 
     @Captor
-    ArgumentCaptor<TreeMap<Node, NodeState>> wantedStatesArgument;
+    ArgumentCaptor<Database.Writes> writesArgument;
 
     static class Fixture {
         final ClusterFixture clusterFixture = ClusterFixture.forFlatCluster(10);
@@ -46,6 +51,8 @@ public class DatabaseHandlerTest {
         final String databaseAddress = "localhost:0";
         final Object monitor = new Object();
         final ClusterStateBundle dummyBundle;
+        final List<Consumer<Exception>> writesInProgress = new ArrayList<>();
+        boolean completeWritesImmediately = true;
 
         Fixture() throws Exception {
             dummyBundle = ClusterStateBundleUtil.makeBundle("distributor:2 storage:2",
@@ -54,7 +61,14 @@ public class DatabaseHandlerTest {
 
             when(mockDatabase.isClosed()).thenReturn(false);
             when(mockDatabase.storeMasterVote(anyInt())).thenReturn(true);
-            when(mockDatabase.storeLastPublishedStateBundle(any())).thenReturn(true);
+            doAnswer(invocation -> {
+                Consumer<Exception> whenDone = invocation.getArgument(1);
+                if (completeWritesImmediately)
+                    whenDone.accept(null);
+                else
+                    writesInProgress.add(whenDone);
+                return null;
+            }).when(mockDatabase).storeAsync(any(), any());
             when(mockTimer.getCurrentTimeInMillis()).thenReturn(1000000L);
         }
 
@@ -106,7 +120,73 @@ public class DatabaseHandlerTest {
         handler.doNextZooKeeperTask(f.createMockContext()); // Database setup step
         handler.saveLatestClusterStateBundle(f.createMockContext(), f.dummyBundle);
 
-        verify(f.mockDatabase).storeLastPublishedStateBundle(eq(f.dummyBundle));
+        verify(f.mockDatabase).storeAsync(writesArgument.capture(), any());
+        assertEquals(f.dummyBundle, writesArgument.getValue().lastPublishedStateBundle());
+        assertEquals(f.dummyBundle.getVersion(), handler.getLastKnownStateBundleVersionWrittenBySelf());
+    }
+
+    @Test
+    public void pending_writes_are_stored_together_and_one_set_at_a_time() throws Exception {
+        Fixture f = new Fixture();
+        f.completeWritesImmediately = false;
+        DatabaseHandler handler = f.createHandler();
+        DatabaseHandler.DatabaseContext context = f.createMockContext();
+        handler.doNextZooKeeperTask(context); // Database setup step
+
+        handler.saveLatestSystemStateVersion(context, 7);
+        verify(f.mockDatabase, times(1)).storeAsync(writesArgument.capture(), any());
+        assertEquals(Integer.valueOf(7), writesArgument.getValue().latestSystemStateVersion());
+        assertTrue(handler.hasPendingClusterStateMetaDataStore());
+
+        // Not stored while the previous writes are in progress
+        handler.saveLatestClusterStateBundle(context, f.dummyBundle);
+        handler.saveStartTimestamps(context);
+        verify(f.mockDatabase, times(1)).storeAsync(any(), any());
+
+        f.writesInProgress.remove(0).accept(null);
+        handler.doNextZooKeeperTask(context);
+        verify(f.mockDatabase, times(2)).storeAsync(writesArgument.capture(), any());
+        Database.Writes writes = writesArgument.getValue();
+        assertNull(writes.latestSystemStateVersion());
+        assertEquals(f.dummyBundle, writes.lastPublishedStateBundle());
+        assertEquals(Map.of(), writes.startTimestamps());
+        assertTrue(handler.hasPendingClusterStateMetaDataStore());
+        assertEquals(-1, handler.getLastKnownStateBundleVersionWrittenBySelf());
+
+        f.writesInProgress.remove(0).accept(null);
+        handler.doNextZooKeeperTask(context);
+        assertFalse(handler.hasPendingClusterStateMetaDataStore());
+        assertEquals(f.dummyBundle.getVersion(), handler.getLastKnownStateBundleVersionWrittenBySelf());
+        verify(f.mockDatabase, times(2)).storeAsync(any(), any());
+    }
+
+    @Test
+    public void failed_writes_are_retried() throws Exception {
+        Fixture f = new Fixture();
+        f.completeWritesImmediately = false;
+        DatabaseHandler handler = f.createHandler();
+        DatabaseHandler.DatabaseContext context = f.createMockContext();
+        handler.doNextZooKeeperTask(context); // Database setup step
+
+        handler.saveLatestClusterStateBundle(context, f.dummyBundle);
+        f.writesInProgress.remove(0).accept(new RuntimeException("connection loss"));
+        handler.doNextZooKeeperTask(context);
+        verify(f.mockDatabase, times(1)).storeAsync(any(), any());
+        assertTrue("Not retried at once", handler.hasPendingClusterStateMetaDataStore());
+
+        when(f.mockTimer.getCurrentTimeInMillis()).thenReturn(1000999L);
+        handler.doNextZooKeeperTask(context);
+        verify(f.mockDatabase, times(1)).storeAsync(any(), any());
+
+        when(f.mockTimer.getCurrentTimeInMillis()).thenReturn(1001000L);
+        handler.doNextZooKeeperTask(context);
+        verify(f.mockDatabase, times(2)).storeAsync(writesArgument.capture(), any());
+        assertEquals(f.dummyBundle, writesArgument.getValue().lastPublishedStateBundle());
+        assertTrue(handler.hasPendingClusterStateMetaDataStore());
+
+        f.writesInProgress.remove(0).accept(null);
+        handler.doNextZooKeeperTask(context);
+        assertFalse(handler.hasPendingClusterStateMetaDataStore());
     }
 
     @Test
@@ -150,12 +230,12 @@ public class DatabaseHandlerTest {
         // Ensure database is connected to ZooKeeper
         assertTrue(handler.doNextZooKeeperTask(databaseContext));
 
-        // Verify ZooKeeperDatabase::storeWantedStates is invoked once
-        verify(fixture.mockDatabase, times(0)).storeWantedStates(any());
+        // Verify wanted states are stored once
+        verify(fixture.mockDatabase, times(0)).storeAsync(any(), any());
         assertTrue(handler.saveWantedStates(databaseContext));
-        verify(fixture.mockDatabase, times(1)).storeWantedStates(wantedStatesArgument.capture());
+        verify(fixture.mockDatabase, times(1)).storeAsync(writesArgument.capture(), any());
 
-        // Verify ZooKeeperDatabase::storeWantedStates only saves states for existing nodes
-        assertEquals(expectedWantedStates, wantedStatesArgument.getValue());
+        // Verify only states for existing nodes are saved
+        assertEquals(expectedWantedStates, writesArgument.getValue().wantedStates());
     }
 }
@@ -0,0 +1,53 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.clustercontroller.core;
+
+import com.yahoo.vespa.clustercontroller.core.hostinfo.HostInfo;
+import com.yahoo.vespa.clustercontroller.core.listeners.NodeListener;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author agent
+ */
+public class NodeStateGathererTest {
+
+    @Test
+    public void reply_is_processed_when_decoding_host_info_fails() throws InterruptedException {
+        FakeTimer timer = new FakeTimer();
+        NodeStateGatherer gatherer = new NodeStateGatherer(timer, timer, new EventLog(timer, null), 1);
+        ContentCluster cluster = ClusterFixture.forFlatCluster(1).cluster();
+        NodeInfo node = cluster.getNodeInfo(ClusterFixture.storageNode(0));
+        node.setRpcAddress("tcp/localhost:1234");
+
+        GetNodeStateRequest request = new GetNodeStateRequest(node) { @Override public void abort() { } };
+        Communicator communicator = mock(Communicator.class);
+        doAnswer(invocation -> {
+            node.setCurrentNodeStateRequest(request, timer.getCurrentTimeInMillis());
+            request.setReply(new GetNodeStateRequest.Reply("", null)); // Null host info fails parsing
+            invocation.<Communicator.Waiter<GetNodeStateRequest>>getArgument(1).done(request);
+            return null;
+        }).when(communicator).getNodeState(eq(node), any());
+
+        NodeListener listener = mock(NodeListener.class);
+        assertTrue(gatherer.sendMessages(cluster, communicator, listener));
+        long timeout = System.currentTimeMillis() + 60_000;
+        while ( ! gatherer.processResponses(listener)) {
+            assertTrue("Reply was processed within timeout", System.currentTimeMillis() < timeout);
+            Thread.sleep(1);
+        }
+        gatherer.shutdown();
+
+        verify(listener).handleUpdatedHostInfo(eq(node), any(HostInfo.class));
+        assertNotNull(node.getHostInfo());
+        assertFalse(node.isPendingGetNodeStateRequest(request));
+    }
+
+}
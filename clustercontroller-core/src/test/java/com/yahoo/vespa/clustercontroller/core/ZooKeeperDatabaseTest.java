@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.clustercontroller.core;
 
+import com.yahoo.vdslib.state.Node;
 import com.yahoo.vespa.clustercontroller.core.database.CasWriteFailed;
 import com.yahoo.vespa.clustercontroller.core.database.Database;
 import com.yahoo.vespa.clustercontroller.core.database.ZooKeeperDatabase;
@@ -10,8 +11,12 @@ import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class ZooKeeperDatabaseTest {
@@ -106,4 +111,45 @@ public class ZooKeeperDatabaseTest {
         }
     }
 
+    @Test
+    public void can_store_writes_together_asynchronously() throws Exception {
+        try (Fixture f = new Fixture()) {
+            f.createDatabase();
+            f.db().retrieveLatestSystemStateVersion(); // Must be called once prior to prime last known znode versions
+            f.db().retrieveLastPublishedStateBundle();
+            ClusterStateBundle bundleToStore = dummyBundle();
+            Map<Node, Long> startTimestamps = Map.of(Node.ofStorage(1), 1234L);
+            assertNull(storeAsync(f, new Database.Writes(12345, startTimestamps, null, bundleToStore)));
+
+            assertEquals(Integer.valueOf(12345), f.db().retrieveLatestSystemStateVersion());
+            assertEquals(startTimestamps, f.db().retrieveStartTimestamps());
+            assertEquals(bundleToStore, f.db().retrieveLastPublishedStateBundle());
+
+            // The znode versions written are expected by subsequent writes
+            assertNull(storeAsync(f, new Database.Writes(12346, null, null, null)));
+            assertEquals(Integer.valueOf(12346), f.db().retrieveLatestSystemStateVersion());
+        }
+    }
+
+    @Test
+    public void no_writes_are_stored_if_the_expected_znode_version_does_not_match() throws Exception {
+        try (Fixture f = new Fixture()) {
+            f.createDatabase();
+            f.db().retrieveLastPublishedStateBundle();
+            Map<Node, Long> startTimestamps = Map.of(Node.ofStorage(1), 1234L);
+            Exception failure = storeAsync(f, new Database.Writes(12345, startTimestamps, null, dummyBundle()));
+            assertTrue(failure instanceof CasWriteFailed);
+            assertTrue(failure.getMessage().contains("version mismatch in cluster state version znode (expected -2)"));
+
+            assertEquals(Map.of(), f.db().retrieveStartTimestamps());
+            assertEquals(ClusterStateBundle.empty(), f.db().retrieveLastPublishedStateBundle());
+        }
+    }
+
+    private static Exception storeAsync(Fixture f, Database.Writes writes) throws Exception {
+        CompletableFuture<Exception> result = new CompletableFuture<>();
+        f.db().storeAsync(writes, result::complete);
+        return result.get();
+    }
+
 }
@@ -51,6 +51,14 @@ public class StorageNodeStatsBridgeTest {
         assertFalse(itr.hasNext());
     }
 
+    @Test
+    public void testContentClusterStatsAreComputedOnceFromHostInfo() throws IOException {
+        HostInfo hostInfo = HostInfo.createHostInfo(getJsonString());
+        ContentClusterStats clusterStats = hostInfo.getContentClusterStats();
+        assertEquals(StorageNodeStatsBridge.generate(hostInfo.getDistributor()), clusterStats);
+        assertSame(clusterStats, hostInfo.getContentClusterStats());
+    }
+
     private static void assertBucketSpaceStats(long expBucketsTotal, long expBucketsPending, ContentNodeStats.BucketSpaceStats stats) {
         assertThat(stats.getBucketsTotal(), is(expBucketsTotal));
         assertThat(stats.getBucketsPending(), is(expBucketsPending));
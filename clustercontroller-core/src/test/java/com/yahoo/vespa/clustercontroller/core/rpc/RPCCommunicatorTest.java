@@ -33,6 +33,9 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
@@ -161,6 +164,37 @@ public class RPCCommunicatorTest {
         assertThat(receivedBundle, equalTo(sentBundle));
     }
 
+    @Test
+    public void setSystemState_encodes_each_bundle_once_and_counts_bytes_sent() {
+        var f = new Fixture<SetClusterStateRequest>();
+        var cf = ClusterFixture.forFlatCluster(5).bringEntireClusterUp().assignDummyRpcAddresses();
+        var sentBundle = ClusterStateBundleUtil.makeBundle("distributor:3 storage:3");
+        assertEquals(0, f.communicator.clusterStateBundleBytesSent());
+
+        f.communicator.setSystemState(sentBundle, cf.cluster().getNodeInfo(Node.ofStorage(0)), f.mockWaiter);
+        byte[] firstPayload = f.receivedRequest.get().parameters().get(2).asData();
+        f.communicator.setSystemState(sentBundle, cf.cluster().getNodeInfo(Node.ofStorage(1)), f.mockWaiter);
+        byte[] secondPayload = f.receivedRequest.get().parameters().get(2).asData();
+        assertSame(firstPayload, secondPayload);
+        assertEquals(2L * firstPayload.length, f.communicator.clusterStateBundleBytesSent());
+
+        // Another bundle of the same version, like the one with startup timestamps, does not evict the first encoding
+        var modifiedBundle = ClusterStateBundleUtil.makeBundle("distributor:3 storage:3 .0.t:12345");
+        f.communicator.setSystemState(modifiedBundle, cf.cluster().getNodeInfo(Node.ofStorage(2)), f.mockWaiter);
+        byte[] modifiedPayload = f.receivedRequest.get().parameters().get(2).asData();
+        assertNotSame(firstPayload, modifiedPayload);
+        f.communicator.setSystemState(sentBundle, cf.cluster().getNodeInfo(Node.ofStorage(3)), f.mockWaiter);
+        assertSame(firstPayload, f.receivedRequest.get().parameters().get(2).asData());
+        long bytesSent = 3L * firstPayload.length + modifiedPayload.length;
+        assertEquals(bytesSent, f.communicator.clusterStateBundleBytesSent());
+
+        f.communicator.setSystemState(ClusterStateBundleUtil.makeBundle("version:2 distributor:3 storage:3"),
+                                      cf.cluster().getNodeInfo(Node.ofStorage(4)), f.mockWaiter);
+        byte[] thirdPayload = f.receivedRequest.get().parameters().get(2).asData();
+        assertNotSame(firstPayload, thirdPayload);
+        assertEquals(bytesSent + thirdPayload.length, f.communicator.clusterStateBundleBytesSent());
+    }
+
     @Test
     public void set_distribution_states_v3_rpc_auto_downgrades_to_v2_on_unknown_method_error() {
         var f = new Fixture<SetClusterStateRequest>();
@@ -4,7 +4,8 @@ package com.yahoo.config.application.api;
 import java.util.logging.Level;
 
 /**
- * Used during application deployment to propagate messages to the end user
+ * Used during application deployment to propagate messages to the end user.
+ * Implementations must be thread safe, as models are built by multiple threads.
  * 
  * @author Ulf Lillengen
  */
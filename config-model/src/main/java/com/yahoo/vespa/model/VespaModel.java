@@ -68,6 +68,7 @@ import org.xml.sax.SAXException;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -180,6 +181,7 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
         VespaModelBuilder builder = new VespaDomBuilder();
         root = builder.getRoot(VespaModel.ROOT_CONFIGID, deployState, this);
 
+        Instant start = Instant.now();
         createGlobalRankProfiles(deployState, rankingConstants, deployState.getFileRegistry());
         rankProfileList = new RankProfileList(null, // null search -> global
                                               rankingConstants,
@@ -191,18 +193,23 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
                                               deployState.getImportedModels(),
                                               deployState.getProperties(),
                                               deployState.getExecutor());
+        start = logPhase("Derived global rank profiles", start, deployState);
 
         HostSystem hostSystem = root.hostSystem();
         if (complete) { // create a completed, frozen model
             root.useFeatureFlags(deployState.getProperties().featureFlags());
             configModelRepo.readConfigModels(deployState, this, builder, root, new VespaConfigModelRegistry(configModelRegistry));
+            start = logPhase("Built config models", start, deployState);
             addServiceClusters(deployState, builder);
             setupRouting(deployState);
             getAdmin().addPerHostServices(hostSystem.getHosts(), deployState);
             freezeModelTopology();
+            start = logPhase("Added services and routing", start, deployState);
             root.prepare(configModelRepo);
             configModelRepo.prepareConfigModels(deployState);
+            start = logPhase("Prepared config models", start, deployState);
             validateWrapExceptions();
+            logPhase("Validated model", start, deployState);
             hostSystem.dumpPortAllocations();
             propagateRestartOnDeploy();
         }
@@ -212,6 +219,14 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
         this.allocatedHosts = AllocatedHosts.withHosts(hostSystem.getHostSpecs());
     }
 
+    /** Logs the time spent in a phase of building this, and returns the start of the next phase */
+    private static Instant logPhase(String phase, Instant start, DeployState deployState) {
+        Instant end = Instant.now();
+        log.log(Level.FINE, () -> deployState.getProperties().applicationId() + ": " + phase + " in " +
+                                  Duration.between(start, end).toMillis() + " ms");
+        return end;
+    }
+
     @Override
     public Map<String, Set<String>> documentTypesByCluster() {
         return getContentClusters().entrySet().stream()
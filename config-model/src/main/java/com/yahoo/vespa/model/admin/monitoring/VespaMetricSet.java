@@ -119,6 +119,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("handled.latency.sum"));
         metrics.add(new Metric("handled.latency.count"));
         metrics.add(new Metric("handled.latency.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("handled.latency.95percentile"));
+        metrics.add(new Metric("handled.latency.99percentile"));
 
         metrics.add(new Metric("serverRejectedRequests.rate"));
         metrics.add(new Metric("serverRejectedRequests.count"));
@@ -172,6 +174,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("httpapi_latency.sum"));
         metrics.add(new Metric("httpapi_latency.count"));
         metrics.add(new Metric("httpapi_latency.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("httpapi_latency.95percentile"));
+        metrics.add(new Metric("httpapi_latency.99percentile"));
         metrics.add(new Metric("httpapi_pending.max"));
         metrics.add(new Metric("httpapi_pending.sum"));
         metrics.add(new Metric("httpapi_pending.count"));
@@ -217,6 +221,9 @@ public class VespaMetricSet {
 
         metrics.add(new Metric("jdisc.http.request.prematurely_closed.rate"));
         addMetric(metrics, "jdisc.http.request.requests_per_connection", List.of("sum", "count", "min", "max", "average"));
+        metrics.add(new Metric("jdisc.http.concurrency_limit.limit.last"));
+        metrics.add(new Metric("jdisc.http.concurrency_limit.in_flight.max"));
+        metrics.add(new Metric("jdisc.http.concurrency_limit.rejected.rate"));
 
         metrics.add(new Metric("http.status.1xx.rate"));
         metrics.add(new Metric("http.status.2xx.rate"));
@@ -243,6 +250,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("jdisc.http.ssl.handshake.failure.unknown.rate"));
 
         metrics.add(new Metric("jdisc.http.handler.unhandled_exceptions.rate"));
+        addMetric(metrics, "jdisc.http.handler.cpu_time", List.of("max", "sum", "count"));
+        addMetric(metrics, "jdisc.http.handler.allocated_bytes", List.of("max", "sum", "count"));
 
         addMetric(metrics, "jdisc.http.filtering.request.handled", List.of("rate"));
         addMetric(metrics, "jdisc.http.filtering.request.unhandled", List.of("rate"));
@@ -282,6 +291,7 @@ public class VespaMetricSet {
 
         metrics.add(new Metric("cluster-controller.is-master.last"));
         metrics.add(new Metric("cluster-controller.remote-task-queue.size.last"));
+        metrics.add(new Metric("cluster-controller.cluster-state-broadcast-bytes.count"));
         // TODO(hakonhall): Update this name once persistent "count" metrics has been implemented.
         // DO NOT RELY ON THIS METRIC YET.
         metrics.add(new Metric("cluster-controller.node-event.count"));
@@ -321,6 +331,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("feed.latency.sum"));
         metrics.add(new Metric("feed.latency.count"));
         metrics.add(new Metric("feed.latency.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("feed.latency.95percentile"));
+        metrics.add(new Metric("feed.latency.99percentile"));
         metrics.add(new Metric("feed.http-requests.count"));
         metrics.add(new Metric("feed.http-requests.rate"));
         metrics.add(new Metric("queries.rate"));
@@ -328,6 +340,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("query_container_latency.sum"));
         metrics.add(new Metric("query_container_latency.count"));
         metrics.add(new Metric("query_container_latency.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("query_container_latency.95percentile"));
+        metrics.add(new Metric("query_container_latency.99percentile"));
         metrics.add(new Metric("query_latency.max"));
         metrics.add(new Metric("query_latency.sum"));
         metrics.add(new Metric("query_latency.count"));
@@ -349,7 +363,7 @@ public class VespaMetricSet {
         metrics.add(new Metric("documents_total.count"));
         metrics.add(new Metric("dispatch_internal.rate"));
         metrics.add(new Metric("dispatch_fdispatch.rate"));
-        addMetric(metrics, "jdisc.render.latency", Set.of("min", "max", "count", "sum", "last", "average"));
+        addMetric(metrics, "jdisc.render.latency", Set.of("min", "max", "count", "sum", "last", "average", "95percentile", "99percentile"));
         addMetric(metrics, "query_item_count", Set.of("max", "sum", "count"));
 
         metrics.add(new Metric("totalhits_per_query.max"));
@@ -39,6 +39,7 @@ public class ContainerThreadpool extends SimpleComponent implements ContainerThr
             builder.maxThreads(userOptions.maxThreads);
             builder.minThreads(userOptions.minThreads);
             builder.queueSize(userOptions.queueSize);
+            userOptions.type.ifPresent(builder::type);
         }
     }
 
@@ -49,11 +50,13 @@ public class ContainerThreadpool extends SimpleComponent implements ContainerThr
         private final int maxThreads;
         private final int minThreads;
         private final int queueSize;
+        private final Optional<ContainerThreadpoolConfig.Type.Enum> type;
 
-        private UserOptions(int maxThreads, int minThreads, int queueSize) {
+        private UserOptions(int maxThreads, int minThreads, int queueSize, Optional<ContainerThreadpoolConfig.Type.Enum> type) {
             this.maxThreads = maxThreads;
             this.minThreads = minThreads;
             this.queueSize = queueSize;
+            this.type = type;
         }
 
         public static Optional<UserOptions> fromXml(Element xml) {
@@ -62,11 +65,22 @@ public class ContainerThreadpool extends SimpleComponent implements ContainerThr
             return Optional.of(new UserOptions(
                     intOption(element, "max-threads"),
                     intOption(element, "min-threads"),
-                    intOption(element, "queue-size")));
+                    intOption(element, "queue-size"),
+                    typeOption(element)));
         }
 
         private static int intOption(Element element, String name) {
             return Integer.parseInt(XML.getChild(element, name).getTextContent());
         }
+
+        private static Optional<ContainerThreadpoolConfig.Type.Enum> typeOption(Element element) {
+            Element type = XML.getChild(element, "type");
+            if (type == null) return Optional.empty();
+            switch (type.getTextContent().trim()) {
+                case "thread-pool": return Optional.of(ContainerThreadpoolConfig.Type.THREAD_POOL);
+                case "work-stealing": return Optional.of(ContainerThreadpoolConfig.Type.WORK_STEALING);
+                default: throw new IllegalArgumentException("Unknown thread pool type '" + type.getTextContent() + "'");
+            }
+        }
     }
 }
@@ -3,6 +3,7 @@ package com.yahoo.vespa.model.container.component;
 
 import com.yahoo.container.core.AccessLogConfig;
 import com.yahoo.container.core.AccessLogConfig.FileHandler.CompressionFormat;
+import com.yahoo.container.logging.BinaryAccessLog;
 import com.yahoo.container.logging.JSONAccessLog;
 import com.yahoo.container.logging.VespaAccessLog;
 import com.yahoo.osgi.provider.model.ComponentModel;
@@ -18,7 +19,7 @@ import java.util.Objects;
 public final class AccessLogComponent extends SimpleComponent implements AccessLogConfig.Producer {
 
 
-    public enum AccessLogType { queryAccessLog, yApacheAccessLog, jsonAccessLog }
+    public enum AccessLogType { queryAccessLog, yApacheAccessLog, jsonAccessLog, binaryAccessLog }
     public enum CompressionType { GZIP, ZSTD }
 
     private final String fileNamePattern;
@@ -70,6 +71,8 @@ public final class AccessLogComponent extends SimpleComponent implements AccessL
                 return VespaAccessLog.class.getName();
             case jsonAccessLog:
                 return JSONAccessLog.class.getName();
+            case binaryAccessLog:
+                return BinaryAccessLog.class.getName();
             default:
                 throw new AssertionError();
         }
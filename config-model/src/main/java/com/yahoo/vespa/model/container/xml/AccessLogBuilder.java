@@ -28,6 +28,7 @@ public class AccessLogBuilder {
     private enum AccessLogTypeLiteral {
         VESPA("vespa"),
         JSON("json"),
+        BINARY("binary"),
         DISABLED("disabled");
 
         final String attributeValue;
@@ -119,6 +120,8 @@ public class AccessLogBuilder {
                 return AccessLogType.queryAccessLog;
             case JSON:
                 return AccessLogType.jsonAccessLog;
+            case BINARY:
+                return AccessLogType.binaryAccessLog;
             default:
                 throw new InconsistentSchemaAndCodeError();
         }
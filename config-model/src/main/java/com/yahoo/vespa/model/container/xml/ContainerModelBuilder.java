@@ -143,6 +143,9 @@ public class ContainerModelBuilder extends ConfigModelBuilder<ContainerModel> {
     private static final String xmlRendererId = RendererRegistry.xmlRendererId.getName();
     private static final String jsonRendererId = RendererRegistry.jsonRendererId.getName();
 
+    static final String SEARCHER_LATENCY_HANDLER_CLASS = com.yahoo.search.handler.SearcherLatencyHandler.class.getName();
+    static final String SEARCHER_LATENCY_HANDLER_BINDING = "/searcher-latency/v1";
+
     public ContainerModelBuilder(boolean standaloneBuilder, Networking networking) {
         super(ContainerModel.class);
         this.standaloneBuilder = standaloneBuilder;
@@ -938,6 +941,11 @@ public class ContainerModelBuilder extends ConfigModelBuilder<ContainerModel> {
                         cluster,
                         serverBindings(searchElement, SearchHandler.DEFAULT_BINDING),
                         ContainerThreadpool.UserOptions.fromXml(searchElement).orElse(null)));
+
+        Handler<?> searcherLatencyHandler = new Handler<>(new ComponentModel(SEARCHER_LATENCY_HANDLER_CLASS, null,
+                                                                             PlatformBundles.searchAndDocprocBundle));
+        searcherLatencyHandler.addServerBindings(SystemBindingPattern.fromHttpPath(SEARCHER_LATENCY_HANDLER_BINDING));
+        cluster.addComponent(searcherLatencyHandler);
     }
 
     private void addGUIHandler(ApplicationContainerCluster cluster) {
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.model.search;
 
+import com.yahoo.concurrent.InThreadExecutorService;
 import com.yahoo.config.ConfigInstance;
 import com.yahoo.config.model.deploy.DeployState;
 import com.yahoo.config.model.producer.AbstractConfigProducer;
@@ -23,8 +24,14 @@ import com.yahoo.vespa.model.content.SearchCoverage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * @author baldersheim
@@ -186,17 +193,52 @@ public class IndexedSearchCluster extends SearchCluster
 
     @Override
     public void deriveFromSchemas(DeployState deployState) {
-        for (SchemaInfo spec : schemas().values()) {
-            if (spec.fullSchema() instanceof DocumentOnlySchema) continue;
-            DocumentDatabase db = new DocumentDatabase(this, spec.fullSchema().getName(),
-                                                       new DerivedConfiguration(spec.fullSchema(),
-                                                                                deployState.getDeployLogger(),
-                                                                                deployState.getProperties(),
-                                                                                deployState.rankProfileRegistry(),
-                                                                                deployState.getQueryProfiles().getRegistry(),
-                                                                                deployState.getImportedModels(),
-                                                                                deployState.getExecutor()));
-            documentDbs.add(db);
+        List<SchemaInfo> schemas = new ArrayList<>();
+        for (SchemaInfo spec : schemas().values())
+            if ( ! (spec.fullSchema() instanceof DocumentOnlySchema))
+                schemas.add(spec);
+
+        // A single schema compiles its rank profiles in parallel on the deploy executor. Multiple schemas are derived
+        // in parallel on that executor instead. If it is a fork-join pool, each schema also compiles its rank profiles
+        // in parallel on it, as a pool thread waiting for the rank profiles of its schema helps compile them. Otherwise,
+        // each schema compiles its rank profiles in the same task, as tasks waiting for other tasks on the same executor
+        // may deadlock it. The document databases are added in schema order to keep the model deterministic.
+        ExecutorService executor = deployState.getExecutor();
+        if (schemas.size() == 1) {
+            SchemaInfo spec = schemas.get(0);
+            documentDbs.add(new DocumentDatabase(this, spec.fullSchema().getName(), derive(spec, deployState, executor)));
+            return;
+        }
+        ExecutorService rankProfileExecutor = executor instanceof ForkJoinPool ? executor : new InThreadExecutorService();
+        Map<String, Future<DerivedConfiguration>> derivedConfigurations = new LinkedHashMap<>();
+        for (SchemaInfo spec : schemas)
+            derivedConfigurations.put(spec.fullSchema().getName(),
+                                      executor.submit(() -> derive(spec, deployState, rankProfileExecutor)));
+        for (var derived : derivedConfigurations.entrySet())
+            documentDbs.add(new DocumentDatabase(this, derived.getKey(), get(derived.getValue())));
+    }
+
+    private static DerivedConfiguration derive(SchemaInfo spec, DeployState deployState, ExecutorService executor) {
+        return new DerivedConfiguration(spec.fullSchema(),
+                                        deployState.getDeployLogger(),
+                                        deployState.getProperties(),
+                                        deployState.rankProfileRegistry(),
+                                        deployState.getQueryProfiles().getRegistry(),
+                                        deployState.getImportedModels(),
+                                        executor);
+    }
+
+    private static DerivedConfiguration get(Future<DerivedConfiguration> derivedConfiguration) {
+        try {
+            return derivedConfiguration.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            throw new IllegalStateException(e);
         }
     }
 
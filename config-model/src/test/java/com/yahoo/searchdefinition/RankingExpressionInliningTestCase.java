@@ -267,7 +267,7 @@ public class RankingExpressionInliningTestCase extends AbstractSchemaTestCase {
         private final ArrayList<String> msgs = new ArrayList<>();
 
         @Override
-        public void log(Level level, String message) {
+        public synchronized void log(Level level, String message) {
             msgs.add(message);
         }
 
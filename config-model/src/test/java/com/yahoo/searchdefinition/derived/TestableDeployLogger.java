@@ -19,7 +19,7 @@ public class TestableDeployLogger implements DeployLogger {
     public List<String> info = new ArrayList<>();
 
     @Override
-    public final void log(Level level, String message) {
+    public final synchronized void log(Level level, String message) {
         log.log(level, message);
         if (level.equals(Level.WARNING))
             warnings.add(message);
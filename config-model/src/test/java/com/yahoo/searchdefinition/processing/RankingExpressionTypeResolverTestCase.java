@@ -513,7 +513,7 @@ public class RankingExpressionTypeResolverTestCase {
         private List<String> messages = new ArrayList<>();
 
         @Override
-        public void log(Level level, String message) {
+        public synchronized void log(Level level, String message) {
             messages.add(level + ": " + message);
         }
 
@@ -63,7 +63,7 @@ public class ReservedRankingExpressionFunctionNamesTestCase {
     public static class TestDeployLogger implements DeployLogger {
         public String log = "";
         @Override
-        public void log(Level level, String message) {
+        public synchronized void log(Level level, String message) {
             log += message;
         }
     }
@@ -4,6 +4,7 @@ package com.yahoo.vespa.model.container.xml;
 import com.yahoo.component.ComponentId;
 import com.yahoo.config.model.builder.xml.test.DomBuilderTest;
 import com.yahoo.container.core.AccessLogConfig;
+import com.yahoo.container.logging.BinaryAccessLog;
 import com.yahoo.container.logging.ConnectionLogConfig;
 import com.yahoo.container.logging.FileConnectionLog;
 import com.yahoo.container.logging.JSONAccessLog;
@@ -102,6 +103,23 @@ public class AccessLogTest extends ContainerModelBuilderTestBase {
         }
     }
 
+    @Test
+    public void binary_access_log_can_be_configured() {
+        Element clusterElem = DomBuilderTest.parse(
+                "<container id='default' version='1.0'>",
+                "  <accesslog type='binary' fileNamePattern='pattern' compressionType='zstd' />",
+                nodesXml,
+                "</container>" );
+
+        createModel(root, clusterElem);
+        assertNull(getJsonAccessLog("default"));
+        Component<?, ?> accessLogComponent = getContainerComponent("default", BinaryAccessLog.class.getName());
+        assertNotNull(accessLogComponent);
+        AccessLogConfig config = root.getConfig(AccessLogConfig.class, "default/component/com.yahoo.container.logging.BinaryAccessLog");
+        assertEquals("pattern", config.fileHandler().pattern());
+        assertEquals(AccessLogConfig.FileHandler.CompressionFormat.ZSTD, config.fileHandler().compressionFormat());
+    }
+
     @Test
     public void connection_log_configured_when_access_log_not_disabled() {
         Element clusterElem = DomBuilderTest.parse(
@@ -103,6 +103,7 @@ public class ContainerDocumentApiBuilderTest extends ContainerModelBuilderTestBa
                 ContainerThreadpoolConfig.class, "cluster1/component/com.yahoo.vespa.http.server.FeedHandler/threadpool@feedapi-handler");
         assertEquals(-4, config.maxThreads());
         assertEquals(-4, config.minThreads());
+        assertEquals(ContainerThreadpoolConfig.Type.THREAD_POOL, config.type());
     }
 
     @Test
@@ -115,6 +116,7 @@ public class ContainerDocumentApiBuilderTest extends ContainerModelBuilderTestBa
                 "        <max-threads>50</max-threads>",
                 "        <min-threads>25</min-threads>",
                 "        <queue-size>1000</queue-size>",
+                "        <type>work-stealing</type>",
                 "      </threadpool>",
                 "    </http-client-api>",
                 "  </document-api>",
@@ -127,6 +129,7 @@ public class ContainerDocumentApiBuilderTest extends ContainerModelBuilderTestBa
         assertEquals(50, feedThreadpoolConfig.maxThreads());
         assertEquals(25, feedThreadpoolConfig.minThreads());
         assertEquals(1000, feedThreadpoolConfig.queueSize());
+        assertEquals(ContainerThreadpoolConfig.Type.WORK_STEALING, feedThreadpoolConfig.type());
     }
 
 }
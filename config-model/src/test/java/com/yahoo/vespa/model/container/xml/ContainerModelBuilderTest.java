@@ -40,6 +40,7 @@ import com.yahoo.net.HostName;
 import com.yahoo.path.Path;
 import com.yahoo.prelude.cluster.QrMonitorConfig;
 import com.yahoo.search.config.QrStartConfig;
+import com.yahoo.search.handler.SearcherLatencyHandler;
 import com.yahoo.security.X509CertificateUtils;
 import com.yahoo.security.tls.TlsContext;
 import com.yahoo.vespa.defaults.Defaults;
@@ -388,6 +389,14 @@ public class ContainerModelBuilderTest extends ContainerModelBuilderTestBase {
         assertThat(chainsConfig, not(containsLineWithPattern(".*\\.id \"testProcessor@default\"$")));
     }
 
+    @Test
+    public void searcher_latency_handler_is_bound_with_search() {
+        createClusterWithProcessingAndSearchChains();
+        JdiscBindingsConfig config = root.getConfig(JdiscBindingsConfig.class, "default/container.0");
+        JdiscBindingsConfig.Handlers searcherLatencyHandler = config.handlers(SearcherLatencyHandler.class.getName());
+        assertThat(searcherLatencyHandler.serverBindings(), contains("http://*/searcher-latency/v1"));
+    }
+
     @Test
     public void processingHandler_gets_only_processing_chains_in_chains_config()  {
         createClusterWithProcessingAndSearchChains();
@@ -34,7 +34,7 @@ public abstract class ContainerModelBuilderTestBase {
         List<Pair<Level, String>> msgs = new ArrayList<>();
 
         @Override
-        public void log(Level level, String message) {
+        public synchronized void log(Level level, String message) {
             msgs.add(new Pair<>(level, message));
         }
     }
@@ -14,6 +14,7 @@ import com.yahoo.vespa.configdefinition.IlscriptsConfig;
 import com.yahoo.vespa.model.VespaModel;
 import com.yahoo.vespa.model.content.ContentSearchCluster;
 import com.yahoo.vespa.model.content.utils.DocType;
+import com.yahoo.vespa.model.search.DocumentDatabase;
 import com.yahoo.vespa.model.search.IndexedSearchCluster;
 import org.junit.Test;
 
@@ -21,8 +22,17 @@ import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author geirst
@@ -159,6 +169,38 @@ public class DocumentDatabaseTestCase {
         assertEquals(6, rcfg.rankprofile().size());
     }
 
+    @Test
+    public void testMultipleSchemasDerivedInParallel() {
+        List<String> sds = List.of("type1", "type2", "type3", "type4", "type5");
+        // A single thread which never grows, which would deadlock unless threads waiting for tasks help run them
+        CountingForkJoinPool executor = new CountingForkJoinPool(1);
+        try {
+            var model = new SchemaTester().createModelWithMode("index", sds, new DeployState.Builder().executor(executor));
+            IndexedSearchCluster indexedSearchCluster = (IndexedSearchCluster)model.getSearchClusters().get(0);
+            assertEquals(sds, indexedSearchCluster.getDocumentDbs().stream().map(DocumentDatabase::getName).collect(Collectors.toList()));
+            assertDocTypeConfig(model, "test/search/cluster.test/type5", "f9", "f10");
+            assertTrue("Rank profiles are compiled in tasks of their own", executor.submitted.get() > sds.size());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMultipleSchemasDerivedOnSingleThreadExecutor() {
+        List<String> sds = List.of("type1", "type2", "type3");
+        // Would deadlock if model building waited for tasks from within tasks on an executor other than a fork-join pool
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            var model = new SchemaTester().createModelWithMode("index", sds, new DeployState.Builder().executor(executor));
+            IndexedSearchCluster indexedSearchCluster = (IndexedSearchCluster)model.getSearchClusters().get(0);
+            assertEquals(sds, indexedSearchCluster.getDocumentDbs().stream().map(DocumentDatabase::getName).collect(Collectors.toList()));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testMultipleSchemas() {
         List<String> sds = List.of("type1", "type2", "type3");
@@ -344,4 +386,21 @@ public class DocumentDatabaseTestCase {
                 Arrays.asList("test/search"), Collections.emptyMap());
     }
 
+    private static class CountingForkJoinPool extends ForkJoinPool {
+
+        final AtomicInteger submitted = new AtomicInteger();
+
+        CountingForkJoinPool(int threads) {
+            super(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+                  threads, threads, 1, pool -> true, 60, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public <T> ForkJoinTask<T> submit(Callable<T> task) {
+            submitted.incrementAndGet();
+            return super.submit(task);
+        }
+
+    }
+
 }
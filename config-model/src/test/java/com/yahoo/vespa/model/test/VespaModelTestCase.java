@@ -216,7 +216,7 @@ public class VespaModelTestCase {
     static class MyLogger implements DeployLogger {
         List<Pair<Level, String>> msgs = new ArrayList<>();
         @Override
-        public void log(Level level, String message) {
+        public synchronized void log(Level level, String message) {
             msgs.add(new Pair<>(level, message));
         }
     }
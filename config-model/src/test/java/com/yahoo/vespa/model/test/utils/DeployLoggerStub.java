@@ -18,7 +18,7 @@ public class DeployLoggerStub implements DeployLogger {
     public final List<LogEntry> entries = new ArrayList<>();
 
     @Override
-    public void log(Level level, String message) {
+    public synchronized void log(Level level, String message) {
         entries.add(new LogEntry(level, message));
     }
 
@@ -115,6 +115,10 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
                 .methodDesc("Dump cache to disk")
                 .paramDesc(0, "path", "path to write cache contents to")
                 .returnDesc(0, "ret", "Empty string or error message"));
+        supervisor.addMethod(new Method("printStatistics", "", "S",
+                this::printStatistics)
+                .methodDesc("Statistics for the memory cache")
+                .returnDesc(0, "data", "string array of statistics"));
     }
 
     //---------------- RPC methods ------------------------------------
@@ -222,6 +226,21 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
         });
     }
 
+    private void printStatistics(Request req) {
+        dispatchRpcRequest(req, () -> {
+            MemoryCache memoryCache = proxyServer.memoryCache();
+            String[] ret = new String[5];
+            ret[0] = "Cached configs: " + memoryCache.size();
+            ret[1] = "Cached bytes: " + memoryCache.bytes();
+            ret[2] = "Cache hit rate: " + String.format("%.3f", memoryCache.hitRate()) +
+                     " (" + memoryCache.hits() + " hits, " + memoryCache.misses() + " misses)";
+            ret[3] = "Cache evictions: " + memoryCache.evictions();
+            ret[4] = "Delayed responses: " + proxyServer.delayedResponses().size();
+            req.returnValues().add(new StringArray(ret));
+            req.returnRequest();
+        });
+    }
+
     //----------------------------------------------------
 
     private void dispatchRpcRequest(Request request, Runnable handler) {
@@ -248,7 +267,7 @@ public class ConfigProxyRpcServer implements Runnable, TargetWatcher {
      * @param request a Request
      */
     private void getConfigImpl(JRTServerConfigRequest request) {
-        ResponseHandler responseHandler = new ResponseHandler();
+        ResponseHandler responseHandler = proxyServer.responseHandler();
         request.getRequestTrace().trace(TRACELEVEL, "Config proxy getConfig()");
         log.log(Level.FINE, () ->"getConfig: " + request);
         if (!request.validateParameters()) {
@@ -2,9 +2,11 @@
 package com.yahoo.vespa.config.proxy;
 
 import com.yahoo.io.IOUtils;
+import com.yahoo.text.Utf8Array;
 import com.yahoo.vespa.config.ConfigCacheKey;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.RawConfig;
+import com.yahoo.vespa.config.protocol.CompressionInfo;
 import com.yahoo.vespa.config.protocol.CompressionType;
 import com.yahoo.vespa.config.protocol.Payload;
 import com.yahoo.vespa.defaults.Defaults;
@@ -12,14 +14,29 @@ import com.yahoo.vespa.defaults.Defaults;
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
+ * A cache of configs, keeping track of the total size of the cached payloads and when each config was last
+ * requested, such that configs which are no longer used, or which do not fit, can be evicted with {@link #evict}.
+ * Payloads may optionally be kept LZ4 compressed outside the heap, at the cost of a copy on each lookup.
+ *
  * @author hmusum
  */
 public class MemoryCache {
@@ -30,10 +47,52 @@ public class MemoryCache {
     private final static String separator = ":";
     private static final String DEFAULT_DUMP_DIR = Defaults.getDefaults().underVespaHome("var/vespa/cache/config");
 
-    private final ConcurrentHashMap<ConfigCacheKey, RawConfig> cache = new ConcurrentHashMap<>(500, 0.75f);
+    /** A max idle time which never causes configs to be evicted */
+    static final Duration NEVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final ConcurrentHashMap<ConfigCacheKey, Entry> cache = new ConcurrentHashMap<>(500, 0.75f);
+    private final long maxBytes;
+    private final Duration maxIdle;
+    private final boolean offHeap;
+    private final Clock clock;
+
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Creates a cache which never evicts anything */
+    public MemoryCache() {
+        this(Long.MAX_VALUE, NEVER, false, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes the max total size of the cached payloads, beyond which the least recently used configs are evicted
+     * @param maxIdle configs which have not been requested for this long are evicted
+     * @param offHeap whether to keep the payloads compressed in direct memory rather than on the heap
+     */
+    public MemoryCache(long maxBytes, Duration maxIdle, boolean offHeap) {
+        this(maxBytes, maxIdle, offHeap, Clock.systemUTC());
+    }
+
+    MemoryCache(long maxBytes, Duration maxIdle, boolean offHeap, Clock clock) {
+        this.maxBytes = maxBytes;
+        this.maxIdle = maxIdle;
+        this.offHeap = offHeap;
+        this.clock = clock;
+    }
 
     public Optional<RawConfig> get(ConfigCacheKey key) {
-        return Optional.ofNullable(cache.get(key));
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        entry.lastAccess = clock.instant();
+        return Optional.of(entry.config());
     }
 
     /**
@@ -47,12 +106,64 @@ public class MemoryCache {
 
         // Do not cache empty configs (which have generation 0), remove everything in cache
         if (config.getGeneration() == 0) {
-            cache.clear();
+            clear();
             return;
         }
 
         log.log(Level.FINE, () -> "Putting '" + config + "' into memory cache");
-        cache.put(new ConfigCacheKey(config.getKey(), config.getDefMd5()), config);
+        Entry entry = offHeap ? Entry.offHeap(config, clock.instant()) : Entry.onHeap(config, clock.instant());
+        Entry previous = cache.put(new ConfigCacheKey(config.getKey(), config.getDefMd5()), entry);
+        bytes.addAndGet(entry.size - (previous == null ? 0 : previous.size));
+    }
+
+    /** Returns whether this has a max size or max idle time, such that {@link #evict} may evict anything */
+    public boolean evicts() {
+        return maxBytes < Long.MAX_VALUE || maxIdle.compareTo(NEVER) < 0;
+    }
+
+    /**
+     * Evicts configs which have not been requested for longer than the max idle time of this,
+     * and then the least recently requested configs until the cached payloads fit within the max size of this.
+     * Only configs accepted by the given filter are evicted, even if this means the cached payloads do not fit.
+     *
+     * @param evictable returns whether the config with the given key may be evicted
+     * @return the keys of the evicted configs
+     */
+    public List<ConfigCacheKey> evict(Predicate<ConfigCacheKey> evictable) {
+        Instant now = clock.instant();
+        List<ConfigCacheKey> evicted = new ArrayList<>();
+        cache.forEach((key, entry) -> {
+            if (Duration.between(entry.lastAccess, now).compareTo(maxIdle) > 0 && evictable.test(key) && remove(key, entry))
+                evicted.add(key);
+        });
+
+        if (isFull()) {
+            List<Map.Entry<ConfigCacheKey, Entry>> leastRecentlyUsedFirst =
+                    cache.entrySet().stream()
+                         .sorted(Comparator.comparing(entry -> entry.getValue().lastAccess))
+                         .collect(Collectors.toList());
+            for (var entry : leastRecentlyUsedFirst) {
+                if ( ! isFull()) break;
+                if (evictable.test(entry.getKey()) && remove(entry.getKey(), entry.getValue()))
+                    evicted.add(entry.getKey());
+            }
+        }
+
+        evictions.addAndGet(evicted.size());
+        if ( ! evicted.isEmpty())
+            log.log(Level.FINE, () -> "Evicted " + evicted + " from memory cache");
+        return evicted;
+    }
+
+    /** Returns whether the cached payloads use more than the max size of this */
+    public boolean isFull() {
+        return bytes.get() > maxBytes;
+    }
+
+    private boolean remove(ConfigCacheKey key, Entry entry) {
+        if ( ! cache.remove(key, entry)) return false;
+        bytes.addAndGet(-entry.size);
+        return true;
     }
 
     boolean containsKey(ConfigCacheKey key) {
@@ -60,7 +171,7 @@ public class MemoryCache {
     }
 
     Collection<RawConfig> values() {
-        return cache.values();
+        return cache.values().stream().map(Entry::config).collect(Collectors.toList());
     }
 
     public int size() {
@@ -68,12 +179,30 @@ public class MemoryCache {
     }
 
     public void clear() {
-        cache.clear();
+        cache.forEach(this::remove);
+    }
+
+    /** Returns the total size of the cached payloads, as stored */
+    public long bytes() { return bytes.get(); }
+
+    /** Returns the number of lookups which found a config in this */
+    public long hits() { return hits.get(); }
+
+    /** Returns the number of lookups which did not find a config in this */
+    public long misses() { return misses.get(); }
+
+    /** Returns the fraction of lookups which found a config in this, or 0 if there have been no lookups */
+    public double hitRate() {
+        long hits = hits(), lookups = hits + misses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
     }
 
+    /** Returns the number of configs evicted from this */
+    public long evictions() { return evictions.get(); }
+
     @Override
     public String toString() {
-        return cache.toString();
+        return values().toString();
     }
 
     String dumpCacheToDisk(String path, MemoryCache cache) {
@@ -151,4 +280,47 @@ public class MemoryCache {
                 separator + key.getDefMd5();
     }
 
+    private static class Entry {
+
+        /** The cached config, or the config without its payload if the payload is off heap */
+        private final RawConfig config;
+        private final ByteBuffer payload;
+        private final CompressionInfo compressionInfo;
+        private final long size;
+        private volatile Instant lastAccess;
+
+        private Entry(RawConfig config, ByteBuffer payload, CompressionInfo compressionInfo, long size, Instant now) {
+            this.config = config;
+            this.payload = payload;
+            this.compressionInfo = compressionInfo;
+            this.size = size;
+            this.lastAccess = now;
+        }
+
+        static Entry onHeap(RawConfig config, Instant now) {
+            return new Entry(config, null, null, config.getPayload().getData().getByteLength(), now);
+        }
+
+        static Entry offHeap(RawConfig config, Instant now) {
+            Payload compressed = config.getPayload().withCompression(CompressionType.LZ4);
+            ByteBuffer payload = ByteBuffer.allocateDirect(compressed.getData().getByteLength());
+            payload.put(compressed.getData().wrap()).flip();
+            RawConfig withoutPayload = new RawConfig(config.getKey(), config.getDefMd5(), null, config.getPayloadChecksums(),
+                                                     config.getGeneration(), config.applyOnRestart(), config.errorCode(),
+                                                     config.getDefContent(), config.getVespaVersion());
+            return new Entry(withoutPayload, payload, compressed.getCompressionInfo(), payload.capacity(), now);
+        }
+
+        RawConfig config() {
+            if (payload == null) return config;
+
+            byte[] data = new byte[payload.capacity()];
+            payload.duplicate().get(data);
+            return new RawConfig(config.getKey(), config.getDefMd5(), Payload.from(new Utf8Array(data), compressionInfo),
+                                 config.getPayloadChecksums(), config.getGeneration(), config.applyOnRestart(),
+                                 config.errorCode(), config.getDefContent(), config.getVespaVersion());
+        }
+
+    }
+
 }
@@ -8,11 +8,14 @@ import com.yahoo.jrt.Supervisor;
 import com.yahoo.jrt.Transport;
 import com.yahoo.log.LogSetup;
 import com.yahoo.log.event.Event;
+import com.yahoo.net.HostName;
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.protocol.RecentPayloads;
 import com.yahoo.vespa.config.proxy.filedistribution.FileDistributionAndUrlDownload;
 import com.yahoo.yolean.system.CatchSignals;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -46,6 +49,7 @@ public class ProxyServer implements Runnable {
 
     private final AtomicBoolean signalCaught = new AtomicBoolean(false);
     private final Supervisor supervisor;
+    private final ResponseHandler responseHandler;
 
     private final ConfigProxyRpcServer rpcServer;
     private final FileDistributionAndUrlDownload fileDistributionAndUrlDownload;
@@ -55,12 +59,32 @@ public class ProxyServer implements Runnable {
     private volatile Mode mode = new Mode(DEFAULT);
 
     ProxyServer(Spec spec, ConfigSourceSet source, ConfigSourceClient configClient) {
+        this(spec, source, configClient, new ResponseHandler());
+    }
+
+    ProxyServer(Spec spec, ConfigSourceSet source, ConfigSourceClient configClient, ResponseHandler responseHandler) {
+        this(spec, source, configClient, responseHandler, false);
+    }
+
+    /**
+     * Creates a proxy server, which serves the file references it downloads to peers on other hosts,
+     * if serveFilesToPeers is set and it is listening.
+     */
+    ProxyServer(Spec spec, ConfigSourceSet source, ConfigSourceClient configClient, ResponseHandler responseHandler,
+                boolean serveFilesToPeers) {
         this.configSource = Objects.requireNonNull(source);
         log.log(Level.FINE, () -> "Using config source '" + source);
         this.supervisor = new Supervisor(new Transport("proxy-server", JRT_TRANSPORT_THREADS)).setDropEmptyBuffers(true);
+        this.responseHandler = Objects.requireNonNull(responseHandler);
         this.rpcServer = createRpcServer(spec);
         this.configClient = Objects.requireNonNull(configClient);
-        this.fileDistributionAndUrlDownload = new FileDistributionAndUrlDownload(supervisor, source);
+        this.fileDistributionAndUrlDownload = new FileDistributionAndUrlDownload(supervisor, source,
+                                                                                  serveFilesToPeers ? peerSpec(spec) : Optional.empty());
+    }
+
+    /** Returns the spec at which peers on other hosts may connect to this, if it is listening */
+    private static Optional<String> peerSpec(Spec spec) {
+        return Optional.ofNullable(spec).map(s -> new Spec(HostName.getLocalhost(), s.port()).toString());
     }
 
     @Override
@@ -84,6 +108,11 @@ public class ProxyServer implements Runnable {
         return (config != null && ( ! config.hasEqualConfig(request) || config.hasNewerGeneration(request)));
     }
 
+    /** Returns the handler of responses to clients of this, which all requests must use to share recent payloads */
+    ResponseHandler responseHandler() {
+        return responseHandler;
+    }
+
     Mode getMode() {
         return mode;
     }
@@ -101,7 +130,7 @@ public class ProxyServer implements Runnable {
                 break;
             case DEFAULT:
                 flush();
-                configClient = createRpcClient(configSource);
+                configClient = createRpcClient(configSource, responseHandler);
                 this.mode = new Mode(modeName);
                 break;
             default:
@@ -114,8 +143,10 @@ public class ProxyServer implements Runnable {
         return  (spec == null) ? null : new ConfigProxyRpcServer(this, supervisor, spec); // TODO: Try to avoid first argument being 'this'
     }
 
-    private static RpcConfigSourceClient createRpcClient(ConfigSourceSet source) {
-        return new RpcConfigSourceClient(new ResponseHandler(), source);
+    private static RpcConfigSourceClient createRpcClient(ConfigSourceSet source, ResponseHandler responseHandler) {
+        Properties properties = getSystemProperties();
+        MemoryCache memoryCache = new MemoryCache(properties.cacheMaxBytes, properties.cacheMaxIdle, properties.cacheOffHeap);
+        return new RpcConfigSourceClient(responseHandler, source, memoryCache);
     }
 
     private void setupSignalHandler() {
@@ -158,7 +189,10 @@ public class ProxyServer implements Runnable {
         Event.started("configproxy");
 
         ConfigSourceSet configSources = new ConfigSourceSet(properties.configSources);
-        ProxyServer proxyServer = new ProxyServer(new Spec(null, port), configSources, createRpcClient(configSources));
+        ResponseHandler responseHandler = new ResponseHandler(new RecentPayloads(properties.recentPayloadsMaxBytes));
+        ProxyServer proxyServer = new ProxyServer(new Spec(null, port), configSources,
+                                                  createRpcClient(configSources, responseHandler), responseHandler,
+                                                  properties.serveFilesToPeers);
         // catch termination and interrupt signal
         proxyServer.setupSignalHandler();
         Thread proxyserverThread = threadFactory.newThread(proxyServer);
@@ -170,14 +204,33 @@ public class ProxyServer implements Runnable {
     static Properties getSystemProperties() {
         String[] inputConfigSources = System.getProperty("proxyconfigsources",
                                                          DEFAULT_PROXY_CONFIG_SOURCES).split(",");
-        return new Properties(inputConfigSources);
+        long cacheMaxBytes = Long.getLong("proxycachemaxbytes", Long.MAX_VALUE);
+        // Configs are not evicted from the cache unless a max size or max idle time is set
+        Duration cacheMaxIdle = Optional.ofNullable(Long.getLong("proxycachemaxidleseconds")).map(Duration::ofSeconds).orElse(MemoryCache.NEVER);
+        boolean cacheOffHeap = Boolean.getBoolean("proxycacheoffheap");
+        long recentPayloadsMaxBytes = Long.getLong("proxyrecentpayloadsmaxbytes", ResponseHandler.DEFAULT_RECENT_PAYLOADS_MAX_BYTES);
+        // File references are served to peers only if explicitly enabled, as peers are not authorized by application
+        boolean serveFilesToPeers = Boolean.getBoolean("proxyservefilestopeers");
+        return new Properties(inputConfigSources, cacheMaxBytes, cacheMaxIdle, cacheOffHeap, recentPayloadsMaxBytes,
+                              serveFilesToPeers);
     }
 
     static class Properties {
         final String[] configSources;
-
-        Properties(String[] configSources) {
+        final long cacheMaxBytes;
+        final Duration cacheMaxIdle;
+        final boolean cacheOffHeap;
+        final long recentPayloadsMaxBytes;
+        final boolean serveFilesToPeers;
+
+        Properties(String[] configSources, long cacheMaxBytes, Duration cacheMaxIdle, boolean cacheOffHeap,
+                   long recentPayloadsMaxBytes, boolean serveFilesToPeers) {
             this.configSources = configSources;
+            this.cacheMaxBytes = cacheMaxBytes;
+            this.cacheMaxIdle = cacheMaxIdle;
+            this.cacheOffHeap = cacheOffHeap;
+            this.recentPayloadsMaxBytes = recentPayloadsMaxBytes;
+            this.serveFilesToPeers = serveFilesToPeers;
         }
     }
 
@@ -215,7 +268,7 @@ public class ProxyServer implements Runnable {
     void updateSourceConnections(List<String> sources) {
         configSource = new ConfigSourceSet(sources);
         flush();
-        configClient = createRpcClient(configSource);
+        configClient = createRpcClient(configSource, responseHandler);
     }
 
     DelayedResponses delayedResponses() {
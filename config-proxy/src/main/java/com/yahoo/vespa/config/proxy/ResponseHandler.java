@@ -3,6 +3,7 @@ package com.yahoo.vespa.config.proxy;
 
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.protocol.RecentPayloads;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -18,15 +19,29 @@ import static com.yahoo.vespa.config.proxy.ConfigProxyRpcServer.TRACELEVEL;
  */
 public class ResponseHandler  {
 
+    static final long DEFAULT_RECENT_PAYLOADS_MAX_BYTES = 32 * 1024 * 1024;
+
+    // Payloads returned to clients by this, used to return deltas against them
+    private final RecentPayloads recentPayloads;
     private final Optional<AtomicLong> sentResponses;
 
-    public ResponseHandler() {
+    public ResponseHandler(RecentPayloads recentPayloads) {
+        this(recentPayloads, Optional.empty());
+    }
+
+    // For testing only
+    ResponseHandler() {
         this(false);
     }
 
     // For testing only
     ResponseHandler(boolean trackResponses) {
-        sentResponses = trackResponses ? Optional.of(new AtomicLong()) : Optional.empty();
+        this(new RecentPayloads(DEFAULT_RECENT_PAYLOADS_MAX_BYTES), trackResponses ? Optional.of(new AtomicLong()) : Optional.empty());
+    }
+
+    private ResponseHandler(RecentPayloads recentPayloads, Optional<AtomicLong> sentResponses) {
+        this.recentPayloads = recentPayloads;
+        this.sentResponses = sentResponses;
     }
 
     private final static Logger log = Logger.getLogger(ResponseHandler.class.getName());
@@ -36,7 +51,8 @@ public class ResponseHandler  {
         request.addOkResponse(config.getPayload(),
                               config.getGeneration(),
                               config.applyOnRestart(),
-                              config.getPayloadChecksums());
+                              config.getPayloadChecksums(),
+                              recentPayloads);
         log.log(Level.FINE, () -> "Return response: " + request.getShortDescription() + ",config checksums=" + config.getPayloadChecksums() +
                 ",generation=" + config.getGeneration());
         log.log(Level.FINEST, () -> "Config payload in response for " + request.getShortDescription() + ":" + config.getPayload());
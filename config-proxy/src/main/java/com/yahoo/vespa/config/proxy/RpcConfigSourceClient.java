@@ -15,7 +15,11 @@ import com.yahoo.vespa.config.ConfigCacheKey;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.TimingValues;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.JRTConfigRequestFactory;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.protocol.Payload;
+import com.yahoo.yolean.Exceptions;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -23,6 +27,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Executors;
@@ -30,8 +35,10 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -56,6 +63,7 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
     private final ScheduledExecutorService nextConfigScheduler =
             Executors.newScheduledThreadPool(1, new DaemonThreadFactory("next config"));
     private final ScheduledFuture<?> nextConfigFuture;
+    private final Optional<ScheduledFuture<?>> evictionFuture;
     private final JrtConfigRequesters requesters;
     // Scheduled executor that periodically checks for requests that have timed out and response should be returned to clients
     private final ScheduledExecutorService delayedResponsesScheduler =
@@ -64,12 +72,21 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
 
     @SuppressWarnings("removal") // TODO Vespa 8: remove
     RpcConfigSourceClient(ResponseHandler responseHandler, ConfigSourceSet configSourceSet) {
+        this(responseHandler, configSourceSet, new MemoryCache());
+    }
+
+    @SuppressWarnings("removal") // TODO Vespa 8: remove
+    RpcConfigSourceClient(ResponseHandler responseHandler, ConfigSourceSet configSourceSet, MemoryCache memoryCache) {
         this.responseHandler = responseHandler;
         this.configSourceSet = configSourceSet;
-        this.memoryCache = new MemoryCache();
+        this.memoryCache = memoryCache;
         this.delayedResponses = new DelayedResponses();
         checkConfigSources();
         nextConfigFuture = nextConfigScheduler.scheduleAtFixedRate(this, 0, SystemTimer.adjustTimeoutByDetectedHz(Duration.ofMillis(10)).toMillis(), MILLISECONDS);
+        // Evict on the same thread as configs are updated, such that evicted configs are not put back by their subscribers
+        evictionFuture = memoryCache.evicts()
+                ? Optional.of(nextConfigScheduler.scheduleAtFixedRate(this::evictFromCache, 1, 1, MINUTES))
+                : Optional.empty();
         this.requesters = new JrtConfigRequesters();
         DelayedResponseHandler command = new DelayedResponseHandler(delayedResponses, memoryCache, responseHandler);
         this.delayedResponsesFuture = delayedResponsesScheduler.scheduleAtFixedRate(command, 5, 1, SECONDS);
@@ -199,6 +216,7 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
         }
         log.log(Level.FINE, "nextConfigFuture.cancel");
         nextConfigFuture.cancel(true);
+        evictionFuture.ifPresent(future -> future.cancel(true));
         log.log(Level.FINE, "nextConfigScheduler.shutdownNow");
         nextConfigScheduler.shutdownNow();
         log.log(Level.FINE, "requester.close");
@@ -263,12 +281,53 @@ class RpcConfigSourceClient implements ConfigSourceClient, Runnable {
     @Override
     public MemoryCache memoryCache() { return memoryCache; }
 
-    private void updateWithNewConfig(RawConfig newConfig) {
+    void updateWithNewConfig(RawConfig config) {
+        // Compress a payload rebuilt from a delta once here, rather than for each client it is returned to
+        RawConfig newConfig = withCompression(config, JRTConfigRequestFactory.getCompressionType());
         log.log(Level.FINE, () -> "config to be returned for '" + newConfig.getKey() +
                                   "', generation=" + newConfig.getGeneration() +
                                   ", payload=" + newConfig.getPayload());
         memoryCache.update(newConfig);
         updateSubscribers(newConfig);
+        if (memoryCache.isFull())
+            evictFromCache();
+    }
+
+    /** Returns the given config, with its payload in the given compression */
+    static RawConfig withCompression(RawConfig config, CompressionType compression) {
+        Payload payload = config.getPayload();
+        if (payload == null || payload.getCompressionInfo().getCompressionType() == compression) return config;
+
+        return new RawConfig(config.getKey(), config.getDefMd5(), payload.withCompression(compression),
+                             config.getPayloadChecksums(), config.getGeneration(), config.applyOnRestart(),
+                             config.errorCode(), config.getDefContent(), config.getVespaVersion());
+    }
+
+    /**
+     * Evicts unused configs from the cache, and stops subscribing to them until they are requested again.
+     * Configs which clients are waiting for are not evicted, and nothing is evicted while the config sources
+     * are failing, as the cache is then all clients can get config from.
+     */
+    void evictFromCache() {
+        try {
+            synchronized (subscribersLock) {
+                if (requesters.getRequester(configSourceSet, timingValues).isFailing()) {
+                    log.log(Level.FINE, "Not evicting configs from memory cache, as requests to config sources are failing");
+                    return;
+                }
+            }
+            Set<ConfigKey<?>> requested = delayedResponses.responses().stream()
+                                                          .map(response -> response.getRequest().getConfigKey())
+                                                          .collect(Collectors.toSet());
+            for (ConfigCacheKey key : memoryCache.evict(cacheKey -> ! requested.contains(cacheKey.getKey()))) {
+                synchronized (subscribersLock) {
+                    Subscriber subscriber = subscribers.remove(key);
+                    if (subscriber != null) subscriber.cancel();
+                }
+            }
+        } catch (Exception e) {  // To avoid thread throwing exception and executor never running this again
+            log.log(Level.WARNING, "Failed evicting configs from memory cache: " + Exceptions.toMessageString(e));
+        }
     }
 
     private static TimingValues createTimingValues() {
@@ -8,6 +8,7 @@ import com.yahoo.vespa.filedistribution.FileDistributionConnectionPool;
 import com.yahoo.vespa.filedistribution.FileDownloader;
 
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -26,9 +27,15 @@ public class FileDistributionAndUrlDownload {
     private final ScheduledExecutorService cleanupExecutor =
             new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("file references and downloads cleanup"));
 
+    /**
+     * Creates the rpc servers for file distribution and url download
+     *
+     * @param peerSpec the connection spec the given supervisor listens at, if file references downloaded to this
+     *                 should be served to peers
+     */
     @SuppressWarnings("removal") // TODO Vespa 8: remove
-    public FileDistributionAndUrlDownload(Supervisor supervisor, ConfigSourceSet source) {
-        fileDistributionRpcServer = new FileDistributionRpcServer(supervisor, createDownloader(supervisor, source));
+    public FileDistributionAndUrlDownload(Supervisor supervisor, ConfigSourceSet source, Optional<String> peerSpec) {
+        fileDistributionRpcServer = new FileDistributionRpcServer(supervisor, createDownloader(supervisor, source, peerSpec));
         urlDownloadRpcServer = new UrlDownloadRpcServer(supervisor);
         cleanupExecutor.scheduleAtFixedRate(new CachedFilesMaintainer(), delay.toSeconds(), delay.toSeconds(), TimeUnit.SECONDS);
     }
@@ -46,10 +53,10 @@ public class FileDistributionAndUrlDownload {
     }
 
     @SuppressWarnings("removal") // TODO Vespa 8: remove
-    private FileDownloader createDownloader(Supervisor supervisor, ConfigSourceSet source) {
-        return new FileDownloader(new FileDistributionConnectionPool(source, supervisor),
-                                  supervisor,
-                                  Duration.ofMinutes(5));
+    private FileDownloader createDownloader(Supervisor supervisor, ConfigSourceSet source, Optional<String> peerSpec) {
+        FileDistributionConnectionPool connectionPool = new FileDistributionConnectionPool(source, supervisor);
+        return peerSpec.map(spec -> new FileDownloader(connectionPool, supervisor, Duration.ofMinutes(5), spec))
+                       .orElseGet(() -> new FileDownloader(connectionPool, supervisor, Duration.ofMinutes(5)));
     }
 
 }
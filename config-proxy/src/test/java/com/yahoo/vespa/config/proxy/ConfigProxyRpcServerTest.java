@@ -162,6 +162,24 @@ public class ConfigProxyRpcServerTest {
         assertEquals("success", ret[1]);
     }
 
+    /**
+     * Tests printStatistics RPC command
+     */
+    @Test
+    public void testRpcMethodPrintStatistics() {
+        server.proxyServer().memoryCache().update(ProxyServerTest.fooConfig);
+        Request req = new Request("printStatistics");
+        client.invoke(req);
+
+        assertFalse(req.errorMessage(), req.isError());
+        assertEquals(1, req.returnValues().size());
+        String[] ret = req.returnValues().get(0).asStringArray();
+        assertEquals(5, ret.length);
+        assertEquals("Cached configs: 1", ret[0]);
+        assertEquals("Cache evictions: 0", ret[3]);
+        server.proxyServer().memoryCache().clear();
+    }
+
     /**
      * Tests getMode and setMode RPC commands
      */
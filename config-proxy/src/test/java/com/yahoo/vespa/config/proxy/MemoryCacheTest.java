@@ -11,10 +11,17 @@ import com.yahoo.vespa.config.protocol.Payload;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -118,4 +125,122 @@ public class MemoryCacheTest {
         cache.clear();
         assertEquals(0, cache.size());
     }
+
+    @Test
+    public void sizeIsTracked() {
+        MemoryCache cache = new MemoryCache();
+        cache.update(config);
+        cache.update(config2);
+        long size = payload.getData().getByteLength() + payload2.getData().getByteLength();
+        assertEquals(size, cache.bytes());
+
+        cache.update(config); // replaces the existing entry
+        assertEquals(size, cache.bytes());
+
+        cache.clear();
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        MemoryCache cache = new MemoryCache();
+        cache.update(config);
+        assertTrue(cache.get(cacheKey).isPresent());
+        assertTrue(cache.get(cacheKey).isPresent());
+        assertFalse(cache.get(cacheKey2).isPresent());
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(2.0 / 3, cache.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void idleConfigsAreEvicted() {
+        MutableClock clock = new MutableClock();
+        MemoryCache cache = new MemoryCache(Long.MAX_VALUE, Duration.ofMinutes(10), false, clock);
+        cache.update(config);
+        cache.update(config2);
+
+        clock.advance(Duration.ofMinutes(6));
+        cache.get(cacheKey);
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(List.of(cacheKey2), cache.evict(key -> true));
+        assertEquals(1, cache.size());
+        assertEquals(payload.getData().getByteLength(), cache.bytes());
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    public void leastRecentlyUsedConfigsAreEvictedWhenFull() {
+        MutableClock clock = new MutableClock();
+        long maxBytes = payload.getData().getByteLength() + payloadDifferentMd5.getData().getByteLength();
+        MemoryCache cache = new MemoryCache(maxBytes, Duration.ofDays(1), false, clock);
+        cache.update(config);
+        clock.advance(Duration.ofSeconds(1));
+        cache.update(configDifferentMd5);
+        clock.advance(Duration.ofSeconds(1));
+        cache.get(cacheKey);
+        assertFalse(cache.isFull());
+
+        clock.advance(Duration.ofSeconds(1));
+        cache.update(config2);
+        assertTrue(cache.isFull());
+        assertEquals(List.of(cacheKeyDifferentMd5), cache.evict(key -> true));
+        assertFalse(cache.isFull());
+        assertTrue(cache.containsKey(cacheKey));
+        assertTrue(cache.containsKey(cacheKey2));
+    }
+
+    @Test
+    public void onlyEvictableConfigsAreEvicted() {
+        MutableClock clock = new MutableClock();
+        MemoryCache cache = new MemoryCache(payload.getData().getByteLength(), Duration.ofMinutes(10), false, clock);
+        cache.update(config);
+        cache.update(config2);
+        clock.advance(Duration.ofMinutes(11));
+        assertTrue(cache.isFull());
+
+        assertEquals(List.of(cacheKey2), cache.evict(key -> ! key.equals(cacheKey)));
+        assertTrue(cache.containsKey(cacheKey));
+        assertEquals(List.of(), cache.evict(key -> false));
+        assertTrue(cache.containsKey(cacheKey));
+    }
+
+    @Test
+    public void evictsOnlyWithMaxSizeOrMaxIdleTime() {
+        assertFalse(new MemoryCache().evicts());
+        assertFalse(new MemoryCache(Long.MAX_VALUE, MemoryCache.NEVER, false).evicts());
+        assertTrue(new MemoryCache(1024, MemoryCache.NEVER, false).evicts());
+        assertTrue(new MemoryCache(Long.MAX_VALUE, Duration.ofHours(1), false).evicts());
+    }
+
+    @Test
+    public void configsCanBeStoredOffHeap() {
+        MemoryCache cache = new MemoryCache(Long.MAX_VALUE, Duration.ofDays(1), true);
+        cache.update(config);
+
+        RawConfig response = cache.get(cacheKey).orElseThrow();
+        assertEquals(config, response);
+        assertEquals(payload.toString(), response.getPayload().toString());
+        assertEquals(checksums, response.getPayloadChecksums());
+        assertEquals(config.getDefContent(), response.getDefContent());
+        assertTrue(cache.bytes() > 0);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() { return now; }
+
+    }
+
 }
@@ -214,6 +214,7 @@ public class ProxyServerTest {
         ProxyServer.Properties properties = ProxyServer.getSystemProperties();
         assertEquals(1, properties.configSources.length);
         assertEquals(ProxyServer.DEFAULT_PROXY_CONFIG_SOURCES, properties.configSources[0]);
+        assertFalse(properties.serveFilesToPeers);
     }
 
     @SuppressWarnings("removal") // TODO Vespa 8: remove
@@ -1,8 +1,10 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.proxy;
 
+import com.yahoo.vespa.config.ConfigCacheKey;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.RawConfig;
+import com.yahoo.vespa.config.protocol.CompressionType;
 import com.yahoo.vespa.config.protocol.JRTConfigRequestFactory;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
 import org.junit.Before;
@@ -11,6 +13,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author hmusum
@@ -89,6 +92,20 @@ public class RpcConfigSourceClientTest {
         assertSentResponses(2);
     }
 
+    @Test
+    public void config_is_compressed_once_when_cached() {
+        RawConfig fooConfig = RpcConfigSourceClient.withCompression(createConfigWithNextConfigGeneration(ProxyServerTest.fooConfig),
+                                                                    CompressionType.UNCOMPRESSED);
+        simulateClientRequestingConfig(fooConfig);
+        rpcConfigSourceClient.updateWithNewConfig(fooConfig);
+        assertSentResponses(1);
+
+        RawConfig cached = rpcConfigSourceClient.memoryCache().get(new ConfigCacheKey(fooConfig.getKey(), fooConfig.getDefMd5())).get();
+        assertEquals(JRTConfigRequestFactory.getCompressionType(), cached.getPayload().getCompressionInfo().getCompressionType());
+        assertEquals(fooConfig.getPayload().toString(), cached.getPayload().toString());
+        assertSame(cached, RpcConfigSourceClient.withCompression(cached, JRTConfigRequestFactory.getCompressionType()));
+    }
+
     private void assertSentResponses(int expected) {
         assertEquals(expected, responseHandler.sentResponses());
     }
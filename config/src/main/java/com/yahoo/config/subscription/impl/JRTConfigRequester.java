@@ -54,7 +54,7 @@ public class JRTConfigRequester implements RequestWaiter {
     private final ConfigSourceSet configSourceSet;
 
     private Instant timeForLastLogWarning;
-    private int failures = 0;
+    private volatile int failures = 0;
     private volatile boolean closed = false;
 
     /**
@@ -137,6 +137,8 @@ public class JRTConfigRequester implements RequestWaiter {
         log.log(FINEST, () -> trace.toString());
         if (validResponse)
             handleOKRequest(jrtReq, sub);
+        else if (jrtReq.hasFailedDelta())
+            handleFailedDelta(jrtReq, sub);
         else
             handleFailedRequest(jrtReq, sub, connection);
     }
@@ -180,6 +182,12 @@ public class JRTConfigRequester implements RequestWaiter {
         scheduleNextRequest(jrtReq, sub, delay, calculateErrorTimeout());
     }
 
+    /** Requests the full config right away, on the same connection, as a delta which does not apply is not a failure */
+    private void handleFailedDelta(JRTClientConfigRequest jrtReq, JRTConfigSubscription<ConfigInstance> sub) {
+        log.log(FINE, () -> "Could not apply config delta for " + jrtReq.getShortDescription() + ", requesting the full config");
+        scheduleNextRequest(jrtReq, sub, 0, calculateSuccessTimeout());
+    }
+
     static long calculateFailedRequestDelay(int failures, TimingValues timingValues) {
         long delay = timingValues.getFixedDelay() * (long)Math.pow(2, failures);
         delay = Math.max(timingValues.getFixedDelay(), Math.min(60_000, delay)); // between timingValues.getFixedDelay() and 60 seconds
@@ -266,6 +274,9 @@ public class JRTConfigRequester implements RequestWaiter {
 
     int getFailures() { return failures; }
 
+    /** Returns whether the last request to the config sources failed */
+    public boolean isFailing() { return failures > 0; }
+
     // TODO: Should be package private, used in integrationtest.rb in system tests
     public ConnectionPool getConnectionPool() {
         return connectionPool;
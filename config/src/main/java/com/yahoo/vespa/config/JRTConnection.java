@@ -57,6 +57,12 @@ public class JRTConnection implements Connection {
         return target;
     }
 
+    /** Closes the target of this, if any. A new target is connected if this is used again. */
+    public synchronized void close() {
+        if (target != null) target.close();
+        target = null;
+    }
+
     @Override
     public String toString() {
         return address;
@@ -48,6 +48,12 @@ public interface JRTClientConfigRequest extends JRTConfigRequest {
      */
     boolean isError();
 
+    /**
+     * Returns whether the response was a config delta which could not be applied, in which case the full
+     * config should be requested again right away, as this is not an error with the connection.
+     */
+    default boolean hasFailedDelta() { return false; }
+
     /**
      * Get the generation of the newly provided config. If none has been given, 0 should be returned.
      *
@@ -40,6 +40,9 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
     protected final SlimeRequestData requestData;
     protected final Request request;
     private final SlimeResponseData responseData;
+    private final Optional<Payload> deltaBase;
+    private Payload newPayload = null;
+    private boolean deltaFailed = false;
 
     protected JRTClientConfigRequestV3(ConfigKey<?> key,
                                        String hostname,
@@ -50,6 +53,24 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                        Trace trace,
                                        CompressionType compressionType,
                                        Optional<VespaVersion> vespaVersion) {
+        this(key, hostname, defSchema, payloadChecksums, generation, timeout, trace, compressionType, vespaVersion,
+             Optional.empty());
+    }
+
+    /**
+     * @param deltaBase the payload having the given checksums, if the client has it, in which case the server
+     *                  is allowed to respond with a {@link PayloadDelta} against it
+     */
+    protected JRTClientConfigRequestV3(ConfigKey<?> key,
+                                       String hostname,
+                                       DefContent defSchema,
+                                       PayloadChecksums payloadChecksums,
+                                       long generation,
+                                       long timeout,
+                                       Trace trace,
+                                       CompressionType compressionType,
+                                       Optional<VespaVersion> vespaVersion,
+                                       Optional<Payload> deltaBase) {
         Slime data = SlimeRequestData.encodeRequest(key,
                                                     hostname,
                                                     defSchema,
@@ -59,13 +80,15 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                                     trace,
                                                     getProtocolVersion(),
                                                     compressionType,
-                                                    vespaVersion);
+                                                    vespaVersion,
+                                                    deltaBase.isPresent());
         Request jrtReq = new Request(getJRTMethodName());
         jrtReq.parameters().add(new StringValue(encodeAsUtf8String(data)));
 
         this.requestData = new SlimeRequestData(jrtReq, data);
         this.responseData = new SlimeResponseData(jrtReq);
         this.request = jrtReq;
+        this.deltaBase = deltaBase;
     }
 
     protected static String encodeAsUtf8String(Slime data) {
@@ -88,9 +111,29 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
 
     @Override
     public Payload getNewPayload() {
-        CompressionInfo compressionInfo = getResponseData().getCompressionInfo();
-        Utf8Array payload = new Utf8Array(request.returnValues().get(1).asData());
-        return Payload.from(payload, compressionInfo);
+        if (newPayload == null) {
+            CompressionInfo compressionInfo = getResponseData().getCompressionInfo();
+            Payload payload = Payload.from(new Utf8Array(request.returnValues().get(1).asData()), compressionInfo);
+            newPayload = isDeltaResponse() ? PayloadDelta.apply(deltaBase.orElseThrow(() -> new IllegalArgumentException("Got a config delta without a base")), payload) : payload;
+        }
+        return newPayload;
+    }
+
+    private boolean isDeltaResponse() {
+        return ! getResponseData().getResponseDeltaBaseXxhash64().isEmpty();
+    }
+
+    /** Returns whether the payload in the response is a delta which can be applied to the config this has */
+    private boolean hasValidDelta() {
+        PayloadChecksum base = getResponseData().getResponseDeltaBaseXxhash64();
+        if (deltaBase.isEmpty() || ! base.equals(getRequestConfigChecksums().getForType(XXHASH64))) return false;
+        try {
+            PayloadChecksum expected = getNewChecksums().getForType(XXHASH64);
+            return expected != null && expected.equals(PayloadChecksum.fromPayload(getNewPayload(), XXHASH64));
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     @Override
@@ -98,17 +141,30 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
         return 3;
     }
 
+    @Override
+    public boolean hasFailedDelta() { return deltaFailed; }
+
     @Override
     public JRTClientConfigRequest nextRequest(long timeout) {
+        boolean keepRequestedConfig = isError() || deltaFailed;
         return new JRTClientConfigRequestV3(getConfigKey(),
                 getClientHostName(),
                 getDefContent(),
-                isError() ? getRequestConfigChecksums() : newConfigChecksums(),
-                isError() ? getRequestGeneration() : newGen(),
+                keepRequestedConfig ? getRequestConfigChecksums() : newConfigChecksums(),
+                keepRequestedConfig ? getRequestGeneration() : newGen(),
                 timeout,
                 Trace.createNew(),
                 requestData.getCompressionType(),
-                requestData.getVespaVersion());
+                requestData.getVespaVersion(),
+                nextDeltaBase());
+    }
+
+    /** Returns the payload the next request can receive a delta against */
+    private Optional<Payload> nextDeltaBase() {
+        if (deltaFailed) return Optional.empty();
+        if (isError()) return deltaBase;
+        if (hasUpdatedConfig()) return Optional.of(getNewPayload().withCompression(requestData.getCompressionType()));
+        return deltaBase;
     }
 
     public static <T extends ConfigInstance> JRTClientConfigRequest createFromSub(JRTConfigSubscription<T> sub,
@@ -133,15 +189,20 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
                                                        CompressionType compressionType,
                                                        Optional<VespaVersion> vespaVersion) {
         String hostname = ConfigUtils.getCanonicalHostName();
-        return createWithParams(config.getKey(),
-                                DefContent.fromList(config.getDefContent()),
-                                hostname,
-                                config.getPayloadChecksums(),
-                                config.getGeneration(),
-                                serverTimeout,
-                                trace,
-                                compressionType,
-                                vespaVersion);
+        PayloadChecksum xxhash64 = config.getPayloadChecksums().getForType(XXHASH64);
+        Optional<Payload> deltaBase = config.getPayload() != null && xxhash64 != null && ! xxhash64.isEmpty()
+                ? Optional.of(config.getPayload())
+                : Optional.empty();
+        return new JRTClientConfigRequestV3(config.getKey(),
+                                            hostname,
+                                            DefContent.fromList(config.getDefContent()),
+                                            config.getPayloadChecksums(),
+                                            config.getGeneration(),
+                                            serverTimeout,
+                                            trace,
+                                            compressionType,
+                                            vespaVersion,
+                                            deltaBase);
     }
 
     public static JRTClientConfigRequest createWithParams(ConfigKey<?> reqKey,
@@ -290,6 +351,11 @@ public class JRTClientConfigRequestV3 implements JRTClientConfigRequest {
         } else if (!checkReturnTypes(request)) {
             log.warning("Invalid return types for config response: " + errorMessage());
             return false;
+        } else if (isDeltaResponse() && ! hasValidDelta()) {
+            log.log(Level.FINE, () -> "Could not apply config delta in response for " + getConfigKey() +
+                                      ", will request the full config");
+            deltaFailed = true;
+            return false;
         }
         return true;
     }
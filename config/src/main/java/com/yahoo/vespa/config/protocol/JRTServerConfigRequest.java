@@ -39,6 +39,19 @@ public interface JRTServerConfigRequest extends JRTConfigRequest, GetConfigReque
      */
     void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums payloadChecksums);
 
+    /**
+     * Signal that the request was handled, like {@link #addOkResponse(Payload, long, boolean, PayloadChecksums)},
+     * but send only a {@link PayloadDelta} if the client accepts that, the payload it has is among the given recent
+     * payloads, and the delta is substantially smaller than the payload. The payload is added to the recent payloads.
+     *
+     * @param recentPayloads the payloads recently returned by the server handling this request
+     */
+    default void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums payloadChecksums,
+                               RecentPayloads recentPayloads) {
+        addOkResponse(payload, generation, applyOnRestart, payloadChecksums);
+        recentPayloads.add(payloadChecksums, payload);
+    }
+
     /**
      * Returns the md5 of the config definition in the request.
      *
@@ -10,6 +10,7 @@ import com.yahoo.jrt.Value;
 import com.yahoo.text.Utf8Array;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.ErrorCode;
+import com.yahoo.vespa.config.PayloadChecksum;
 import com.yahoo.vespa.config.PayloadChecksums;
 
 import java.io.ByteArrayOutputStream;
@@ -27,6 +28,9 @@ import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
  * * A metadata field containing json data describing config generation, md5 and compression info
  * * A data field containing compressed or uncompressed json config payload
  *
+ * If the client accepts it, and the payload it has is known, the data field may instead contain a {@link PayloadDelta}
+ * against that payload, which is then identified in the metadata field.
+ *
  * The implementation of addOkResponse is optimized for doing as little copying of payload data as possible, ensuring
  * that we get a lower memory footprint.
  *
@@ -71,11 +75,27 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
 
     @Override
     public void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums) {
+        addOkResponse(payload, generation, applyOnRestart, checksums, Optional.empty());
+    }
+
+    @Override
+    public void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums,
+                              RecentPayloads recentPayloads) {
+        if (payload == null)
+            throw new RuntimeException("Payload is null for ' " + this + ", not able to create response");
+
+        addOkResponse(payload, generation, applyOnRestart, checksums, delta(payload, checksums, recentPayloads));
+        recentPayloads.add(checksums, payload);
+    }
+
+    private void addOkResponse(Payload payload, long generation, boolean applyOnRestart, PayloadChecksums checksums,
+                               Optional<Payload> delta) {
         this.applyOnRestart = applyOnRestart;
-        Payload responsePayload = payload.withCompression(getCompressionType());
-        if (responsePayload == null)
+        if (payload == null)
             throw new RuntimeException("Payload is null for ' " + this + ", not able to create response");
 
+        Payload responsePayload = delta.orElse(payload).withCompression(getCompressionType());
+
         ByteArrayOutputStream outputStream = new NoCopyByteArrayOutputStream(4096);
         try {
             JsonGenerator jsonGenerator = createJsonGenerator(outputStream);
@@ -83,6 +103,9 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
 
             addCommonReturnValues(jsonGenerator);
             addPayloadCheckSums(jsonGenerator, checksums);
+            if (delta.isPresent())
+                setResponseField(jsonGenerator, SlimeResponseData.RESPONSE_DELTA_BASE_XXHASH64,
+                                 getRequestConfigChecksums().getForType(XXHASH64).asString());
             setResponseField(jsonGenerator, SlimeResponseData.RESPONSE_CONFIG_GENERATION, generation);
             setResponseField(jsonGenerator, SlimeResponseData.RESPONSE_APPLY_ON_RESTART, applyOnRestart);
             jsonGenerator.writeObjectFieldStart(SlimeResponseData.RESPONSE_COMPRESSION_INFO);
@@ -97,6 +120,16 @@ public class JRTServerConfigRequestV3 implements JRTServerConfigRequest {
         addPayload(responsePayload, outputStream);
     }
 
+    /** Returns a delta against the payload the client has, if it accepts one, it is recent, and it is worthwhile */
+    private Optional<Payload> delta(Payload payload, PayloadChecksums checksums, RecentPayloads recentPayloads) {
+        if ( ! requestData.getAcceptDelta()) return Optional.empty();
+
+        PayloadChecksum requestXxhash64 = getRequestConfigChecksums().getForType(XXHASH64);
+        if (requestXxhash64.isEmpty() || requestXxhash64.equals(checksums.getForType(XXHASH64))) return Optional.empty();
+
+        return recentPayloads.delta(getRequestConfigChecksums(), checksums, payload);
+    }
+
     @Override
     public long getProtocolVersion() {
         return 3;
@@ -0,0 +1,84 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import com.yahoo.text.Utf8Array;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * A patch which turns a config payload a client already has into a newer payload. Config payloads are
+ * JSON, and a deploy typically changes a few values in an otherwise identical payload, so the patch consists of
+ * the length of the common prefix and suffix of the two payloads, and the bytes replacing what is between them.
+ *
+ * Serialized, this is two 32-bit big-endian integers (prefix and suffix length) followed by the replacement bytes.
+ *
+ * @author agent
+ */
+public class PayloadDelta {
+
+    /** Deltas which are not smaller than this fraction of the full payload are not worth sending */
+    private static final double maxDeltaFraction = 0.5;
+
+    private static final int headerSize = 8;
+
+    private PayloadDelta() { }
+
+    /**
+     * Returns the delta which turns the given base payload into the given target payload,
+     * or empty if a delta would not be substantially smaller than the target.
+     */
+    public static Optional<Payload> compute(Payload base, Payload target) {
+        byte[] from = uncompressed(base);
+        byte[] to = uncompressed(target);
+        int prefix = 0;
+        int maxCommon = Math.min(from.length, to.length);
+        while (prefix < maxCommon && from[prefix] == to[prefix])
+            prefix++;
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && from[from.length - 1 - suffix] == to[to.length - 1 - suffix])
+            suffix++;
+
+        int replacementSize = to.length - prefix - suffix;
+        if (headerSize + replacementSize >= to.length * maxDeltaFraction) return Optional.empty();
+
+        ByteBuffer delta = ByteBuffer.allocate(headerSize + replacementSize);
+        delta.putInt(prefix);
+        delta.putInt(suffix);
+        delta.put(to, prefix, replacementSize);
+        return Optional.of(Payload.from(new Utf8Array(delta.array())));
+    }
+
+    /**
+     * Applies the given delta to the given base payload.
+     *
+     * @return the resulting payload, uncompressed
+     * @throws IllegalArgumentException if the delta does not fit the base
+     */
+    public static Payload apply(Payload base, Payload delta) {
+        byte[] from = uncompressed(base);
+        ByteBuffer patch = ByteBuffer.wrap(uncompressed(delta));
+        if (patch.remaining() < headerSize)
+            throw new IllegalArgumentException("Delta of " + patch.remaining() + " bytes is too short");
+        int prefix = patch.getInt();
+        int suffix = patch.getInt();
+        if (prefix < 0 || suffix < 0 || (long) prefix + suffix > from.length)
+            throw new IllegalArgumentException("Delta with prefix " + prefix + " and suffix " + suffix +
+                                               " does not fit a base payload of " + from.length + " bytes");
+
+        byte[] to = new byte[prefix + patch.remaining() + suffix];
+        System.arraycopy(from, 0, to, 0, prefix);
+        int replacementSize = patch.remaining();
+        patch.get(to, prefix, replacementSize);
+        System.arraycopy(from, from.length - suffix, to, prefix + replacementSize, suffix);
+        return Payload.from(new Utf8Array(to), CompressionInfo.create(CompressionType.UNCOMPRESSED, to.length));
+    }
+
+    private static byte[] uncompressed(Payload payload) {
+        ByteBuffer buffer = payload.withCompression(CompressionType.UNCOMPRESSED).getData().wrap();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,118 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import com.yahoo.vespa.config.PayloadChecksum;
+import com.yahoo.vespa.config.PayloadChecksums;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.yahoo.vespa.config.PayloadChecksum.Type.XXHASH64;
+
+/**
+ * A cache of recently returned config payloads, by their xxhash64 checksum, bounded by the total payload size.
+ * This is used by config servers and proxies to look up the payload a client already has, given the checksums
+ * in its request, such that a {@link PayloadDelta} against it can be returned instead of the full payload.
+ *
+ * Payloads are kept uncompressed, such that each is decompressed only once, and the delta between two payloads
+ * is computed once and returned to all clients going from the one to the other.
+ *
+ * This class is thread safe.
+ *
+ * @author agent
+ */
+public class RecentPayloads {
+
+    /** The max number of computed deltas to keep */
+    private static final int maxDeltas = 256;
+
+    private final long maxBytes;
+    private final Map<PayloadChecksum, Payload> payloads = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<List<PayloadChecksum>, Optional<Payload>> deltas = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<PayloadChecksum>, Optional<Payload>> eldest) {
+            return size() > maxDeltas;
+        }
+    };
+    private long bytes = 0;
+
+    /** Creates a cache holding payloads of at most the given total number of uncompressed bytes */
+    public RecentPayloads(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Remembers a payload which has been returned to a client, evicting the least recently used payloads if full */
+    public void add(PayloadChecksums checksums, Payload payload) {
+        PayloadChecksum xxhash64 = checksums.getForType(XXHASH64);
+        if (xxhash64 == null || xxhash64.isEmpty()) return;
+        if (contains(xxhash64)) return;
+
+        Payload uncompressed = payload.withCompression(CompressionType.UNCOMPRESSED);
+        long size = size(uncompressed);
+        if (size > maxBytes) return;
+        synchronized (this) {
+            Payload previous = payloads.put(xxhash64, uncompressed);
+            if (previous != null)
+                bytes -= size(previous);
+            bytes += size;
+
+            for (Iterator<Payload> leastRecentlyUsed = payloads.values().iterator(); bytes > maxBytes; ) {
+                bytes -= size(leastRecentlyUsed.next());
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    /** Returns the payload having the given checksums, uncompressed, if it has been returned recently */
+    public synchronized Optional<Payload> get(PayloadChecksums checksums) {
+        PayloadChecksum xxhash64 = checksums.getForType(XXHASH64);
+        if (xxhash64 == null || xxhash64.isEmpty()) return Optional.empty();
+        return Optional.ofNullable(payloads.get(xxhash64));
+    }
+
+    /**
+     * Returns the delta which turns the recent payload having the given base checksums into the given payload,
+     * or empty if the base is not known here, or a delta would not be substantially smaller than the payload.
+     * The given payload is remembered, and the delta is reused for later calls with the same base and target.
+     */
+    public Optional<Payload> delta(PayloadChecksums base, PayloadChecksums target, Payload payload) {
+        PayloadChecksum baseXxhash64 = base.getForType(XXHASH64);
+        PayloadChecksum targetXxhash64 = target.getForType(XXHASH64);
+        if (baseXxhash64 == null || baseXxhash64.isEmpty() || targetXxhash64 == null || targetXxhash64.isEmpty())
+            return Optional.empty();
+
+        List<PayloadChecksum> key = List.of(baseXxhash64, targetXxhash64);
+        synchronized (this) {
+            Optional<Payload> delta = deltas.get(key);
+            if (delta != null) return delta;
+        }
+
+        Optional<Payload> basePayload = get(base);
+        if (basePayload.isEmpty()) return Optional.empty();
+        add(target, payload);
+        Optional<Payload> delta = PayloadDelta.compute(basePayload.get(), get(target).orElse(payload));
+        synchronized (this) {
+            deltas.put(key, delta);
+        }
+        return delta;
+    }
+
+    /** Returns the total size of the payloads in this */
+    public synchronized long bytes() { return bytes; }
+
+    /** Returns the number of payloads in this */
+    public synchronized int size() { return payloads.size(); }
+
+    /** Returns whether the payload with the given checksum is here, and marks it as recently used if so */
+    private synchronized boolean contains(PayloadChecksum xxhash64) {
+        return payloads.get(xxhash64) != null;
+    }
+
+    private static long size(Payload payload) {
+        return payload.getData().getByteLength();
+    }
+
+}
@@ -38,6 +38,7 @@ class SlimeRequestData {
     private static final String REQUEST_DEF_MD5 = "defMD5";
     private static final String REQUEST_COMPRESSION_TYPE = "compressionType";
     private static final String REQUEST_VESPA_VERSION = "vespaVersion";
+    private static final String REQUEST_ACCEPT_DELTA = "acceptDelta";
 
     private final Request request;
     private Slime data = null;
@@ -109,7 +110,8 @@ class SlimeRequestData {
                                Trace trace,
                                long protocolVersion,
                                CompressionType compressionType,
-                               Optional<VespaVersion> vespaVersion) {
+                               Optional<VespaVersion> vespaVersion,
+                               boolean acceptDelta) {
         Slime data = new Slime();
         Cursor request = data.setObject();
         request.setLong(REQUEST_VERSION, protocolVersion);
@@ -127,6 +129,8 @@ class SlimeRequestData {
         request.setLong(REQUEST_TIMEOUT, timeout);
         request.setString(REQUEST_COMPRESSION_TYPE, compressionType.name());
         vespaVersion.ifPresent(version -> request.setString(REQUEST_VESPA_VERSION, version.toString()));
+        if (acceptDelta)
+            request.setBool(REQUEST_ACCEPT_DELTA, true);
         trace.serialize(request.setObject(REQUEST_TRACE));
         return data;
     }
@@ -140,6 +144,11 @@ class SlimeRequestData {
         return field.valid() ? CompressionType.parse(field.asString()) : CompressionType.UNCOMPRESSED;
     }
 
+    /** Returns whether the client can apply a {@link PayloadDelta} to the config it has */
+    boolean getAcceptDelta() {
+        return getRequestField(REQUEST_ACCEPT_DELTA).asBool();
+    }
+
     public Optional<VespaVersion> getVespaVersion() {
         String versionString = getRequestField(REQUEST_VESPA_VERSION).asString(); // will be "" if not set, never null
         return versionString.isEmpty() ? Optional.empty() : Optional.of(VespaVersion.fromString(versionString));
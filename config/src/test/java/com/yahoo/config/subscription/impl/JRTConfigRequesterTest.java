@@ -17,6 +17,7 @@ import java.util.Random;
 
 import static com.yahoo.config.subscription.impl.JRTConfigRequester.calculateFailedRequestDelay;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
@@ -65,6 +66,7 @@ public class JRTConfigRequesterTest {
         assertTrue(receivedRequest.validateParameters());
         assertEquals(timingValues.getSubscribeTimeout(), receivedRequest.getTimeout());
         assertEquals(0, requester.getFailures());
+        assertFalse(requester.isFailing());
     }
 
     @Test
@@ -76,6 +78,7 @@ public class JRTConfigRequesterTest {
         requester.request(createSubscription(requester, timingValues));
         waitUntilResponse(connection);
         assertEquals(1, requester.getFailures());
+        assertTrue(requester.isFailing());
     }
 
     @Test
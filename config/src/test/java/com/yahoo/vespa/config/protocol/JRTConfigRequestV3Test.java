@@ -32,6 +32,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -127,6 +128,83 @@ public class JRTConfigRequestV3Test {
         assertTrue(clientReq.hasUpdatedGeneration());
     }
 
+    @Test
+    public void delta_is_returned_when_client_has_base() {
+        Payload base = createPayload(largeValue("old"));
+        Payload payload = createPayload(largeValue("new"));
+        clientReq = createFromRaw(rawConfig(base), timeout, Trace.createNew());
+        serverReq = createReq(clientReq.getRequest());
+        serverReq.addOkResponse(payload, 4L, false, PayloadChecksums.fromPayload(payload), recentPayloads(base));
+
+        Inspector response = SlimeUtils.jsonToSlime(serverReq.getRequest().returnValues().get(0).asString()).get();
+        assertEquals(PayloadChecksums.fromPayload(base).getForType(XXHASH64).asString(),
+                     response.field(SlimeResponseData.RESPONSE_DELTA_BASE_XXHASH64).asString());
+        assertTrue(serverReq.getRequest().returnValues().get(1).asData().length < 100);
+
+        assertTrue(clientReq.validateResponse());
+        assertTrue(clientReq.hasUpdatedConfig());
+        assertEquals(payload.getData().toString(),
+                     clientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+        assertTrue(SlimeUtils.jsonToSlime(clientReq.nextRequest(6).getRequest().parameters().get(0).asString())
+                             .get().field("acceptDelta").asBool());
+    }
+
+    @Test
+    public void delta_is_computed_once_for_each_base_and_target() {
+        Payload base = createPayload(largeValue("old"));
+        Payload payload = createPayload(largeValue("new"));
+        RecentPayloads recentPayloads = recentPayloads(base);
+        PayloadChecksums baseChecksums = PayloadChecksums.fromPayload(base);
+        PayloadChecksums checksums = PayloadChecksums.fromPayload(payload);
+
+        Payload delta = recentPayloads.delta(baseChecksums, checksums, payload).orElseThrow();
+        assertSame(delta, recentPayloads.delta(baseChecksums, checksums, payload).orElseThrow());
+        assertEquals(2, recentPayloads.size());
+        assertTrue(recentPayloads.delta(checksums, baseChecksums, base).isPresent());
+        assertTrue(recentPayloads.delta(PayloadChecksums.fromPayload(createPayload()), checksums, payload).isEmpty());
+    }
+
+    @Test
+    public void delta_is_not_returned_when_client_does_not_accept_it() {
+        Payload base = createPayload(largeValue("old"));
+        Payload payload = createPayload(largeValue("new"));
+        clientReq = createReq(base);
+        serverReq = createReq(clientReq.getRequest());
+        serverReq.addOkResponse(payload, 4L, false, PayloadChecksums.fromPayload(payload), recentPayloads(base));
+
+        Inspector response = SlimeUtils.jsonToSlime(serverReq.getRequest().returnValues().get(0).asString()).get();
+        assertFalse(response.field(SlimeResponseData.RESPONSE_DELTA_BASE_XXHASH64).valid());
+        assertTrue(clientReq.validateResponse());
+        assertEquals(payload.getData().toString(),
+                     clientReq.getNewPayload().withCompression(CompressionType.UNCOMPRESSED).getData().toString());
+    }
+
+    @Test
+    public void full_config_is_requested_when_delta_cannot_be_applied() {
+        Payload base = createPayload(largeValue("old"));
+        Payload payload = createPayload("c" + largeValue("new"));
+        clientReq = createFromRaw(rawConfig(base), timeout, Trace.createNew());
+        serverReq = createReq(clientReq.getRequest());
+        // The server believes the client has a different payload than it actually has
+        RecentPayloads recentPayloads = new RecentPayloads(1 << 20);
+        recentPayloads.add(PayloadChecksums.fromPayload(base), createPayload("c" + largeValue("old")));
+        serverReq.addOkResponse(payload, 4L, false, PayloadChecksums.fromPayload(payload), recentPayloads);
+
+        assertFalse(clientReq.validateResponse());
+        assertTrue(clientReq.hasFailedDelta());
+        JRTClientConfigRequest next = clientReq.nextRequest(6);
+        assertEquals(clientReq.getRequestConfigChecksums(), next.getRequestConfigChecksums());
+        assertEquals(clientReq.getRequestGeneration(), next.getRequestGeneration());
+        assertFalse(SlimeUtils.jsonToSlime(next.getRequest().parameters().get(0).asString()).get().field("acceptDelta").valid());
+    }
+
+    private static RecentPayloads recentPayloads(Payload... payloads) {
+        RecentPayloads recentPayloads = new RecentPayloads(1 << 20);
+        for (Payload payload : payloads)
+            recentPayloads.add(PayloadChecksums.fromPayload(payload), payload);
+        return recentPayloads;
+    }
+
     @Test
     public void error_response_adds_common_elements() {
         serverReq.addErrorResponse(ErrorCode.APPLICATION_NOT_LOADED, ErrorCode.getName(ErrorCode.APPLICATION_NOT_LOADED));
@@ -259,6 +337,16 @@ public class JRTConfigRequestV3Test {
         return Payload.from(new ConfigPayload(slime));
     }
 
+    private static String largeValue(String change) {
+        return "a".repeat(1000) + change + "b".repeat(1000);
+    }
+
+    private RawConfig rawConfig(Payload payload) {
+        return new RawConfig(ConfigKey.createFull(defName, configId, defNamespace), defMd5, payload,
+                             PayloadChecksums.fromPayload(payload), currentGeneration, false,
+                             List.of(configDefinition), vespaVersion);
+    }
+
     private JRTClientConfigRequest createReq(String defName, String defNamespace,
                                              String hostname, String configId, PayloadChecksums payloadChecksums,
                                              long currentGeneration, long timeout, Trace trace) {
@@ -0,0 +1,56 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.protocol;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class PayloadDeltaTest {
+
+    @Test
+    public void delta_turns_base_into_target() {
+        assertDelta("{\"a\":\"" + "x".repeat(100) + "\",\"b\":1}", "{\"a\":\"" + "x".repeat(100) + "\",\"b\":2}");
+        assertDelta("{\"a\":\"" + "x".repeat(100) + "\"}", "{\"a\":\"" + "x".repeat(100) + "\",\"b\":2}");
+        assertDelta("{\"a\":\"" + "x".repeat(100) + "\",\"b\":2}", "{\"a\":\"" + "x".repeat(100) + "\"}");
+        assertDelta("{\"a\":\"" + "x".repeat(100) + "\"}", "{\"a\":\"" + "x".repeat(101) + "\"}");
+    }
+
+    @Test
+    public void no_delta_when_payloads_are_too_different() {
+        assertFalse(PayloadDelta.compute(Payload.from("{\"a\":1}"), Payload.from("{\"b\":2}")).isPresent());
+        assertFalse(PayloadDelta.compute(Payload.from("x".repeat(100)), Payload.from("y".repeat(100))).isPresent());
+    }
+
+    @Test
+    public void delta_works_with_compressed_payloads() {
+        Payload base = Payload.from("{\"a\":\"" + "x".repeat(1000) + "\",\"b\":1}").withCompression(CompressionType.LZ4);
+        Payload target = Payload.from("{\"a\":\"" + "x".repeat(1000) + "\",\"b\":2}").withCompression(CompressionType.LZ4);
+        Payload delta = PayloadDelta.compute(base, target).get().withCompression(CompressionType.LZ4);
+        assertEquals(target.toString(), PayloadDelta.apply(base, delta).toString());
+    }
+
+    @Test
+    public void delta_which_does_not_fit_base_is_rejected() {
+        Payload delta = PayloadDelta.compute(Payload.from("x".repeat(100)), Payload.from("x".repeat(99) + "y")).get();
+        try {
+            PayloadDelta.apply(Payload.from("x".repeat(10)), delta);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Delta with prefix 99 and suffix 0 does not fit a base payload of 10 bytes", e.getMessage());
+        }
+    }
+
+    private static void assertDelta(String base, String target) {
+        Payload delta = PayloadDelta.compute(Payload.from(base), Payload.from(target)).get();
+        assertTrue(delta.getData().getByteLength() < target.length() / 2);
+        assertEquals(target, PayloadDelta.apply(Payload.from(base), delta).toString());
+    }
+
+}
@@ -41,7 +41,7 @@ public class DeployHandlerLogger implements DeployLogger {
         if (level.intValue() <= LogLevel.DEBUG.intValue() && !verbose)
             return;
 
-        logJson(level, message);
+        logJson(level, message, false);
         // Also tee to a normal log, Vespa log for example, but use level fine 
         log.log(Level.FINE, () -> prefix + message);
     }
@@ -52,21 +52,22 @@ public class DeployHandlerLogger implements DeployLogger {
         if (level.intValue() <= LogLevel.DEBUG.intValue() && !verbose)
             return;
 
-        Cursor entry = logJson(level, message);
-        entry.setBool("applicationPackage", true);
+        logJson(level, message, true);
         // Also tee to a normal log, Vespa log for example, but use level fine
         log.log(Level.FINE, () -> prefix + message);
     }
 
-    private Cursor logJson(Level level, String message) {
+    // Synchronized since model building logs from multiple threads
+    private synchronized void logJson(Level level, String message, boolean applicationPackage) {
         Cursor entry = logroot.addObject();
         entry.setLong("time", System.currentTimeMillis());
         entry.setString("level", level.getName());
         entry.setString("message", message);
-        return entry;
+        if (applicationPackage)
+            entry.setBool("applicationPackage", true);
     }
 
-    public Slime slime() {
+    public synchronized Slime slime() {
         return slime;
     }
 
@@ -22,13 +22,16 @@ import java.util.stream.Collectors;
 public class FileDistributionUtil {
 
     /**
-     * Returns all files in the given directory, non-recursive.
+     * Returns all files in the given directory, non-recursive, except hidden ones, which are not file references.
      */
     public static Set<String> getFileReferencesOnDisk(File directory) {
         Set<String> fileReferencesOnDisk = new HashSet<>();
         File[] filesOnDisk = directory.listFiles();
         if (filesOnDisk != null)
-            fileReferencesOnDisk.addAll(Arrays.stream(filesOnDisk).map(File::getName).collect(Collectors.toSet()));
+            fileReferencesOnDisk.addAll(Arrays.stream(filesOnDisk)
+                                              .map(File::getName)
+                                              .filter(name -> ! name.startsWith("."))
+                                              .collect(Collectors.toSet()));
         return fileReferencesOnDisk;
     }
 
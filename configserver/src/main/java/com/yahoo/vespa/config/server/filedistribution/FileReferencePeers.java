@@ -0,0 +1,77 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.filedistribution;
+
+import com.yahoo.config.FileReference;
+import com.yahoo.config.provision.ApplicationId;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of the nodes which have downloaded a file reference and serve it to their peers, and assigns
+ * these to nodes which download it, such that the load of a deployment spreads out in a tree rather than
+ * on this config server alone. This is kept in memory only, so each config server coordinates the nodes
+ * which download from it, and nodes which are restarted are simply tried and skipped until they report again.
+ * Nodes are only assigned peers which belong to the same application as themselves, as peers serve any file
+ * reference they have to the nodes they are assigned to.
+ *
+ * @author agent
+ */
+public class FileReferencePeers {
+
+    private static final int maxFileReferences = 200;
+    private static final int maxPeersPerFileReference = 1000;
+    static final int maxPeersPerRequest = 3;
+
+    /** The peers serving each file reference, by their connection specs */
+    private final Map<FileReference, Map<String, Peer>> peers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FileReference, Map<String, Peer>> eldest) {
+            return size() > maxFileReferences;
+        }
+    };
+
+    /** A peer serving a file reference, with the application it belongs to, and the number of times it has been assigned */
+    private static class Peer {
+
+        final ApplicationId owner;
+        int assignments = 0;
+
+        Peer(ApplicationId owner) {
+            this.owner = owner;
+        }
+
+    }
+
+    /** Registers that the given file reference is served by the peer with the given connection spec, which belongs to the given application */
+    public synchronized void add(FileReference reference, String peerSpec, ApplicationId owner) {
+        Map<String, Peer> servers = peers.computeIfAbsent(reference, __ -> new LinkedHashMap<>());
+        if (servers.size() >= maxPeersPerFileReference && ! servers.containsKey(peerSpec))
+            servers.remove(servers.keySet().iterator().next());
+        Peer peer = servers.get(peerSpec);
+        if (peer == null || ! peer.owner.equals(owner))
+            servers.put(peerSpec, new Peer(owner));
+    }
+
+    /**
+     * Returns the connection specs of the peers of the given application which have been assigned the fewest times
+     * to serve the given file reference, except the requester, and counts this as an assignment of each of them
+     */
+    public synchronized List<String> select(FileReference reference, String requesterSpec, ApplicationId requesterOwner) {
+        Map<String, Peer> servers = peers.get(reference);
+        if (servers == null) return List.of();
+
+        List<Map.Entry<String, Peer>> selected = servers.entrySet().stream()
+                                                        .filter(peer -> peer.getValue().owner.equals(requesterOwner))
+                                                        .filter(peer -> ! peer.getKey().equals(requesterSpec))
+                                                        .sorted(Comparator.comparingInt(peer -> peer.getValue().assignments))
+                                                        .limit(maxPeersPerRequest)
+                                                        .collect(Collectors.toList());
+        selected.forEach(peer -> peer.getValue().assignments++);
+        return selected.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+}
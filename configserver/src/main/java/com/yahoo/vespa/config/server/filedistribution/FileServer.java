@@ -6,7 +6,11 @@ import com.yahoo.cloud.config.ConfigserverConfig;
 import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.FileReference;
 import com.yahoo.config.subscription.ConfigSourceSet;
+import com.yahoo.io.IOUtils;
+import com.yahoo.jrt.DataValue;
 import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Array;
+import com.yahoo.jrt.Int64Value;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Supervisor;
@@ -15,6 +19,7 @@ import com.yahoo.vespa.config.ConnectionPool;
 import com.yahoo.vespa.defaults.Defaults;
 import com.yahoo.vespa.filedistribution.CompressedFileReference;
 import com.yahoo.vespa.filedistribution.EmptyFileReferenceData;
+import com.yahoo.vespa.filedistribution.FileChunks;
 import com.yahoo.vespa.filedistribution.FileDistributionConnectionPool;
 import com.yahoo.vespa.filedistribution.FileDownloader;
 import com.yahoo.vespa.filedistribution.FileReferenceData;
@@ -25,10 +30,17 @@ import com.yahoo.yolean.Exceptions;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -41,9 +53,15 @@ public class FileServer {
 
     private static final Logger log = Logger.getLogger(FileServer.class.getName());
 
+    /** The directory, under the file reference directory, holding the compressed copies of directories served in chunks */
+    private static final String chunksDirectoryName = ".chunks";
+
     private final FileDirectory root;
+    private final File chunksDirectory;
     private final ExecutorService executor;
     private final FileDownloader downloader;
+    private final Map<FileReference, CompletableFuture<Optional<ChunkedContent>>> chunkedContent = Collections.synchronizedMap(new ChunkedContentCache());
+    private final FileReferencePeers peers = new FileReferencePeers();
 
     private enum FileApiErrorCodes {
         OK(0, "OK"),
@@ -74,6 +92,73 @@ public class FileServer {
         void receive(FileReferenceData fileData, ReplayStatus status);
     }
 
+    /** The content of a file reference, as served in chunks */
+    private static class ChunkedContent {
+
+        private final File file;
+        private final boolean temporary;
+        private final FileChunks chunks;
+        private int readers = 0;
+        private boolean evicted = false;
+
+        ChunkedContent(File file, boolean temporary, FileChunks chunks) {
+            this.file = file;
+            this.temporary = temporary;
+            this.chunks = chunks;
+        }
+
+        /** Returns the given chunk, or empty if this was evicted before the read started */
+        Optional<byte[]> read(int chunk) throws IOException {
+            synchronized (this) {
+                if (evicted) return Optional.empty();
+                readers++;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return Optional.of(chunks.read(channel, chunk));
+            }
+            finally {
+                synchronized (this) {
+                    if (--readers == 0 && evicted) delete();
+                }
+            }
+        }
+
+        /** Prevents further reads, and deletes the file once no reads are in progress */
+        synchronized void evict() {
+            evicted = true;
+            if (readers == 0) delete();
+        }
+
+        private void delete() {
+            if (temporary && ! file.delete())
+                log.log(Level.FINE, () -> "Failed deleting " + file);
+        }
+
+    }
+
+    /**
+     * The chunked content of the most recently used file references, as computing it requires reading them fully.
+     * Each reference maps to the future content, such that concurrent requests prepare it only once.
+     */
+    private static class ChunkedContentCache extends LinkedHashMap<FileReference, CompletableFuture<Optional<ChunkedContent>>> {
+
+        private static final int maxEntries = 20;
+
+        ChunkedContentCache() { super(16, 0.75f, true); }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FileReference, CompletableFuture<Optional<ChunkedContent>>> eldest) {
+            if (size() <= maxEntries) return false;
+            evict(eldest.getValue());
+            return true;
+        }
+
+        static void evict(CompletableFuture<Optional<ChunkedContent>> content) {
+            content.thenAccept(prepared -> prepared.ifPresent(ChunkedContent::evict));
+        }
+
+    }
+
     @SuppressWarnings("WeakerAccess") // Created by dependency injection
     @Inject
     public FileServer(ConfigserverConfig configserverConfig) {
@@ -89,6 +174,8 @@ public class FileServer {
     public FileServer(File rootDir, FileDownloader fileDownloader) {
         this.downloader = fileDownloader;
         this.root = new FileDirectory(rootDir);
+        this.chunksDirectory = new File(rootDir, chunksDirectoryName);
+        IOUtils.recursiveDeleteDir(chunksDirectory); // Left behind if this was not closed
         this.executor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()),
                                                      new DaemonThreadFactory("file-server-"));
     }
@@ -184,6 +271,87 @@ public class FileServer {
     }
 
 
+    public void serveChunks(String fileReference, Request request) {
+        executor.execute(() -> serveChunksInternal(new FileReference(fileReference), request));
+    }
+
+    private void serveChunksInternal(FileReference reference, Request request) {
+        Optional<FileChunks> chunks = chunkedContent(reference).map(content -> content.chunks);
+        FileApiErrorCodes result = chunks.isPresent() ? FileApiErrorCodes.OK : FileApiErrorCodes.NOT_FOUND;
+        request.returnValues()
+                .add(new Int32Value(result.getCode()))
+                .add(new StringValue(chunks.map(FileChunks::filename).orElse("")))
+                .add(new StringValue(chunks.map(c -> c.type().name()).orElse("")))
+                .add(new Int64Value(chunks.map(FileChunks::size).orElse(0L)))
+                .add(new Int32Value(chunks.map(FileChunks::chunkSize).orElse(0)))
+                .add(new Int64Array(chunks.map(FileChunks::hashes).orElse(new long[0])));
+        request.returnRequest();
+    }
+
+    public void serveChunk(String fileReference, int chunk, Request request) {
+        executor.execute(() -> serveChunkInternal(new FileReference(fileReference), chunk, request));
+    }
+
+    private void serveChunkInternal(FileReference reference, int chunk, Request request) {
+        Optional<byte[]> data = readChunk(reference, chunk);
+        FileApiErrorCodes result = data.isPresent() ? FileApiErrorCodes.OK : FileApiErrorCodes.NOT_FOUND;
+        request.returnValues()
+                .add(new Int32Value(result.getCode()))
+                .add(new DataValue(data.orElse(new byte[0])));
+        request.returnRequest();
+    }
+
+    private Optional<byte[]> readChunk(FileReference reference, int chunk) {
+        for (int attempt = 0; attempt < 2; attempt++) { // The content may be evicted before it is read, and is then prepared again
+            Optional<ChunkedContent> content = chunkedContent(reference);
+            if (content.isEmpty() || chunk < 0 || chunk >= content.get().chunks.count()) return Optional.empty();
+            try {
+                Optional<byte[]> data = content.get().read(chunk);
+                if (data.isPresent()) return data;
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed reading chunk " + chunk + " of " + reference + ": " + Exceptions.toMessageString(e));
+                CompletableFuture<Optional<ChunkedContent>> removed = chunkedContent.remove(reference);
+                if (removed != null) ChunkedContentCache.evict(removed);
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Returns the content of the given file reference prepared for serving in chunks, or empty if this does not have it */
+    private Optional<ChunkedContent> chunkedContent(FileReference reference) {
+        if ( ! hasFile(reference)) return Optional.empty();
+
+        CompletableFuture<Optional<ChunkedContent>> content = new CompletableFuture<>();
+        CompletableFuture<Optional<ChunkedContent>> existing = chunkedContent.putIfAbsent(reference, content);
+        if (existing != null) return existing.join(); // Prepared, or being prepared, by another request
+
+        Optional<ChunkedContent> prepared = Optional.empty();
+        try {
+            prepared = Optional.of(prepareChunkedContent(reference));
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed preparing " + reference + " for serving in chunks: " + Exceptions.toMessageString(e));
+        } finally {
+            if (prepared.isEmpty()) chunkedContent.remove(reference, content);
+            content.complete(prepared);
+        }
+        return prepared;
+    }
+
+    private ChunkedContent prepareChunkedContent(FileReference reference) throws IOException {
+        File file = root.getFile(reference);
+        if (file.isDirectory()) {
+            Files.createDirectories(chunksDirectory.toPath());
+            File compressedFile = CompressedFileReference.compress(file.getParentFile(),
+                                                                   Files.createTempFile(chunksDirectory.toPath(), reference.value(), ".tar.gz").toFile());
+            return new ChunkedContent(compressedFile, true,
+                                      FileChunks.of(compressedFile, file.getName(), FileReferenceData.Type.compressed, FileChunks.defaultChunkSize));
+        } else {
+            return new ChunkedContent(file, false,
+                                      FileChunks.of(file, file.getName(), FileReferenceData.Type.file, FileChunks.defaultChunkSize));
+        }
+    }
+
     boolean hasFileDownloadIfNeeded(FileReferenceDownload fileReferenceDownload) {
         FileReference fileReference = fileReferenceDownload.fileReference();
         if (hasFile(fileReference)) return true;
@@ -208,9 +376,17 @@ public class FileServer {
 
     public FileDownloader downloader() { return downloader; }
 
+    /** Returns the nodes which serve the file references they have downloaded from this to their peers */
+    public FileReferencePeers peers() { return peers; }
+
     public void close() {
         downloader.close();
         executor.shutdown();
+        synchronized (chunkedContent) {
+            chunkedContent.values().forEach(ChunkedContentCache::evict);
+            chunkedContent.clear();
+        }
+        IOUtils.recursiveDeleteDir(chunksDirectory);
     }
 
     private static FileDownloader createFileDownloader(List<String> configServers) {
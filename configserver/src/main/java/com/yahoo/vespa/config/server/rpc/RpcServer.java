@@ -17,6 +17,7 @@ import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.Method;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Supervisor;
 import com.yahoo.jrt.Target;
@@ -26,6 +27,7 @@ import com.yahoo.vespa.config.JRTMethods;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
+import com.yahoo.vespa.config.protocol.RecentPayloads;
 import com.yahoo.vespa.config.protocol.Trace;
 import com.yahoo.vespa.config.server.GetConfigContext;
 import com.yahoo.vespa.config.server.ReloadListener;
@@ -41,6 +43,7 @@ import com.yahoo.vespa.config.server.tenant.Tenant;
 import com.yahoo.vespa.config.server.tenant.TenantListener;
 import com.yahoo.vespa.config.server.tenant.TenantRepository;
 import com.yahoo.vespa.filedistribution.FileDownloader;
+import com.yahoo.vespa.filedistribution.FileChunks;
 import com.yahoo.vespa.filedistribution.FileReceiver;
 import com.yahoo.vespa.filedistribution.FileReferenceData;
 import com.yahoo.vespa.filedistribution.FileReferenceDownload;
@@ -103,6 +106,8 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
 
     private final ThreadPoolExecutor executorService;
     private final FileDownloader downloader;
+    // Payloads recently returned to clients, used to return deltas against the config they have
+    private final RecentPayloads recentPayloads;
     private volatile boolean allTenantsLoaded = false;
     private boolean isRunning = false;
     boolean isServingConfigRequests = false;
@@ -142,6 +147,7 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
         this.canReturnEmptySentinelConfig = config.canReturnEmptySentinelConfig();
         this.fileServer = fileServer;
         this.rpcAuthorizer = rpcAuthorizer;
+        this.recentPayloads = new RecentPayloads(config.recentPayloadsMaxBytes());
         downloader = fileServer.downloader();
         handlerProvider.setInstance(this);
         setUpFileDistributionHandlers();
@@ -222,6 +228,31 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
                                   .methodDesc("printStatistics")
                                   .returnDesc(0, "statistics", "Statistics for server"));
         getSupervisor().addMethod(new Method("filedistribution.serveFile", "si", "is", this::serveFile));
+        getSupervisor().addMethod(new Method(FileChunks.GET_CHUNKS_METHOD, "s", "issliL", this::getFileChunks)
+                                     .methodDesc("get the chunks a file reference is served in")
+                                     .paramDesc(0, "file reference", "file reference to get chunks of")
+                                     .returnDesc(0, "ret", "0 if success, 1 if file reference was not found")
+                                     .returnDesc(1, "filename", "filename")
+                                     .returnDesc(2, "type", "'file' or 'compressed'")
+                                     .returnDesc(3, "filelength", "length in bytes of file")
+                                     .returnDesc(4, "chunksize", "length in bytes of all chunks but the last")
+                                     .returnDesc(5, "hashes", "xxhash64 of each chunk"));
+        getSupervisor().addMethod(new Method(FileChunks.GET_CHUNK_METHOD, "si", "ix", this::getFileChunk)
+                                     .methodDesc("get a chunk of a file reference")
+                                     .paramDesc(0, "file reference", "file reference to get chunk of")
+                                     .paramDesc(1, "chunk", "chunk number starting at zero")
+                                     .returnDesc(0, "ret", "0 if success, 1 if file reference or chunk was not found")
+                                     .returnDesc(1, "data", "bytes in this chunk"));
+        getSupervisor().addMethod(new Method(FileChunks.GET_PEERS_METHOD, "ss", "S", this::getFilePeers)
+                                     .methodDesc("get peers which serve a file reference they have downloaded")
+                                     .paramDesc(0, "file reference", "file reference to get peers for")
+                                     .paramDesc(1, "requester", "connection spec of the requester if it serves peers, or empty to get no peers")
+                                     .returnDesc(0, "peers", "connection specs of peers to download the file reference from"));
+        getSupervisor().addMethod(new Method(FileChunks.SET_AVAILABLE_METHOD, "ss", "i", this::setFileReferenceAvailable)
+                                     .methodDesc("tell that a node has downloaded a file reference, and serves it to peers")
+                                     .paramDesc(0, "file reference", "file reference which is available")
+                                     .paramDesc(1, "peer", "connection spec at which the file reference is served")
+                                     .returnDesc(0, "ret", "0 if success, 1 if the peer is not a node of a deployed application"));
         getSupervisor().addMethod(new Method("filedistribution.setFileReferencesToDownload", "S", "i", this::setFileReferencesToDownload)
                                      .methodDesc("set which file references to download")
                                      .paramDesc(0, "file references", "file reference to download")
@@ -570,6 +601,59 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
                 });
     }
 
+    private void getFileChunks(Request request) {
+        request.detach();
+        rpcAuthorizer.authorizeFileRequest(request)
+                .thenRun(() -> fileServer.serveChunks(request.parameters().get(0).asString(), request));
+    }
+
+    private void getFileChunk(Request request) {
+        request.detach();
+        rpcAuthorizer.authorizeFileRequest(request)
+                .thenRun(() -> fileServer.serveChunk(request.parameters().get(0).asString(), request.parameters().get(1).asInt32(), request));
+    }
+
+    private void getFilePeers(Request request) {
+        request.detach();
+        rpcAuthorizer.authorizeFileRequest(request)
+                .thenRun(() -> { // okay to do in authorizer thread as this is in memory only
+                    FileReference reference = new FileReference(request.parameters().get(0).asString());
+                    String requesterSpec = request.parameters().get(1).asString();
+                    // Only nodes of deployed applications are assigned peers, which belong to the same application
+                    Optional<ApplicationId> requesterOwner = owner(new Spec(requesterSpec));
+                    List<String> peers = requesterOwner.map(owner -> fileServer.peers().select(reference, requesterSpec, owner))
+                                                       .orElse(List.of());
+                    request.returnValues().add(new StringArray(peers.toArray(new String[0])));
+                    request.returnRequest();
+                });
+    }
+
+    private void setFileReferenceAvailable(Request request) {
+        request.detach();
+        rpcAuthorizer.authorizeFileRequest(request)
+                .thenRun(() -> { // okay to do in authorizer thread as this is in memory only
+                    String peerSpec = request.parameters().get(1).asString();
+                    Spec peer = new Spec(peerSpec);
+                    // Only nodes of deployed applications are assigned as peers, as others may not be trusted to serve files
+                    Optional<ApplicationId> owner = owner(peer);
+                    if (owner.isEmpty()) {
+                        log.log(Level.FINE, () -> "Not adding unknown peer '" + peerSpec + "' from " + request.target());
+                        request.returnValues().add(new Int32Value(1));
+                    }
+                    else {
+                        fileServer.peers().add(new FileReference(request.parameters().get(0).asString()), peerSpec, owner.get());
+                        request.returnValues().add(new Int32Value(0));
+                    }
+                    request.returnRequest();
+                });
+    }
+
+    /** Returns the application the node with the given connection spec belongs to, if it is a node of a deployed application */
+    private Optional<ApplicationId> owner(Spec spec) {
+        if (spec.malformed() || spec.host() == null) return Optional.empty();
+        return Optional.ofNullable(hostRegistry.getKeyForHost(spec.host()));
+    }
+
     private void setFileReferencesToDownload(Request req) {
         req.detach();
         rpcAuthorizer.authorizeFileRequest(req)
@@ -588,4 +672,8 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
     HostLivenessTracker hostLivenessTracker() {
         return hostLivenessTracker;
     }
+
+    RecentPayloads recentPayloads() {
+        return recentPayloads;
+    }
 }
@@ -57,6 +57,8 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -223,7 +225,23 @@ public class TenantRepository {
         long maxHeap = Runtime.getRuntime().maxMemory();
         int maxThreadsToFitInMemory = (int)((maxHeap + (GB - 1))/(1*GB));
         int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), maxThreadsToFitInMemory);
-        return Executors.newFixedThreadPool(numThreads, ThreadFactoryFactory.getDaemonThreadFactory("deploy-helper"));
+        // A fork-join pool, such that threads waiting for a task on the pool help run it. The pool never grows
+        // beyond numThreads to compensate for blocked threads, as each thread may use a lot of memory, and
+        // the saturate predicate lets threads block rather than fail when no more threads can be added.
+        return new ForkJoinPool(numThreads,
+                                pool -> {
+                                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                                    thread.setName("deploy-helper-" + thread.getPoolIndex());
+                                    return thread;
+                                },
+                                null,
+                                false,
+                                numThreads,
+                                numThreads,
+                                1,
+                                pool -> true,
+                                60,
+                                TimeUnit.SECONDS);
     }
 
     private void notifyTenantsLoaded() {
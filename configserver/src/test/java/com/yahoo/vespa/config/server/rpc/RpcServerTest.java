@@ -11,7 +11,10 @@ import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.ApplicationName;
 import com.yahoo.config.provision.InstanceName;
 import com.yahoo.config.provision.TenantName;
+import com.yahoo.io.IOUtils;
+import com.yahoo.jrt.Int32Value;
 import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringValue;
 import com.yahoo.vespa.config.ConfigKey;
 import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.ConfigPayloadApplier;
@@ -27,6 +30,8 @@ import com.yahoo.vespa.config.server.application.Application;
 import com.yahoo.vespa.config.server.application.ApplicationSet;
 import com.yahoo.vespa.config.server.monitoring.MetricUpdater;
 import com.yahoo.vespa.config.server.session.PrepareParams;
+import com.yahoo.vespa.filedistribution.FileChunks;
+import com.yahoo.vespa.filedistribution.FileReferenceData;
 import com.yahoo.vespa.model.VespaModel;
 import org.junit.Rule;
 import org.junit.Test;
@@ -35,7 +40,9 @@ import org.xml.sax.SAXException;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -97,6 +104,141 @@ public class RpcServerTest {
         }
     }
 
+    @Test
+    public void testGetFileChunks() throws IOException, InterruptedException {
+        try (RpcTester tester = new RpcTester(applicationId, temporaryFolder)) {
+            byte[] content = new byte[FileChunks.defaultChunkSize * 2 + 17];
+            new Random(1).nextBytes(content);
+            File file = new File(tester.fileServerRootDir(), "abcd/model.onnx");
+            assertTrue(file.getParentFile().mkdirs());
+            IOUtils.writeFile(file, content);
+
+            Request request = new Request(FileChunks.GET_CHUNKS_METHOD);
+            request.parameters().add(new StringValue("abcd"));
+            tester.performRequest(request);
+            assertFalse(request.errorMessage(), request.isError());
+            assertEquals(0, request.returnValues().get(0).asInt32());
+            FileChunks chunks = new FileChunks(request.returnValues().get(1).asString(),
+                                               FileReferenceData.Type.valueOf(request.returnValues().get(2).asString()),
+                                               request.returnValues().get(3).asInt64(),
+                                               request.returnValues().get(4).asInt32(),
+                                               request.returnValues().get(5).asInt64Array());
+            assertEquals(FileChunks.of(file, "model.onnx", FileReferenceData.Type.file, FileChunks.defaultChunkSize), chunks);
+            assertEquals(3, chunks.count());
+
+            for (int chunk = 0; chunk < chunks.count(); chunk++) {
+                request = getFileChunkRequest("abcd", chunk);
+                tester.performRequest(request);
+                assertEquals(0, request.returnValues().get(0).asInt32());
+                assertTrue(chunks.isChunk(chunk, request.returnValues().get(1).asData()));
+            }
+
+            request = getFileChunkRequest("abcd", 3);
+            tester.performRequest(request);
+            assertEquals(1, request.returnValues().get(0).asInt32());
+
+            request = new Request(FileChunks.GET_CHUNKS_METHOD);
+            request.parameters().add(new StringValue("unknown"));
+            tester.performRequest(request);
+            assertEquals(1, request.returnValues().get(0).asInt32());
+        }
+    }
+
+    @Test
+    public void testGetDirectoryChunksAfterEviction() throws IOException, InterruptedException {
+        try (RpcTester tester = new RpcTester(applicationId, temporaryFolder)) {
+            for (int i = 0; i < 21; i++) {
+                File file = new File(tester.fileServerRootDir(), "dir" + i + "/model/model.onnx");
+                assertTrue(file.getParentFile().mkdirs());
+                IOUtils.writeFile(file, new byte[] { (byte) i });
+            }
+            FileChunks chunks = getFileChunks(tester, "dir0");
+            assertEquals(FileReferenceData.Type.compressed, chunks.type());
+            assertEquals(1, chunks.count());
+
+            // Evicts the compressed content of dir0, which is then deleted, and prepared again when requested
+            for (int i = 1; i < 21; i++)
+                getFileChunks(tester, "dir" + i);
+            assertEquals(20, new File(tester.fileServerRootDir(), ".chunks").list().length);
+
+            Request request = getFileChunkRequest("dir0", 0);
+            tester.performRequest(request);
+            assertEquals(0, request.returnValues().get(0).asInt32());
+            assertTrue(request.returnValues().get(1).asData().length > 0);
+        }
+    }
+
+    private static FileChunks getFileChunks(RpcTester tester, String fileReference) {
+        Request request = new Request(FileChunks.GET_CHUNKS_METHOD);
+        request.parameters().add(new StringValue(fileReference));
+        tester.performRequest(request);
+        assertFalse(request.errorMessage(), request.isError());
+        assertEquals(0, request.returnValues().get(0).asInt32());
+        return new FileChunks(request.returnValues().get(1).asString(),
+                              FileReferenceData.Type.valueOf(request.returnValues().get(2).asString()),
+                              request.returnValues().get(3).asInt64(),
+                              request.returnValues().get(4).asInt32(),
+                              request.returnValues().get(5).asInt64Array());
+    }
+
+    @Test
+    public void testFilePeers() throws IOException, InterruptedException {
+        try (RpcTester tester = new RpcTester(applicationId, temporaryFolder)) {
+            assertEquals(List.of(), getFilePeers(tester, "abcd", ""));
+
+            setFileReferenceAvailable(tester, "abcd", "tcp/localhost:19091", 0);
+            setFileReferenceAvailable(tester, "abcd", "tcp/localhost:19092", 0);
+            assertEquals(List.of("tcp/localhost:19091", "tcp/localhost:19092"), getFilePeers(tester, "abcd", "tcp/localhost:19093"));
+            assertEquals(List.of("tcp/localhost:19092"), getFilePeers(tester, "abcd", "tcp/localhost:19091"));
+
+            // The least assigned peers are preferred
+            setFileReferenceAvailable(tester, "abcd", "tcp/localhost:19093", 0);
+            assertEquals(List.of("tcp/localhost:19093", "tcp/localhost:19091", "tcp/localhost:19092"), getFilePeers(tester, "abcd", "tcp/localhost:19094"));
+            assertEquals(List.of(), getFilePeers(tester, "unknown", "tcp/localhost:19094"));
+
+            // Only nodes of deployed applications are assigned peers
+            assertEquals(List.of(), getFilePeers(tester, "abcd", ""));
+            assertEquals(List.of(), getFilePeers(tester, "abcd", "tcp/unknown.host:19090"));
+
+            // Peers of other applications are not assigned
+            ApplicationId other = ApplicationId.from(tenantName, ApplicationName.from("other"), InstanceName.defaultName());
+            tester.hostRegistry().update(other, List.of("other.host"));
+            assertEquals(List.of(), getFilePeers(tester, "abcd", "tcp/other.host:19090"));
+            setFileReferenceAvailable(tester, "abcd", "tcp/other.host:19090", 0);
+            assertEquals(List.of("tcp/other.host:19090"), getFilePeers(tester, "abcd", "tcp/other.host:19091"));
+
+            // Only nodes of deployed applications are peers
+            setFileReferenceAvailable(tester, "efgh", "tcp/unknown.host:19090", 1);
+            setFileReferenceAvailable(tester, "efgh", "malformed", 1);
+            assertEquals(List.of(), getFilePeers(tester, "efgh", ""));
+        }
+    }
+
+    private static List<String> getFilePeers(RpcTester tester, String fileReference, String requester) {
+        Request request = new Request(FileChunks.GET_PEERS_METHOD);
+        request.parameters().add(new StringValue(fileReference));
+        request.parameters().add(new StringValue(requester));
+        tester.performRequest(request);
+        assertFalse(request.errorMessage(), request.isError());
+        return List.of(request.returnValues().get(0).asStringArray());
+    }
+
+    private static void setFileReferenceAvailable(RpcTester tester, String fileReference, String peer, int expectedResult) {
+        Request request = new Request(FileChunks.SET_AVAILABLE_METHOD);
+        request.parameters().add(new StringValue(fileReference));
+        request.parameters().add(new StringValue(peer));
+        tester.performRequest(request);
+        assertFalse(request.errorMessage(), request.isError());
+        assertEquals(expectedResult, request.returnValues().get(0).asInt32());
+    }
+
+    private static Request getFileChunkRequest(String fileReference, int chunk) {
+        Request request = new Request(FileChunks.GET_CHUNK_METHOD);
+        request.parameters().add(new StringValue(fileReference));
+        request.parameters().add(new Int32Value(chunk));
+        return request;
+    }
+
     private JRTClientConfigRequest createSimpleRequest() {
         ConfigKey<?> key = new ConfigKey<>(SimpletypesConfig.class, "");
         JRTClientConfigRequest clientReq = createRequest(new RawConfig(key, SimpletypesConfig.getDefMd5()));
@@ -32,6 +32,7 @@ import com.yahoo.vespa.flags.InMemoryFlagSource;
 import org.junit.After;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -66,6 +67,7 @@ public class RpcTester implements AutoCloseable {
     private final List<Integer> allocatedPorts = new ArrayList<>();
     private final TemporaryFolder temporaryFolder;
     private final ConfigserverConfig configserverConfig;
+    private File fileServerRootDir;
 
     RpcTester(ApplicationId applicationId, TemporaryFolder temporaryFolder) throws InterruptedException, IOException {
         this(applicationId, temporaryFolder, new ConfigserverConfig.Builder());
@@ -123,7 +125,7 @@ public class RpcTester implements AutoCloseable {
                              Metrics.createTestMetrics(),
                              hostRegistry,
                              hostLivenessTracker,
-                             new FileServer(temporaryFolder.newFolder()),
+                             new FileServer(fileServerRootDir = temporaryFolder.newFolder()),
                              new NoopRpcAuthorizer(),
                              new RpcRequestHandlerProvider());
         rpcServer.setUpGetConfigHandlers();
@@ -171,12 +173,18 @@ public class RpcTester implements AutoCloseable {
             assertEquals(clock.instant(), hostLivenessTracker.lastRequestFrom(myHostname).get());
     }
 
+    HostRegistry hostRegistry() {
+        return hostRegistry;
+    }
+
     RpcServer rpcServer() {
         return rpcServer;
     }
 
     Tenant tenant() { return tenantRepository.getTenant(tenantName); }
 
+    File fileServerRootDir() { return fileServerRootDir; }
+
     public ApplicationRepository applicationRepository() { return applicationRepository; }
 
 }
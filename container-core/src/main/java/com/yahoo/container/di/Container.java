@@ -18,12 +18,14 @@ import com.yahoo.container.di.config.ApplicationBundlesConfig;
 import com.yahoo.container.di.config.PlatformBundlesConfig;
 import com.yahoo.container.di.config.SubscriberFactory;
 import com.yahoo.vespa.config.ConfigKey;
-import com.yahoo.yolean.UncheckedInterruptedException;
 import org.osgi.framework.Bundle;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -31,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static java.util.logging.Level.FINE;
 
@@ -54,6 +57,7 @@ public class Container {
     private List<String> platformBundles;  // Used to verify that platform bundles don't change.
     private long previousConfigGeneration = -1L;
     private long leastGeneration = -1L;
+    private final int constructionThreads = constructionThreads();
 
     public Container(SubscriberFactory subscriberFactory, String configId, ComponentDeconstructor destructor, Osgi osgi) {
         this.subscriberFactory = subscriberFactory;
@@ -67,6 +71,15 @@ public class Container {
         this.retriever = new ConfigRetriever(bootstrapKeys, subscriberFactory);
     }
 
+    /**
+     * Returns the number of threads to construct components on. This is 1 unless set by a system property,
+     * as constructors of existing components may not be safe to run concurrently with those of others.
+     */
+    private static int constructionThreads() {
+        String threads = System.getProperty("jdisc.container.constructionThreads");
+        return threads != null ? Integer.parseInt(threads) : 1;
+    }
+
     public Container(SubscriberFactory subscriberFactory, String configId, ComponentDeconstructor destructor) {
         this(subscriberFactory, configId, destructor, new Osgi() {
         });
@@ -161,11 +174,29 @@ public class Container {
     }
 
     private void constructComponents(ComponentGraph graph) {
-        graph.nodes().forEach(n -> {
-            if (Thread.interrupted())
-                throw new UncheckedInterruptedException("Interrupted while constructing component graph", true);
-            n.constructInstance();
-        });
+        Instant start = Instant.now();
+        graph.constructInstances(constructionThreads);
+        logConstructionTimes(graph, Duration.between(start, Instant.now()));
+    }
+
+    /** Logs the total time spent constructing new components, and the components which took the longest to construct */
+    private void logConstructionTimes(ComponentGraph graph, Duration totalTime) {
+        List<Node> constructed = graph.nodes().stream()
+                                      .filter(node -> node.constructionTime().isPresent())
+                                      .sorted(Comparator.comparing((Node node) -> node.constructionTime().get()).reversed())
+                                      .collect(Collectors.toList());
+        if (constructed.isEmpty()) return;
+
+        log.log(Level.INFO, () -> "Constructed " + constructed.size() + " components for generation " + graph.generation() +
+                                  " in " + totalTime + " using " + constructionThreads + " threads. Slowest: " +
+                                  constructionTimes(constructed.subList(0, Math.min(10, constructed.size()))));
+        log.log(FINE, () -> "Construction times for generation " + graph.generation() + ": " + constructionTimes(constructed));
+    }
+
+    private static String constructionTimes(List<Node> nodes) {
+        return nodes.stream()
+                    .map(node -> node.componentId() + " (" + node.constructionTime().get().toMillis() + " ms)")
+                    .collect(Collectors.joining(", "));
     }
 
     private void deconstructFailedGraph(ComponentGraph currentGraph, ComponentGraph failedGraph) {
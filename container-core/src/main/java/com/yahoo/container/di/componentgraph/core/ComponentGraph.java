@@ -9,6 +9,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.yahoo.collections.Pair;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.component.ComponentId;
 import com.yahoo.component.provider.ComponentRegistry;
 import com.yahoo.config.ConfigInstance;
@@ -16,6 +17,7 @@ import com.yahoo.container.di.componentgraph.Provider;
 import com.yahoo.container.di.componentgraph.cycle.CycleFinder;
 import com.yahoo.container.di.componentgraph.cycle.Graph;
 import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.yolean.UncheckedInterruptedException;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
@@ -27,11 +29,19 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -165,6 +175,78 @@ public class ComponentGraph {
         }
     }
 
+    /**
+     * Constructs the instances of all nodes which are not already constructed, using up to the given number of threads.
+     * Each node is constructed after the nodes it uses, so independent nodes are constructed in parallel.
+     * If construction of a node fails, or this is interrupted, no more nodes are started, and the first failure
+     * is thrown once the nodes already started are done, such that no construction is running after this returns.
+     *
+     * @throws UncheckedInterruptedException if interrupted before all nodes are constructed
+     */
+    public void constructInstances(int threads) {
+        List<Node> orderedNodes = topologicalSort(nodes());
+        if (threads <= 1) {
+            for (Node node : orderedNodes) {
+                if (Thread.interrupted())
+                    throw new UncheckedInterruptedException("Interrupted while constructing component graph", true);
+                node.constructInstance();
+            }
+            return;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("component-construction-"));
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Map<Node, CompletableFuture<Void>> constructed = new IdentityHashMap<>();
+        try {
+            for (Node node : orderedNodes) { // The nodes used by each node come before it
+                CompletableFuture<?>[] used = node.usedComponents().stream().map(constructed::get).toArray(CompletableFuture[]::new);
+                constructed.put(node, CompletableFuture.allOf(used).thenRunAsync(() -> {
+                    if (failed.get()) return;
+                    Thread.currentThread().setContextClassLoader(contextClassLoader);
+                    try {
+                        node.constructInstance();
+                    }
+                    catch (Throwable e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(constructed.values().toArray(CompletableFuture[]::new)).get();
+        }
+        catch (InterruptedException e) {
+            failed.set(true);
+            throw new UncheckedInterruptedException("Interrupted while constructing component graph", e, true);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+        finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+    }
+
+    /** Waits for the constructions started by the given executor to complete, also if this thread is interrupted */
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) break;
+                log.log(Level.WARNING, "Waiting for components which are still being constructed");
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
     /** All constructed components and providers of this, in reverse creation order, i.e., suited for ordered deconstruction. */
     public List<Object> allConstructedComponentsAndProviders() {
         List<Node> orderedNodes = topologicalSort(nodes());
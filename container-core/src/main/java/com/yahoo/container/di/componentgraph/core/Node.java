@@ -7,6 +7,7 @@ import com.yahoo.config.ConfigInstance;
 import com.yahoo.container.di.componentgraph.Provider;
 import com.yahoo.vespa.config.ConfigKey;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -23,6 +24,7 @@ public abstract class Node {
 
     private final ComponentId componentId;
     protected volatile Optional<Object> instance = Optional.empty();
+    private volatile Duration constructionTime = null;
     List<Node> componentsToInject = new ArrayList<>();
 
     public Node(ComponentId componentId) {
@@ -39,9 +41,17 @@ public abstract class Node {
     protected abstract Object newInstance();
 
     /** Constructs the instance represented by this node, if not already done. */
-    public void constructInstance() {
-        if ( ! instance.isPresent())
-            instance = Optional.of(newInstance());
+    public synchronized void constructInstance() {
+        if (instance.isPresent()) return;
+
+        long startNanos = System.nanoTime();
+        instance = Optional.of(newInstance());
+        constructionTime = Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /** Returns the time spent constructing the instance of this, or empty if it was constructed for another graph */
+    public Optional<Duration> constructionTime() {
+        return instance.isPresent() ? Optional.ofNullable(constructionTime) : Optional.empty();
     }
 
     /**
@@ -45,22 +45,26 @@ public class ContainerThreadpoolImpl extends AbstractComponent implements AutoCl
         int maxThreads = maxThreads(config, cpus);
         int minThreads = minThreads(config, maxThreads, cpus);
         int queueSize = queueSize(config, maxThreads);
-        log.info(String.format("Threadpool '%s': min=%d, max=%d, queue=%d", name, minThreads, maxThreads, queueSize));
+        log.info(String.format("Threadpool '%s': type=%s, min=%d, max=%d, queue=%d",
+                               name, config.type(), minThreads, maxThreads, queueSize));
 
         ThreadPoolMetric threadPoolMetric = new ThreadPoolMetric(metric, name);
-        WorkerCompletionTimingThreadPoolExecutor executor =
-                new WorkerCompletionTimingThreadPoolExecutor(minThreads, maxThreads,
-                        (int)config.keepAliveTime() * 1000, TimeUnit.MILLISECONDS,
-                        createQueue(queueSize),
-                        ThreadFactoryFactory.getThreadFactory(name),
-                        threadPoolMetric);
-        // Prestart needed, if not all threads will be created by the fist N tasks and hence they might also
-        // get the dreaded thread locals initialized even if they will never run.
-        // That counters what we want to achieve with the Q that will prefer thread locality.
-        executor.prestartAllCoreThreads();
+        MonitoredExecutorService executor;
+        switch (config.type()) {
+            case WORK_STEALING:
+                executor = new WorkStealingThreadPoolExecutor(maxThreads, queueSize,
+                                                              (long)(config.keepAliveTime() * 1000), TimeUnit.MILLISECONDS,
+                                                              name, threadPoolMetric);
+                break;
+            case THREAD_POOL:
+                executor = createThreadPoolExecutor(config, name, minThreads, maxThreads, queueSize, threadPoolMetric);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown thread pool type " + config.type());
+        }
         threadpool = new ExecutorServiceWrapper(
                 executor, threadPoolMetric, processTerminator, config.maxThreadExecutionTimeSeconds() * 1000L,
-                name);
+                name, config.type() == ContainerThreadpoolConfig.Type.WORK_STEALING);
     }
 
     @Override public Executor executor() { return threadpool; }
@@ -88,6 +92,25 @@ public class ContainerThreadpoolImpl extends AbstractComponent implements AutoCl
         }
     }
 
+    private static WorkerCompletionTimingThreadPoolExecutor createThreadPoolExecutor(ContainerThreadpoolConfig config,
+                                                                                     String name,
+                                                                                     int minThreads,
+                                                                                     int maxThreads,
+                                                                                     int queueSize,
+                                                                                     ThreadPoolMetric threadPoolMetric) {
+        WorkerCompletionTimingThreadPoolExecutor executor =
+                new WorkerCompletionTimingThreadPoolExecutor(minThreads, maxThreads,
+                        (int)config.keepAliveTime() * 1000, TimeUnit.MILLISECONDS,
+                        createQueue(queueSize),
+                        ThreadFactoryFactory.getThreadFactory(name),
+                        threadPoolMetric);
+        // Prestart needed, if not all threads will be created by the fist N tasks and hence they might also
+        // get the dreaded thread locals initialized even if they will never run.
+        // That counters what we want to achieve with the Q that will prefer thread locality.
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
     private static BlockingQueue<Runnable> createQueue(int size) {
         return size == 0 ? new SynchronousQueue<>(false) : new ArrayBlockingQueue<>(size);
     }
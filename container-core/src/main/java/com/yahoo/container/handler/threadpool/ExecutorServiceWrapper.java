@@ -20,29 +20,27 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 class ExecutorServiceWrapper extends ForwardingExecutorService {
 
-    private final WorkerCompletionTimingThreadPoolExecutor wrapped;
+    private final MonitoredExecutorService wrapped;
     private final ThreadPoolMetric metric;
     private final ProcessTerminator processTerminator;
     private final long maxThreadExecutionTimeMillis;
     private final int queueCapacity;
+    private final boolean reportQueueLatency;
     private final Thread metricReporter;
-    private final boolean threadPoolIsOnlyQ;
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
-    ExecutorServiceWrapper(WorkerCompletionTimingThreadPoolExecutor wrapped,
+    ExecutorServiceWrapper(MonitoredExecutorService wrapped,
                            ThreadPoolMetric metric,
                            ProcessTerminator processTerminator,
                            long maxThreadExecutionTimeMillis,
-                           String name) {
+                           String name,
+                           boolean reportQueueLatency) {
         this.wrapped = wrapped;
         this.metric = metric;
         this.processTerminator = processTerminator;
         this.maxThreadExecutionTimeMillis = maxThreadExecutionTimeMillis;
-        int maxQueueCapacity = wrapped.getQueue().remainingCapacity() + wrapped.getQueue().size();
-        this.threadPoolIsOnlyQ = (maxQueueCapacity == 0);
-        this.queueCapacity = threadPoolIsOnlyQ
-                ? wrapped.getMaximumPoolSize()
-                : maxQueueCapacity;
+        this.reportQueueLatency = reportQueueLatency;
+        this.queueCapacity = wrapped.queueCapacity();
         reportMetrics();
         metricReporter = new Thread(this::reportMetricsRegularly);
         metricReporter.setName(name + "-threadpool-metric-reporter");
@@ -50,12 +48,10 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
     }
 
     private void reportMetrics() {
-        int activeThreads = wrapped.getActiveCount();
         metric.reportThreadPoolSize(wrapped.getPoolSize());
         metric.reportMaxAllowedThreadPoolSize(wrapped.getMaximumPoolSize());
-        metric.reportActiveThreads(activeThreads);
-        int queueSize = threadPoolIsOnlyQ ? activeThreads : wrapped.getQueue().size();
-        metric.reportWorkQueueSize(queueSize);
+        metric.reportActiveThreads(wrapped.getActiveCount());
+        metric.reportWorkQueueSize(wrapped.queueSize());
         metric.reportWorkQueueCapacity(queueCapacity);
     }
 
@@ -90,7 +86,7 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
     }
 
     /**
-     * Tracks all instances of {@link RejectedExecutionException}.
+     * Tracks all instances of {@link RejectedExecutionException}, and the time each task waits for a thread, if enabled.
      * {@link ContainerThreadPool} returns an executor, so external uses will not
      * have access to the methods declared by {@link ExecutorService}.
      * ({@link Executor#execute(Runnable)} is declared by {@link Executor}.)
@@ -98,10 +94,10 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
     @Override
     public void execute(Runnable command) {
         try {
-            super.execute(command);
+            super.execute(reportQueueLatency ? new QueueTimedTask(command, System.nanoTime()) : command);
         } catch (RejectedExecutionException e) {
             metric.reportRejectRequest();
-            long timeSinceLastReturnedThreadMillis = System.currentTimeMillis() - wrapped.lastThreadAssignmentTimeMillis;
+            long timeSinceLastReturnedThreadMillis = System.currentTimeMillis() - wrapped.lastThreadAssignmentTimeMillis();
             if (timeSinceLastReturnedThreadMillis > maxThreadExecutionTimeMillis)
                 processTerminator.logAndDie("No worker threads have been available for " +
                         timeSinceLastReturnedThreadMillis + " ms. Shutting down.", true);
@@ -112,5 +108,23 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
     @Override
     protected ExecutorService delegate() { return wrapped; }
 
+    private class QueueTimedTask implements Runnable {
+
+        private final Runnable task;
+        private final long queuedAtNanos;
+
+        QueueTimedTask(Runnable task, long queuedAtNanos) {
+            this.task = task;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+
+        @Override
+        public void run() {
+            metric.reportQueueLatency(System.nanoTime() - queuedAtNanos);
+            task.run();
+        }
+
+    }
+
 }
 
@@ -0,0 +1,32 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.handler.threadpool;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An executor service which exposes what {@link ExecutorServiceWrapper} reports as metrics,
+ * and uses to detect that no worker threads are available.
+ *
+ * @author agent
+ */
+interface MonitoredExecutorService extends ExecutorService {
+
+    /** Returns the current number of threads */
+    int getPoolSize();
+
+    /** Returns the maximum number of threads */
+    int getMaximumPoolSize();
+
+    /** Returns the number of threads currently running a task */
+    int getActiveCount();
+
+    /** Returns the number of tasks waiting for a thread */
+    int queueSize();
+
+    /** Returns the maximum number of tasks which may wait for a thread */
+    int queueCapacity();
+
+    /** Returns the last time a thread was assigned a task, in milliseconds since epoch */
+    long lastThreadAssignmentTimeMillis();
+
+}
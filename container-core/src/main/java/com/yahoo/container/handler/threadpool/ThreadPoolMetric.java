@@ -11,15 +11,18 @@ import java.util.Map;
 class ThreadPoolMetric {
 
     private static final String THREAD_POOL_NAME_DIMENSION = "threadpool";
+    private static final String QUEUE_LATENCY = "jdisc.thread_pool.work_queue.latency";
 
     private final Metric metric;
     private final Metric.Context defaultContext;
     private final String threadPoolName;
+    private final Metric.Handle queueLatency; // null if the metric does not provide handles, as with mocks
 
     ThreadPoolMetric(Metric metric, String threadPoolName) {
         this.metric = metric;
         this.threadPoolName = threadPoolName;
         this.defaultContext = metric.createContext(Map.of(THREAD_POOL_NAME_DIMENSION, threadPoolName));
+        this.queueLatency = metric.handle(QUEUE_LATENCY, defaultContext);
     }
 
     void reportRejectRequest() {
@@ -41,6 +44,12 @@ class ThreadPoolMetric {
 
     void reportWorkQueueCapacity(long capacity) { metric.set("jdisc.thread_pool.work_queue.capacity", capacity, defaultContext); }
     void reportWorkQueueSize(long size) { metric.set("jdisc.thread_pool.work_queue.size", size, defaultContext); }
+    void reportQueueLatency(long nanos) {
+        if (queueLatency != null)
+            queueLatency.set(nanos / 1_000_000.0);
+        else
+            metric.set(QUEUE_LATENCY, nanos / 1_000_000.0, defaultContext);
+    }
     void reportUnhandledException(Throwable t) {
         Metric.Context ctx = metric.createContext(Map.of(
                 THREAD_POOL_NAME_DIMENSION, threadPoolName,
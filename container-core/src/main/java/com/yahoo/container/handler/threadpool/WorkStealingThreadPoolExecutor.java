@@ -0,0 +1,153 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.handler.threadpool;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An executor where each worker thread has its own queue, and idle workers steal tasks from the others,
+ * so submitting threads do not contend on a single queue as in a {@link java.util.concurrent.ThreadPoolExecutor}.
+ * Tasks submitted by other threads are spread over shared submission queues, while those submitted by
+ * the workers themselves are kept on the queue of the submitting worker.
+ *
+ * As the queues are unbounded, the number of tasks which are queued or running is limited
+ * by this, and tasks beyond that limit are rejected.
+ * The workers have the context class loader of the thread which created this, like the threads of a
+ * {@link java.util.concurrent.ThreadPoolExecutor}, rather than the system class loader of fork join workers.
+ * Package private for testing.
+ *
+ * @author agent
+ */
+class WorkStealingThreadPoolExecutor extends AbstractExecutorService implements MonitoredExecutorService {
+
+    private final ForkJoinPool pool;
+    private final ThreadPoolMetric metric;
+    private final int maxThreads;
+    private final int queueCapacity;
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicLong startedCount = new AtomicLong(0);
+    private final AtomicLong completedCount = new AtomicLong(0);
+    private volatile long lastThreadAssignmentTimeMillis = System.currentTimeMillis();
+
+    /**
+     * Creates a new work stealing executor.
+     *
+     * @param maxThreads the maximum number of threads
+     * @param queueSize the maximum number of tasks waiting for a thread, where 0 means no tasks wait
+     * @param keepAliveTime the time idle threads are kept before they are terminated
+     * @param unit the unit of keepAliveTime
+     * @param name the prefix of the names of the worker threads
+     * @param metric the metric to report unhandled exceptions to
+     */
+    WorkStealingThreadPoolExecutor(int maxThreads, int queueSize, long keepAliveTime, TimeUnit unit,
+                                   String name, ThreadPoolMetric metric) {
+        this.metric = metric;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueSize;
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.pool = new ForkJoinPool(maxThreads,
+                                     pool -> {
+                                         ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                                         thread.setName(name + "-worker-" + threadNumber.getAndIncrement());
+                                         thread.setContextClassLoader(contextClassLoader);
+                                         return thread;
+                                     },
+                                     null,
+                                     true,
+                                     maxThreads,
+                                     maxThreads,
+                                     1,
+                                     pool -> true, // tasks which block at max threads continue without compensation
+                                     keepAliveTime,
+                                     unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (pending.incrementAndGet() > maxThreads + queueCapacity) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("All " + maxThreads + " threads are busy, and " +
+                                                 queueCapacity + " tasks are waiting for them");
+        }
+        try {
+            pool.execute(new Task(command));
+        }
+        catch (RuntimeException | Error e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getPoolSize() { return pool.getPoolSize(); }
+
+    @Override
+    public int getMaximumPoolSize() { return maxThreads; }
+
+    @Override
+    public int getActiveCount() { return (int)(startedCount.get() - completedCount.get()); }
+
+    /** Returns the number of waiting tasks, or of active threads if no tasks may wait, like a synchronous queue */
+    @Override
+    public int queueSize() {
+        return queueCapacity == 0 ? getActiveCount() : Math.max(0, pending.get() - getActiveCount());
+    }
+
+    @Override
+    public int queueCapacity() { return queueCapacity == 0 ? maxThreads : queueCapacity; }
+
+    @Override
+    public long lastThreadAssignmentTimeMillis() { return lastThreadAssignmentTimeMillis; }
+
+    @Override
+    public void shutdown() { pool.shutdown(); }
+
+    @Override
+    public List<Runnable> shutdownNow() { return pool.shutdownNow(); }
+
+    @Override
+    public boolean isShutdown() { return pool.isShutdown(); }
+
+    @Override
+    public boolean isTerminated() { return pool.isTerminated(); }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    private class Task implements Runnable {
+
+        private final Runnable command;
+
+        Task(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            lastThreadAssignmentTimeMillis = System.currentTimeMillis();
+            startedCount.incrementAndGet();
+            try {
+                command.run();
+            }
+            catch (RuntimeException | Error e) {
+                metric.reportUnhandledException(e);
+                throw e;
+            }
+            finally {
+                completedCount.incrementAndGet();
+                pending.decrementAndGet();
+            }
+        }
+
+    }
+
+}
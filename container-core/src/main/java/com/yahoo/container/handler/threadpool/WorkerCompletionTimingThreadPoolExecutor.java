@@ -15,7 +15,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @author baldersheim
  * @author bratseth
  */
-class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor {
+class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor implements MonitoredExecutorService {
 
     volatile long lastThreadAssignmentTimeMillis = System.currentTimeMillis();
     private final AtomicLong startedCount = new AtomicLong(0);
@@ -54,5 +54,24 @@ class WorkerCompletionTimingThreadPoolExecutor extends ThreadPoolExecutor {
         return (int)(startedCount.get() - completedCount.get());
     }
 
+    /** Returns the number of queued tasks, or of active threads if the pool is the only queue */
+    @Override
+    public int queueSize() {
+        return threadPoolIsOnlyQueue() ? getActiveCount() : getQueue().size();
+    }
+
+    /** Returns the capacity of the queue, or the maximum number of threads if the pool is the only queue */
+    @Override
+    public int queueCapacity() {
+        return threadPoolIsOnlyQueue() ? getMaximumPoolSize() : getQueue().remainingCapacity() + getQueue().size();
+    }
+
+    @Override
+    public long lastThreadAssignmentTimeMillis() { return lastThreadAssignmentTimeMillis; }
+
+    private boolean threadPoolIsOnlyQueue() {
+        return getQueue().remainingCapacity() + getQueue().size() == 0;
+    }
+
 }
 
@@ -0,0 +1,167 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentChannel;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A content channel output stream which copies everything written to it into buffers from a {@link ResponseBufferPool},
+ * sends each buffer when it is full, and returns it to the pool when the content channel completes writing it.
+ * Large responses are thereby written in a few large chunks, without allocating memory for each chunk.
+ * This must only be used with content channels which are done with a buffer when they complete writing it.
+ *
+ * If max pending is positive, writes block while more than this many bytes are sent but not yet written.
+ *
+ * @author agent
+ */
+public class PooledContentChannelOutputStream extends ContentChannelOutputStream {
+
+    private final ResponseBufferPool pool;
+    private final long maxPending;
+    private final Object monitor = new Object();
+    private ByteBuffer current = null;
+    private long pending = 0; // Guarded by monitor
+
+    public PooledContentChannelOutputStream(ContentChannel endpoint, ResponseBufferPool pool, long maxPending) {
+        super(endpoint);
+        this.pool = pool;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        current().put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer buffer = current();
+            int chunk = Math.min(len, buffer.remaining());
+            buffer.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /** Copies the given array like {@link #write(byte[], int, int)}, which is cheap compared to sending it */
+    @Override
+    public void nonCopyingWrite(byte[] b, int off, int len) throws IOException {
+        write(b, off, len);
+    }
+
+    /** Copies the given array like {@link #write(byte[])}, which is cheap compared to sending it */
+    @Override
+    public void nonCopyingWrite(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /** Sends any content written to this stream, and then the given buffer, which is not returned to the pool */
+    @Override
+    public void send(ByteBuffer src) throws IOException {
+        sendCurrent();
+        send(src, null);
+    }
+
+    /** Sends the content written to this stream since the last flush */
+    @Override
+    public void flush() throws IOException {
+        sendCurrent();
+        if (current != null) { // Don't hold on to an empty buffer when this may be done
+            pool.release(current);
+            current = null;
+        }
+    }
+
+    @Override
+    public long written() {
+        return super.written() + (current == null ? 0 : current.position());
+    }
+
+    /** Returns the buffer to write to, which has room for at least one byte */
+    private ByteBuffer current() throws IOException {
+        if (current != null && ! current.hasRemaining())
+            sendCurrent();
+        if (current == null)
+            current = pool.acquire();
+        return current;
+    }
+
+    /** Sends the current buffer if it has content */
+    private void sendCurrent() throws IOException {
+        if (current == null || current.position() == 0) return;
+
+        ByteBuffer buffer = current.flip();
+        current = null;
+        int size = buffer.remaining();
+        awaitPendingAtMost(maxPending - size);
+        synchronized (monitor) { pending += size; }
+        CompletionHandler completion = new ReleasingCompletionHandler(buffer, size);
+        try {
+            send(buffer, completion);
+        }
+        catch (Throwable throwable) {
+            completion.failed(throwable);
+            throw throwable;
+        }
+    }
+
+    private void awaitPendingAtMost(long limit) throws InterruptedIOException {
+        if (maxPending <= 0) return;
+        synchronized (monitor) {
+            try {
+                while (pending > 0 && pending > limit)
+                    monitor.wait();
+            }
+            catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted waiting for IO");
+            }
+        }
+    }
+
+    private class ReleasingCompletionHandler implements CompletionHandler {
+
+        private final ByteBuffer buffer;
+        private final int size;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        ReleasingCompletionHandler(ByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        @Override
+        public void completed() {
+            if (done())
+                pool.release(buffer);
+        }
+
+        /** Drops the buffer, as it is not known whether the content channel is done with it */
+        @Override
+        public void failed(Throwable t) {
+            done();
+        }
+
+        /** Stops counting the buffer as pending, and returns whether this is the first call */
+        private boolean done() {
+            if (done.getAndSet(true)) return false;
+            synchronized (monitor) {
+                pending -= size;
+                monitor.notifyAll();
+            }
+            return true;
+        }
+
+    }
+
+}
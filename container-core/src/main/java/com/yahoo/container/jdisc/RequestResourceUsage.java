@@ -0,0 +1,115 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The CPU time used and the bytes allocated while processing a request, split on the parts of the processing,
+ * such as the handler and each searcher of a search chain. This is created by the http server for a sample
+ * of requests, and passed to handlers in the request context.
+ *
+ * Each part is charged with what its thread spent while it was the innermost part entered and not yet exited,
+ * so nested parts are not counted twice. Only the thread which first enters a part is measured:
+ * Work done by other threads on behalf of the request is not accounted for.
+ *
+ * @author agent
+ */
+public final class RequestResourceUsage {
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean allocations =
+            threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+
+    private final Map<Map<String, String>, Usage> usages = new LinkedHashMap<>();
+    private final Deque<Usage> entered = new ArrayDeque<>();
+    private Thread thread = null;
+    private long lastCpuTimeNanos;
+    private long lastAllocatedBytes;
+
+    /** Returns whether the CPU time and allocations of threads can be measured in this JVM */
+    public static boolean isSupported() {
+        return threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled()
+               && allocations != null && allocations.isThreadAllocatedMemorySupported()
+               && allocations.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Starts charging the current thread to the part with the given dimensions, e.g. "handler" and its name,
+     * until {@link #exit} is called. Usage up to now is charged to the part entered before this, if any.
+     */
+    public void enter(Map<String, String> part) {
+        if ( ! charge()) return;
+        entered.push(usages.computeIfAbsent(part, Usage::new));
+    }
+
+    /** Stops charging the current thread to the part last entered, and returns to the one entered before it */
+    public void exit() {
+        if ( ! charge()) return;
+        entered.pollFirst();
+    }
+
+    /** Charges the usage since the last call to the current part, and returns whether this is the measured thread */
+    private boolean charge() {
+        Thread current = Thread.currentThread();
+        if (thread == null)
+            thread = current;
+        else if (thread != current)
+            return false;
+
+        long cpuTimeNanos = threads.getCurrentThreadCpuTime();
+        long allocatedBytes = allocations.getThreadAllocatedBytes(current.getId());
+        Usage usage = entered.peekFirst();
+        if (usage != null) {
+            usage.cpuTimeNanos += cpuTimeNanos - lastCpuTimeNanos;
+            usage.allocatedBytes += allocatedBytes - lastAllocatedBytes;
+        }
+        lastCpuTimeNanos = cpuTimeNanos;
+        lastAllocatedBytes = allocatedBytes;
+        return true;
+    }
+
+    /** Returns the usage of each part entered so far, by its dimensions. This must be read by the measured thread. */
+    public Map<Map<String, String>, Usage> usages() { return Collections.unmodifiableMap(usages); }
+
+    /** Returns the total CPU time charged to all parts, in nanoseconds */
+    public long cpuTimeNanos() {
+        return usages.values().stream().mapToLong(Usage::cpuTimeNanos).sum();
+    }
+
+    /** Returns the total number of bytes allocated, charged to all parts */
+    public long allocatedBytes() {
+        return usages.values().stream().mapToLong(Usage::allocatedBytes).sum();
+    }
+
+    /** The resources used by a part of the processing of a request */
+    public static final class Usage {
+
+        private final Map<String, String> dimensions;
+        private long cpuTimeNanos = 0;
+        private long allocatedBytes = 0;
+
+        private Usage(Map<String, String> dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        /** Returns the metric dimensions identifying this part */
+        public Map<String, String> dimensions() { return dimensions; }
+
+        public long cpuTimeNanos() { return cpuTimeNanos; }
+
+        public long allocatedBytes() { return allocatedBytes; }
+
+        @Override
+        public String toString() {
+            return dimensions + ": " + cpuTimeNanos + " ns CPU, " + allocatedBytes + " bytes allocated";
+        }
+
+    }
+
+}
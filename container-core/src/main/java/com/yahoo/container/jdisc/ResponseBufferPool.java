@@ -0,0 +1,42 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A pool of equally sized buffers for response content, which are reused once they have been written.
+ * Buffers are allocated when the pool is empty, and dropped when it is full.
+ *
+ * @author agent
+ */
+public final class ResponseBufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    public ResponseBufferPool(int bufferSize, int maxBuffers) {
+        if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be positive, but was " + bufferSize);
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, maxBuffers));
+    }
+
+    public int bufferSize() { return bufferSize; }
+
+    /** Returns an empty buffer with this pool's buffer size */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocate(bufferSize);
+    }
+
+    /** Returns the given buffer to this pool. The caller must not use it afterwards. */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isReadOnly()) return;
+        buffers.offer(buffer);
+    }
+
+    /** Returns the number of unused buffers in this pool */
+    int size() { return buffers.size(); }
+
+}
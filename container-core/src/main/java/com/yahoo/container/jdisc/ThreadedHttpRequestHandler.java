@@ -12,6 +12,7 @@ import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.handler.UnsafeContentInputStream;
 import com.yahoo.jdisc.handler.ResponseHandler;
 import com.yahoo.jdisc.http.server.jetty.AccessLoggingRequestHandler;
+import com.yahoo.jdisc.http.server.jetty.RequestUtils;
 import com.yahoo.yolean.Exceptions;
 
 import java.util.Optional;
@@ -39,6 +40,8 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
     public static final String CONTENT_TYPE = "Content-Type";
     private static final String RENDERING_ERRORS = "rendering_errors";
     private static final String UNHANDLED_EXCEPTIONS_METRIC = "jdisc.http.handler.unhandled_exceptions";
+    private static final String CPU_TIME_METRIC = "jdisc.http.handler.cpu_time";
+    private static final String ALLOCATED_BYTES_METRIC = "jdisc.http.handler.allocated_bytes";
 
     /** Logger for subclasses */
     protected final Logger log;
@@ -85,6 +88,9 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         HttpRequest httpRequest = new HttpRequest(jdiscRequest, new UnsafeContentInputStream(requestContent.toReadable()));
         LazyContentChannel channel = null;
         try {
+            Object resourceUsage = jdiscRequest.context().get(RequestUtils.JDISC_RESOURCE_USAGE);
+            if (resourceUsage instanceof RequestResourceUsage)
+                ((RequestResourceUsage) resourceUsage).enter(Map.of()); // The handler itself has no extra dimensions
             channel = new LazyContentChannel(httpRequest, responseHandler, metric, log);
             HttpResponse httpResponse = handle(httpRequest, channel);
             channel.setHttpResponse(httpResponse); // may or may not have already been done
@@ -93,6 +99,7 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
             metric.add(UNHANDLED_EXCEPTIONS_METRIC, 1L, contextFor(request, Map.of("exception", e.getClass().getSimpleName())));
             metric.add(RENDERING_ERRORS, 1, null);
             log.log(Level.SEVERE, "Uncaught exception handling request", e);
+            reportResourceUsage(jdiscRequest);
             if (channel != null) {
                 channel.setHttpResponse(null);
                 channel.close(null);
@@ -108,8 +115,7 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         LoggingCompletionHandler logOnCompletion = null;
         ContentChannelOutputStream output = null;
         try {
-            output = httpResponse.maxPendingBytes() > 0 ? new MaxPendingContentChannelOutputStream(channel, httpResponse.maxPendingBytes())
-                                                        : new ContentChannelOutputStream(channel);
+            output = createOutputStream(request, httpResponse, channel);
             logOnCompletion = createLoggingCompletionHandler(startTime, System.currentTimeMillis(),
                                                              httpResponse, request, output);
 
@@ -131,12 +137,44 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
                     "IO error while responding to  [" + request.getUri() + "] (total time " + time + " ms) ", e);
             try { output.flush(); } catch (Exception ignored) { }
         } finally {
+            reportResourceUsage(request.getJDiscRequest());
             if (channel != null && ! (httpResponse instanceof AsyncHttpResponse)) {
                 channel.close(logOnCompletion);
             }
         }
     }
 
+    /**
+     * Stops measuring the resource usage of the given request, if it is sampled for this, and reports it as metrics
+     * and in the access log. This must be done before the response is completed, for the access log to include it.
+     */
+    private void reportResourceUsage(com.yahoo.jdisc.http.HttpRequest request) {
+        // Removing it ensures this is reported once, and that nothing more is charged to the handler after this
+        Object removed = request.context().remove(RequestUtils.JDISC_RESOURCE_USAGE);
+        if ( ! (removed instanceof RequestResourceUsage)) return;
+
+        RequestResourceUsage resourceUsage = (RequestResourceUsage) removed;
+        resourceUsage.exit();
+        for (RequestResourceUsage.Usage usage : resourceUsage.usages().values()) {
+            Metric.Context context = contextFor(request, usage.dimensions());
+            metric.set(CPU_TIME_METRIC, usage.cpuTimeNanos() / 1_000_000.0, context);
+            metric.set(ALLOCATED_BYTES_METRIC, usage.allocatedBytes(), context);
+        }
+        AccessLoggingRequestHandler.getAccessLogEntry(request).ifPresent(entry -> {
+            entry.addKeyValue("cpu-time-micros", Long.toString(resourceUsage.cpuTimeNanos() / 1000));
+            entry.addKeyValue("allocated-bytes", Long.toString(resourceUsage.allocatedBytes()));
+        });
+    }
+
+    private static ContentChannelOutputStream createOutputStream(HttpRequest request, HttpResponse httpResponse, ContentChannel channel) {
+        Object pool = request.getJDiscRequest().context().get(RequestUtils.JDISC_RESPONSE_BUFFER_POOL);
+        if (pool instanceof ResponseBufferPool)
+            return new PooledContentChannelOutputStream(channel, (ResponseBufferPool) pool, httpResponse.maxPendingBytes());
+        if (httpResponse.maxPendingBytes() > 0)
+            return new MaxPendingContentChannelOutputStream(channel, httpResponse.maxPendingBytes());
+        return new ContentChannelOutputStream(channel);
+    }
+
     /**
      * A content channel which will return the header and create the proper channel the first time content data needs
      * to be written to it.
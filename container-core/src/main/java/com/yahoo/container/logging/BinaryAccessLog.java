@@ -0,0 +1,27 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import com.yahoo.component.AbstractComponent;
+import com.yahoo.container.core.AccessLogConfig;
+
+/**
+ * Log a message in the compact Vespa binary access log format, see {@link BinaryFormatter}.
+ *
+ * @author agent
+ */
+public final class BinaryAccessLog extends AbstractComponent implements RequestLogHandler {
+
+    private final AccessLogHandler logHandler;
+
+    public BinaryAccessLog(AccessLogConfig config) {
+        logHandler = new AccessLogHandler(config.fileHandler(), new BinaryFormatter());
+    }
+
+    @Override
+    public void log(RequestLogEntry entry) {
+        logHandler.log(entry);
+    }
+
+    @Override public void deconstruct() { logHandler.shutdown(); }
+
+}
@@ -0,0 +1,53 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts binary access logs written by {@link BinaryAccessLog} to the JSON access log format, one entry per line.
+ *
+ * Usage: BinaryAccessLogDecoder [file ...], where files ending in .gz are decompressed, and standard input
+ * is read if no files are given. Zstd compressed logs can be piped through zstd -dc.
+ *
+ * @author agent
+ */
+public class BinaryAccessLogDecoder {
+
+    private final JSONFormatter formatter = new JSONFormatter();
+
+    /** Writes each entry in the given binary access log to the given output, in the JSON access log format */
+    public void decode(InputStream in, OutputStream out) throws IOException {
+        for (RequestLogEntry entry; (entry = BinaryFormatter.read(in)) != null; ) {
+            formatter.write(entry, out);
+            out.write('\n');
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        BinaryAccessLogDecoder decoder = new BinaryAccessLogDecoder();
+        OutputStream out = new BufferedOutputStream(System.out, 1 << 16);
+        if (args.length == 0) {
+            decoder.decode(new BufferedInputStream(System.in, 1 << 16), out);
+        }
+        for (String file : args) {
+            try (InputStream in = open(file)) {
+                decoder.decode(in, out);
+            }
+        }
+        out.flush();
+    }
+
+    private static InputStream open(String file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.endsWith(".gz"))
+            in = new GZIPInputStream(in, 1 << 16);
+        return new BufferedInputStream(in, 1 << 16);
+    }
+
+}
@@ -0,0 +1,334 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Formatting of a {@link RequestLogEntry} in the compact Vespa binary access log format, and reading it back.
+ *
+ * Each record is a format version byte, the length of the rest of the record, a bit set of the fields present,
+ * and the present fields in a fixed order, followed by the newline ending every log record. Numbers are written
+ * as variable length integers with 7 bits per byte, and strings as their UTF-8 length followed by their UTF-8
+ * bytes. Trace nodes are not written. Records are encoded into a buffer owned by this, so an instance must only
+ * be used by a single thread, which is the case for the log thread of an access log.
+ *
+ * Use {@link BinaryAccessLogDecoder} to convert binary access logs to the JSON access log format.
+ *
+ * @author agent
+ */
+public class BinaryFormatter implements LogWriter<RequestLogEntry> {
+
+    static final int version = 1;
+
+    private static final int connectionId = 0;
+    private static final int timestamp = 1;
+    private static final int duration = 2;
+    private static final int localPort = 3;
+    private static final int peerAddress = 4;
+    private static final int peerPort = 5;
+    private static final int remoteAddress = 6;
+    private static final int remotePort = 7;
+    private static final int userAgent = 8;
+    private static final int referer = 9;
+    private static final int httpMethod = 10;
+    private static final int httpVersion = 11;
+    private static final int hostString = 12;
+    private static final int statusCode = 13;
+    private static final int responseSize = 14;
+    private static final int requestSize = 15;
+    private static final int scheme = 16;
+    private static final int rawPath = 17;
+    private static final int rawQuery = 18;
+    private static final int userPrincipal = 19;
+    private static final int sslPrincipal = 20;
+    private static final int hitCounts = 21;
+    private static final int extraAttributes = 22;
+
+    /** The largest record we'll attempt to read, to fail rather than run out of memory on corrupt input */
+    private static final int maxRecordSize = 64 * 1024 * 1024;
+
+    private final Buffer fields = new Buffer();
+    private final Buffer header = new Buffer();
+
+    @Override
+    public void write(RequestLogEntry entry, OutputStream outputStream) throws IOException {
+        fields.reset();
+        long present = 0;
+        if (entry.connectionId().isPresent()) { present |= 1L << connectionId; fields.putString(entry.connectionId().get()); }
+        if (entry.timestamp().isPresent()) { present |= 1L << timestamp; fields.putLong(entry.timestamp().get().toEpochMilli()); }
+        if (entry.duration().isPresent()) { present |= 1L << duration; fields.putLong(Math.max(0, entry.duration().get().toNanos())); }
+        if (entry.localPort().isPresent()) { present |= 1L << localPort; fields.putLong(entry.localPort().getAsInt()); }
+        if (entry.peerAddress().isPresent()) { present |= 1L << peerAddress; fields.putString(entry.peerAddress().get()); }
+        if (entry.peerPort().isPresent()) { present |= 1L << peerPort; fields.putLong(entry.peerPort().getAsInt()); }
+        if (entry.remoteAddress().isPresent()) { present |= 1L << remoteAddress; fields.putString(entry.remoteAddress().get()); }
+        if (entry.remotePort().isPresent()) { present |= 1L << remotePort; fields.putLong(entry.remotePort().getAsInt()); }
+        if (entry.userAgent().isPresent()) { present |= 1L << userAgent; fields.putString(entry.userAgent().get()); }
+        if (entry.referer().isPresent()) { present |= 1L << referer; fields.putString(entry.referer().get()); }
+        if (entry.httpMethod().isPresent()) { present |= 1L << httpMethod; fields.putString(entry.httpMethod().get()); }
+        if (entry.httpVersion().isPresent()) { present |= 1L << httpVersion; fields.putString(entry.httpVersion().get()); }
+        if (entry.hostString().isPresent()) { present |= 1L << hostString; fields.putString(entry.hostString().get()); }
+        if (entry.statusCode().isPresent()) { present |= 1L << statusCode; fields.putLong(entry.statusCode().getAsInt()); }
+        if (entry.responseSize().isPresent()) { present |= 1L << responseSize; fields.putLong(entry.responseSize().getAsLong()); }
+        if (entry.requestSize().isPresent()) { present |= 1L << requestSize; fields.putLong(entry.requestSize().getAsLong()); }
+        if (entry.scheme().isPresent()) { present |= 1L << scheme; fields.putString(entry.scheme().get()); }
+        if (entry.rawPath().isPresent()) { present |= 1L << rawPath; fields.putString(entry.rawPath().get()); }
+        if (entry.rawQuery().isPresent()) { present |= 1L << rawQuery; fields.putString(entry.rawQuery().get()); }
+        if (entry.userPrincipal().isPresent()) { present |= 1L << userPrincipal; fields.putString(entry.userPrincipal().get().getName()); }
+        if (entry.sslPrincipal().isPresent()) { present |= 1L << sslPrincipal; fields.putString(entry.sslPrincipal().get().getName()); }
+        if (entry.hitCounts().isPresent()) { present |= 1L << hitCounts; putHitCounts(entry.hitCounts().get()); }
+        if ( ! entry.extraAttributeKeys().isEmpty()) { present |= 1L << extraAttributes; putExtraAttributes(entry); }
+
+        header.reset();
+        header.putLong(present);
+        outputStream.write(version);
+        writeVarLong(outputStream, header.size + fields.size);
+        header.writeTo(outputStream);
+        fields.writeTo(outputStream);
+    }
+
+    private void putHitCounts(HitCounts counts) {
+        fields.putLong(counts.getRetrievedHitCount());
+        fields.putLong(counts.getSummaryCount());
+        fields.putLong(counts.getTotalHitCount());
+        fields.putLong(counts.getRequestedHits());
+        fields.putLong(counts.getRequestedOffset());
+        Coverage coverage = counts.getCoverage();
+        fields.putLong(coverage == null ? 0 : 1);
+        if (coverage != null) {
+            fields.putLong(coverage.getDocs());
+            fields.putLong(coverage.getActive());
+            fields.putLong(coverage.getSoonActive());
+            fields.putLong(Coverage.toDegradation(coverage.isDegradedByMatchPhase(),
+                                                  coverage.isDegradedByTimeout(),
+                                                  coverage.isDegradedByAdapativeTimeout()));
+        }
+    }
+
+    private void putExtraAttributes(RequestLogEntry entry) {
+        Collection<String> keys = entry.extraAttributeKeys();
+        fields.putLong(keys.size());
+        for (String key : keys) {
+            Collection<String> values = entry.extraAttributeValues(key);
+            fields.putString(key);
+            fields.putLong(values.size());
+            for (String value : values)
+                fields.putString(value);
+        }
+    }
+
+    /**
+     * Reads the next record written by this from the given input stream.
+     *
+     * @return the next entry, or null if the input stream is at its end
+     * @throws IOException if the input stream fails, or does not contain a valid record
+     */
+    public static RequestLogEntry read(InputStream in) throws IOException {
+        int recordVersion = in.read();
+        if (recordVersion == -1) return null;
+        if (recordVersion != version)
+            throw new IOException("Unsupported binary access log format version " + recordVersion);
+
+        long size = readVarLong(in);
+        if (size > maxRecordSize)
+            throw new IOException("Binary access log record of " + size + " bytes is too large");
+        byte[] record = in.readNBytes((int) size);
+        if (record.length < size || in.read() != '\n')
+            throw new EOFException("Truncated binary access log record");
+
+        Reader reader = new Reader(record);
+        long present = reader.getLong();
+        RequestLogEntry.Builder builder = new RequestLogEntry.Builder();
+        if (has(present, connectionId)) builder.connectionId(reader.getString());
+        if (has(present, timestamp)) builder.timestamp(Instant.ofEpochMilli(reader.getLong()));
+        if (has(present, duration)) builder.duration(Duration.ofNanos(reader.getLong()));
+        if (has(present, localPort)) builder.localPort(reader.getInt());
+        if (has(present, peerAddress)) builder.peerAddress(reader.getString());
+        if (has(present, peerPort)) builder.peerPort(reader.getInt());
+        if (has(present, remoteAddress)) builder.remoteAddress(reader.getString());
+        if (has(present, remotePort)) builder.remotePort(reader.getInt());
+        if (has(present, userAgent)) builder.userAgent(reader.getString());
+        if (has(present, referer)) builder.referer(reader.getString());
+        if (has(present, httpMethod)) builder.httpMethod(reader.getString());
+        if (has(present, httpVersion)) builder.httpVersion(reader.getString());
+        if (has(present, hostString)) builder.hostString(reader.getString());
+        if (has(present, statusCode)) builder.statusCode(reader.getInt());
+        if (has(present, responseSize)) builder.responseSize(reader.getLong());
+        if (has(present, requestSize)) builder.requestSize(reader.getLong());
+        if (has(present, scheme)) builder.scheme(reader.getString());
+        if (has(present, rawPath)) builder.rawPath(reader.getString());
+        if (has(present, rawQuery)) builder.rawQuery(reader.getString());
+        if (has(present, userPrincipal)) builder.userPrincipal(new NamedPrincipal(reader.getString()));
+        if (has(present, sslPrincipal)) builder.sslPrincipal(new NamedPrincipal(reader.getString()));
+        if (has(present, hitCounts)) builder.hitCounts(reader.getHitCounts());
+        if (has(present, extraAttributes)) {
+            for (long keys = reader.getLong(); keys > 0; keys--) {
+                String key = reader.getString();
+                for (long values = reader.getLong(); values > 0; values--)
+                    builder.addExtraAttribute(key, reader.getString());
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean has(long present, int field) { return (present & (1L << field)) != 0; }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b == -1) throw new EOFException("Truncated binary access log record");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed variable length integer in binary access log record");
+    }
+
+    /** A growable byte buffer which encodes strings directly to UTF-8, without allocating */
+    private static class Buffer {
+
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+
+        void reset() { size = 0; }
+
+        void writeTo(OutputStream out) throws IOException { out.write(bytes, 0, size); }
+
+        void putLong(long value) {
+            ensureCapacity(size + 10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putString(String value) {
+            int length = value.length();
+            putLong(utf8Length(value));
+            ensureCapacity(size + 3 * length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                }
+                else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | (c >> 6));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+                else if (isSurrogatePair(value, i)) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                }
+                else if (Character.isSurrogate(c)) {
+                    bytes[size++] = '?'; // Unpaired surrogate, replaced like String.getBytes does
+                }
+                else {
+                    bytes[size++] = (byte) (0xE0 | (c >> 12));
+                    bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private static int utf8Length(String value) {
+            int length = value.length();
+            int utf8Length = length;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) continue;
+                if (c < 0x800) utf8Length += 1;
+                else if (isSurrogatePair(value, i)) { utf8Length += 2; i++; }
+                else if ( ! Character.isSurrogate(c)) utf8Length += 2;
+            }
+            return utf8Length;
+        }
+
+        private static boolean isSurrogatePair(String value, int index) {
+            return Character.isHighSurrogate(value.charAt(index))
+                   && index + 1 < value.length()
+                   && Character.isLowSurrogate(value.charAt(index + 1));
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+        }
+
+    }
+
+    private static class Reader {
+
+        private final byte[] bytes;
+        private int position = 0;
+
+        Reader(byte[] bytes) { this.bytes = bytes; }
+
+        long getLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= bytes.length) throw new EOFException("Truncated binary access log record");
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed variable length integer in binary access log record");
+        }
+
+        int getInt() throws IOException {
+            long value = getLong();
+            if (value != (int) value) throw new IOException("Integer out of range in binary access log record");
+            return (int) value;
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length > bytes.length - position) throw new EOFException("Truncated binary access log record");
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        HitCounts getHitCounts() throws IOException {
+            int retrieved = getInt();
+            int summaries = getInt();
+            long total = getLong();
+            int requestedHits = getInt();
+            int requestedOffset = getInt();
+            Coverage coverage = getLong() == 0 ? null : new Coverage(getLong(), getLong(), getLong(), getInt());
+            return new HitCounts(retrieved, summaries, total, requestedHits, requestedOffset, coverage);
+        }
+
+    }
+
+    private static class NamedPrincipal implements Principal {
+
+        private final String name;
+
+        NamedPrincipal(String name) { this.name = name; }
+
+        @Override public String getName() { return name; }
+        @Override public String toString() { return name; }
+
+    }
+
+}
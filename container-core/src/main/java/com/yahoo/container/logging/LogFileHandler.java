@@ -20,12 +20,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -34,6 +34,9 @@ import java.util.zip.GZIPOutputStream;
 /**
  * Implements log file naming/rotating logic for container logs.
  *
+ * Log records are passed through a lock-free ring buffer to a single log thread, which takes them in batches,
+ * formats each batch into a reusable buffer, and writes it to the log file at once.
+ *
  * @author Bob Travis
  * @author bjorncs
  */
@@ -42,10 +45,12 @@ class LogFileHandler <LOGTYPE> {
     enum Compression {NONE, GZIP, ZSTD}
 
     private final static Logger logger = Logger.getLogger(LogFileHandler.class.getName());
-    private final BlockingQueue<Operation<LOGTYPE>> logQueue;
+    /** The max number of operations handled in one batch by the log thread */
+    private static final int maxBatchSize = 256;
+    private final RingBuffer<Operation<LOGTYPE>> logQueue;
     final LogThread<LOGTYPE> logThread;
 
-    @FunctionalInterface private interface Pollable<T> { Operation<T> poll() throws InterruptedException; }
+    @FunctionalInterface private interface Pollable<T> { int poll(List<Operation<T>> batch) throws InterruptedException; }
 
     LogFileHandler(Compression compression, int bufferSize, String filePattern, String rotationTimes, String symlinkName,
                    int queueSize, String threadName, LogWriter<LOGTYPE> logWriter) {
@@ -54,13 +59,13 @@ class LogFileHandler <LOGTYPE> {
 
     LogFileHandler(Compression compression, int bufferSize, String filePattern, long[] rotationTimes, String symlinkName,
                    int queueSize, String threadName, LogWriter<LOGTYPE> logWriter) {
-        this.logQueue = new LinkedBlockingQueue<>(queueSize);
+        this.logQueue = new RingBuffer<>(queueSize);
         this.logThread = new LogThread<>(logWriter, filePattern, compression, bufferSize, rotationTimes, symlinkName, threadName, this::poll);
         this.logThread.start();
     }
 
-    private Operation<LOGTYPE> poll() throws InterruptedException {
-        return logQueue.poll(100, TimeUnit.MILLISECONDS);
+    private int poll(List<Operation<LOGTYPE>> batch) throws InterruptedException {
+        return logQueue.drainTo(batch, maxBatchSize, 100, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -186,6 +191,7 @@ class LogFileHandler <LOGTYPE> {
         private final Pollable<LOGTYPE> operationProvider;
         long lastFlush = 0;
         private PageCacheFriendlyFileOutputStream fileOutput = null;
+        private final BatchBuffer batchBuffer;
         private long nextRotationTime = 0;
         private final String filePattern;  // default to current directory, ms time stamp
         private volatile String fileName;
@@ -215,6 +221,7 @@ class LogFileHandler <LOGTYPE> {
             this.rotationTimes = rotationTimes;
             this.symlinkName = (symlinkName != null && !symlinkName.isBlank()) ? symlinkName : null;
             this.operationProvider = operationProvider;
+            this.batchBuffer = new BatchBuffer(bufferSize);
         }
 
         private static ExecutorService createCompressionTaskExecutor() {
@@ -239,21 +246,29 @@ class LogFileHandler <LOGTYPE> {
         }
 
         private void handleLogOperations() throws InterruptedException {
+            List<Operation<LOGTYPE>> batch = new ArrayList<>(maxBatchSize);
             while (!isInterrupted()) {
-                Operation<LOGTYPE> r = operationProvider.poll();
-                if (r != null) {
-                    if (r.type == Operation.Type.flush) {
-                        internalFlush();
-                    } else if (r.type == Operation.Type.close) {
-                        internalClose();
-                    } else if (r.type == Operation.Type.rotate) {
-                        internalRotateNow();
-                        lastFlush = System.nanoTime();
-                    } else if (r.type == Operation.Type.log) {
-                        internalPublish(r.log.get());
-                        flushIfOld(3, TimeUnit.SECONDS);
+                if (operationProvider.poll(batch) > 0) {
+                    for (Operation<LOGTYPE> r : batch) {
+                        if (r.type == Operation.Type.log) {
+                            internalPublish(r.log.get());
+                            continue;
+                        }
+                        writeBatch(); // Preserve the order of records and other operations
+                        if (r.type == Operation.Type.flush) {
+                            internalFlush();
+                        } else if (r.type == Operation.Type.close) {
+                            internalClose();
+                        } else if (r.type == Operation.Type.rotate) {
+                            internalRotateNow();
+                            lastFlush = System.nanoTime();
+                        }
                     }
-                    r.countDownLatch.countDown();
+                    writeBatch();
+                    flushIfOld(3, TimeUnit.SECONDS);
+                    for (Operation<LOGTYPE> r : batch)
+                        r.countDownLatch.countDown();
+                    batch.clear();
                 } else {
                     flushIfOld(100, TimeUnit.MILLISECONDS);
                 }
@@ -299,14 +314,32 @@ class LogFileHandler <LOGTYPE> {
                 nextRotationTime = getNextRotationTime(now); // lazy initialization
             }
             if (now > nextRotationTime || fileOutput == null) {
+                writeBatch();
                 internalRotateNow();
             }
+            int start = batchBuffer.size();
             try {
-                logWriter.write(r, fileOutput);
-                fileOutput.write('\n');
+                logWriter.write(r, batchBuffer);
+                batchBuffer.write('\n');
             } catch (IOException e) {
+                batchBuffer.truncate(start);
                 logger.warning("Failed writing log record: " + Exceptions.toMessageString(e));
             }
+            if (batchBuffer.size() >= bufferSize) {
+                writeBatch();
+            }
+        }
+
+        /** Writes the records formatted since the last write to the log file */
+        private void writeBatch() {
+            if (batchBuffer.size() == 0) return;
+            try {
+                batchBuffer.writeTo(fileOutput);
+            } catch (IOException e) {
+                logger.warning("Failed writing log records: " + Exceptions.toMessageString(e));
+            } finally {
+                batchBuffer.reset();
+            }
         }
 
         /**
@@ -501,6 +534,52 @@ class LogFileHandler <LOGTYPE> {
         }
     }
 
+    /** An unsynchronized, reusable buffer of formatted log records, which is written to the log file at once */
+    private static class BatchBuffer extends OutputStream {
+
+        private final int initialSize;
+        private byte[] buffer;
+        private int size = 0;
+
+        BatchBuffer(int initialSize) {
+            this.initialSize = Math.max(1024, initialSize);
+            this.buffer = new byte[this.initialSize];
+        }
+
+        int size() { return size; }
+
+        /** Discards everything written after the given size */
+        void truncate(int size) { this.size = Math.min(this.size, size); }
+
+        /** Empties this, releasing any memory it has grown to hold for unusually large batches */
+        void reset() {
+            size = 0;
+            if (buffer.length > 4 * initialSize)
+                buffer = new byte[initialSize];
+        }
+
+        void writeTo(OutputStream out) throws IOException { out.write(buffer, 0, size); }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(size + len);
+            System.arraycopy(b, off, buffer, size, len);
+            size += len;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(capacity, 2 * buffer.length));
+        }
+
+    }
+
     /** File output stream that signals to kernel to drop previous pages after write */
     private static class PageCacheFriendlyFileOutputStream extends OutputStream {
 
@@ -0,0 +1,105 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue with many producers and a single consumer, where producers claim slots in an array with a
+ * compare-and-set on a shared counter instead of taking a lock. Each slot has a sequence number telling
+ * whether it is ready to be written to by a producer or read by the consumer, following Dmitry Vyukov's
+ * bounded MPMC queue. Producers wait for room when the buffer is full, and the consumer parks when it is empty,
+ * and is woken by the next producer.
+ *
+ * @author agent
+ */
+class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(0);
+    private long head = 0; // Only accessed by the consumer
+
+    private volatile Thread parkedConsumer = null;
+
+    /** Creates a ring buffer which holds at least the given number of elements, rounded up to a power of two */
+    RingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    int capacity() { return mask + 1; }
+
+    /** Adds the given element, or returns false if the buffer is full */
+    boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) return false; // The consumer has not yet read the element in this slot
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                elements.set(index, element);
+                sequences.set(index, position + 1);
+                Thread consumer = parkedConsumer;
+                if (consumer != null)
+                    LockSupport.unpark(consumer);
+                return true;
+            }
+        }
+    }
+
+    /** Adds the given element, waiting for room if the buffer is full */
+    void put(T element) throws InterruptedException {
+        for (int attempt = 0; ! offer(element); attempt++) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (attempt < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /**
+     * Moves up to the given number of elements to the given list, waiting up to the given time for some to arrive
+     * if the buffer is empty. Must only be called by a single consumer thread.
+     *
+     * @return the number of elements added to the list
+     */
+    int drainTo(List<? super T> batch, int maxElements, long timeout, TimeUnit unit) throws InterruptedException {
+        int drained = drainTo(batch, maxElements);
+        if (drained > 0) return drained;
+
+        parkedConsumer = Thread.currentThread();
+        try {
+            drained = drainTo(batch, maxElements); // Recheck, as a producer may have missed the parked consumer
+            if (drained > 0) return drained;
+            LockSupport.parkNanos(this, unit.toNanos(timeout));
+        }
+        finally {
+            parkedConsumer = null;
+        }
+        if (Thread.interrupted()) throw new InterruptedException();
+        return drainTo(batch, maxElements);
+    }
+
+    private int drainTo(List<? super T> batch, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) break; // No element, or a producer is still writing it
+            batch.add(elements.getAndSet(index, null));
+            sequences.set(index, head + capacity());
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+}
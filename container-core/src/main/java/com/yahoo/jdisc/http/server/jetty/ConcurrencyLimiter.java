@@ -0,0 +1,186 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.http.server.jetty;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.jdisc.application.BindingRepository;
+import com.yahoo.jdisc.application.BindingSet;
+import com.yahoo.jdisc.http.ServerConfig;
+import org.eclipse.jetty.server.Request;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of requests which are processed concurrently, to a limit which is continuously estimated
+ * from their latency: When the recent latency is higher than the long term latency by more than a tolerance,
+ * requests are queueing somewhere in the container, and the limit is reduced in proportion. Otherwise, the limit is
+ * increased by a margin, as long as the limit is actually used. Requests beyond the limit are rejected with 503
+ * before they reach a request handler, so they are cheap and clients can retry elsewhere.
+ *
+ * Requests matching the configured bindings get separate limits, and all other requests share one limit.
+ *
+ * @author agent
+ */
+class ConcurrencyLimiter {
+
+    static final String BINDING_DIMENSION = "binding";
+    private static final String DEFAULT_BINDING = "default";
+
+    private final boolean enabled;
+    private final List<Limit> limits = new ArrayList<>();
+    private final BindingSet<Limit> bindings;
+    private final Limit defaultLimit;
+
+    ConcurrencyLimiter(ServerConfig.ConcurrencyLimit config) {
+        this.enabled = config.enabled();
+        BindingRepository<Limit> repository = new BindingRepository<>();
+        for (String binding : config.binding()) {
+            Limit limit = new Limit(binding, config);
+            repository.bind(binding, limit);
+            limits.add(limit);
+        }
+        this.bindings = repository.activate();
+        this.defaultLimit = new Limit(DEFAULT_BINDING, config);
+        limits.add(defaultLimit);
+    }
+
+    /**
+     * Returns a permit to process the given request, which must be released when processing is done.
+     *
+     * @throws RequestException with status 503 if the limit of the request is reached
+     */
+    Permit acquire(Request request, Metric metric) {
+        if ( ! enabled) return Permit.unlimited;
+
+        Limit limit = limits.size() == 1 ? defaultLimit : resolve(request);
+        if ( ! limit.tryAcquire()) {
+            metric.add(MetricDefinitions.CONCURRENCY_LIMIT_REJECTED, 1L, limit.metricContext(metric));
+            throw new RequestException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                                       "Too many concurrent requests: The limit is " + limit.limit());
+        }
+        return new Permit(limit, System.nanoTime());
+    }
+
+    private Limit resolve(Request request) {
+        Limit limit = bindings.resolve(HttpRequestFactory.getUri(request));
+        return limit != null ? limit : defaultLimit;
+    }
+
+    void reportMetrics(Metric metric) {
+        if ( ! enabled) return;
+        for (Limit limit : limits) {
+            Metric.Context context = limit.metricContext(metric);
+            metric.set(MetricDefinitions.CONCURRENCY_LIMIT, limit.limit(), context);
+            metric.set(MetricDefinitions.CONCURRENCY_LIMIT_IN_FLIGHT, limit.inFlight(), context);
+        }
+    }
+
+    /** A permit to process a request, which counts towards a limit until it is released */
+    static class Permit {
+
+        static final Permit unlimited = new Permit(null, 0);
+
+        private final Limit limit;
+        private final long acquiredAtNanos;
+
+        private Permit(Limit limit, long acquiredAtNanos) {
+            this.limit = limit;
+            this.acquiredAtNanos = acquiredAtNanos;
+        }
+
+        /** Releases this, and uses the latency of the request to adjust the limit if the request was successful */
+        void release(boolean successful) {
+            if (limit == null) return;
+            limit.release(successful ? System.nanoTime() - acquiredAtNanos : -1);
+        }
+
+    }
+
+    /** A concurrency limit following the latency gradient of the requests it limits */
+    static class Limit {
+
+        /** The weight of each sample in the recent latency */
+        private static final double shortWeight = 0.1;
+        /** The weight of each sample in the long term latency */
+        private static final double longWeight = 1.0 / 600;
+        /** The weight of each new estimate in the limit */
+        private static final double smoothing = 0.2;
+
+        private final String binding;
+        private final double tolerance;
+        private final int minLimit;
+        private final int maxLimit;
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+        private volatile int limit;
+        private volatile Metric.Context metricContext = null;
+
+        // Guarded by this
+        private double estimate;
+        private double shortLatency = 0;
+        private double longLatency = 0;
+
+        Limit(String binding, ServerConfig.ConcurrencyLimit config) {
+            this(binding, config.initialLimit(), config.minLimit(), config.maxLimit(), config.latencyTolerance());
+        }
+
+        Limit(String binding, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+            this.binding = binding;
+            this.minLimit = minLimit;
+            this.maxLimit = Math.max(minLimit, maxLimit);
+            this.tolerance = tolerance;
+            this.estimate = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+            this.limit = (int) estimate;
+        }
+
+        int limit() { return limit; }
+
+        int inFlight() { return inFlight.get(); }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) return false;
+                if (inFlight.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        /** Releases a permit, and adjusts the limit with the given latency sample, unless it is negative */
+        void release(long latencyNanos) {
+            int current = inFlight.getAndDecrement();
+            if (latencyNanos >= 0)
+                sample(latencyNanos, current);
+        }
+
+        private synchronized void sample(double latencyNanos, int inFlight) {
+            double latency = Math.max(1, latencyNanos);
+            if (longLatency == 0) {
+                shortLatency = longLatency = latency;
+                return;
+            }
+            shortLatency += (latency - shortLatency) * shortWeight;
+            longLatency += (latency - longLatency) * longWeight;
+            // After a period of overload, let the long term latency recover quickly to the new normal
+            if (longLatency > 2 * shortLatency)
+                longLatency *= 0.95;
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+            // Don't grow the limit when it is not used, as we then learn nothing about whether it should be higher
+            if (gradient == 1.0 && inFlight < estimate / 2) return;
+
+            double newEstimate = estimate * gradient + Math.sqrt(estimate);
+            estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - smoothing) + newEstimate * smoothing));
+            limit = (int) estimate;
+        }
+
+        Metric.Context metricContext(Metric metric) {
+            if (metricContext == null)
+                metricContext = metric.createContext(Map.of(BINDING_DIMENSION, binding));
+            return metricContext;
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jdisc.http.server.jetty;
 
+import com.yahoo.container.jdisc.RequestResourceUsage;
 import com.yahoo.container.logging.AccessLogEntry;
 import com.yahoo.jdisc.Metric.Context;
 import com.yahoo.jdisc.References;
@@ -31,6 +32,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -54,6 +56,7 @@ class HttpRequestDispatch {
     private final ServletResponseController servletResponseController;
     private final RequestHandler requestHandler;
     private final RequestMetricReporter metricReporter;
+    private volatile ConcurrencyLimiter.Permit concurrencyPermit = null;
 
     HttpRequestDispatch(JDiscContext jDiscContext,
                                AccessLogEntry accessLogEntry,
@@ -79,6 +82,7 @@ class HttpRequestDispatch {
         CompletableFuture<Void> requestCompletion = startServletAsyncExecution();
         ServletRequestReader servletRequestReader;
         try {
+            concurrencyPermit = jDiscContext.concurrencyLimiter.acquire(jettyRequest, jDiscContext.metric);
             servletRequestReader = handleRequest();
         } catch (Throwable t) {
             servletResponseController.finishedFuture()
@@ -121,6 +125,7 @@ class HttpRequestDispatch {
     }
 
     private void onRequestFinished(AsyncContext asyncCtx, Throwable error) {
+        if (concurrencyPermit != null) concurrencyPermit.release(error == null);
         boolean reportedError = false;
         if (error != null) {
             // It's too late to write any error response and response writer must therefore be forcefully closed
@@ -199,6 +204,10 @@ class HttpRequestDispatch {
         ContentChannel requestContentChannel;
         try (ResourceReference ref = References.fromResource(jdiscRequest)) {
             HttpRequestFactory.copyHeaders(jettyRequest, jdiscRequest);
+            if (jDiscContext.responseBufferPool != null)
+                jdiscRequest.context().put(RequestUtils.JDISC_RESPONSE_BUFFER_POOL, jDiscContext.responseBufferPool);
+            if (jDiscContext.resourceUsageSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < jDiscContext.resourceUsageSampleRate)
+                jdiscRequest.context().put(RequestUtils.JDISC_RESOURCE_USAGE, new RequestResourceUsage());
             requestContentChannel = requestHandler.handleRequest(jdiscRequest, servletResponseController.responseHandler());
         }
         return new ServletRequestReader(jettyRequest, requestContentChannel, jDiscContext.janitor, metricReporter);
@@ -1,6 +1,8 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jdisc.http.server.jetty;
 
+import com.yahoo.container.jdisc.RequestResourceUsage;
+import com.yahoo.container.jdisc.ResponseBufferPool;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.http.ServerConfig;
 import com.yahoo.jdisc.service.CurrentContainer;
@@ -11,6 +13,9 @@ public class JDiscContext {
     final Janitor janitor;
     final Metric metric;
     final ServerConfig serverConfig;
+    final ConcurrencyLimiter concurrencyLimiter;
+    final ResponseBufferPool responseBufferPool; // null if disabled
+    final double resourceUsageSampleRate;
 
     public JDiscContext(FilterBindings filterBindings,
                         CurrentContainer container,
@@ -23,6 +28,12 @@ public class JDiscContext {
         this.janitor = janitor;
         this.metric = metric;
         this.serverConfig = serverConfig;
+        this.concurrencyLimiter = new ConcurrencyLimiter(serverConfig.concurrencyLimit());
+        this.responseBufferPool = serverConfig.responseBufferPool().enabled()
+                                  ? new ResponseBufferPool(serverConfig.responseBufferPool().bufferSize(),
+                                                           serverConfig.responseBufferPool().maxBuffers())
+                                  : null;
+        this.resourceUsageSampleRate = RequestResourceUsage.isSupported() ? serverConfig.requestResourceUsage().sampleRate() : 0;
     }
 
     public boolean developerMode() {
@@ -97,7 +97,7 @@ public class JettyHttpServer extends AbstractServerProvider {
         server.setHandler(getHandlerCollection(serverConfig,
                                                connectors,
                                                jdiscServlet));
-        this.metricsReporter = new ServerMetricReporter(metric, server);
+        this.metricsReporter = new ServerMetricReporter(metric, server, jDiscContext.concurrencyLimiter);
     }
 
     private static void initializeJettyLogging() {
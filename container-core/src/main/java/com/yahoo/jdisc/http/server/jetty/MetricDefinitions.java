@@ -73,6 +73,10 @@ class MetricDefinitions {
     static final String JETTY_THREADPOOL_TOTAL_THREADS = "jdisc.http.jetty.threadpool.thread.total";
     static final String JETTY_THREADPOOL_QUEUE_SIZE = "jdisc.http.jetty.threadpool.queue.size";
 
+    static final String CONCURRENCY_LIMIT = "jdisc.http.concurrency_limit.limit";
+    static final String CONCURRENCY_LIMIT_IN_FLIGHT = "jdisc.http.concurrency_limit.in_flight";
+    static final String CONCURRENCY_LIMIT_REJECTED = "jdisc.http.concurrency_limit.rejected";
+
     static final String FILTERING_REQUEST_HANDLED = "jdisc.http.filtering.request.handled";
     static final String FILTERING_REQUEST_UNHANDLED = "jdisc.http.filtering.request.unhandled";
     static final String FILTERING_RESPONSE_HANDLED = "jdisc.http.filtering.response.handled";
@@ -22,6 +22,14 @@ public class RequestUtils {
     // Use this attribute for generating URIs that is presented to client.
     public static final String JDICS_REQUEST_PORT = "jdisc.request.port";
 
+    // The pool of buffers to write response content through, if enabled. Buffers may be reused once their writes
+    // complete, which holds for the response content channel of the server. A handler which passes requests on
+    // with a response handler of its own that completes writes before it is done with the buffers must remove it.
+    public static final String JDISC_RESPONSE_BUFFER_POOL = "jdisc.response.bufferPool";
+
+    // The CPU time and allocations of the request, if it is sampled for measuring these.
+    public static final String JDISC_RESOURCE_USAGE = "jdisc.request.resourceUsage";
+
     private RequestUtils() {}
 
     public static Connection getConnection(Request request) {
@@ -26,10 +26,12 @@ class ServerMetricReporter {
             Executors.newScheduledThreadPool(1, new DaemonThreadFactory("jdisc-jetty-metric-reporter-"));
     private final Metric metric;
     private final Server jetty;
+    private final ConcurrencyLimiter concurrencyLimiter;
 
-    ServerMetricReporter(Metric metric, Server jetty) {
+    ServerMetricReporter(Metric metric, Server jetty, ConcurrencyLimiter concurrencyLimiter) {
         this.metric = metric;
         this.jetty = jetty;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     void start() {
@@ -69,6 +71,7 @@ class ServerMetricReporter {
             }
 
             setJettyThreadpoolMetrics();
+            concurrencyLimiter.reportMetrics(metric);
         }
 
         private void setServerMetrics(HttpResponseStatisticsCollector statisticsCollector) {
@@ -27,6 +27,8 @@ class ServletOutputStreamWriter {
      *    Multiple modification calls without interleaving isReady calls are not allowed.
      * 2) If isReady returned false, no other calls should be made until the write listener is invoked.
      * 3) If the write listener sees isReady == false, it must not do any modifications before its next invocation.
+     * 4) The servlet output stream may use a written array until isReady next returns true, so the completion
+     *    handler of a write is only called then, and content writers may reuse their buffers once it is called.
      */
 
 
@@ -45,6 +47,9 @@ class ServletOutputStreamWriter {
     // Other ways to express this are also possible, e.g. with a 'closed' state checked when queue goes empty.
     private static final ByteBuffer CLOSE_STREAM_BUFFER = ByteBuffer.allocate(0);
 
+    /** The largest array kept for copying buffers without an array to the output stream */
+    private static final int MAX_RETAINED_COPY_BUFFER_SIZE = 1 << 20;
+
     private final Object monitor = new Object();
 
     // GuardedBy("monitor")
@@ -57,6 +62,13 @@ class ServletOutputStreamWriter {
     // GuardedBy("monitor")
     private final Deque<ResponseContentPart> responseContentQueue = new ArrayDeque<>();
 
+    // The completion handler of the last write, which the output stream may not yet be done with
+    // GuardedBy("monitor")
+    private CompletionHandler writtenPartHandler = null;
+
+    // Only accessed by the thread writing buffers, as decided by the state
+    private byte[] copyBuffer = null;
+
     private final RequestMetricReporter metricReporter;
 
     /**
@@ -126,6 +138,8 @@ class ServletOutputStreamWriter {
 
         while (true) {
             ResponseContentPart contentPart;
+            CompletionHandler writtenHandler;
+            boolean waitForBuffer = false;
 
             synchronized (monitor) {
                 if (state == State.FINISHED_OR_ERROR) {
@@ -138,15 +152,26 @@ class ServletOutputStreamWriter {
                     return;
                 }
 
+                // The output stream is done with the last write
+                writtenHandler = writtenPartHandler;
+                writtenPartHandler = null;
                 contentPart = responseContentQueue.pollFirst();
 
                 if (contentPart == null && lastOperationWasFlush) {
                     state = State.WAITING_FOR_BUFFER;
-                    return;
+                    waitForBuffer = true;
                 }
             }
 
             try {
+                if (writtenHandler != null) {
+                    // The content is written, so a failing completion handler does not fail the response
+                    runCompletionHandler_logOnExceptions(writtenHandler::completed);
+                }
+                if (waitForBuffer) {
+                    return;
+                }
+
                 boolean isFlush = contentPart == null;
                 if (isFlush) {
                     outputStream.flush();
@@ -172,6 +197,9 @@ class ServletOutputStreamWriter {
     private void setFinished(Throwable t) {
         synchronized (monitor) {
             state = State.FINISHED_OR_ERROR;
+            if (writtenPartHandler != null) {
+                failWrittenPart_holdingLock(t != null ? t : new IllegalStateException("ContentChannel closed."));
+            }
             if (!responseContentQueue.isEmpty()) {
                 failAllParts_holdingLock(t != null ? t : new IllegalStateException("ContentChannel closed."));
             }
@@ -200,24 +228,47 @@ class ServletOutputStreamWriter {
         janitor.scheduleTask(() -> failedParts.forEach(failCompletionHandler));
     }
 
+    private void failWrittenPart_holdingLock(Throwable e) {
+        assert Thread.holdsLock(monitor);
+
+        CompletionHandler handler = writtenPartHandler;
+        writtenPartHandler = null;
+        RuntimeException failReason = new RuntimeException("Failing due to earlier ServletOutputStream write failure", e);
+        janitor.scheduleTask(() -> runCompletionHandler_logOnExceptions(() -> handler.failed(failReason)));
+    }
+
     private void writeBufferToOutputStream(ResponseContentPart contentPart) throws Throwable {
-        callCompletionHandlerWhenDone(contentPart.handler, () -> {
-            ByteBuffer buffer = contentPart.buf;
-            final int bytesToSend = buffer.remaining();
-            try {
-                if (buffer.hasArray()) {
-                    outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
-                } else {
-                    final byte[] array = new byte[buffer.remaining()];
-                    buffer.get(array);
-                    outputStream.write(array);
-                }
-                metricReporter.successfulWrite(bytesToSend);
-            } catch (Throwable throwable) {
-                metricReporter.failedWrite();
-                throw throwable;
+        ByteBuffer buffer = contentPart.buf;
+        final int bytesToSend = buffer.remaining();
+        try {
+            if (buffer.hasArray()) {
+                outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                // The array is not written to again before the output stream is ready, i.e. done with it
+                byte[] array = copyBuffer(bytesToSend);
+                buffer.get(array, 0, bytesToSend);
+                outputStream.write(array, 0, bytesToSend);
             }
-        });
+            metricReporter.successfulWrite(bytesToSend);
+        } catch (Throwable throwable) {
+            metricReporter.failedWrite();
+            runCompletionHandler_logOnExceptions(() -> contentPart.handler.failed(throwable));
+            throw throwable;
+        }
+        synchronized (monitor) {
+            writtenPartHandler = contentPart.handler;
+            if (state == State.FINISHED_OR_ERROR) { // Finished by another thread while writing
+                failWrittenPart_holdingLock(new IllegalStateException("ContentChannel closed."));
+            }
+        }
+    }
+
+    private byte[] copyBuffer(int size) {
+        if (size > MAX_RETAINED_COPY_BUFFER_SIZE) return new byte[size];
+        if (copyBuffer == null || copyBuffer.length < size) {
+            copyBuffer = new byte[Math.max(size, 8192)];
+        }
+        return copyBuffer;
     }
 
     private static void callCompletionHandlerWhenDone(CompletionHandler handler, IORunnable runnable) throws Exception {
@@ -0,0 +1,114 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import com.yahoo.jdisc.Metric;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A metric with a fixed name and position, which records values without allocating anything. Values are
+ * recorded into cells striped by thread, so threads rarely contend, and the cells are merged into the
+ * data fetched from the {@link com.yahoo.concurrent.ThreadLocalDirectory} of the receiver each time
+ * a snapshot is made.
+ *
+ * As values are aggregated per cell, the last value of a gauge is the last value recorded in one of the cells.
+ *
+ * Metrics which are idle for a snapshot period are detached from the receiver, so those of e.g. old
+ * dimension combinations are not kept forever. A detached metric attaches itself again when it records a value.
+ *
+ * @author agent
+ */
+final class BoundMetric implements Metric.Handle {
+
+    private static final Logger log = Logger.getLogger(BoundMetric.class.getName());
+
+    /** The smallest power of two which is at least twice the number of processors, but at most 64 */
+    private static final int cellCount = Math.min(64, Integer.highestOneBit(2 * Runtime.getRuntime().availableProcessors() - 1) << 1);
+
+    private final Identifier identifier;
+    private final MetricReceiver receiver;
+    private final Cell[] cells = new Cell[cellCount];
+
+    /** The number of drains in a row which found no values, accessed only by the thread draining this */
+    private int idleDrains = 0;
+
+    /** Whether this is detached from the receiver, written only while holding the lock of the receiver */
+    private volatile boolean detached = false;
+
+    BoundMetric(Identifier identifier, MetricSettings settings, MetricReceiver receiver) {
+        this.identifier = identifier;
+        this.receiver = receiver;
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = new Cell(settings);
+    }
+
+    Identifier identifier() { return identifier; }
+
+    @Override
+    public void set(double val) {
+        cell().put(val);
+        if (detached) receiver.attach(this);
+    }
+
+    @Override
+    public void add(long val) {
+        cell().add(val);
+        if (detached) receiver.attach(this);
+    }
+
+    boolean isDetached() { return detached; }
+
+    void setDetached(boolean detached) { this.detached = detached; }
+
+    private Cell cell() {
+        return cells[(int) Thread.currentThread().getId() & (cells.length - 1)];
+    }
+
+    /**
+     * Moves the values recorded since the last call to this into the given bucket, and returns
+     * the number of drains in a row, including this, which found no values
+     */
+    int drainInto(Bucket bucket) {
+        idleDrains++;
+        for (Cell cell : cells) {
+            UntypedMetric value = cell.getAndReset();
+            if (value.isEmpty()) continue;
+            idleDrains = 0;
+            try {
+                bucket.merge(identifier, value);
+            } catch (IllegalArgumentException e) {
+                log.log(Level.WARNING, "Problems merging metric " + identifier.getName() + ", ignoring data: " + e.getMessage());
+            }
+        }
+        return idleDrains;
+    }
+
+    private static final class Cell {
+
+        private final MetricSettings settings;
+        private UntypedMetric value;
+
+        Cell(MetricSettings settings) {
+            this.settings = settings;
+            this.value = new UntypedMetric(settings);
+        }
+
+        synchronized void put(double x) {
+            value.put(x);
+        }
+
+        synchronized void add(long x) {
+            value.add(x);
+        }
+
+        synchronized UntypedMetric getAndReset() {
+            UntypedMetric current = value;
+            if ( ! current.isEmpty())
+                value = new UntypedMetric(settings);
+            return current;
+        }
+
+    }
+
+}
@@ -65,6 +65,10 @@ public class Bucket {
         values.put(id, value);
     }
 
+    void merge(Identifier id, UntypedMetric value) {
+        get(id, value).merge(value, true);
+    }
+
     boolean hasIdentifier(Identifier id) {
         return values.containsKey(id);
     }
@@ -0,0 +1,138 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * A compact histogram of non-negative values, with buckets which are linear within each power of two, and
+ * logarithmic across them. Each bucket is at most 1/16 of the values in it wide, so values at a percentile are
+ * within about 3% of the exact ones, regardless of their magnitude. Counts are kept only for the range of buckets
+ * which have been used, which for latencies is typically a few hundred bytes.
+ *
+ * Histograms are merged by adding bucket counts. Like the rest of the values of a metric, each instance
+ * is recorded into by a single thread at a time, so no locking is needed. Users recording from several threads
+ * must keep an instance per thread, or synchronize, and merge them to read percentiles.
+ *
+ * @author agent
+ */
+public final class LogLinearHistogram {
+
+    /** The number of bits of the mantissa of a value used to select a linear sub-bucket of its power of two */
+    private static final int subBucketBits = 4;
+    private static final int shift = 52 - subBucketBits;
+
+    /** Values smaller than this, including negative values and NaN, are all counted in bucket 0 */
+    private static final double smallestValue = 0x1p-20;
+    private static final long smallestBucket = Double.doubleToRawLongBits(smallestValue) >>> shift;
+
+    /** Values larger than this are counted as this */
+    private static final double largestValue = 0x1p50;
+
+    /** The number of buckets to add beyond those needed when growing, to avoid growing for each new bucket */
+    private static final int growthSlack = 8;
+
+    /** The counts of the buckets from bucket offset, or null if nothing is recorded */
+    private long[] counts = null;
+    private int offset = 0;
+    private long totalCount = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void record(double value) {
+        int bucket = bucketOf(value);
+        ensureCapacity(bucket, bucket, growthSlack);
+        counts[bucket - offset]++;
+        totalCount++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Adds the counts of the given histogram to this */
+    public void merge(LogLinearHistogram other) {
+        if (other.counts == null) return;
+
+        ensureCapacity(other.offset, other.offset + other.counts.length - 1, 0);
+        for (int i = 0; i < other.counts.length; i++)
+            counts[other.offset + i - offset] += other.counts[i];
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() { return totalCount; }
+
+    /**
+     * Returns an estimate of the value below which the given percentage of the recorded values are,
+     * or 0 if nothing is recorded.
+     *
+     * @param percentile the percentile, in the range [0, 100]
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount));
+        if (rank >= totalCount) return max;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.max(min, Math.min(max, valueOf(offset + i)));
+        }
+        return max;
+    }
+
+    /** Writes the cumulative distribution of the recorded values, one line per non-empty bucket */
+    void outputPercentileDistribution(PrintStream output, double valueScalingRatio, boolean useCsvFormat) {
+        output.println(useCsvFormat ? "\"Value\",\"Percentile\",\"TotalCount\""
+                                    : String.format("%12s %14s %10s", "Value", "Percentile", "TotalCount"));
+        if (counts == null) return;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            seen += counts[i];
+            double value = Math.max(min, Math.min(max, valueOf(offset + i))) / valueScalingRatio;
+            double fraction = (double) seen / totalCount;
+            output.println(useCsvFormat ? String.format("%.3f,%.12f,%d", value, fraction, seen)
+                                        : String.format("%12.3f %14.12f %10d", value, fraction, seen));
+        }
+    }
+
+    /** Makes room for the given range of buckets, and the given number of extra buckets on each side it grows */
+    private void ensureCapacity(int lowest, int highest, int slack) {
+        if (counts == null) {
+            offset = Math.max(0, lowest - slack);
+            counts = new long[highest + slack + 1 - offset];
+        }
+        else if (lowest < offset || highest >= offset + counts.length) {
+            int newOffset = lowest < offset ? Math.max(0, lowest - slack) : offset;
+            int newEnd = highest >= offset + counts.length ? highest + slack + 1 : offset + counts.length;
+            long[] newCounts = new long[newEnd - newOffset];
+            System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+            offset = newOffset;
+            counts = newCounts;
+        }
+    }
+
+    static int bucketOf(double value) {
+        if ( ! (value >= smallestValue)) return 0;
+        return (int) ((Double.doubleToRawLongBits(Math.min(value, largestValue)) >>> shift) - smallestBucket) + 1;
+    }
+
+    /** Returns the value in the middle of the given bucket */
+    static double valueOf(int bucket) {
+        if (bucket == 0) return 0;
+        double lower = Double.longBitsToDouble((bucket - 1 + smallestBucket) << shift);
+        double upper = Double.longBitsToDouble((bucket + smallestBucket) << shift);
+        return (lower + upper) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return "log-linear histogram with " + totalCount + " values in " +
+               (counts == null ? 0 : Arrays.stream(counts).filter(count -> count > 0).count()) + " buckets";
+    }
+
+}
@@ -17,6 +17,7 @@ import com.yahoo.metrics.ManagerConfig;
 class MetricAggregator implements Runnable {
 
     private final ThreadLocalDirectory<Bucket, Sample> metricsCollection;
+    private final MetricReceiver receiver;
     private final AtomicReference<Bucket> currentSnapshot;
     private int generation = 0;
     private final Bucket[] buffer;
@@ -24,6 +25,7 @@ class MetricAggregator implements Runnable {
     private final DimensionCache dimensions;
 
     MetricAggregator(ThreadLocalDirectory<Bucket, Sample> metricsCollection,
+                     MetricReceiver receiver,
                      AtomicReference<Bucket> currentSnapshot,
                      ManagerConfig settings) {
         if (settings.reportPeriodSeconds() < 10) {
@@ -34,6 +36,7 @@ class MetricAggregator implements Runnable {
         dimensions = new DimensionCache(settings.pointsToKeepPerMetric());
         fromMillis = System.currentTimeMillis();
         this.metricsCollection = metricsCollection;
+        this.receiver = receiver;
         this.currentSnapshot = currentSnapshot;
     }
 
@@ -64,6 +67,7 @@ class MetricAggregator implements Runnable {
         for (Bucket b : buckets) {
             latest.merge(b, true);
         }
+        receiver.drainBoundMetricsInto(latest);
         buffer[bucketIndex] = latest;
         this.fromMillis = toMillis;
         return bucketToDelete;
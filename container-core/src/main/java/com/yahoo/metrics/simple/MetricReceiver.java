@@ -4,11 +4,17 @@ package com.yahoo.metrics.simple;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 import com.yahoo.api.annotations.Beta;
 import com.google.common.collect.ImmutableMap;
 import com.yahoo.concurrent.ThreadLocalDirectory;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.metrics.ManagerConfig;
+import com.yahoo.metrics.simple.UntypedMetric.AssumedType;
 
 /**
  * The reception point for measurements. This is the class users should inject
@@ -22,6 +28,12 @@ public class MetricReceiver {
 
     public static final MetricReceiver nullImplementation = new NullReceiver();
     private final ThreadLocalDirectory<Bucket, Sample> metricsCollection;
+    private final Map<Identifier, BoundMetric> boundMetrics = new ConcurrentHashMap<>();
+    // all attached bound metrics, which may include metrics with the same identifier when a detached one attaches again
+    private final Set<BoundMetric> attachedMetrics = ConcurrentHashMap.newKeySet();
+    private final Object attachmentLock = new Object();
+    // bound metrics which are idle for this many drains in a row are detached
+    private final int maxIdleDrains;
 
     // A reference to the current snapshot. The *reference* is shared with MetricsAggregator and updated from there :-/
     private final AtomicReference<Bucket> currentSnapshot;
@@ -30,6 +42,10 @@ public class MetricReceiver {
     private final Object histogramDefinitionsLock = new Object();
     private volatile Map<String, MetricSettings> metricSettings;
 
+    // gauges with matching names are recorded in log-linear histograms unless explicitly declared otherwise, null if none
+    private final Pattern latencyMetrics;
+    private final Map<String, Boolean> isLatencyMetric = new ConcurrentHashMap<>();
+
     private static final class NullCounter extends Counter {
 
         NullCounter() {
@@ -82,13 +98,17 @@ public class MetricReceiver {
 
         private final ThreadLocalDirectory<Bucket, Sample> collection;
 
-        private MockReceiver(ThreadLocalDirectory<Bucket, Sample> collection) {
-            super(collection, null);
+        private MockReceiver(ThreadLocalDirectory<Bucket, Sample> collection, ManagerConfig settings) {
+            super(collection, null, settings);
             this.collection = collection;
         }
 
         public MockReceiver() {
-            this(new ThreadLocalDirectory<>(new MetricUpdater()));
+            this(new ManagerConfig.Builder().build());
+        }
+
+        MockReceiver(ManagerConfig settings) {
+            this(new ThreadLocalDirectory<>(new MetricUpdater()), settings);
         }
 
         /** Gathers all data since last snapshot */
@@ -97,6 +117,7 @@ public class MetricReceiver {
             for (Bucket b : collection.fetch()) {
                 merged.merge(b, true);
             }
+            drainBoundMetricsInto(merged);
             return merged;
         }
 
@@ -107,6 +128,19 @@ public class MetricReceiver {
 
     }
 
+    private static final class NullHandle implements Metric.Handle {
+
+        static final NullHandle INSTANCE = new NullHandle();
+
+        @Override
+        public void set(double val) {
+        }
+
+        @Override
+        public void add(long val) {
+        }
+    }
+
     private static final class NullReceiver extends MetricReceiver {
 
         NullReceiver() {
@@ -142,6 +176,11 @@ public class MetricReceiver {
             return null;
         }
 
+        @Override
+        public Metric.Handle handle(String name, Point dimensions) {
+            return NullHandle.INSTANCE;
+        }
+
         @Override
         public PointBuilder pointBuilder() {
             return null;
@@ -163,8 +202,15 @@ public class MetricReceiver {
     }
 
     public MetricReceiver(ThreadLocalDirectory<Bucket, Sample> metricsCollection, AtomicReference<Bucket> currentSnapshot) {
+        this(metricsCollection, currentSnapshot, new ManagerConfig.Builder().build());
+    }
+
+    MetricReceiver(ThreadLocalDirectory<Bucket, Sample> metricsCollection, AtomicReference<Bucket> currentSnapshot,
+                   ManagerConfig settings) {
         this.metricsCollection = metricsCollection;
         this.currentSnapshot = currentSnapshot;
+        this.latencyMetrics = settings.latencyMetricPattern().isEmpty() ? null : Pattern.compile(settings.latencyMetricPattern());
+        this.maxIdleDrains = settings.reportPeriodSeconds();
         metricSettings = new ImmutableMap.Builder<String, MetricSettings>().build();
     }
 
@@ -249,6 +295,76 @@ public class MetricReceiver {
         return new Gauge(name, defaultDimensions, this);
     }
 
+    /**
+     * Returns a handle to the metric with the given name and dimensions, which records values without
+     * allocating anything, as opposed to {@link #update(Sample)}. Metrics which should be put in an explicitly
+     * declared histogram must be declared before handles to them are created, and are then recorded as samples.
+     *
+     * @param name the name of the metric
+     * @param dimensions the dimensions of the metric, or null
+     * @return a thread-safe handle to the metric
+     */
+    public Metric.Handle handle(String name, Point dimensions) {
+        Identifier identifier = new Identifier(name, dimensions);
+        MetricSettings definition = getMetricDefinition(identifier.getName());
+        if (definition != null && definition.isHistogram())
+            return new SampleHandle(identifier, this);
+        return boundMetrics.computeIfAbsent(identifier, id -> {
+            BoundMetric metric = new BoundMetric(id, definition, this);
+            attachedMetrics.add(metric);
+            return metric;
+        });
+    }
+
+    /**
+     * Moves the values recorded through handles since the last call to this into the given bucket,
+     * and detaches bound metrics which have been idle for a snapshot period
+     */
+    void drainBoundMetricsInto(Bucket bucket) {
+        for (BoundMetric metric : attachedMetrics) {
+            if (metric.drainInto(bucket) < maxIdleDrains) continue;
+
+            synchronized (attachmentLock) {
+                metric.setDetached(true);
+                attachedMetrics.remove(metric);
+                boundMetrics.remove(metric.identifier(), metric);
+            }
+            metric.drainInto(bucket); // values recorded before the metric saw it was detached
+        }
+    }
+
+    /** Attaches the given bound metric again, after it was detached for being idle */
+    void attach(BoundMetric metric) {
+        synchronized (attachmentLock) {
+            if ( ! metric.isDetached()) return;
+            metric.setDetached(false);
+            attachedMetrics.add(metric);
+            boundMetrics.putIfAbsent(metric.identifier(), metric);
+        }
+    }
+
+    /** A handle to a metric which needs the full sample, e.g., for a histogram */
+    private static final class SampleHandle implements Metric.Handle {
+
+        private final Identifier identifier;
+        private final MetricReceiver receiver;
+
+        SampleHandle(Identifier identifier, MetricReceiver receiver) {
+            this.identifier = identifier;
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void set(double val) {
+            receiver.update(new Sample(new Measurement(val), identifier, AssumedType.GAUGE));
+        }
+
+        @Override
+        public void add(long val) {
+            receiver.update(new Sample(new Measurement(val), identifier, AssumedType.COUNTER));
+        }
+    }
+
     /**
      * Create a PointBuilder instance with no default settings. PointBuilder
      * instances are not thread-safe.
@@ -295,6 +411,10 @@ public class MetricReceiver {
      * @return the corresponding histogram definition or null
      */
     MetricSettings getMetricDefinition(String metricName) {
-        return metricSettings.get(metricName);
+        MetricSettings definition = metricSettings.get(metricName);
+        if (definition == null && latencyMetrics != null
+            && isLatencyMetric.computeIfAbsent(metricName, name -> latencyMetrics.matcher(name).matches()))
+            return MetricSettings.logLinearHistogram;
+        return definition;
     }
 }
@@ -50,13 +50,22 @@ public final class MetricSettings {
         }
     }
 
+    /** The settings of gauges which are not declared with a histogram, but are recorded in a {@link LogLinearHistogram} */
+    static final MetricSettings logLinearHistogram = new MetricSettings(false, true);
+
     private final int significantDigits; // could have been static, but would
                                          // just introduce bugs when we must
                                          // expose this setting
     private final boolean histogram;
+    private final boolean logLinear;
 
     private MetricSettings(boolean histogram) {
+        this(histogram, false);
+    }
+
+    private MetricSettings(boolean histogram, boolean logLinear) {
         this.histogram = histogram;
+        this.logLinear = logLinear;
         this.significantDigits = 2;
     }
 
@@ -67,4 +76,8 @@ public final class MetricSettings {
     boolean isHistogram() {
         return histogram;
     }
+
+    boolean isLogLinearHistogram() {
+        return logLinear;
+    }
 }
@@ -25,6 +25,7 @@ public class UntypedMetric {
     private double sum;
     private AssumedType outputFormat = AssumedType.NONE;
     private final DoubleHistogram histogram;
+    private final LogLinearHistogram logLinearHistogram;
     private final MetricSettings metricSettings;
 
     public enum AssumedType { NONE, GAUGE, COUNTER };
@@ -36,19 +37,35 @@ public class UntypedMetric {
         } else {
             histogram = new DoubleHistogram(metricSettings.getSignificantdigits());
         }
+        if (metricSettings == null || histogram != null || !metricSettings.isLogLinearHistogram()) {
+            logLinearHistogram = null;
+        } else {
+            logLinearHistogram = new LogLinearHistogram();
+        }
     }
 
     void add(Number x) {
+        add(x.longValue());
+    }
+
+    void add(long x) {
         outputFormat = AssumedType.COUNTER;
-        count += x.longValue();
+        count += x;
     }
 
     void put(Number x) {
+        put(x.doubleValue());
+    }
+
+    void put(double x) {
         outputFormat = AssumedType.GAUGE;
-        current = x.doubleValue();
+        current = x;
         if (histogram != null) {
             histogram.recordValue(current);
         }
+        if (logLinearHistogram != null) {
+            logLinearHistogram.record(current);
+        }
         if (count > 0) {
             max = Math.max(current, max);
             min = Math.min(current, min);
@@ -101,10 +118,16 @@ public class UntypedMetric {
                 }
             }
         }
+        if (logLinearHistogram != null && other.logLinearHistogram != null) {
+            logLinearHistogram.merge(other.logLinearHistogram);
+        }
     }
 
     public boolean isCounter() { return outputFormat == AssumedType.COUNTER; }
 
+    /** Returns whether nothing has been recorded in this */
+    boolean isEmpty() { return outputFormat == AssumedType.NONE; }
+
     public long getCount() { return count; }
     public double getLast() { return current; }
     public double getMax() { return max; }
@@ -117,7 +140,9 @@ public class UntypedMetric {
 
     @Beta
     public Histogram getHistogram() {
-        return histogram != null ? new Histogram(histogram) : null;
+        if (histogram != null) return new Histogram(histogram, null);
+        if (logLinearHistogram != null) return new Histogram(null, logLinearHistogram);
+        return null;
     }
 
     @Override
@@ -133,6 +158,9 @@ public class UntypedMetric {
         if (histogram != null) {
             buf.append("histogram=").append(histogram).append(", ");
         }
+        if (logLinearHistogram != null) {
+            buf.append("histogram=").append(logLinearHistogram).append(", ");
+        }
         if (metricSettings != null) {
             buf.append("metricSettings=").append(metricSettings).append(", ");
         }
@@ -141,18 +169,30 @@ public class UntypedMetric {
         return buf.toString();
     }
 
+    /** A view of the histogram of a metric, which is either explicitly declared, or a compact log-linear one */
     @Beta
     public static class Histogram {
         private final DoubleHistogram hdrHistogram;
+        private final LogLinearHistogram logLinearHistogram;
 
-        private Histogram(DoubleHistogram hdrHistogram) { this.hdrHistogram = hdrHistogram; }
+        private Histogram(DoubleHistogram hdrHistogram, LogLinearHistogram logLinearHistogram) {
+            this.hdrHistogram = hdrHistogram;
+            this.logLinearHistogram = logLinearHistogram;
+        }
 
-        public double getValueAtPercentile(double percentile) { return hdrHistogram.getValueAtPercentile(percentile); }
+        public double getValueAtPercentile(double percentile) {
+            return hdrHistogram != null ? hdrHistogram.getValueAtPercentile(percentile)
+                                        : logLinearHistogram.getValueAtPercentile(percentile);
+        }
 
+        /** Writes the distribution of values; percentileTicksPerHalfDistance is ignored for log-linear histograms */
         public void outputPercentileDistribution(PrintStream printStream, int percentileTicksPerHalfDistance,
                                                  Double outputValueUnitScalingRatio, boolean useCsvFormat) {
-            hdrHistogram.outputPercentileDistribution(
-                    printStream, percentileTicksPerHalfDistance, outputValueUnitScalingRatio, useCsvFormat);
+            if (hdrHistogram != null)
+                hdrHistogram.outputPercentileDistribution(
+                        printStream, percentileTicksPerHalfDistance, outputValueUnitScalingRatio, useCsvFormat);
+            else
+                logLinearHistogram.outputPercentileDistribution(printStream, outputValueUnitScalingRatio, useCsvFormat);
         }
     }
 
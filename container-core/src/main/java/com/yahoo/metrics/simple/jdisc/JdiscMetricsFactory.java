@@ -2,12 +2,15 @@
 package com.yahoo.metrics.simple.jdisc;
 
 import java.io.PrintStream;
+import java.util.List;
 import java.util.logging.Logger;
 
+import com.google.inject.Inject;
 import com.yahoo.container.jdisc.MetricConsumerFactory;
 import com.yahoo.container.jdisc.state.MetricSnapshot;
 import com.yahoo.container.jdisc.state.SnapshotProvider;
 import com.yahoo.jdisc.application.MetricConsumer;
+import com.yahoo.metrics.ManagerConfig;
 import com.yahoo.metrics.simple.Bucket;
 import com.yahoo.metrics.simple.MetricReceiver;
 
@@ -21,10 +24,17 @@ public class JdiscMetricsFactory implements MetricConsumerFactory, SnapshotProvi
     private static final Logger log = Logger.getLogger(JdiscMetricsFactory.class.getName());
     private final SimpleMetricConsumer metricInstance;
     private final MetricReceiver metricReceiver;
+    private final List<Double> percentiles;
 
     public JdiscMetricsFactory(MetricReceiver receiver) {
+        this(receiver, new ManagerConfig.Builder().build());
+    }
+
+    @Inject
+    public JdiscMetricsFactory(MetricReceiver receiver, ManagerConfig settings) {
         this.metricReceiver = receiver;
         this.metricInstance = new SimpleMetricConsumer(receiver);
+        this.percentiles = settings.percentiles().isEmpty() ? SnapshotConverter.defaultPercentiles : settings.percentiles();
     }
 
     @Override
@@ -41,7 +51,7 @@ public class JdiscMetricsFactory implements MetricConsumerFactory, SnapshotProvi
             log.warning("no snapshot from instance of " + metricReceiver.getClass());
             return null;
         } else {
-            SnapshotConverter converter = new SnapshotConverter(curr);
+            SnapshotConverter converter = new SnapshotConverter(curr, percentiles);
             return converter.convert();
         }
     }
@@ -4,6 +4,7 @@ package com.yahoo.metrics.simple.jdisc;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Metric.Context;
 import com.yahoo.jdisc.application.MetricConsumer;
 import com.yahoo.metrics.simple.Identifier;
@@ -36,6 +37,11 @@ public class SimpleMetricConsumer implements MetricConsumer {
         receiver.update(new Sample(new Measurement(val), new Identifier(key, getSimpleCoordinate(ctx)), AssumedType.COUNTER));
     }
 
+    @Override
+    public Metric.Handle createHandle(String key, Context ctx) {
+        return receiver.handle(key, getSimpleCoordinate(ctx));
+    }
+
     private Point getSimpleCoordinate(Context ctx) {
         if (ctx instanceof Point) {
             return (Point) ctx;
@@ -35,12 +35,20 @@ class SnapshotConverter {
 
     private static Logger log = Logger.getLogger(SnapshotConverter.class.getName());
 
+    static final List<Double> defaultPercentiles = List.of(95.0, 99.0);
+
     final Bucket snapshot;
+    final List<Double> percentiles;
     final Map<Point, Map<String, MetricValue>> perPointData = new HashMap<>();
     private static final char[] DIGITS = new char[] { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
 
     public SnapshotConverter(Bucket snapshot) {
+        this(snapshot, defaultPercentiles);
+    }
+
+    public SnapshotConverter(Bucket snapshot, List<Double> percentiles) {
         this.snapshot = snapshot;
+        this.percentiles = List.copyOf(percentiles);
     }
 
     static MetricDimensions convert(Point p) {
@@ -71,6 +79,10 @@ class SnapshotConverter {
     }
 
     static MetricValue convert(UntypedMetric val) {
+        return convert(val, defaultPercentiles);
+    }
+
+    static MetricValue convert(UntypedMetric val, List<Double> percentiles) {
         if (val.isCounter()) {
             return CountMetric.newInstance(val.getCount());
         } else {
@@ -78,22 +90,27 @@ class SnapshotConverter {
                 return GaugeMetric.newInstance(val.getLast(), val.getMax(), val.getMin(), val.getSum(), val.getCount());
             } else {
                 return GaugeMetric.newInstance(val.getLast(), val.getMax(), val.getMin(), val.getSum(), val.getCount(),
-                        Optional.of(buildPercentileList(val.getHistogram())));
+                        Optional.of(buildPercentileList(val.getHistogram(), percentiles)));
             }
         }
     }
 
-    private static List<Tuple2<String, Double>> buildPercentileList(Histogram histogram) {
-        List<Tuple2<String, Double>> prefixAndValues = new ArrayList<>(2);
-        prefixAndValues.add(new Tuple2<>("95", histogram.getValueAtPercentile(95.0d)));
-        prefixAndValues.add(new Tuple2<>("99", histogram.getValueAtPercentile(99.0d)));
+    private static List<Tuple2<String, Double>> buildPercentileList(Histogram histogram, List<Double> percentiles) {
+        List<Tuple2<String, Double>> prefixAndValues = new ArrayList<>(percentiles.size());
+        for (double percentile : percentiles)
+            prefixAndValues.add(new Tuple2<>(percentilePrefix(percentile), histogram.getValueAtPercentile(percentile)));
         return prefixAndValues;
     }
 
+    /** Returns e.g. "99" for 99.0 and "99.9" for 99.9 */
+    static String percentilePrefix(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
     MetricSnapshot convert() {
         for (Map.Entry<Identifier, UntypedMetric> entry : snapshot.entrySet()) {
             Identifier ident = entry.getKey();
-            getMap(ident.getLocation()).put(ident.getName(), convert(entry.getValue()));
+            getMap(ident.getLocation()).put(ident.getName(), convert(entry.getValue(), percentiles));
         }
         Map<MetricDimensions, MetricSet> data = new HashMap<>();
         for (Map.Entry<Point, Map<String, MetricValue>> entry : perPointData.entrySet()) {
@@ -18,6 +18,8 @@ import com.yahoo.config.test.Test2Config;
 import com.yahoo.config.test.TestConfig;
 import com.yahoo.container.di.componentgraph.Provider;
 import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.yolean.Exceptions;
+import com.yahoo.yolean.UncheckedInterruptedException;
 import org.junit.Test;
 
 import java.lang.annotation.Annotation;
@@ -25,9 +27,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.yahoo.container.di.componentgraph.core.ComponentGraph.isBindingAnnotation;
 import static org.junit.Assert.assertEquals;
@@ -100,6 +106,75 @@ public class ComponentGraphTest {
         }
     }
 
+    @Test
+    public void independent_components_are_constructed_in_parallel_after_the_components_they_use() {
+        ComponentsConstructedTogether.constructing = new CountDownLatch(2);
+        Node innerComponent = mockComponentNode(SimpleComponent.class);
+        Node middleComponent = mockComponentNode(ComponentTakingComponent.class);
+        Node outerComponent = mockComponentNode(ComponentTakingComponentTakingComponent.class);
+        Node together1 = mockComponentNode(ComponentsConstructedTogether.class);
+        Node together2 = mockComponentNode(ComponentsConstructedTogether.class);
+
+        ComponentGraph componentGraph = new ComponentGraph();
+        List.of(outerComponent, together1, middleComponent, together2, innerComponent).forEach(componentGraph::add);
+        componentGraph.complete();
+        componentGraph.constructInstances(4);
+
+        for (Node node : List.of(innerComponent, middleComponent, outerComponent, together1, together2)) {
+            assertTrue(node.constructedInstance().isPresent());
+            assertTrue(node.constructionTime().isPresent());
+        }
+        assertSame(middleComponent.constructedInstance().get(),
+                   ((ComponentTakingComponentTakingComponent) outerComponent.constructedInstance().get()).injectedComponent);
+        assertEquals(List.of(outerComponent.constructedInstance().get(), middleComponent.constructedInstance().get(), innerComponent.constructedInstance().get()),
+                     componentGraph.allConstructedComponentsAndProviders().stream()
+                                   .filter(component -> ! (component instanceof ComponentsConstructedTogether))
+                                   .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void failure_to_construct_a_component_is_propagated_and_its_users_are_not_constructed() {
+        Node failingComponent = mockComponentNode(FailingComponent.class);
+        Node userComponent = mockComponentNode(ComponentTakingFailingComponent.class);
+        ComponentGraph componentGraph = new ComponentGraph();
+        componentGraph.add(failingComponent);
+        componentGraph.add(userComponent);
+        componentGraph.complete();
+
+        try {
+            componentGraph.constructInstances(4);
+            fail("Expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(Exceptions.toMessageString(e), Exceptions.toMessageString(e).contains("Failing on purpose"));
+        }
+        assertFalse(userComponent.constructedInstance().isPresent());
+        assertFalse(failingComponent.constructionTime().isPresent());
+    }
+
+    @Test
+    public void components_already_being_constructed_are_completed_before_interruption_is_propagated() throws InterruptedException {
+        SlowComponent.constructing = new CountDownLatch(1);
+        Node slowComponent = mockComponentNode(SlowComponent.class);
+        ComponentGraph componentGraph = new ComponentGraph();
+        componentGraph.add(slowComponent);
+        componentGraph.complete();
+
+        AtomicReference<String> result = new AtomicReference<>();
+        Thread constructor = new Thread(() -> {
+            try {
+                componentGraph.constructInstances(4);
+                result.set("Not interrupted");
+            } catch (UncheckedInterruptedException e) {
+                result.set(slowComponent.constructedInstance().isPresent() ? "Completed" : "Still constructing");
+            }
+        });
+        constructor.start();
+        assertTrue(SlowComponent.constructing.await(60, TimeUnit.SECONDS));
+        constructor.interrupt();
+        constructor.join();
+        assertEquals("Completed", result.get());
+    }
+
     @Test
     public void component_can_be_injected_into_another_component() {
         Node injectedComponent = mockComponentNode(SimpleComponent.class);
@@ -530,6 +605,37 @@ public class ComponentGraphTest {
         }
     }
 
+    /** Constructing two of these only succeeds if they are constructed at the same time */
+    public static class ComponentsConstructedTogether extends AbstractComponent {
+        static CountDownLatch constructing;
+
+        public ComponentsConstructedTogether() throws InterruptedException {
+            constructing.countDown();
+            assertTrue("Constructed in parallel", constructing.await(60, TimeUnit.SECONDS));
+        }
+    }
+
+    public static class FailingComponent extends AbstractComponent {
+        public FailingComponent() {
+            throw new IllegalStateException("Failing on purpose");
+        }
+    }
+
+    public static class SlowComponent extends AbstractComponent {
+        static CountDownLatch constructing;
+
+        public SlowComponent() throws InterruptedException {
+            constructing.countDown();
+            Thread.sleep(500);
+        }
+    }
+
+    public static class ComponentTakingFailingComponent extends AbstractComponent {
+        public ComponentTakingFailingComponent(FailingComponent injectedComponent) {
+            assertNotNull(injectedComponent);
+        }
+    }
+
     @SuppressWarnings("unused")
     public static class ComponentTakingConfigAndComponent extends AbstractComponent {
         private final TestConfig config;
@@ -9,12 +9,23 @@ import com.yahoo.jdisc.Metric;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Steinar Knutsen
@@ -47,6 +58,8 @@ public class ContainerThreadPoolImplTest {
         if (reply.second != Boolean.TRUE) {
             fail("Executor task seemed to run, but did not get correct value.");
         }
+        assertFalse("Queue latency is only reported by work stealing pools",
+                    ((MetricMock) metrics).innvocations().containsKey("jdisc.thread_pool.work_queue.latency"));
         threadPool.close();
         command = new FlipIt();
         try {
@@ -112,6 +125,64 @@ public class ContainerThreadPoolImplTest {
         assertEquals(CPUS*4*100, executor.getQueue().remainingCapacity());
     }
 
+    @Test
+    public void testWorkStealingPoolLimitsPendingTasks() throws InterruptedException {
+        MetricMock metrics = new MetricMock();
+        ContainerThreadpoolConfig config = new ContainerThreadpoolConfig(new ContainerThreadpoolConfig.Builder()
+                .type(ContainerThreadpoolConfig.Type.WORK_STEALING)
+                .maxThreads(2)
+                .queueSize(1));
+        ContainerThreadpoolImpl threadPool = new ContainerThreadpoolImpl(config, metrics, new MockProcessTerminator(), CPUS);
+        ExecutorServiceWrapper wrapper = (ExecutorServiceWrapper) threadPool.executor();
+        WorkStealingThreadPoolExecutor executor = (WorkStealingThreadPoolExecutor) wrapper.delegate();
+        assertEquals(2, executor.getMaximumPoolSize());
+        assertEquals(1L, metrics.innvocations().get("jdisc.thread_pool.work_queue.capacity").val);
+
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            wrapper.execute(() -> {
+                running.countDown();
+                try { release.await(); } catch (InterruptedException e) { throw new RuntimeException(e); }
+                completed.countDown();
+            });
+        }
+        running.await();
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(1, executor.queueSize());
+        assertRejected(threadPool, () -> { });
+
+        release.countDown();
+        completed.await();
+        assertTrue(metrics.innvocations().containsKey("jdisc.thread_pool.work_queue.latency"));
+        threadPool.close();
+        assertRejected(threadPool, () -> { });
+    }
+
+    @Test
+    public void testWorkStealingPoolWorkersHaveTheContextClassLoaderOfTheCreator() throws Exception {
+        ClassLoader creatorClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        WorkStealingThreadPoolExecutor executor;
+        try {
+            Thread.currentThread().setContextClassLoader(creatorClassLoader);
+            executor = new WorkStealingThreadPoolExecutor(1, 0, 1, TimeUnit.SECONDS, "test", new ThreadPoolMetric(new MetricMock(), "test"));
+        }
+        finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+        assertSame(creatorClassLoader, executor.submit(() -> Thread.currentThread().getContextClassLoader()).get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testQueueLatencyIsSetWhenMetricHasNoHandles() {
+        Metric metric = mock(Metric.class);
+        new ThreadPoolMetric(metric, "test").reportQueueLatency(2_000_000);
+        verify(metric).set(eq("jdisc.thread_pool.work_queue.latency"), eq(2.0), any());
+    }
+
     private class FlipIt implements Runnable {
         public final Receiver<Boolean> didItRun = new Receiver<>();
 
@@ -0,0 +1,104 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentChannel;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class PooledContentChannelOutputStreamTest {
+
+    @Test
+    public void content_is_sent_in_pooled_buffers_which_are_reused_when_written() throws IOException {
+        ResponseBufferPool pool = new ResponseBufferPool(8, 10);
+        RecordingChannel channel = new RecordingChannel();
+        PooledContentChannelOutputStream out = new PooledContentChannelOutputStream(channel, pool, -1);
+
+        out.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        out.write('a');
+        out.nonCopyingWrite("bcdefgh".getBytes(StandardCharsets.UTF_8));
+        assertEquals(18, out.written());
+        assertEquals(2, channel.buffers.size());
+        out.flush();
+        assertEquals(3, channel.buffers.size());
+        assertEquals("0123456789abcdefgh", channel.content());
+        assertEquals(18, out.written());
+
+        assertEquals(0, pool.size());
+        channel.completeAll();
+        assertEquals(3, pool.size());
+        ByteBuffer reused = channel.buffers.get(0);
+        assertSame(pool.acquire().array(), reused.array());
+    }
+
+    @Test
+    public void writes_block_while_too_much_is_pending() throws Exception {
+        ResponseBufferPool pool = new ResponseBufferPool(4, 10);
+        RecordingChannel channel = new RecordingChannel();
+        PooledContentChannelOutputStream out = new PooledContentChannelOutputStream(channel, pool, 8);
+
+        out.write(new byte[12]);
+        assertEquals(2, channel.buffers.size());
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            blocked.get(100, TimeUnit.MILLISECONDS);
+            fail("Flush should block while 8 bytes are pending");
+        }
+        catch (TimeoutException expected) { }
+
+        channel.handlers.get(0).failed(new IOException("failed")); // Failed buffers are not reused
+        blocked.get(10, TimeUnit.SECONDS);
+        assertEquals(3, channel.buffers.size());
+        channel.completeAll();
+        assertEquals(2, pool.size());
+    }
+
+    private static class RecordingChannel implements ContentChannel {
+
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        final List<CompletionHandler> handlers = new ArrayList<>();
+
+        @Override
+        public synchronized void write(ByteBuffer buf, CompletionHandler handler) {
+            buffers.add(buf);
+            handlers.add(handler);
+        }
+
+        @Override
+        public void close(CompletionHandler handler) { handler.completed(); }
+
+        synchronized String content() {
+            StringBuilder content = new StringBuilder();
+            for (ByteBuffer buffer : buffers)
+                content.append(StandardCharsets.UTF_8.decode(buffer.duplicate()));
+            return content.toString();
+        }
+
+        synchronized void completeAll() {
+            handlers.forEach(CompletionHandler::completed);
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author agent
+ */
+public class RequestResourceUsageTest {
+
+    private static volatile byte[] sink;
+
+    @Test
+    public void usage_is_charged_to_the_innermost_part() {
+        assumeTrue(RequestResourceUsage.isSupported());
+        RequestResourceUsage resourceUsage = new RequestResourceUsage();
+        Map<String, String> handler = Map.of();
+        Map<String, String> searcher = Map.of("searcher", "inner");
+
+        resourceUsage.enter(handler);
+        allocate(1 << 20);
+        resourceUsage.enter(searcher);
+        allocate(4 << 20);
+        resourceUsage.exit();
+        resourceUsage.exit();
+        allocate(8 << 20); // Not charged
+
+        assertEquals(2, resourceUsage.usages().size());
+        long handlerBytes = resourceUsage.usages().get(handler).allocatedBytes();
+        long searcherBytes = resourceUsage.usages().get(searcher).allocatedBytes();
+        assertTrue(handlerBytes + " bytes", handlerBytes >= 1 << 20 && handlerBytes < 4 << 20);
+        assertTrue(searcherBytes + " bytes", searcherBytes >= 4 << 20 && searcherBytes < 8 << 20);
+        assertEquals(handlerBytes + searcherBytes, resourceUsage.allocatedBytes());
+        assertTrue(resourceUsage.cpuTimeNanos() >= 0);
+    }
+
+    @Test
+    public void only_the_first_thread_is_measured() throws InterruptedException {
+        assumeTrue(RequestResourceUsage.isSupported());
+        RequestResourceUsage resourceUsage = new RequestResourceUsage();
+        resourceUsage.enter(Map.of());
+
+        Thread other = new Thread(() -> {
+            resourceUsage.enter(Map.of("searcher", "other"));
+            allocate(4 << 20);
+            resourceUsage.exit();
+        });
+        other.start();
+        other.join();
+        resourceUsage.exit();
+
+        assertEquals(1, resourceUsage.usages().size());
+        assertTrue(resourceUsage.allocatedBytes() < 4 << 20);
+    }
+
+    private static void allocate(int bytes) {
+        sink = new byte[bytes];
+    }
+
+}
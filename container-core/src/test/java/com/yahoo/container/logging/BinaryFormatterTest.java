@@ -0,0 +1,98 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class BinaryFormatterTest {
+
+    @Test
+    public void decoded_entries_are_formatted_as_the_original_entries() throws IOException {
+        RequestLogEntry full = new RequestLogEntry.Builder()
+                .connectionId("conn-1")
+                .timestamp(Instant.ofEpochMilli(920880005023L))
+                .duration(Duration.ofMillis(122))
+                .localPort(8080)
+                .peerAddress("152.200.54.243")
+                .peerPort(12345)
+                .remoteAddress("10.0.0.1")
+                .remotePort(54321)
+                .userAgent("Mozilla/4.05 [en] (Win95; I) æøå € 😀")
+                .referer("http://referer/")
+                .httpMethod("GET")
+                .httpVersion("HTTP/1.1")
+                .hostString("localhost")
+                .statusCode(200)
+                .responseSize(9875)
+                .requestSize(17)
+                .scheme("https")
+                .rawPath("/search/")
+                .rawQuery("query=test&x=å")
+                .userPrincipal(() -> "user")
+                .sslPrincipal(() -> "ssl-user")
+                .hitCounts(new HitCounts(10, 10, 1234, 10, 0, new Coverage(100, 200, 200, 2)))
+                .addExtraAttribute("single", "value")
+                .addExtraAttributes("multiple", List.of("one", "two"))
+                .build();
+        RequestLogEntry minimal = new RequestLogEntry.Builder()
+                .peerAddress("152.200.54.243")
+                .timestamp(Instant.ofEpochMilli(920880005023L))
+                .duration(Duration.ofMillis(0))
+                .localPort(0)
+                .peerPort(0)
+                .build();
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryFormatter formatter = new BinaryFormatter();
+        for (RequestLogEntry entry : List.of(full, minimal, full)) {
+            formatter.write(entry, binary);
+            binary.write('\n');
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        new BinaryAccessLogDecoder().decode(new ByteArrayInputStream(binary.toByteArray()), decoded);
+        assertEquals(toJson(full) + toJson(minimal) + toJson(full), decoded.toString(StandardCharsets.UTF_8));
+        assertTrue(binary.size() * 2 < decoded.size());
+    }
+
+    @Test
+    public void truncated_records_are_rejected() throws IOException {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        new BinaryFormatter().write(new RequestLogEntry.Builder().peerAddress("10.0.0.1").build(), binary);
+        byte[] bytes = binary.toByteArray();
+
+        try {
+            BinaryFormatter.read(new ByteArrayInputStream(bytes)); // Missing newline
+            fail("Expected exception");
+        }
+        catch (EOFException expected) { }
+
+        binary.write('\n');
+        ByteArrayInputStream in = new ByteArrayInputStream(binary.toByteArray());
+        assertEquals("10.0.0.1", BinaryFormatter.read(in).peerAddress().get());
+        assertNull(BinaryFormatter.read(in));
+    }
+
+    private static String toJson(RequestLogEntry entry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JSONFormatter().write(entry, out);
+        return out.toString(StandardCharsets.UTF_8) + "\n";
+    }
+
+}
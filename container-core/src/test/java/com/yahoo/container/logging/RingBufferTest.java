@@ -0,0 +1,68 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class RingBufferTest {
+
+    @Test
+    public void elements_are_drained_in_order_and_offers_fail_when_full() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++)
+            assertTrue(buffer.offer(i));
+        assertFalse(buffer.offer(4));
+
+        List<Integer> batch = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(batch, 3, 0, TimeUnit.MILLISECONDS));
+        assertTrue(buffer.offer(4));
+        assertEquals(2, buffer.drainTo(batch, 10, 0, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(0, 1, 2, 3, 4), batch);
+        assertEquals(0, buffer.drainTo(batch, 10, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void all_elements_from_concurrent_producers_are_consumed() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(16);
+        int producers = 4, elementsPerProducer = 10000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < elementsPerProducer; i++)
+                        buffer.put(producer * elementsPerProducer + i);
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        List<Integer> consumed = new ArrayList<>();
+        while (consumed.size() < producers * elementsPerProducer)
+            buffer.drainTo(consumed, 256, 100, TimeUnit.MILLISECONDS);
+        for (Thread thread : threads)
+            thread.join();
+
+        int[] next = new int[producers];
+        for (int element : consumed) { // Elements from each producer are consumed in the order they were added
+            int producer = element / elementsPerProducer;
+            assertEquals(producer * elementsPerProducer + next[producer]++, element);
+        }
+    }
+
+}
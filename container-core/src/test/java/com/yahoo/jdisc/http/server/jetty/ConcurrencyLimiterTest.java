@@ -0,0 +1,61 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.http.server.jetty;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void limit_follows_latency_gradient() {
+        ConcurrencyLimiter.Limit limit = new ConcurrencyLimiter.Limit("default", 20, 5, 100, 1.5);
+
+        // Stable latency lets the limit grow as long as at least half of it is used
+        runRequests(limit, 30, 1000, Duration.ofMillis(10));
+        assertTrue(limit.limit() >= 60 && limit.limit() < 70);
+        runRequests(limit, 200, 1000, Duration.ofMillis(10));
+        assertEquals(100, limit.limit());
+
+        // Latency increasing well beyond the tolerance makes the limit shrink to the min
+        runRequests(limit, 200, 10, Duration.ofMillis(100));
+        assertEquals(5, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    @Test
+    public void limit_does_not_grow_when_unused() {
+        ConcurrencyLimiter.Limit limit = new ConcurrencyLimiter.Limit("default", 20, 5, 100, 1.5);
+        runRequests(limit, 9, 1000, Duration.ofMillis(10));
+        assertEquals(20, limit.limit());
+    }
+
+    @Test
+    public void requests_beyond_limit_are_rejected() {
+        ConcurrencyLimiter.Limit limit = new ConcurrencyLimiter.Limit("default", 2, 2, 2, 1.5);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release(-1);
+        assertTrue(limit.tryAcquire());
+    }
+
+    /** Runs the given number of rounds of the given number of concurrent requests with the given latency */
+    private static void runRequests(ConcurrencyLimiter.Limit limit, int concurrency, int rounds, Duration latency) {
+        for (int i = 0; i < rounds; i++) {
+            int acquired = 0;
+            while (acquired < concurrency && limit.tryAcquire())
+                acquired++;
+            for (int j = 0; j < acquired; j++)
+                limit.release(latency.toNanos());
+        }
+    }
+
+}
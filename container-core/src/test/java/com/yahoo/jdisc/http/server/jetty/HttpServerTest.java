@@ -3,6 +3,8 @@ package com.yahoo.jdisc.http.server.jetty;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
+import com.yahoo.container.jdisc.ResponseBufferPool;
+import com.yahoo.container.jdisc.ThreadedHttpRequestHandler;
 import com.yahoo.container.logging.ConnectionLog;
 import com.yahoo.container.logging.ConnectionLogEntry;
 import com.yahoo.container.logging.RequestLog;
@@ -43,6 +45,7 @@ import org.junit.rules.TemporaryFolder;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.BindException;
 import java.net.URI;
 import java.nio.ByteBuffer;
@@ -58,7 +61,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
@@ -67,6 +73,7 @@ import static com.yahoo.jdisc.Response.Status.INTERNAL_SERVER_ERROR;
 import static com.yahoo.jdisc.Response.Status.NOT_FOUND;
 import static com.yahoo.jdisc.Response.Status.OK;
 import static com.yahoo.jdisc.Response.Status.REQUEST_URI_TOO_LONG;
+import static com.yahoo.jdisc.Response.Status.SERVICE_UNAVAILABLE;
 import static com.yahoo.jdisc.Response.Status.UNAUTHORIZED;
 import static com.yahoo.jdisc.Response.Status.UNSUPPORTED_MEDIA_TYPE;
 import static com.yahoo.jdisc.http.HttpHeaders.Names.CONNECTION;
@@ -79,6 +86,7 @@ import static com.yahoo.jdisc.http.server.jetty.SimpleHttpClient.ResponseValidat
 import static com.yahoo.jdisc.http.server.jetty.Utils.createHttp2Client;
 import static com.yahoo.jdisc.http.server.jetty.Utils.createSslTestDriver;
 import static com.yahoo.jdisc.http.server.jetty.Utils.generatePrivateKeyAndCertificate;
+import static com.yahoo.yolean.Exceptions.uncheck;
 import static org.cthul.matchers.CthulMatchers.containsPattern;
 import static org.cthul.matchers.CthulMatchers.matchesPattern;
 import static org.hamcrest.CoreMatchers.containsString;
@@ -424,6 +432,46 @@ public class HttpServerTest {
         assertTrue(driver.close());
     }
 
+    @Test
+    public void requireThatRequestsBeyondConcurrencyLimitAreRejected() throws Exception {
+        HangingRequestHandler requestHandler = new HangingRequestHandler();
+        JettyTestDriver driver = JettyTestDriver.newConfiguredInstance(
+                requestHandler,
+                new ServerConfig.Builder()
+                        .concurrencyLimit(new ServerConfig.ConcurrencyLimit.Builder()
+                                                  .enabled(true).initialLimit(1).minLimit(1).maxLimit(1)),
+                new ConnectorConfig.Builder());
+        SimpleHttpClient firstClient = driver.newClient(false);
+        CompletableFuture<ResponseValidator> first = CompletableFuture.supplyAsync(() -> uncheck(() -> firstClient.get("/status.html")));
+        requestHandler.received.await();
+
+        driver.client().get("/status.html")
+              .expectStatusCode(is(SERVICE_UNAVAILABLE));
+        ResponseDispatch.newInstance(OK).dispatch(requestHandler.responseHandler);
+        first.get().expectStatusCode(is(OK));
+        firstClient.close();
+        assertTrue(driver.close());
+    }
+
+    @Test
+    public void requireThatLargeResponsesAreWrittenThroughPooledBuffers() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; expected.length() < 1_000_000; i++)
+            expected.append("line ").append(i).append('\n');
+        LargeResponseHandler requestHandler = new LargeResponseHandler(expected.toString());
+        JettyTestDriver driver = JettyTestDriver.newConfiguredInstance(
+                requestHandler,
+                new ServerConfig.Builder()
+                        .responseBufferPool(new ServerConfig.ResponseBufferPool.Builder().enabled(true).bufferSize(16384)),
+                new ConnectorConfig.Builder());
+        for (int i = 0; i < 3; i++)
+            driver.client().get("/status.html")
+                  .expectStatusCode(is(OK))
+                  .expectContent(is(expected.toString()));
+        assertTrue(requestHandler.pool instanceof ResponseBufferPool);
+        assertTrue(driver.close());
+    }
+
     // Header with no value is disallowed by https://tools.ietf.org/html/rfc7230#section-3.2
     // Details in https://github.com/eclipse/jetty.project/issues/1116
     @Test
@@ -887,6 +935,43 @@ public class HttpServerTest {
         }
     }
 
+    private static class HangingRequestHandler extends AbstractRequestHandler {
+
+        final CountDownLatch received = new CountDownLatch(1);
+        volatile ResponseHandler responseHandler;
+
+        @Override
+        public ContentChannel handleRequest(Request request, ResponseHandler handler) {
+            responseHandler = handler;
+            received.countDown();
+            return NullContent.INSTANCE;
+        }
+    }
+
+    private static class LargeResponseHandler extends ThreadedHttpRequestHandler {
+
+        final String content;
+        volatile Object pool;
+
+        LargeResponseHandler(String content) {
+            super(Executors.newCachedThreadPool());
+            this.content = content;
+        }
+
+        @Override
+        public com.yahoo.container.jdisc.HttpResponse handle(com.yahoo.container.jdisc.HttpRequest request) {
+            pool = request.getJDiscRequest().context().get(RequestUtils.JDISC_RESPONSE_BUFFER_POOL);
+            return new com.yahoo.container.jdisc.HttpResponse(OK) {
+                @Override
+                public void render(OutputStream output) throws IOException {
+                    for (String line : content.split("(?<=\n)"))
+                        output.write(line.getBytes(StandardCharsets.UTF_8));
+                }
+            };
+        }
+
+    }
+
     private static class OkRequestHandler extends AbstractRequestHandler {
         @Override
         public ContentChannel handleRequest(Request request, ResponseHandler handler) {
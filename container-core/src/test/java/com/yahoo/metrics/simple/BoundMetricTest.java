@@ -0,0 +1,92 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.metrics.simple.MetricReceiver.MockReceiver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class BoundMetricTest {
+
+    @Test
+    public void testValuesFromAllThreadsAreMergedIntoSnapshot() throws InterruptedException {
+        MockReceiver receiver = new MockReceiver();
+        Point point = receiver.point("chain", "default");
+        Metric.Handle latency = receiver.handle("latency", point);
+        Metric.Handle queries = receiver.handle("queries", point);
+        assertSame(queries, receiver.handle("queries", receiver.point("chain", "default")));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    latency.set(thread * 1000 + j);
+                    queries.add(1);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+
+        Bucket snapshot = receiver.getSnapshot();
+        UntypedMetric latencyValue = snapshot.getMapForMetric("latency").get(point);
+        assertEquals(8000, latencyValue.getCount());
+        assertEquals(0, latencyValue.getMin(), 0);
+        assertEquals(7999, latencyValue.getMax(), 0);
+        assertEquals(7999 * 8000 / 2, latencyValue.getSum(), 0);
+
+        UntypedMetric queriesValue = snapshot.getMapForMetric("queries").get(point);
+        assertTrue(queriesValue.isCounter());
+        assertEquals(8000, queriesValue.getCount());
+
+        assertTrue("Values are moved to the snapshot", receiver.getSnapshot().getAllMetricNames().isEmpty());
+    }
+
+    @Test
+    public void testIdleMetricsAreDetachedAndAttachAgainWhenUsed() {
+        MockReceiver receiver = new MockReceiver();
+        Metric.Handle queries = receiver.handle("queries", null);
+        queries.add(1);
+        for (int i = 0; i < 60; i++)
+            receiver.getSnapshot();
+        assertSame("Not detached before idle for a snapshot period", queries, receiver.handle("queries", null));
+
+        receiver.getSnapshot();
+        Metric.Handle other = receiver.handle("queries", null);
+        assertNotSame("Detached when idle for a snapshot period", queries, other);
+
+        queries.add(2);
+        other.add(3);
+        UntypedMetric value = receiver.getSnapshot().getMapForMetric("queries").get(Point.emptyPoint());
+        assertEquals("Values of the detached metric are still recorded", 5, value.getCount());
+    }
+
+    @Test
+    public void testHistogramMetricsAreRecordedAsSamples() {
+        MockReceiver receiver = new MockReceiver();
+        receiver.declareGauge("latency", Optional.empty(), new MetricSettings.Builder().histogram(true).build());
+        Metric.Handle latency = receiver.handle("latency", null);
+        latency.set(3);
+        latency.set(5);
+
+        Map<Point, UntypedMetric> values = receiver.getSnapshot().getMapForMetric("latency");
+        UntypedMetric value = values.get(Point.emptyPoint());
+        assertEquals(2, value.getCount());
+        assertNotNull(value.getHistogram());
+    }
+
+}
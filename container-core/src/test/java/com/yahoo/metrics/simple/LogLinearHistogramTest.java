@@ -0,0 +1,96 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import com.yahoo.metrics.ManagerConfig;
+import com.yahoo.metrics.simple.MetricReceiver.MockReceiver;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class LogLinearHistogramTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 10000; i++)
+            histogram.record(i / 10.0);
+
+        assertEquals(10000, histogram.getTotalCount());
+        assertEquals(0.1, histogram.getValueAtPercentile(0), 0);
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 * 0.035);
+        assertEquals(950, histogram.getValueAtPercentile(95), 950 * 0.035);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 * 0.035);
+        assertEquals(1000, histogram.getValueAtPercentile(100), 0);
+    }
+
+    @Test
+    public void testMergedHistogramEqualsHistogramOfAllValues() {
+        LogLinearHistogram all = new LogLinearHistogram();
+        LogLinearHistogram low = new LogLinearHistogram();
+        LogLinearHistogram high = new LogLinearHistogram();
+        for (int i = 0; i < 1000; i++) {
+            double value = Math.pow(1.01, i);
+            all.record(value);
+            (i < 500 ? low : high).record(value);
+        }
+
+        LogLinearHistogram merged = new LogLinearHistogram();
+        merged.merge(high);
+        merged.merge(new LogLinearHistogram());
+        merged.merge(low);
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        for (double percentile = 0; percentile <= 100; percentile += 0.5)
+            assertEquals(all.getValueAtPercentile(percentile), merged.getValueAtPercentile(percentile), 0);
+    }
+
+    @Test
+    public void testExtremeValues() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99), 0);
+        histogram.record(0);
+        histogram.record(1e-12);
+        histogram.record(1e300);
+        assertEquals(0, histogram.getValueAtPercentile(33), 0);
+        assertEquals(1e300, histogram.getValueAtPercentile(100), 0);
+        assertEquals(0, LogLinearHistogram.bucketOf(-1));
+        assertEquals(0, LogLinearHistogram.bucketOf(Double.NaN));
+        for (int bucket = 1; bucket < 1000; bucket++)
+            assertEquals(bucket, LogLinearHistogram.bucketOf(LogLinearHistogram.valueOf(bucket)));
+    }
+
+    @Test
+    public void testLatencyGaugesGetHistogramsOnlyWhenEnabled() {
+        MockReceiver receiver = new MockReceiver();
+        receiver.declareGauge("query_latency").sample(3);
+        assertNull(receiver.getSnapshot().getMapForMetric("query_latency").get(Point.emptyPoint()).getHistogram());
+
+        receiver = new MockReceiver(new ManagerConfig.Builder().latencyMetricPattern(".*latency").build());
+        receiver.declareGauge("query_latency").sample(3);
+        receiver.declareGauge("query_latency").sample(5);
+        receiver.declareGauge("hits").sample(7);
+        receiver.handle("render.latency", null).set(11);
+
+        Bucket snapshot = receiver.getSnapshot();
+        UntypedMetric.Histogram histogram = snapshot.getMapForMetric("query_latency").get(Point.emptyPoint()).getHistogram();
+        assertNotNull(histogram);
+        assertEquals(5, histogram.getValueAtPercentile(99), 0);
+        assertNull(snapshot.getMapForMetric("hits").get(Point.emptyPoint()).getHistogram());
+        assertEquals(11, snapshot.getMapForMetric("render.latency").get(Point.emptyPoint()).getHistogram().getValueAtPercentile(50), 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        histogram.outputPercentileDistribution(new PrintStream(out, true, StandardCharsets.UTF_8), 4, 1.0, true);
+        String distribution = out.toString(StandardCharsets.UTF_8);
+        assertTrue(distribution, distribution.contains("5.000,1.000000000000,2"));
+    }
+
+}
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.metrics.simple.jdisc;
 
+import com.yahoo.collections.Tuple2;
 import com.yahoo.container.jdisc.state.CountMetric;
 import com.yahoo.container.jdisc.state.GaugeMetric;
 import com.yahoo.container.jdisc.state.MetricDimensions;
@@ -8,15 +9,19 @@ import com.yahoo.container.jdisc.state.MetricSet;
 import com.yahoo.container.jdisc.state.MetricSnapshot;
 import com.yahoo.container.jdisc.state.MetricValue;
 import com.yahoo.metrics.simple.Bucket;
+import com.yahoo.metrics.simple.Gauge;
 import com.yahoo.metrics.simple.Identifier;
 import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.metrics.simple.MetricSettings;
 import com.yahoo.metrics.simple.Point;
 import com.yahoo.metrics.simple.UntypedMetric;
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -74,4 +79,21 @@ public class SnapshotConverterTest {
         }
     }
 
+    @Test
+    public void testConfiguredPercentilesOfHistogramGauges() {
+        MetricReceiver mock = new MetricReceiver.MockReceiver();
+        Gauge latency = mock.declareGauge("query_latency", Optional.empty(), new MetricSettings.Builder().histogram(true).build());
+        for (int i = 1; i <= 1000; i++)
+            latency.sample(i);
+
+        MetricSnapshot snapshot = new SnapshotConverter(mock.getSnapshot(), List.of(50.0, 99.9)).convert();
+        GaugeMetric gauge = (GaugeMetric) snapshot.iterator().next().getValue().iterator().next().getValue();
+        List<Tuple2<String, Double>> percentiles = gauge.getPercentiles().get();
+        assertEquals(2, percentiles.size());
+        assertEquals("50", percentiles.get(0).first);
+        assertEquals(500, percentiles.get(0).second, 500 * 0.035);
+        assertEquals("99.9", percentiles.get(1).first);
+        assertEquals(999, percentiles.get(1).second, 999 * 0.035);
+    }
+
 }
@@ -25,6 +25,11 @@ public class DisableGuiceMetric implements Metric {
         throw newException();
     }
 
+    @Override
+    public Handle handle(String s, Context context) {
+        throw newException();
+    }
+
     private static RuntimeException newException() {
         return new UnsupportedOperationException("The Metric framework is only available to components.");
     }
@@ -247,6 +247,43 @@ import_cfg_var () {
    fi
 }
 
+# Use an application class data sharing archive of the classes loaded at startup when VESPA_CONTAINER_USE_CDS is set.
+# The archive is written when the container exits normally, and is specific to the jvm, the class path and the
+# platform jars, so a new one is made after these change. It is written under a temporary name, and is put in place
+# by the next start only if a dry run shows the jvm can use it, as it is incomplete if the container is killed while
+# writing it. Only classes on the class path are archived, not those Felix loads from bundles.
+configure_cds() {
+    cds_options=
+    if [ -z "${VESPA_CONTAINER_USE_CDS}" ]; then
+        return
+    fi
+    local cds_dir="${CONTAINER_HOME}/cds"
+    mkdir -p "$cds_dir" || return
+    local platform_jars="${VESPA_HOME}/lib/jars/jdisc_core-jar-with-dependencies.jar ${VESPA_HOME}/lib/jars/container-disc-jar-with-dependencies.jar"
+    local cds_key
+    if test "$(uname -s)" = Darwin; then
+        cds_key=`(echo "$CP"; command -v java; ls -l $platform_jars) | md5 -r | cut -d' ' -f1`
+    else
+        cds_key=`(echo "$CP"; readlink -f "$(command -v java)"; ls -l $platform_jars) | md5sum | cut -d' ' -f1`
+    fi
+    local archive="${cds_dir}/container-${cds_key}.jsa"
+    local written="${archive}.written"
+    if [ ! -s "$archive" ] && [ -s "$written" ]; then
+        if java -XX:SharedArchiveFile="$written" -Xshare:on -cp "$CP" -version >/dev/null 2>&1; then
+            mv -f "$written" "$archive"
+        else
+            log_message warning "discarding class data sharing archive ${written}, which the jvm can not use"
+        fi
+    fi
+    if [ -s "$archive" ]; then
+        cds_options="-XX:SharedArchiveFile=${archive} -Xshare:auto"
+    else
+        find "$cds_dir" -name 'container-*.jsa*' -delete
+        cds_options="-XX:ArchiveClassesAtExit=${written}"
+        log_message config "no class data sharing archive for this jvm and platform, creating ${written} at exit"
+    fi
+}
+
 # TODO Vespa 8: Remove when all containers use JDK 17
 configure_illegal_access() {
   if [[ "$VESPA_JDK_VERSION" = "11" ]]; then
@@ -263,6 +300,7 @@ configure_numactl
 configure_cpu
 configure_preload
 configure_illegal_access
+configure_cds
 
 exec $numactlcmd $envcmd java \
         -Dconfig.id="${VESPA_CONFIG_ID}" \
@@ -277,6 +315,7 @@ exec $numactlcmd $envcmd java \
         -XX:ErrorFile="${VESPA_HOME}/var/crash/hs_err_pid%p.log" \
         -XX:+ExitOnOutOfMemoryError \
         ${illegal_access_option} \
+        ${cds_options} \
         --add-opens=java.base/java.io=ALL-UNNAMED \
         --add-opens=java.base/java.lang=ALL-UNNAMED \
         --add-opens=java.base/java.net=ALL-UNNAMED \
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author Simon Thoresen Hult
@@ -42,4 +43,35 @@ public class ForwardingMetricConsumerTest {
         Mockito.verify(fooConsumer, Mockito.times(1)).set("b", 96, fooCtx);
         Mockito.verify(barConsumer, Mockito.times(1)).set("b", 96, barCtx);
     }
+
+    @Test
+    public void requireThatHandlesAreForwarded() {
+        MetricConsumer fooConsumer = Mockito.mock(MetricConsumer.class);
+        Metric.Context fooCtx = Mockito.mock(Metric.Context.class);
+        Metric.Handle fooHandle = Mockito.mock(Metric.Handle.class);
+        Mockito.when(fooConsumer.createContext(Mockito.<Map<String, ?>>any())).thenReturn(fooCtx);
+        Mockito.when(fooConsumer.createHandle("a", fooCtx)).thenReturn(fooHandle);
+
+        MetricConsumer barConsumer = Mockito.mock(MetricConsumer.class);
+        Metric.Context barCtx = Mockito.mock(Metric.Context.class);
+        Metric.Handle barHandle = Mockito.mock(Metric.Handle.class);
+        Mockito.when(barConsumer.createContext(Mockito.<Map<String, ?>>any())).thenReturn(barCtx);
+        Mockito.when(barConsumer.createHandle("a", barCtx)).thenReturn(barHandle);
+
+        MetricConsumer fwdConsumer = new ForwardingMetricConsumer(new MetricConsumer[] { fooConsumer, barConsumer });
+        Metric.Handle handle = fwdConsumer.createHandle("a", fwdConsumer.createContext(new HashMap<>()));
+        assertNotNull(handle);
+
+        handle.add(69);
+        Mockito.verify(fooHandle, Mockito.times(1)).add(69);
+        Mockito.verify(barHandle, Mockito.times(1)).add(69);
+
+        handle.set(96);
+        Mockito.verify(fooHandle, Mockito.times(1)).set(96);
+        Mockito.verify(barHandle, Mockito.times(1)).set(96);
+
+        Mockito.when(barConsumer.createHandle("b", barCtx)).thenReturn(null);
+        assertNull("No handle unless all consumers support it",
+                   fwdConsumer.createHandle("b", fwdConsumer.createContext(new HashMap<>())));
+    }
 }
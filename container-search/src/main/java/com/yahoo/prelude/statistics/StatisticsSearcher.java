@@ -81,12 +81,47 @@ public class StatisticsSearcher extends Searcher {
     private enum DegradedReason { match_phase, adaptive_timeout, timeout, non_ideal_state }
 
     private final Metric metric;
-    private final Map<String, Metric.Context> chainContexts = new CopyOnWriteHashMap<>();
+    private final Map<String, ChainMetrics> chainMetrics = new CopyOnWriteHashMap<>();
     private final Map<String, Metric.Context> statePageOnlyContexts = new CopyOnWriteHashMap<>();
     private final Map<String, Map<DegradedReason, Metric.Context>> degradedReasonContexts = new CopyOnWriteHashMap<>();
     private final Map<String, Map<String, Metric.Context>> relevanceContexts = new CopyOnWriteHashMap<>();
     private final java.util.Timer scheduler = new java.util.Timer(true);
 
+    /** The context of the metrics of a chain, and handles to those which are recorded for every query */
+    private static class ChainMetrics {
+
+        final Metric.Context context;
+        final Metric.Handle queries;
+        final Metric.Handle failedQueries;
+        final Metric.Handle queryLatency;
+        final Metric.Handle meanQueryLatency;
+        final Metric.Handle maxQueryLatency;
+        final Metric.Handle docsCovered;
+        final Metric.Handle docsTotal;
+        final Metric.Handle hitsPerQuery;
+        final Metric.Handle totalHitsPerQuery;
+        final Metric.Handle queryHitOffset;
+        final Metric.Handle emptyResults;
+        final Metric.Handle queryItemCount;
+
+        ChainMetrics(Metric metric, Metric.Context context) {
+            this.context = context;
+            this.queries = metric.handle(QUERIES_METRIC, context);
+            this.failedQueries = metric.handle(FAILED_QUERIES_METRIC, context);
+            this.queryLatency = metric.handle(QUERY_LATENCY_METRIC, context);
+            this.meanQueryLatency = metric.handle(MEAN_QUERY_LATENCY_METRIC, context);
+            this.maxQueryLatency = metric.handle(MAX_QUERY_LATENCY_METRIC, context);
+            this.docsCovered = metric.handle(DOCS_COVERED_METRIC, context);
+            this.docsTotal = metric.handle(DOCS_TOTAL_METRIC, context);
+            this.hitsPerQuery = metric.handle(HITS_PER_QUERY_METRIC, context);
+            this.totalHitsPerQuery = metric.handle(TOTALHITS_PER_QUERY_METRIC, context);
+            this.queryHitOffset = metric.handle(QUERY_HIT_OFFSET_METRIC, context);
+            this.emptyResults = metric.handle(EMPTY_RESULTS_METRIC, context);
+            this.queryItemCount = metric.handle(QUERY_ITEM_COUNT, context);
+        }
+
+    }
+
     private class PeakQpsReporter extends java.util.TimerTask {
         private long prevMaxQPSTime = System.currentTimeMillis();
         private long queriesForQPS = 0;
@@ -141,15 +176,15 @@ public class StatisticsSearcher extends Searcher {
         peakQpsReporter.countQuery();
     }
 
-    private Metric.Context getChainMetricContext(String chainName) {
-        Metric.Context context = chainContexts.get(chainName);
-        if (context == null) {
+    private ChainMetrics getChainMetrics(String chainName) {
+        ChainMetrics metrics = chainMetrics.get(chainName);
+        if (metrics == null) {
             Map<String, String> dimensions = new HashMap<>();
             dimensions.put("chain", chainName);
-            context = this.metric.createContext(dimensions);
-            chainContexts.put(chainName, context);
+            metrics = new ChainMetrics(metric, metric.createContext(dimensions));
+            chainMetrics.put(chainName, metrics);
         }
-        return context;
+        return metrics;
     }
 
     private Metric.Context getDegradedMetricContext(String chainName, Coverage coverage) {
@@ -216,32 +251,32 @@ public class StatisticsSearcher extends Searcher {
             return execution.search(query);
         }
 
-        Metric.Context metricContext = getChainMetricContext(execution.chain().getId().stringValue());
+        ChainMetrics chainMetrics = getChainMetrics(execution.chain().getId().stringValue());
 
-        incrQueryCount(metricContext);
+        incrQueryCount(chainMetrics);
         logQuery(query);
         long start_ns = getStartNanoTime(query);
-        qps(metricContext);
+        qps(chainMetrics.context);
         Result result;
         //handle exceptions thrown below in searchers
         try {
             result = execution.search(query); // Pass on down the chain
         } catch (Exception e) {
-            incrErrorCount(null, metricContext);
+            incrErrorCount(null, chainMetrics);
             throw e;
         }
 
         long end_ns = System.nanoTime(); // End time, in nanoseconds
         long latency_ns = end_ns - start_ns;
         if (latency_ns >= 0) {
-            addLatency(latency_ns, metricContext);
+            addLatency(latency_ns, chainMetrics);
         } else {
             getLogger().log(Level.WARNING,
                             "Apparently negative latency measure, start: " + start_ns
                             + ", end: " + end_ns + ", for query: " + query);
         }
         if (result.hits().getError() != null) {
-            incrErrorCount(result, metricContext);
+            incrErrorCount(result, chainMetrics);
             incrementStatePageOnlyErrors(result);
         }
         Coverage queryCoverage = result.getCoverage(false);
@@ -250,22 +285,22 @@ public class StatisticsSearcher extends Searcher {
                 Metric.Context degradedContext = getDegradedMetricContext(execution.chain().getId().stringValue(), queryCoverage);
                 metric.add(DEGRADED_QUERIES_METRIC, 1, degradedContext);
             }
-            metric.add(DOCS_COVERED_METRIC, queryCoverage.getDocs(), metricContext);
-            metric.add(DOCS_TOTAL_METRIC, queryCoverage.getActive(), metricContext);
+            chainMetrics.docsCovered.add(queryCoverage.getDocs());
+            chainMetrics.docsTotal.add(queryCoverage.getActive());
         }
         int hitCount = result.getConcreteHitCount();
-        metric.set(HITS_PER_QUERY_METRIC, (double) hitCount, metricContext);
+        chainMetrics.hitsPerQuery.set(hitCount);
 
         long totalHitCount = result.getTotalHitCount();
-        metric.set(TOTALHITS_PER_QUERY_METRIC, (double) totalHitCount, metricContext);
-        metric.set(QUERY_HIT_OFFSET_METRIC, (double) (query.getHits() + query.getOffset()), metricContext);
+        chainMetrics.totalHitsPerQuery.set(totalHitCount);
+        chainMetrics.queryHitOffset.set(query.getHits() + query.getOffset());
         if (hitCount == 0) {
-            metric.add(EMPTY_RESULTS_METRIC, 1, metricContext);
+            chainMetrics.emptyResults.add(1);
         }
 
         addRelevanceMetrics(query, execution, result);
 
-        addItemCountMetric(query, metricContext);
+        addItemCountMetric(query, chainMetrics);
 
         return result;
     }
@@ -278,22 +313,22 @@ public class StatisticsSearcher extends Searcher {
         }
     }
 
-    private void addLatency(long latency_ns, Metric.Context metricContext) {
+    private void addLatency(long latency_ns, ChainMetrics chainMetrics) {
         double latency = 0.000001 * latency_ns;
-        metric.set(QUERY_LATENCY_METRIC, latency, metricContext);
-        metric.set(MEAN_QUERY_LATENCY_METRIC, latency, metricContext);
-        metric.set(MAX_QUERY_LATENCY_METRIC, latency, metricContext);
+        chainMetrics.queryLatency.set(latency);
+        chainMetrics.meanQueryLatency.set(latency);
+        chainMetrics.maxQueryLatency.set(latency);
     }
 
-    private void incrQueryCount(Metric.Context metricContext) {
-        metric.add(QUERIES_METRIC, 1, metricContext);
+    private void incrQueryCount(ChainMetrics chainMetrics) {
+        chainMetrics.queries.add(1);
     }
 
-    private void incrErrorCount(Result result, Metric.Context metricContext) {
-        metric.add(FAILED_QUERIES_METRIC, 1, metricContext);
+    private void incrErrorCount(Result result, ChainMetrics chainMetrics) {
+        chainMetrics.failedQueries.add(1);
 
         if (result == null) // the chain threw an exception
-            metric.add("error.unhandled_exception", 1, metricContext);
+            metric.add("error.unhandled_exception", 1, chainMetrics.context);
     }
 
     /**
@@ -399,8 +434,8 @@ public class StatisticsSearcher extends Searcher {
         }
     }
 
-    private void addItemCountMetric(Query query, Metric.Context context) {
-        metric.set(QUERY_ITEM_COUNT, query.getModel().getQueryTree().treeSize(), context);
+    private void addItemCountMetric(Query query, ChainMetrics chainMetrics) {
+        chainMetrics.queryItemCount.set(query.getModel().getQueryTree().treeSize());
     }
 
     /**
@@ -19,11 +19,13 @@ import com.yahoo.container.jdisc.HttpRequest;
 import com.yahoo.container.jdisc.HttpResponse;
 import com.yahoo.container.jdisc.LoggingRequestHandler;
 import com.yahoo.container.jdisc.RequestHandlerSpec;
+import com.yahoo.container.jdisc.RequestResourceUsage;
 import com.yahoo.container.jdisc.VespaHeaders;
 import com.yahoo.container.logging.AccessLog;
 import com.yahoo.io.IOUtils;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
+import com.yahoo.jdisc.http.server.jetty.RequestUtils;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.process.Embedder;
 import com.yahoo.language.provider.DefaultEmbedderProvider;
@@ -462,6 +464,7 @@ public class SearchHandler extends LoggingRequestHandler {
 
         Execution execution = executionFactory.newExecution(searchChain);
         query.getModel().setExecution(execution);
+        execution.context().setResourceUsage(resourceUsageOf(query));
         if (log.isLoggable(Level.FINE) && (numRequestsLeftToTrace.getAndDecrement() > 0)) {
             query.setTraceLevel(Math.max(1, query.getTraceLevel()));
             execution.trace().setForceTimestamps(true);
@@ -484,6 +487,13 @@ public class SearchHandler extends LoggingRequestHandler {
         return result;
     }
 
+    /** Returns the resource usage of the request of the given query, if it is sampled for measuring this */
+    private static RequestResourceUsage resourceUsageOf(Query query) {
+        if (query.getHttpRequest() == null || query.getHttpRequest().getJDiscRequest() == null) return null;
+        Object resourceUsage = query.getHttpRequest().getJDiscRequest().context().get(RequestUtils.JDISC_RESOURCE_USAGE);
+        return resourceUsage instanceof RequestResourceUsage ? (RequestResourceUsage) resourceUsage : null;
+    }
+
     private void traceRequestAttributes(Query query) {
         int miminumTraceLevel = 7;
         if (query.getTraceLevel() >= 7) {
@@ -0,0 +1,85 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.yahoo.component.annotation.Inject;
+import com.yahoo.container.jdisc.HttpRequest;
+import com.yahoo.container.jdisc.HttpResponse;
+import com.yahoo.container.jdisc.ThreadedHttpRequestHandler;
+import com.yahoo.restapi.ErrorResponse;
+import com.yahoo.restapi.MessageResponse;
+import com.yahoo.restapi.SlimeJsonResponse;
+import com.yahoo.search.searchchain.ExecutionFactory;
+import com.yahoo.search.statistics.SearcherLatencies;
+import com.yahoo.search.statistics.TimeTracker;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Lists the searchers with the highest mean latency, excluding the time spent in later searchers,
+ * for searching by default, or filling with "activity=fill". The number listed is given by "count",
+ * and is 10 by default. The latencies are those recorded since the container started, or since they were
+ * last reset by a DELETE request to this, which is only allowed if enabled in {@link SearcherLatencyHandlerConfig}.
+ *
+ * @author agent
+ */
+public class SearcherLatencyHandler extends ThreadedHttpRequestHandler {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    private final SearcherLatencies searcherLatencies;
+    private final boolean allowReset;
+
+    @Inject
+    public SearcherLatencyHandler(Context context, ExecutionFactory executionFactory, SearcherLatencyHandlerConfig config) {
+        super(context);
+        this.searcherLatencies = executionFactory.searcherLatencies();
+        this.allowReset = config.allowReset();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        if (request.getMethod() == com.yahoo.jdisc.http.HttpRequest.Method.DELETE) {
+            if ( ! allowReset)
+                return ErrorResponse.methodNotAllowed("Resetting searcher latencies is not enabled");
+            searcherLatencies.reset();
+            return new MessageResponse("Reset searcher latencies");
+        }
+        if (request.getMethod() != com.yahoo.jdisc.http.HttpRequest.Method.GET)
+            return ErrorResponse.methodNotAllowed("Method '" + request.getMethod() + "' is not supported");
+
+        TimeTracker.Activity activity;
+        int count;
+        try {
+            String activityName = Objects.requireNonNullElse(request.getProperty("activity"), "search");
+            activity = TimeTracker.Activity.valueOf(activityName.toUpperCase(Locale.ENGLISH));
+            if (activity == TimeTracker.Activity.PING)
+                throw new IllegalArgumentException("Latencies are not recorded for pings");
+            String countValue = request.getProperty("count");
+            count = countValue == null ? DEFAULT_COUNT : Integer.parseInt(countValue);
+        }
+        catch (IllegalArgumentException e) {
+            return ErrorResponse.badRequest("Expected 'activity' to be 'search' or 'fill', and 'count' an integer: " +
+                                            e.getMessage());
+        }
+
+        Slime slime = new Slime();
+        Cursor searchers = slime.setObject().setArray("searchers");
+        for (SearcherLatencies.Latency latency : searcherLatencies.slowest(activity, count)) {
+            SearcherLatencies.Histogram histogram = latency.histogram(activity);
+            Cursor searcher = searchers.addObject();
+            searcher.setString("chain", latency.chain());
+            searcher.setString("searcher", latency.searcher());
+            searcher.setLong("count", histogram.count());
+            searcher.setDouble("mean", histogram.meanNanos() / 1e6);
+            searcher.setDouble("p50", histogram.percentileNanos(50) / 1e6);
+            searcher.setDouble("p95", histogram.percentileNanos(95) / 1e6);
+            searcher.setDouble("p99", histogram.percentileNanos(99) / 1e6);
+            searcher.setDouble("max", histogram.maxNanos() / 1e6);
+        }
+        return new SlimeJsonResponse(slime);
+    }
+
+}
@@ -2,6 +2,7 @@
 package com.yahoo.search.searchchain;
 
 import com.yahoo.component.chain.Chain;
+import com.yahoo.container.jdisc.RequestResourceUsage;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.simple.SimpleLinguistics;
 import com.yahoo.prelude.IndexFacts;
@@ -18,7 +19,9 @@ import com.yahoo.search.Searcher;
 import com.yahoo.search.cluster.PingableSearcher;
 import com.yahoo.search.schema.SchemaInfo;
 import com.yahoo.search.rendering.RendererRegistry;
+import com.yahoo.search.statistics.SearcherLatencies;
 import com.yahoo.search.statistics.TimeTracker;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -91,6 +94,12 @@ public class Execution extends com.yahoo.processing.execution.Execution {
 
         private Executor executor;
 
+        /** The resource usage of the request to charge searchers with, or null if it is not measured */
+        private RequestResourceUsage resourceUsage = null;
+
+        /** Where to record the latency of each searcher, or null to not record it */
+        private SearcherLatencies searcherLatencies = null;
+
         /** Always set if this context belongs to an execution, never set if it does not. */
         private final Execution owner;
 
@@ -222,6 +231,10 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             if (linguistics == null)
                 linguistics = sourceContext.linguistics;
             executor = sourceContext.executor; // executor will always either be the same, or we're in a test
+            if (resourceUsage == null)
+                resourceUsage = sourceContext.resourceUsage;
+            if (searcherLatencies == null)
+                searcherLatencies = sourceContext.searcherLatencies;
         }
 
         /**
@@ -239,6 +252,8 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             breakdown = other.breakdown;
             linguistics = other.linguistics;
             executor = other.executor;
+            resourceUsage = other.resourceUsage;
+            searcherLatencies = other.searcherLatencies;
         }
 
         public boolean equals(Context other) {
@@ -252,7 +267,9 @@ public class Execution extends com.yahoo.processing.execution.Execution {
                    && other.detailedDiagnostics == detailedDiagnostics
                    && other.breakdown == breakdown
                    && other.linguistics == linguistics
-                   && other.executor == executor;
+                   && other.executor == executor
+                   && other.resourceUsage == resourceUsage
+                   && other.searcherLatencies == searcherLatencies;
         }
 
         @Override
@@ -262,7 +279,9 @@ public class Execution extends com.yahoo.processing.execution.Execution {
                                           rendererRegistry, tokenRegistry, searchChainRegistry,
                                           detailedDiagnostics, breakdown,
                                           linguistics,
-                                          executor);
+                                          executor,
+                                          resourceUsage,
+                                          searcherLatencies);
         }
 
         @Override
@@ -389,6 +408,18 @@ public class Execution extends com.yahoo.processing.execution.Execution {
          */
         public Executor executor() { return executor; }
 
+        /** Returns the resource usage of the request, which searchers are charged with, or null if not measured */
+        public RequestResourceUsage resourceUsage() { return resourceUsage; }
+
+        /** Sets the resource usage of the request, which searchers should be charged with, or null to not measure */
+        public void setResourceUsage(RequestResourceUsage resourceUsage) { this.resourceUsage = resourceUsage; }
+
+        /** Returns where the latency of each searcher is recorded, or null if it is not */
+        public SearcherLatencies searcherLatencies() { return searcherLatencies; }
+
+        /** Sets where the latency of each searcher should be recorded, or null to not record it */
+        public void setSearcherLatencies(SearcherLatencies searcherLatencies) { this.searcherLatencies = searcherLatencies; }
+
         /** Creates a child trace if this has an owner, or a root trace otherwise */
         private Trace createChildTrace() {
             return owner!=null ? owner.trace().createChild() : Trace.createRoot(0);
@@ -410,6 +441,12 @@ public class Execution extends com.yahoo.processing.execution.Execution {
     /** Time spent in each state of filling, searching or pinging. */
     private final TimeTracker timer;
 
+    /** When each searcher of the chain was last invoked, if searcher latencies are recorded */
+    private final long[] invokedAtNanos;
+
+    /** Time spent in the searchers after each searcher since it was last invoked, if searcher latencies are recorded */
+    private final long[] laterSearchersNanos;
+
     /** A searcher's view of state external to the search chain. */
     // Note that the context plays the same role as the Environment of the super.Execution
     // (although complicated by the need for stack-like behavior on changes).
@@ -499,6 +536,8 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         contextCache = new Context[searchChain.components().size()];
         entryIndex = searcherIndex;
         timer = new TimeTracker(searchChain, searcherIndex);
+        invokedAtNanos = context.searcherLatencies() != null ? new long[contextCache.length] : null;
+        laterSearchersNanos = invokedAtNanos != null ? new long[contextCache.length] : null;
     }
 
     /** Does return search(((Query)request) */
@@ -526,6 +565,13 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         if (query.getTraceLevel() >= traceDependencies) {
             query.trace(processor.getId() + " " + processor.getDependencies(), traceDependencies);
         }
+        if (context.resourceUsage() != null)
+            context.resourceUsage().enter(resourceUsageDimensions(processor));
+        startTiming(nextIndex() - 1);
+    }
+
+    private Map<String, String> resourceUsageDimensions(Processor processor) {
+        return Map.of("chain", chain().getId().stringValue(), "searcher", processor.getId().stringValue());
     }
 
     /**
@@ -582,9 +628,15 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         try {
             nextProcessor();
             onInvokingFill(current, summaryClass);
+            if (context.resourceUsage() != null)
+                context.resourceUsage().enter(resourceUsageDimensions(current));
+            startTiming(nextIndex() - 1);
             current.ensureFilled(result, summaryClass, this);
         }
         finally {
+            stopTiming(nextIndex() - 1, current, TimeTracker.Activity.FILL);
+            if (context.resourceUsage() != null)
+                context.resourceUsage().exit();
             previousProcessor();
             onReturningFill(current, summaryClass);
             timer.sampleFillReturn(nextIndex(), context.getDetailedDiagnostics(), result);
@@ -629,9 +681,28 @@ public class Execution extends com.yahoo.processing.execution.Execution {
     @Override
     protected void onReturning(Request request, Processor processor,Response response) {
         super.onReturning(request, processor, response);
+        stopTiming(nextIndex(), processor, TimeTracker.Activity.SEARCH);
+        if (context.resourceUsage() != null)
+            context.resourceUsage().exit();
         timer.sampleSearchReturn(nextIndex(), context.getDetailedDiagnostics(), (Result)response);
     }
 
+    private void startTiming(int searcherIndex) {
+        if (invokedAtNanos == null) return;
+        invokedAtNanos[searcherIndex] = System.nanoTime();
+        laterSearchersNanos[searcherIndex] = 0;
+    }
+
+    /** Records the time spent in the given searcher since it was invoked, except that spent in later searchers */
+    private void stopTiming(int searcherIndex, Processor searcher, TimeTracker.Activity activity) {
+        if (invokedAtNanos == null || context.searcherLatencies() == null) return;
+        long nanos = System.nanoTime() - invokedAtNanos[searcherIndex];
+        context.searcherLatencies().record(chain().getId().stringValue(), searcher.getId().stringValue(),
+                                           activity, nanos - laterSearchersNanos[searcherIndex]);
+        if (searcherIndex > entryIndex)
+            laterSearchersNanos[searcherIndex - 1] += nanos;
+    }
+
     @Override
     protected void previousProcessor() {
         super.previousProcessor();
@@ -23,6 +23,7 @@ import com.yahoo.search.Searcher;
 import com.yahoo.search.config.IndexInfoConfig;
 import com.yahoo.search.schema.SchemaInfo;
 import com.yahoo.search.rendering.RendererRegistry;
+import com.yahoo.search.statistics.SearcherLatencies;
 import com.yahoo.vespa.configdefinition.SpecialtokensConfig;
 
 import java.util.concurrent.Executor;
@@ -48,6 +49,7 @@ public class ExecutionFactory extends AbstractComponent {
     private final ThreadPoolExecutor renderingExecutor;
     private final RendererRegistry rendererRegistry;
     private final Executor executor;
+    private final SearcherLatencies searcherLatencies = new SearcherLatencies();
 
     // TODO: Fix tests depending on HandlersConfigurerTestWrapper so that this constructor can be removed
     @Beta
@@ -130,8 +132,7 @@ public class ExecutionFactory extends AbstractComponent {
      * An execution instance should be used once to execute a (tree of) search chains.
      */
     public Execution newExecution(Chain<? extends Searcher> searchChain) {
-        return new Execution(searchChain,
-                             new Execution.Context(searchChainRegistry, indexFacts, schemaInfo, specialTokens, rendererRegistry, linguistics, executor));
+        return new Execution(searchChain, newContext());
     }
 
     /**
@@ -139,8 +140,14 @@ public class ExecutionFactory extends AbstractComponent {
      * An execution instance should be used once to execute a (tree of) search chains.
      */
     public Execution newExecution(String searchChainId) {
-        return new Execution(searchChainRegistry().getChain(searchChainId),
-                             new Execution.Context(searchChainRegistry, indexFacts, schemaInfo, specialTokens, rendererRegistry, linguistics, executor));
+        return new Execution(searchChainRegistry().getChain(searchChainId), newContext());
+    }
+
+    private Execution.Context newContext() {
+        Execution.Context context = new Execution.Context(searchChainRegistry, indexFacts, schemaInfo, specialTokens,
+                                                          rendererRegistry, linguistics, executor);
+        context.setSearcherLatencies(searcherLatencies);
+        return context;
     }
 
     /** Returns the search chain registry used by this */
@@ -151,6 +158,9 @@ public class ExecutionFactory extends AbstractComponent {
 
     public SchemaInfo schemaInfo() { return schemaInfo; }
 
+    /** Returns the latencies of the searchers run by the executions created by this */
+    public SearcherLatencies searcherLatencies() { return searcherLatencies; }
+
     @Override
     public void deconstruct() {
         rendererRegistry.deconstruct();
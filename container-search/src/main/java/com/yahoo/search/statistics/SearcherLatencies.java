@@ -0,0 +1,153 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.statistics;
+
+import com.yahoo.metrics.simple.LogLinearHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograms of the latency of each searcher in each search chain, for search and fill separately.
+ * The latency of a searcher is the time spent in it, excluding the time spent in the searchers after it
+ * in the same execution, so a searcher which adds latency can be found directly.
+ * Recording threads rarely contend, so this can be done for every query. The latencies are those recorded
+ * since this was created or last {@link #reset}, such that changes over time can be observed.
+ *
+ * @author agent
+ */
+public final class SearcherLatencies {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Latency>> chains = new ConcurrentHashMap<>();
+
+    /** Records a search or fill in the given searcher in the given chain, which took the given number of nanoseconds */
+    public void record(String chain, String searcher, TimeTracker.Activity activity, long nanos) {
+        latency(chain, searcher).histogram(activity).record(nanos);
+    }
+
+    private Latency latency(String chain, String searcher) {
+        ConcurrentMap<String, Latency> searchers = chains.get(chain);
+        if (searchers == null)
+            searchers = chains.computeIfAbsent(chain, __ -> new ConcurrentHashMap<>());
+        Latency latency = searchers.get(searcher);
+        if (latency == null)
+            latency = searchers.computeIfAbsent(searcher, __ -> new Latency(chain, searcher));
+        return latency;
+    }
+
+    /** Forgets all recorded latencies, such that those returned from now on are recorded after this */
+    public void reset() {
+        chains.clear();
+    }
+
+    /** Returns the latencies of all searchers with recorded latencies */
+    public List<Latency> all() {
+        List<Latency> all = new ArrayList<>();
+        chains.values().forEach(searchers -> all.addAll(searchers.values()));
+        return all;
+    }
+
+    /** Returns up to the given number of searchers with the highest mean latency of the given activity, highest first */
+    public List<Latency> slowest(TimeTracker.Activity activity, int count) {
+        List<Latency> slowest = all();
+        slowest.removeIf(latency -> latency.histogram(activity).count() == 0);
+        slowest.sort(Comparator.comparingDouble((Latency latency) -> latency.histogram(activity).meanNanos()).reversed());
+        return slowest.subList(0, Math.min(count, slowest.size()));
+    }
+
+    /** The latencies of a searcher in a chain */
+    public static final class Latency {
+
+        private final String chain;
+        private final String searcher;
+        private final Histogram search = new Histogram();
+        private final Histogram fill = new Histogram();
+
+        private Latency(String chain, String searcher) {
+            this.chain = chain;
+            this.searcher = searcher;
+        }
+
+        public String chain() { return chain; }
+
+        public String searcher() { return searcher; }
+
+        /** Returns the histogram of the given activity, which must be search or fill */
+        public Histogram histogram(TimeTracker.Activity activity) {
+            switch (activity) {
+                case SEARCH: return search;
+                case FILL: return fill;
+                default: throw new IllegalArgumentException("Latencies are not recorded for " + activity);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return searcher + " in " + chain + ": search " + search + ", fill " + fill;
+        }
+
+    }
+
+    /**
+     * A histogram of latencies in nanoseconds. Recording threads are spread over a few {@link LogLinearHistogram}s,
+     * each guarded by its own lock, so they rarely contend, and these are merged when percentiles are read.
+     */
+    public static final class Histogram {
+
+        private static final int stripes = 8;
+
+        private final LogLinearHistogram[] histograms = new LogLinearHistogram[stripes];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Histogram() {
+            for (int i = 0; i < stripes; i++)
+                histograms[i] = new LogLinearHistogram();
+        }
+
+        void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            LogLinearHistogram histogram = histograms[(int) Thread.currentThread().getId() & (stripes - 1)];
+            synchronized (histogram) {
+                histogram.record(nanos);
+            }
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get())
+                maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /** Returns the number of latencies recorded */
+        public long count() { return count.sum(); }
+
+        public double meanNanos() {
+            long count = count();
+            return count == 0 ? 0 : (double) totalNanos.sum() / count;
+        }
+
+        public long maxNanos() { return maxNanos.get(); }
+
+        /** Returns the latency which the given percentage of the recorded latencies are at or below */
+        public long percentileNanos(double percentile) {
+            LogLinearHistogram merged = new LogLinearHistogram();
+            for (LogLinearHistogram histogram : histograms) {
+                synchronized (histogram) {
+                    merged.merge(histogram);
+                }
+            }
+            return Math.round(merged.getValueAtPercentile(percentile));
+        }
+
+        @Override
+        public String toString() {
+            return count() + " samples, mean " + meanNanos() + " ns, max " + maxNanos() + " ns";
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.yahoo.container.jdisc.HttpRequest;
+import com.yahoo.container.jdisc.ThreadedHttpRequestHandler;
+import com.yahoo.search.searchchain.ExecutionFactory;
+import org.junit.Test;
+
+import static com.yahoo.jdisc.http.HttpRequest.Method.DELETE;
+import static com.yahoo.jdisc.http.HttpRequest.Method.GET;
+import static com.yahoo.jdisc.http.HttpRequest.Method.POST;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class SearcherLatencyHandlerTest {
+
+    @Test
+    public void reset_is_only_allowed_when_enabled() {
+        assertEquals(405, status(handler(false), DELETE));
+        assertEquals(200, status(handler(true), DELETE));
+    }
+
+    @Test
+    public void only_listing_and_reset_are_supported() {
+        SearcherLatencyHandler handler = handler(true);
+        assertEquals(200, status(handler, GET));
+        assertEquals(405, status(handler, POST));
+    }
+
+    private static SearcherLatencyHandler handler(boolean allowReset) {
+        return new SearcherLatencyHandler(ThreadedHttpRequestHandler.testContext(),
+                                          ExecutionFactory.empty(),
+                                          new SearcherLatencyHandlerConfig.Builder().allowReset(allowReset).build());
+    }
+
+    private static int status(SearcherLatencyHandler handler, com.yahoo.jdisc.http.HttpRequest.Method method) {
+        return handler.handle(HttpRequest.createTestRequest("http://localhost/searcher-latency/v1", method)).getStatus();
+    }
+
+}
@@ -5,12 +5,14 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.yahoo.component.ComponentId;
 import com.yahoo.component.chain.Chain;
 import com.yahoo.component.chain.dependencies.After;
 import com.yahoo.component.chain.dependencies.Before;
+import com.yahoo.container.jdisc.RequestResourceUsage;
 import com.yahoo.prelude.IndexFacts;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
@@ -25,6 +27,7 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Tests basic search chain execution functionality
@@ -172,6 +175,24 @@ public class ExecutionTestCase {
         assertTrue((Boolean) result.hits().get("a").getField("filled"));
     }
 
+    @Test
+    public void testSearchersAreChargedWithResourceUsage() {
+        assumeTrue(RequestResourceUsage.isSupported());
+        Chain<Searcher> chain = new Chain<>(new ComponentId("chain1"),
+                                            new TestSearcher("searcher1"), new FillableResultSearcher());
+        Execution execution = new Execution(chain, Execution.Context.createContextStub());
+        RequestResourceUsage resourceUsage = new RequestResourceUsage();
+        execution.context().setResourceUsage(resourceUsage);
+
+        resourceUsage.enter(Map.of());
+        Result result = execution.search(new Query("?query=test"));
+        execution.fill(result);
+        resourceUsage.exit();
+
+        assertEquals(3, resourceUsage.usages().size());
+        assertTrue(resourceUsage.usages().containsKey(Map.of("chain", "chain1", "searcher", "searcher1")));
+    }
+
     private static class FillableResultSearcher extends Searcher {
 
         @Override
@@ -0,0 +1,101 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.statistics;
+
+import com.yahoo.component.ComponentId;
+import com.yahoo.component.chain.Chain;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.search.statistics.SearcherLatencies.Histogram;
+import com.yahoo.search.statistics.TimeTracker.Activity;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class SearcherLatenciesTestCase {
+
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+        assertEquals(1000, histogram.count());
+        assertEquals(500500, histogram.meanNanos(), 0.001);
+        assertEquals(1000000, histogram.maxNanos());
+        assertWithinBucket(500000, histogram.percentileNanos(50));
+        assertWithinBucket(990000, histogram.percentileNanos(99));
+        assertEquals(1000000, histogram.percentileNanos(100));
+    }
+
+    @Test
+    public void testReset() {
+        SearcherLatencies latencies = new SearcherLatencies();
+        latencies.record("chain", "searcher", Activity.SEARCH, 1000);
+        assertEquals(1, latencies.all().size());
+        latencies.reset();
+        assertEquals(List.of(), latencies.all());
+        latencies.record("chain", "searcher", Activity.SEARCH, 2000);
+        assertEquals(1, latencies.all().get(0).histogram(Activity.SEARCH).count());
+        assertEquals(2000, latencies.all().get(0).histogram(Activity.SEARCH).maxNanos());
+    }
+
+    @Test
+    public void testSearcherLatenciesExcludeLaterSearchers() {
+        SearcherLatencies latencies = new SearcherLatencies();
+        Chain<Searcher> chain = new Chain<>(new ComponentId("chain"),
+                                            new SleepingSearcher("first", 0),
+                                            new SleepingSearcher("slow", 50),
+                                            new SleepingSearcher("last", 100));
+        Execution.Context context = Execution.Context.createContextStub();
+        context.setSearcherLatencies(latencies);
+        Execution execution = new Execution(chain, context);
+        Result result = execution.search(new Query("?query=test"));
+        execution.fill(result);
+
+        List<SearcherLatencies.Latency> slowest = latencies.slowest(Activity.SEARCH, 2);
+        assertEquals(2, slowest.size());
+        assertEquals("last", slowest.get(0).searcher());
+        assertEquals("slow", slowest.get(1).searcher());
+        assertEquals("chain", slowest.get(1).chain());
+        long slowNanos = slowest.get(1).histogram(Activity.SEARCH).maxNanos();
+        assertTrue(slowNanos >= 50_000_000L);
+        assertTrue("Time spent in the last searcher is excluded", slowNanos < 100_000_000L);
+        // Filling an empty result stops at the first searcher
+        assertEquals("first", latencies.slowest(Activity.FILL, 5).get(0).searcher());
+        assertEquals(1, latencies.slowest(Activity.FILL, 5).size());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue("Expected about " + expected + ", got " + actual, Math.abs(actual - expected) <= expected * 0.035);
+    }
+
+    private static class SleepingSearcher extends Searcher {
+
+        private final long sleepMillis;
+
+        SleepingSearcher(String id, long sleepMillis) {
+            super(new ComponentId(id));
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            try {
+                Thread.sleep(sleepMillis);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return execution.search(query);
+        }
+
+    }
+
+}
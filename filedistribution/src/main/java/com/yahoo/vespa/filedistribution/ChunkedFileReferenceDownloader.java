@@ -0,0 +1,353 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.vespa.config.Connection;
+import com.yahoo.vespa.config.ConnectionPool;
+import com.yahoo.vespa.config.JRTConnection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Downloads a file reference chunk by chunk, fetching chunks in parallel from the sources in a connection pool.
+ *
+ * Chunks are written to a partial file in the download directory which is kept if the download fails,
+ * so that a later attempt only needs to fetch the chunks which are still missing. Chunks which are found
+ * in earlier versions of the same file in the download directory are copied from there instead of fetched.
+ * All chunks are verified against their hash, wherever they come from.
+ *
+ * Uncompressed file references are also fetched from peers which have already downloaded them, as assigned
+ * by the source, and if this serves file references to peers, the source is told when it has downloaded one.
+ *
+ * @author agent
+ */
+class ChunkedFileReferenceDownloader {
+
+    private final static Logger log = Logger.getLogger(ChunkedFileReferenceDownloader.class.getName());
+
+    /** The max number of earlier versions of a file to look for chunks in */
+    private static final int maxFilesToReuseChunksFrom = 3;
+
+    /** The max number of times a single fetcher may fail to fetch a chunk before it gives up */
+    private static final int maxFailuresPerFetcher = 3;
+
+    enum Result {
+        /** The file reference was downloaded */
+        completed,
+        /** Some chunks could not be fetched. Chunks which were fetched are kept for the next attempt */
+        failed,
+        /** The source does not serve this file reference in chunks */
+        unsupported
+    }
+
+    private final ExecutorService fetchExecutor;
+    private final ConnectionPool connectionPool;
+    private final Supervisor supervisor;
+    private final Optional<String> peerSpec;
+    private final Downloads downloads;
+    private final File downloadDirectory;
+    private final int fetchersPerDownload;
+
+    /**
+     * Creates a chunked downloader
+     *
+     * @param peerSpec the connection spec at which this serves the file references it has downloaded to peers, if any
+     */
+    ChunkedFileReferenceDownloader(ConnectionPool connectionPool, Supervisor supervisor, Optional<String> peerSpec,
+                                   Downloads downloads, File downloadDirectory) {
+        this.connectionPool = connectionPool;
+        this.supervisor = supervisor;
+        this.peerSpec = peerSpec;
+        this.downloads = downloads;
+        this.downloadDirectory = downloadDirectory;
+        this.fetchersPerDownload = Math.max(4, 2 * connectionPool.getSize());
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()),
+                                                          new DaemonThreadFactory("filereference chunk fetcher"));
+    }
+
+    /** Downloads the given file reference, if it can be served in chunks by the given connection */
+    Result download(FileReference reference, Connection connection, Duration rpcTimeout) {
+        Optional<FileChunks> chunks = getChunks(reference, connection, rpcTimeout);
+        if (chunks.isEmpty()) return Result.unsupported;
+
+        boolean servedByPeers = chunks.get().type() == FileReferenceData.Type.file;
+        List<JRTConnection> peers = servedByPeers ? getPeers(reference, connection, rpcTimeout) : List.of();
+        log.log(Level.FINE, () -> "Downloading " + reference + ", " + chunks.get() + ", from " + connection.getAddress() +
+                                  (peers.isEmpty() ? "" : " and peers " + peers));
+        File partialFile = partialFile(reference);
+        try {
+            boolean complete;
+            try (FileChannel channel = FileChannel.open(partialFile.toPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                complete = download(reference, chunks.get(), channel, connection, peers, rpcTimeout);
+            }
+            if ( ! complete) return Result.failed;
+
+            File file = FileReceiver.moveToFileReferenceDirectory(partialFile, downloadDirectory, reference,
+                                                                  chunks.get().filename(), chunks.get().type());
+            downloads.completedDownloading(reference, file);
+            if (servedByPeers)
+                peerSpec.ifPresent(spec -> setAvailable(reference, spec, connection, rpcTimeout));
+            return Result.completed;
+        }
+        catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Failed downloading " + reference + " in chunks: " + e.getMessage());
+            return Result.failed;
+        }
+        finally {
+            peers.forEach(JRTConnection::close);
+        }
+    }
+
+    private boolean download(FileReference reference, FileChunks chunks, FileChannel channel,
+                             Connection connection, List<? extends Connection> peers, Duration rpcTimeout) throws IOException {
+        if (channel.size() > chunks.size())
+            channel.truncate(chunks.size());
+        PresentChunks present = new PresentChunks(reference, chunks);
+        verifyPresentChunks(chunks, channel, present);
+        if (chunks.type() == FileReferenceData.Type.file)
+            reuseChunksFromEarlierVersions(reference, chunks, channel, present);
+
+        Queue<Integer> missing = new ConcurrentLinkedQueue<>(present.missing());
+        if (missing.isEmpty()) return true;
+
+        log.log(Level.FINE, () -> "Fetching " + missing.size() + " of " + chunks.count() + " chunks of " + reference);
+        // Peers are preferred, while the sources take the rest of the load and fetch what peers fail to deliver
+        List<Connection> initialConnections = Stream.concat(peers.stream(), Stream.of(connection)).collect(Collectors.toList());
+        List<Future<?>> fetchers = new ArrayList<>();
+        for (int i = 0; i < Math.min(peers.size() + fetchersPerDownload, missing.size()); i++) {
+            Connection initial = i < initialConnections.size() ? initialConnections.get(i) : connectionPool.getCurrent();
+            fetchers.add(fetchExecutor.submit(() -> fetch(reference, chunks, missing, channel, initial, rpcTimeout, present)));
+        }
+        for (Future<?> fetcher : fetchers) {
+            try {
+                fetcher.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while fetching chunks of " + reference, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed fetching chunks of " + reference, e.getCause());
+            }
+        }
+        return present.isComplete();
+    }
+
+    /** Fetches missing chunks until there are none left, or this fails too many times */
+    private void fetch(FileReference reference, FileChunks chunks, Queue<Integer> missing, FileChannel channel,
+                       Connection connection, Duration rpcTimeout, PresentChunks present) {
+        int failures = 0;
+        for (Integer chunk; (chunk = missing.poll()) != null; ) {
+            Optional<byte[]> data = getChunk(reference, chunk, connection, rpcTimeout);
+            if (data.isPresent() && chunks.isChunk(chunk, data.get())) {
+                try {
+                    write(channel, data.get(), chunks.offset(chunk));
+                    present.add(chunk);
+                    continue;
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed writing chunk " + chunk + " of " + reference + ": " + e.getMessage());
+                }
+            }
+            else {
+                String message = "Failed fetching chunk " + chunk + " of " + reference + " from " + connection.getAddress();
+                log.log(Level.FINE, () -> message);
+            }
+            missing.add(chunk);
+            if (++failures > maxFailuresPerFetcher) return;
+            connection = connectionPool.switchConnection(connection);
+        }
+    }
+
+    /** Marks the chunks already present in the given partial file, from an earlier attempt */
+    private static void verifyPresentChunks(FileChunks chunks, FileChannel channel, PresentChunks present) throws IOException {
+        long size = channel.size();
+        for (int chunk = 0; chunk < chunks.count(); chunk++) {
+            if (chunks.offset(chunk) + chunks.length(chunk) > size) break;
+            if (chunks.isChunk(chunk, chunks.read(channel, chunk)))
+                present.add(chunk);
+        }
+    }
+
+    /** Copies missing chunks which are found in earlier versions of the same file */
+    private void reuseChunksFromEarlierVersions(FileReference reference, FileChunks chunks, FileChannel channel,
+                                                PresentChunks present) throws IOException {
+        if (present.isComplete()) return;
+
+        for (File earlier : earlierVersionsOf(reference, chunks.filename())) {
+            try (FileChannel earlierChannel = FileChannel.open(earlier.toPath(), StandardOpenOption.READ)) {
+                FileChunks earlierChunks = FileChunks.of(earlier, chunks.filename(), chunks.type(), chunks.chunkSize());
+                Map<Long, Integer> earlierChunkByHash = new HashMap<>();
+                for (int chunk = 0; chunk < earlierChunks.count(); chunk++)
+                    earlierChunkByHash.putIfAbsent(earlierChunks.hash(chunk), chunk);
+
+                int reused = 0;
+                for (int chunk : present.missing()) {
+                    Integer earlierChunk = earlierChunkByHash.get(chunks.hash(chunk));
+                    if (earlierChunk == null) continue;
+
+                    byte[] data = earlierChunks.read(earlierChannel, earlierChunk);
+                    if ( ! chunks.isChunk(chunk, data)) continue;
+
+                    write(channel, data, chunks.offset(chunk));
+                    present.add(chunk);
+                    reused++;
+                }
+                int reusedChunks = reused;
+                log.log(Level.FINE, () -> "Reused " + reusedChunks + " chunks of " + reference + " from " + earlier);
+            }
+            if (present.isComplete()) return;
+        }
+    }
+
+    /** Returns the most recent files with the given name belonging to other file references in the download directory */
+    private List<File> earlierVersionsOf(FileReference reference, String filename) {
+        File[] fileReferenceDirs = downloadDirectory.listFiles(File::isDirectory);
+        if (fileReferenceDirs == null) return List.of();
+
+        List<File> files = new ArrayList<>();
+        for (File fileReferenceDir : fileReferenceDirs) {
+            if (fileReferenceDir.getName().equals(reference.value())) continue;
+            File file = new File(fileReferenceDir, filename);
+            if (file.isFile() && file.canRead())
+                files.add(file);
+        }
+        files.sort(Comparator.comparingLong(File::lastModified).reversed());
+        return files.subList(0, Math.min(maxFilesToReuseChunksFrom, files.size()));
+    }
+
+    private File partialFile(FileReference reference) {
+        return new File(downloadDirectory, reference.value() + ".inprogress");
+    }
+
+    private static Optional<FileChunks> getChunks(FileReference reference, Connection connection, Duration rpcTimeout) {
+        Request request = new Request(FileChunks.GET_CHUNKS_METHOD);
+        request.parameters().add(new StringValue(reference.value()));
+        connection.invokeSync(request, rpcTimeout.getSeconds());
+        if (request.isError() || ! request.checkReturnTypes("issliL") || request.returnValues().get(0).asInt32() != 0) {
+            log.log(Level.FINE, () -> "Could not get chunks of " + reference + " from " + connection.getAddress() + ": " +
+                                      (request.isError() ? request.errorMessage() : "Not found"));
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new FileChunks(request.returnValues().get(1).asString(),
+                                              FileReferenceData.Type.valueOf(request.returnValues().get(2).asString()),
+                                              request.returnValues().get(3).asInt64(),
+                                              request.returnValues().get(4).asInt32(),
+                                              request.returnValues().get(5).asInt64Array()));
+        } catch (IllegalArgumentException e) {
+            log.log(Level.WARNING, "Invalid chunks of " + reference + " from " + connection.getAddress() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns connections to the peers the given source assigns to serve the given file reference to this.
+     * These are used for this download only, and must be closed when it is done.
+     */
+    private List<JRTConnection> getPeers(FileReference reference, Connection connection, Duration rpcTimeout) {
+        Request request = new Request(FileChunks.GET_PEERS_METHOD);
+        request.parameters().add(new StringValue(reference.value()));
+        request.parameters().add(new StringValue(peerSpec.orElse("")));
+        connection.invokeSync(request, rpcTimeout.getSeconds());
+        if (request.isError() || ! request.checkReturnTypes("S")) return List.of();
+
+        return Stream.of(request.returnValues().get(0).asStringArray())
+                     .map(spec -> new JRTConnection(spec, supervisor))
+                     .collect(Collectors.toList());
+    }
+
+    /** Tells the given source that this has downloaded the given file reference, and serves it to peers */
+    private static void setAvailable(FileReference reference, String peerSpec, Connection connection, Duration rpcTimeout) {
+        Request request = new Request(FileChunks.SET_AVAILABLE_METHOD);
+        request.parameters().add(new StringValue(reference.value()));
+        request.parameters().add(new StringValue(peerSpec));
+        connection.invokeSync(request, rpcTimeout.getSeconds());
+        if (request.isError())
+            log.log(Level.FINE, () -> "Failed telling " + connection.getAddress() + " that " + reference +
+                                      " is available at " + peerSpec + ": " + request.errorMessage());
+    }
+
+    private static Optional<byte[]> getChunk(FileReference reference, int chunk, Connection connection, Duration rpcTimeout) {
+        Request request = new Request(FileChunks.GET_CHUNK_METHOD);
+        request.parameters().add(new StringValue(reference.value()));
+        request.parameters().add(new Int32Value(chunk));
+        connection.invokeSync(request, rpcTimeout.getSeconds());
+        if (request.isError() || ! request.checkReturnTypes("ix") || request.returnValues().get(0).asInt32() != 0)
+            return Optional.empty();
+        return Optional.of(request.returnValues().get(1).asData());
+    }
+
+    private static void write(FileChannel channel, byte[] data, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    void close() {
+        fetchExecutor.shutdownNow();
+        try {
+            fetchExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.interrupted(); // Ignore and continue shutdown.
+        }
+    }
+
+    /** The chunks of a download which are present locally, which also reports download status */
+    private class PresentChunks {
+
+        private final FileReference reference;
+        private final FileChunks chunks;
+        private final BitSet present;
+
+        PresentChunks(FileReference reference, FileChunks chunks) {
+            this.reference = reference;
+            this.chunks = chunks;
+            this.present = new BitSet(chunks.count());
+        }
+
+        synchronized void add(int chunk) {
+            present.set(chunk);
+            downloads.setDownloadStatus(reference, (double) present.cardinality() / chunks.count());
+        }
+
+        synchronized boolean isComplete() {
+            return present.cardinality() == chunks.count();
+        }
+
+        synchronized List<Integer> missing() {
+            List<Integer> missing = new ArrayList<>();
+            for (int chunk = present.nextClearBit(0); chunk < chunks.count(); chunk = present.nextClearBit(chunk + 1))
+                missing.add(chunk);
+            return missing;
+        }
+
+    }
+
+}
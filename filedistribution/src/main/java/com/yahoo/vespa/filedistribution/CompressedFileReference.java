@@ -5,6 +5,7 @@ import com.google.common.io.ByteStreams;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 
@@ -40,10 +41,16 @@ public class CompressedFileReference {
         return outputFile;
     }
 
+    /**
+     * Compresses all regular files under the given directory into the given output file. The output depends only
+     * on the names and contents of the files, such that all config servers produce the same bytes for the same
+     * file reference, which is required when its chunks are fetched from several of them.
+     */
     public static File compress(File directory, File outputFile) throws IOException {
         return compress(directory, Files.find(Paths.get(directory.getAbsolutePath()),
                 recurseDepth,
                 (p, basicFileAttributes) -> basicFileAttributes.isRegularFile())
+                .sorted()
                 .map(Path::toFile).collect(Collectors.toList()), outputFile);
     }
 
@@ -107,7 +114,10 @@ public class CompressedFileReference {
 
     private static void writeFileToTar(ArchiveOutputStream taos, File baseDir, File file) throws IOException {
         log.log(Level.FINEST, () -> "Adding file to tar: " + baseDir.toPath().relativize(file.toPath()).toString());
-        taos.putArchiveEntry(taos.createArchiveEntry(file, baseDir.toPath().relativize(file.toPath()).toString()));
+        ArchiveEntry entry = taos.createArchiveEntry(file, baseDir.toPath().relativize(file.toPath()).toString());
+        if (entry instanceof TarArchiveEntry) // Make the archive independent of when and by whom the file was written
+            ((TarArchiveEntry) entry).setModTime(0);
+        taos.putArchiveEntry(entry);
         ByteStreams.copy(new FileInputStream(file), taos);
         taos.closeArchiveEntry();
     }
@@ -0,0 +1,140 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The content of a file reference as a sequence of fixed size chunks (the last one may be shorter),
+ * each identified by the xxhash64 of its content. This allows a file reference to be downloaded
+ * chunk by chunk from several sources in parallel, interrupted downloads to be resumed, and chunks
+ * already present in other files to be reused.
+ *
+ * @author agent
+ */
+public class FileChunks {
+
+    public final static String GET_CHUNKS_METHOD = "filedistribution.getFileChunks";
+    public final static String GET_CHUNK_METHOD = "filedistribution.getFileChunk";
+    public final static String GET_PEERS_METHOD = "filedistribution.getFilePeers";
+    public final static String SET_AVAILABLE_METHOD = "filedistribution.setFileReferenceAvailable";
+
+    public static final int defaultChunkSize = 0x100000;
+
+    private static final XXHash64 hasher = XXHashFactory.fastestInstance().hash64();
+
+    private final String filename;
+    private final FileReferenceData.Type type;
+    private final long size;
+    private final int chunkSize;
+    private final long[] hashes;
+
+    public FileChunks(String filename, FileReferenceData.Type type, long size, int chunkSize, long[] hashes) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+        if (hashes.length != count(size, chunkSize))
+            throw new IllegalArgumentException("Expected " + count(size, chunkSize) + " chunks of size " + chunkSize +
+                                               " for " + size + " bytes, but got " + hashes.length);
+        this.filename = Objects.requireNonNull(filename);
+        this.type = Objects.requireNonNull(type);
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.hashes = hashes;
+    }
+
+    /** Returns the chunks of the given file */
+    public static FileChunks of(File file, String filename, FileReferenceData.Type type, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] hashes = new long[count(size, chunkSize)];
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkSize, size));
+            for (int chunk = 0; chunk < hashes.length; chunk++) {
+                int length = (int) Math.min(chunkSize, size - (long) chunk * chunkSize);
+                buffer.clear().limit(length);
+                readFully(channel, buffer, (long) chunk * chunkSize);
+                hashes[chunk] = hash(buffer.array(), 0, length);
+            }
+            return new FileChunks(filename, type, size, chunkSize, hashes);
+        }
+    }
+
+    public String filename() { return filename; }
+
+    public FileReferenceData.Type type() { return type; }
+
+    /** Returns the total size of the content in bytes */
+    public long size() { return size; }
+
+    /** Returns the size of all chunks but the last */
+    public int chunkSize() { return chunkSize; }
+
+    /** Returns the number of chunks */
+    public int count() { return hashes.length; }
+
+    /** Returns the hashes of all chunks, which must not be modified */
+    public long[] hashes() { return hashes; }
+
+    public long hash(int chunk) { return hashes[chunk]; }
+
+    /** Returns the position of the first byte of the given chunk in the content */
+    public long offset(int chunk) { return (long) chunk * chunkSize; }
+
+    /** Returns the length of the given chunk */
+    public int length(int chunk) { return (int) Math.min(chunkSize, size - offset(chunk)); }
+
+    /** Returns whether the given data is the content of the given chunk */
+    public boolean isChunk(int chunk, byte[] data) {
+        return data.length == length(chunk) && hash(data, 0, data.length) == hashes[chunk];
+    }
+
+    /** Reads the given chunk from a channel with content laid out as described by this */
+    public byte[] read(FileChannel channel, int chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length(chunk));
+        readFully(channel, buffer, offset(chunk));
+        return buffer.array();
+    }
+
+    public static long hash(byte[] data, int offset, int length) {
+        return hasher.hash(data, offset, length, 0);
+    }
+
+    private static int count(long size, int chunkSize) {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException("Unexpected end of file at position " + position);
+            position += read;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FileChunks other = (FileChunks) o;
+        return size == other.size && chunkSize == other.chunkSize && filename.equals(other.filename) &&
+               type == other.type && Arrays.equals(hashes, other.hashes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filename, type, size, chunkSize, Arrays.hashCode(hashes));
+    }
+
+    @Override
+    public String toString() {
+        return "'" + filename + "' (" + type + ", " + size + " bytes in " + count() + " chunks)";
+    }
+
+}
@@ -35,6 +35,7 @@ public class FileDownloader implements AutoCloseable {
     private final File downloadDirectory;
     private final Duration timeout;
     private final FileReferenceDownloader fileReferenceDownloader;
+    private final Optional<PeerFileServer> peerFileServer;
     private final Downloads downloads = new Downloads();
 
     public FileDownloader(ConnectionPool connectionPool, Supervisor supervisor, Duration timeout) {
@@ -45,18 +46,38 @@ public class FileDownloader implements AutoCloseable {
         this(connectionPool, supervisor, downloadDirectory, timeout, defaultSleepBetweenRetries);
     }
 
+    /**
+     * Creates a file downloader which also serves the file references it has downloaded to peers,
+     * on the given supervisor, which must be listening at the given connection spec
+     */
+    public FileDownloader(ConnectionPool connectionPool, Supervisor supervisor, Duration timeout, String peerSpec) {
+        this(connectionPool, supervisor, defaultDownloadDirectory, timeout, defaultSleepBetweenRetries, Optional.of(peerSpec));
+    }
+
     public FileDownloader(ConnectionPool connectionPool,
                           Supervisor supervisor,
                           File downloadDirectory,
                           Duration timeout,
                           Duration sleepBetweenRetries) {
+        this(connectionPool, supervisor, downloadDirectory, timeout, sleepBetweenRetries, Optional.empty());
+    }
+
+    FileDownloader(ConnectionPool connectionPool,
+                   Supervisor supervisor,
+                   File downloadDirectory,
+                   Duration timeout,
+                   Duration sleepBetweenRetries,
+                   Optional<String> peerSpec) {
         this.connectionPool = connectionPool;
         this.supervisor = supervisor;
         this.downloadDirectory = downloadDirectory;
         this.timeout = timeout;
         // Needed to receive RPC receiveFile* calls from server after starting download of file reference
         new FileReceiver(supervisor, downloads, downloadDirectory);
+        this.peerFileServer = peerSpec.map(__ -> new PeerFileServer(supervisor, downloadDirectory));
         this.fileReferenceDownloader = new FileReferenceDownloader(connectionPool,
+                                                                   supervisor,
+                                                                   peerSpec,
                                                                    downloads,
                                                                    timeout,
                                                                    sleepBetweenRetries,
@@ -137,6 +158,7 @@ public class FileDownloader implements AutoCloseable {
 
     public void close() {
         fileReferenceDownloader.close();
+        peerFileServer.ifPresent(PeerFileServer::close);
         supervisor.transport().shutdown().join();
     }
 
@@ -54,7 +54,6 @@ public class FileReceiver {
         private long currentFileSize;
         private long currentPartId;
         private final long currentHash;
-        private final File fileReferenceDir;
         private final File tmpDir;
         private final File inprogressFile;
 
@@ -70,7 +69,6 @@ public class FileReceiver {
             currentFileSize = 0;
             currentPartId = 0;
             currentHash = 0;
-            fileReferenceDir = new File(downloadDirectory, reference.value());
             this.tmpDir = downloadDirectory;
 
             try {
@@ -109,34 +107,7 @@ public class FileReceiver {
             if (hasher.getValue() != hash) {
                 throw new RuntimeException("xxhash from content (" + currentHash + ") is not equal to xxhash in request (" + hash + ")");
             }
-            File file = new File(fileReferenceDir, fileName);
-            try {
-                // Unpack if necessary
-                if (fileType == FileReferenceData.Type.compressed) {
-                    File decompressedDir = Files.createTempDirectory(tmpDir.toPath(), "archive").toFile();
-                    CompressedFileReference.decompress(inprogressFile, decompressedDir);
-                    moveFileToDestination(decompressedDir, fileReferenceDir);
-                } else {
-                    try {
-                        Files.createDirectories(fileReferenceDir.toPath());
-                    } catch (IOException e) {
-                        log.log(Level.SEVERE, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
-                        throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
-                    }
-                    log.log(Level.FINE, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
-                    moveFileToDestination(inprogressFile, file);
-                }
-            } catch (IOException e) {
-                log.log(Level.SEVERE, "Failed writing file: " + e.getMessage(), e);
-                throw new RuntimeException("Failed writing file: ", e);
-            } finally {
-                try {
-                    Files.deleteIfExists(inprogressFile.toPath());
-                } catch (IOException e) {
-                    log.log(Level.SEVERE, "Failed deleting " + inprogressFile.getAbsolutePath() + ": " + e.getMessage(), e);
-                }
-            }
-            return file;
+            return moveToFileReferenceDirectory(inprogressFile, tmpDir, reference, fileName, fileType);
         }
 
         double percentageReceived() {
@@ -182,6 +153,43 @@ public class FileReceiver {
         return methods;
     }
 
+    /**
+     * Moves the given downloaded content of a file reference into its directory in the given download directory,
+     * unpacking it first if it is compressed, and returns the resulting file.
+     */
+    static File moveToFileReferenceDirectory(File content, File downloadDirectory, FileReference reference,
+                                             String fileName, FileReferenceData.Type fileType) {
+        File fileReferenceDir = new File(downloadDirectory, reference.value());
+        File file = new File(fileReferenceDir, fileName);
+        try {
+            // Unpack if necessary
+            if (fileType == FileReferenceData.Type.compressed) {
+                File decompressedDir = Files.createTempDirectory(downloadDirectory.toPath(), "archive").toFile();
+                CompressedFileReference.decompress(content, decompressedDir);
+                moveFileToDestination(decompressedDir, fileReferenceDir);
+            } else {
+                try {
+                    Files.createDirectories(fileReferenceDir.toPath());
+                } catch (IOException e) {
+                    log.log(Level.SEVERE, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
+                    throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
+                }
+                log.log(Level.FINE, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
+                moveFileToDestination(content, file);
+            }
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Failed writing file: " + e.getMessage(), e);
+            throw new RuntimeException("Failed writing file: ", e);
+        } finally {
+            try {
+                Files.deleteIfExists(content.toPath());
+            } catch (IOException e) {
+                log.log(Level.SEVERE, "Failed deleting " + content.getAbsolutePath() + ": " + e.getMessage(), e);
+            }
+        }
+        return file;
+    }
+
     private static void moveFileToDestination(File tempFile, File destination) {
         try {
             Files.move(tempFile.toPath(), destination.toPath());
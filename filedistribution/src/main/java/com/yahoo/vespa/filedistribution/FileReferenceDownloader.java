@@ -6,6 +6,7 @@ import com.yahoo.config.FileReference;
 import com.yahoo.jrt.Int32Value;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
 import com.yahoo.vespa.config.Connection;
 import com.yahoo.vespa.config.ConnectionPool;
 
@@ -32,6 +33,7 @@ public class FileReferenceDownloader {
     private final ExecutorService downloadExecutor =
             Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()),
                                          new DaemonThreadFactory("filereference downloader"));
+    private final ChunkedFileReferenceDownloader chunkedDownloader;
     private final ConnectionPool connectionPool;
     private final Downloads downloads;
     private final Duration downloadTimeout;
@@ -40,6 +42,8 @@ public class FileReferenceDownloader {
     private final File downloadDirectory;
 
     FileReferenceDownloader(ConnectionPool connectionPool,
+                            Supervisor supervisor,
+                            Optional<String> peerSpec,
                             Downloads downloads,
                             Duration timeout,
                             Duration sleepBetweenRetries,
@@ -49,6 +53,7 @@ public class FileReferenceDownloader {
         this.downloadTimeout = timeout;
         this.sleepBetweenRetries = sleepBetweenRetries;
         this.downloadDirectory = downloadDirectory;
+        this.chunkedDownloader = new ChunkedFileReferenceDownloader(connectionPool, supervisor, peerSpec, downloads, downloadDirectory);
         String timeoutString = System.getenv("VESPA_CONFIGPROXY_FILEDOWNLOAD_RPC_TIMEOUT");
         this.rpcTimeout = Duration.ofSeconds(timeoutString == null ? 30 : Integer.parseInt(timeoutString));
     }
@@ -63,7 +68,11 @@ public class FileReferenceDownloader {
 
             if (FileDownloader.fileReferenceExists(fileReference, downloadDirectory))
                 return;
-            if (startDownloadRpc(fileReferenceDownload, retryCount, connection))
+            // Download in chunks if possible, otherwise ask the source to send the whole file reference
+            ChunkedFileReferenceDownloader.Result result = chunkedDownloader.download(fileReference, connection, rpcTimeout(retryCount));
+            if (result == ChunkedFileReferenceDownloader.Result.completed)
+                return;
+            if (result == ChunkedFileReferenceDownloader.Result.unsupported && startDownloadRpc(fileReferenceDownload, retryCount, connection))
                 return;
 
             retryCount++;
@@ -151,6 +160,7 @@ public class FileReferenceDownloader {
     }
 
     public void close() {
+        chunkedDownloader.close();
         downloadExecutor.shutdown();
         try {
             downloadExecutor.awaitTermination(1, TimeUnit.SECONDS);
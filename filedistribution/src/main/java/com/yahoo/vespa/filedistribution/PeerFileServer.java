@@ -0,0 +1,181 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Array;
+import com.yahoo.jrt.Int64Value;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.SecurityContext;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.security.tls.MixedMode;
+import com.yahoo.security.tls.TransportSecurityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the file references downloaded to a node to its peers, in chunks, using the same RPC methods
+ * as config servers. Only uncompressed file references are served, as compressed ones are unpacked
+ * when downloaded, so their content as sent by config servers is not available.
+ *
+ * When transport security is enabled, only peers which authenticate with TLS are served, as by config servers.
+ * Peers are then nodes of the same system, but unlike config servers, this does not know which applications
+ * they belong to, so it serves any file reference it has to them. Config servers therefore only assign peers
+ * to nodes of the same application, and this is only created when serving files to peers is enabled.
+ *
+ * @author agent
+ */
+class PeerFileServer {
+
+    private final static Logger log = Logger.getLogger(PeerFileServer.class.getName());
+
+    private static final int maxCachedChunks = 20;
+
+    /** The error code of unauthorized requests, as returned by config servers */
+    private static final int unauthorized = 0x20001;
+
+    private final File downloadDirectory;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4, new DaemonThreadFactory("peer file server"));
+    private final Map<FileReference, FileChunks> chunksCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FileReference, FileChunks> eldest) { return size() > maxCachedChunks; }
+    });
+
+    PeerFileServer(Supervisor supervisor, File downloadDirectory) {
+        this.downloadDirectory = downloadDirectory;
+        supervisor.addMethod(new Method(FileChunks.GET_CHUNKS_METHOD, "s", "issliL", this::getFileChunks)
+                                     .methodDesc("get the chunks a file reference downloaded to this node is served in")
+                                     .paramDesc(0, "file reference", "file reference to get chunks of")
+                                     .returnDesc(0, "ret", "0 if success, 1 if file reference was not found")
+                                     .returnDesc(1, "filename", "filename")
+                                     .returnDesc(2, "type", "'file' or 'compressed'")
+                                     .returnDesc(3, "filelength", "length in bytes of file")
+                                     .returnDesc(4, "chunksize", "length in bytes of all chunks but the last")
+                                     .returnDesc(5, "hashes", "xxhash64 of each chunk"));
+        supervisor.addMethod(new Method(FileChunks.GET_CHUNK_METHOD, "si", "ix", this::getFileChunk)
+                                     .methodDesc("get a chunk of a file reference downloaded to this node")
+                                     .paramDesc(0, "file reference", "file reference to get chunk of")
+                                     .paramDesc(1, "chunk", "chunk number starting at zero")
+                                     .returnDesc(0, "ret", "0 if success, 1 if file reference or chunk was not found")
+                                     .returnDesc(1, "data", "bytes in this chunk"));
+    }
+
+    private void getFileChunks(Request request) {
+        if ( ! authorize(request)) return;
+        request.detach();
+        executor.execute(() -> {
+            Optional<FileChunks> chunks = chunks(new FileReference(request.parameters().get(0).asString()));
+            request.returnValues()
+                   .add(new Int32Value(chunks.isPresent() ? 0 : 1))
+                   .add(new StringValue(chunks.map(FileChunks::filename).orElse("")))
+                   .add(new StringValue(chunks.map(c -> c.type().name()).orElse("")))
+                   .add(new Int64Value(chunks.map(FileChunks::size).orElse(0L)))
+                   .add(new Int32Value(chunks.map(FileChunks::chunkSize).orElse(0)))
+                   .add(new Int64Array(chunks.map(FileChunks::hashes).orElse(new long[0])));
+            request.returnRequest();
+        });
+    }
+
+    private void getFileChunk(Request request) {
+        if ( ! authorize(request)) return;
+        request.detach();
+        executor.execute(() -> {
+            FileReference reference = new FileReference(request.parameters().get(0).asString());
+            int chunk = request.parameters().get(1).asInt32();
+            byte[] data = null;
+            Optional<FileChunks> chunks = chunks(reference);
+            if (chunks.isPresent() && chunk >= 0 && chunk < chunks.get().count()) {
+                try (FileChannel channel = FileChannel.open(file(reference, chunks.get()).toPath(), StandardOpenOption.READ)) {
+                    data = chunks.get().read(channel, chunk);
+                } catch (IOException e) {
+                    log.log(Level.FINE, () -> "Failed reading chunk " + chunk + " of " + reference + ": " + e.getMessage());
+                    chunksCache.remove(reference);
+                }
+            }
+            request.returnValues()
+                   .add(new Int32Value(data != null ? 0 : 1))
+                   .add(new DataValue(data != null ? data : new byte[0]));
+            request.returnRequest();
+        });
+    }
+
+    /**
+     * Returns whether the given request may be served, and sets an error on it if not: peers must authenticate
+     * with TLS if transport security is enabled, unless insecure connections are allowed in mixed mode
+     */
+    private static boolean authorize(Request request) {
+        if ( ! TransportSecurityUtils.isTransportSecurityEnabled()) return true;
+
+        Optional<SecurityContext> securityContext = request.target().getSecurityContext();
+        boolean authorized = securityContext.isPresent()
+                             ? ! securityContext.get().peerCertificateChain().isEmpty()
+                             : TransportSecurityUtils.getInsecureMixedMode() != MixedMode.DISABLED;
+        if ( ! authorized) {
+            log.log(Level.FINE, () -> "Rejecting " + request.methodName() + " from unauthenticated peer " + request.target());
+            request.setError(unauthorized, "Peer is not authenticated");
+        }
+        return authorized;
+    }
+
+    /** Returns the chunks of the given file reference, if it has been downloaded to this node and can be served */
+    private Optional<FileChunks> chunks(FileReference reference) {
+        Optional<File> directory = directory(reference);
+        if (directory.isEmpty()) return Optional.empty();
+
+        FileChunks chunks = chunksCache.get(reference);
+        if (chunks != null && file(reference, chunks).isFile()) return Optional.of(chunks);
+
+        File[] files = directory.get().listFiles();
+        if (files == null || files.length != 1 || ! files[0].isFile()) return Optional.empty();
+        try {
+            chunks = FileChunks.of(files[0], files[0].getName(), FileReferenceData.Type.file, FileChunks.defaultChunkSize);
+            chunksCache.put(reference, chunks);
+            return Optional.of(chunks);
+        } catch (IOException e) {
+            log.log(Level.FINE, () -> "Failed reading " + files[0] + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the directory of the given file reference in the download directory, or empty if the
+     * file reference is not a plain name, such that it could refer to any other file on this node
+     */
+    private Optional<File> directory(FileReference reference) {
+        String name = reference.value();
+        if (name.isEmpty() || name.startsWith(".") || name.contains("/") || name.contains(File.separator))
+            return Optional.empty();
+        try {
+            File directory = new File(downloadDirectory, name).getCanonicalFile();
+            if ( ! directory.toPath().startsWith(downloadDirectory.getCanonicalFile().toPath())) return Optional.empty();
+            return Optional.of(directory);
+        } catch (IOException e) {
+            log.log(Level.FINE, () -> "Failed resolving " + reference + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private File file(FileReference reference, FileChunks chunks) {
+        return new File(new File(downloadDirectory, reference.value()), chunks.filename());
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+
+}
@@ -3,11 +3,18 @@ package com.yahoo.vespa.filedistribution;
 
 import com.yahoo.config.FileReference;
 import com.yahoo.io.IOUtils;
+import com.yahoo.jrt.DataValue;
 import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int64Array;
+import com.yahoo.jrt.Int64Value;
+import com.yahoo.jrt.ListenFailedException;
 import com.yahoo.jrt.Request;
 import com.yahoo.jrt.RequestWaiter;
+import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringArray;
 import com.yahoo.jrt.StringValue;
 import com.yahoo.jrt.Supervisor;
+import com.yahoo.jrt.Target;
 import com.yahoo.jrt.Transport;
 import com.yahoo.text.Utf8;
 import com.yahoo.vespa.config.Connection;
@@ -24,14 +31,19 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static com.yahoo.jrt.ErrorCode.CONNECTION;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -253,6 +265,123 @@ public class FileDownloaderTest {
         assertTrue(getFile(xyzzy).isPresent());
     }
 
+    @Test
+    public void getFileInChunks() throws IOException {
+        byte[] content = Utf8.toBytes("0123456789abcdefghijklmnopqrstuvwxyzABCD");
+        MockConnection.ChunkResponseHandler responseHandler = new MockConnection.ChunkResponseHandler("model.onnx", content, 4, 5);
+        connection.setResponseHandler(responseHandler);
+
+        // An earlier version of the file, where the first 3 chunks are equal
+        File earlierVersion = new File(new File(downloadDir, "earlier"), "model.onnx");
+        assertTrue(earlierVersion.getParentFile().mkdir());
+        IOUtils.writeFile(earlierVersion, Utf8.toBytes("0123456789abXXXX"));
+        // A file partially downloaded by an earlier attempt, where only the last chunk was received
+        byte[] partial = new byte[content.length];
+        System.arraycopy(content, 36, partial, 36, 4);
+        IOUtils.writeFile(new File(downloadDir, "chunked.inprogress"), partial);
+
+        FileReference fileReference = new FileReference("chunked");
+        Optional<File> downloadedFile = getFile(fileReference);
+        assertTrue(downloadedFile.isPresent());
+        assertEquals(new File(fileReferenceFullPath(downloadDir, fileReference), "model.onnx"), downloadedFile.get());
+        assertArrayEquals(content, IOUtils.readFileBytes(downloadedFile.get()));
+        assertFalse(new File(downloadDir, "chunked.inprogress").exists());
+        assertDownloadStatus(fileReference, 1.0);
+
+        assertEquals("Only missing chunks are fetched, and failed chunks are fetched again",
+                     List.of(3, 4, 5, 5, 6, 7, 8), responseHandler.fetchedChunks());
+    }
+
+    @Test
+    public void compressedDirectoryDependsOnlyOnFileNamesAndContents() throws IOException {
+        File directory = new File(downloadDir, "directory");
+        File subDirectory = new File(directory, "sub");
+        assertTrue(subDirectory.mkdirs());
+        IOUtils.writeFile(new File(directory, "foo"), "foo", false);
+        IOUtils.writeFile(new File(subDirectory, "bar"), "bar", false);
+        File compressed = CompressedFileReference.compress(directory, new File(downloadDir, "compressed"));
+
+        assertTrue(new File(directory, "foo").setLastModified(12345000));
+        assertTrue(new File(subDirectory, "bar").setLastModified(67890000));
+        File recompressed = CompressedFileReference.compress(directory, new File(downloadDir, "recompressed"));
+        assertArrayEquals(IOUtils.readFileBytes(compressed), IOUtils.readFileBytes(recompressed));
+    }
+
+    @Test
+    public void getFileFromPeer() throws IOException, ListenFailedException, InterruptedException {
+        byte[] content = Utf8.toBytes("content");
+        Supervisor peerSupervisor = new Supervisor(new Transport()).setDropEmptyBuffers(true);
+        String peerSpec = "tcp/localhost:" + peerSupervisor.listen(new Spec(0)).port();
+        File peerDownloadDir = Files.createTempDirectory("filedistribution-peer").toFile();
+        File peerFile = new File(new File(peerDownloadDir, "peered"), "model.onnx");
+        assertTrue(peerFile.getParentFile().mkdir());
+        IOUtils.writeFile(peerFile, content);
+
+        MockConnection.ChunkResponseHandler responseHandler = new MockConnection.ChunkResponseHandler("model.onnx", content, FileChunks.defaultChunkSize, -1);
+        List<String> available = new CopyOnWriteArrayList<>();
+        connection.setResponseHandler(request -> {
+            if (request.methodName().equals(FileChunks.GET_PEERS_METHOD)) {
+                assertEquals("tcp/node:19090", request.parameters().get(1).asString());
+                request.returnValues().add(new StringArray(new String[] { peerSpec }));
+            }
+            else if (request.methodName().equals(FileChunks.SET_AVAILABLE_METHOD)) {
+                available.add(request.parameters().get(0).asString() + " at " + request.parameters().get(1).asString());
+                request.returnValues().add(new Int32Value(0));
+            }
+            else {
+                responseHandler.request(request);
+            }
+        });
+        fileDownloader.close();
+        supervisor = new Supervisor(new Transport()).setDropEmptyBuffers(true);
+        fileDownloader = new FileDownloader(connection, supervisor, downloadDir, Duration.ofSeconds(1), sleepBetweenRetries,
+                                            Optional.of("tcp/node:19090"));
+
+        try (FileDownloader peer = new FileDownloader(FileDownloader.emptyConnectionPool(), peerSupervisor, peerDownloadDir,
+                                                      Duration.ofSeconds(1), sleepBetweenRetries, Optional.of(peerSpec))) {
+            FileReference fileReference = new FileReference("peered");
+            Optional<File> downloadedFile = getFile(fileReference);
+            assertTrue(downloadedFile.isPresent());
+            assertArrayEquals(content, IOUtils.readFileBytes(downloadedFile.get()));
+            assertEquals("The only chunk is fetched from the peer", List.of(), responseHandler.fetchedChunks());
+            // Availability is reported after the download is completed
+            while (available.isEmpty())
+                Thread.sleep(10);
+            assertEquals(List.of("peered at tcp/node:19090"), available);
+        }
+    }
+
+    @Test
+    public void peersServeOnlyFileReferencesInTheDownloadDirectory() throws IOException, ListenFailedException {
+        Supervisor peerSupervisor = new Supervisor(new Transport()).setDropEmptyBuffers(true);
+        String peerSpec = "tcp/localhost:" + peerSupervisor.listen(new Spec(0)).port();
+        File peerRoot = Files.createTempDirectory("filedistribution-peer").toFile();
+        File peerDownloadDir = new File(peerRoot, "download");
+        File outsideFile = new File(new File(peerRoot, "outside"), "secret");
+        assertTrue(outsideFile.getParentFile().mkdirs());
+        assertTrue(peerDownloadDir.mkdir());
+        IOUtils.writeFile(outsideFile, "secret", false);
+        writeFileReference(peerDownloadDir, "inside", "file");
+
+        try (FileDownloader peer = new FileDownloader(FileDownloader.emptyConnectionPool(), peerSupervisor, peerDownloadDir,
+                                                      Duration.ofSeconds(1), sleepBetweenRetries, Optional.of(peerSpec))) {
+            Target target = supervisor.connect(new Spec(peerSpec));
+            assertEquals(0, getChunksResult(target, "inside"));
+            assertEquals(1, getChunksResult(target, "../outside"));
+            assertEquals(1, getChunksResult(target, ".."));
+            assertEquals(1, getChunksResult(target, peerRoot.getAbsolutePath() + "/outside"));
+            target.close();
+        }
+    }
+
+    private static int getChunksResult(Target target, String fileReference) {
+        Request request = new Request(FileChunks.GET_CHUNKS_METHOD);
+        request.parameters().add(new StringValue(fileReference));
+        target.invokeSync(request, 10);
+        assertFalse(request.errorMessage(), request.isError());
+        return request.returnValues().get(0).asInt32();
+    }
+
     @Test
     public void receiveFile() throws IOException {
         FileReference foobar = new FileReference("foobar");
@@ -396,6 +525,58 @@ public class FileDownloaderTest {
             }
         }
 
+        /** Serves the given content in chunks, failing the first request for one of them */
+        static class ChunkResponseHandler implements MockConnection.ResponseHandler {
+
+            private final FileChunks chunks;
+            private final byte[] content;
+            private final int chunkToFail;
+            private final List<Integer> fetchedChunks = new ArrayList<>();
+
+            ChunkResponseHandler(String filename, byte[] content, int chunkSize, int chunkToFail) {
+                long[] hashes = new long[(content.length + chunkSize - 1) / chunkSize];
+                for (int chunk = 0; chunk < hashes.length; chunk++)
+                    hashes[chunk] = FileChunks.hash(content, chunk * chunkSize, Math.min(chunkSize, content.length - chunk * chunkSize));
+                this.chunks = new FileChunks(filename, FileReferenceData.Type.file, content.length, chunkSize, hashes);
+                this.content = content;
+                this.chunkToFail = chunkToFail;
+            }
+
+            @Override
+            public void request(Request request) {
+                if (request.methodName().equals(FileChunks.GET_CHUNKS_METHOD)) {
+                    request.returnValues().add(new Int32Value(0));
+                    request.returnValues().add(new StringValue(chunks.filename()));
+                    request.returnValues().add(new StringValue(chunks.type().name()));
+                    request.returnValues().add(new Int64Value(chunks.size()));
+                    request.returnValues().add(new Int32Value(chunks.chunkSize()));
+                    request.returnValues().add(new Int64Array(chunks.hashes()));
+                }
+                else if (request.methodName().equals(FileChunks.GET_CHUNK_METHOD)) {
+                    int chunk = request.parameters().get(1).asInt32();
+                    boolean fail;
+                    synchronized (fetchedChunks) {
+                        fail = chunk == chunkToFail && ! fetchedChunks.contains(chunk);
+                        fetchedChunks.add(chunk);
+                    }
+                    if (fail) {
+                        request.setError(CONNECTION, "Connection error");
+                        return;
+                    }
+                    request.returnValues().add(new Int32Value(0));
+                    request.returnValues().add(new DataValue(Arrays.copyOfRange(content, (int) chunks.offset(chunk),
+                                                                                (int) chunks.offset(chunk) + chunks.length(chunk))));
+                }
+            }
+
+            List<Integer> fetchedChunks() {
+                synchronized (fetchedChunks) {
+                    return fetchedChunks.stream().sorted().collect(Collectors.toList());
+                }
+            }
+
+        }
+
         static class ConnectionErrorResponseHandler implements MockConnection.ResponseHandler {
 
             private final int timesToFail;
@@ -49,6 +49,23 @@ public interface Metric {
      */
     Context createContext(Map<String, ?> properties);
 
+    /**
+     * Returns a {@link Handle} to the metric with the given name, in the given context. Where the {@link MetricConsumer}
+     * supports it, recording values through the handle avoids the cost of resolving the name and context, and of
+     * boxing the value, on every call. Handles may be used from any thread, and should be created once and kept
+     * for the lifetime of the component using them.
+     *
+     * @param key the name of the metric to record
+     * @param ctx the context to further describe the entries recorded through the handle
+     * @return a handle recording to the given metric
+     */
+    default Handle handle(String key, Context ctx) {
+        return new Handle() {
+            @Override public void set(double val) { Metric.this.set(key, val, ctx); }
+            @Override public void add(long val) { Metric.this.add(key, val, ctx); }
+        };
+    }
+
     /**
      * Declares the interface for the arbitrary context object to pass to both the {@link
      * #set(String, Number, Context)} and {@link #add(String, Number, Context)} methods. This is intentionally empty so
@@ -58,4 +75,15 @@ public interface Metric {
 
     }
 
+    /** A metric bound to a name and a {@link Context}, created by {@link #handle(String, Context)} */
+    interface Handle {
+
+        /** Same as {@link Metric#set(String, Number, Context)} with the name and context of this handle */
+        void set(double val);
+
+        /** Same as {@link Metric#add(String, Number, Context)} with the name and context of this handle */
+        void add(long val);
+
+    }
+
 }
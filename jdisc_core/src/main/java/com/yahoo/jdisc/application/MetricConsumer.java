@@ -66,4 +66,18 @@ public interface MetricConsumer {
      */
     Metric.Context createContext(Map<String, ?> properties);
 
+    /**
+     * Creates a <code>Metric.Handle</code> which consumes calls to <code>set(String, Number, Metric.Context)</code> and
+     * <code>add(String, Number, Metric.Context)</code> with the given name and context. As the handle may be used from
+     * any thread, this should only be implemented by thread safe consumers. The default implementation returns null,
+     * in which case values recorded through handles are passed through the thread local consumer as usual.
+     *
+     * @param key the name of the metric to modify
+     * @param ctx the context to further describe the entries
+     * @return the created handle, or null if this does not support handles
+     */
+    default Metric.Handle createHandle(String key, Metric.Context ctx) {
+        return null;
+    }
+
 }
@@ -44,6 +44,16 @@ class MetricImpl implements Metric {
         return consumer.createContext(keys);
     }
 
+    @Override
+    public Handle handle(String key, Context ctx) {
+        MetricConsumer consumer = currentConsumer();
+        if (consumer == null) {
+            return NullHandle.INSTANCE;
+        }
+        Handle handle = consumer.createHandle(key, ctx);
+        return handle != null ? handle : Metric.super.handle(key, ctx);
+    }
+
     private MetricConsumer currentConsumer() {
         Thread thread = Thread.currentThread();
         if (thread instanceof ContainerThread) {
@@ -52,6 +62,17 @@ class MetricImpl implements Metric {
         return consumer.get();
     }
 
+    private static class NullHandle implements Handle {
+
+        static final NullHandle INSTANCE = new NullHandle();
+
+        @Override
+        public void set(double val) { }
+
+        @Override
+        public void add(long val) { }
+    }
+
     private static class LocalConsumer extends ThreadLocal<MetricConsumer> {
 
         final Provider<MetricConsumer> factory;
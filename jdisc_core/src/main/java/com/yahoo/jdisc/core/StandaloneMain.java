@@ -3,6 +3,8 @@ package com.yahoo.jdisc.core;
 
 import com.yahoo.yolean.system.CatchSignals;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -15,6 +17,14 @@ import java.util.logging.Logger;
 public class StandaloneMain {
 
     private static final Logger log = Logger.getLogger(StandaloneMain.class.getName());
+
+    /**
+     * System property which makes the application stop as soon as it has started. Together with
+     * -XX:ArchiveClassesAtExit this produces a class data sharing archive of the classes needed to start.
+     */
+    static final String EXIT_AFTER_START = "jdisc.exitAfterStart";
+    private static final String SHARED_ARCHIVE_FILE_OPTION = "-XX:SharedArchiveFile=";
+
     private final BootstrapLoader loader;
 
     static {
@@ -40,7 +50,11 @@ public class StandaloneMain {
             setupSignalHandlers();
             loader.init(bundleLocation, false);
             loader.start();
-            waitForShutdown();
+            logStartupTime();
+            if (Boolean.getBoolean(EXIT_AFTER_START))
+                log.log(Level.INFO, "Exiting after start, as requested by " + EXIT_AFTER_START);
+            else
+                waitForShutdown();
             log.log(Level.INFO, "JDisc shutting down");
             loader.stop();
             log.log(Level.FINE, "Trying to clean up in a controlled manner.");
@@ -53,6 +67,23 @@ public class StandaloneMain {
         }
     }
 
+    /**
+     * Logs the time from the JVM was started until the application was, and the class data sharing archive
+     * requested, if any. The JVM does not tell whether the archive was actually used, as it silently starts
+     * without it if it is unusable with -Xshare:auto, so that is not claimed here.
+     */
+    private static void logStartupTime() {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        String sharedArchive = runtime.getInputArguments().stream()
+                                      .filter(argument -> argument.startsWith(SHARED_ARCHIVE_FILE_OPTION))
+                                      .map(argument -> argument.substring(SHARED_ARCHIVE_FILE_OPTION.length()))
+                                      .reduce((first, last) -> last)
+                                      .orElse(null);
+        log.log(Level.INFO, "JDisc started in " + runtime.getUptime() + " ms, " +
+                            (sharedArchive == null ? "without requesting an application class data sharing archive"
+                                                   : "requesting the class data sharing archive " + sharedArchive));
+    }
+
     private final AtomicBoolean signalCaught = new AtomicBoolean(false);
     private void setupSignalHandlers() {
         CatchSignals.setup(signalCaught);
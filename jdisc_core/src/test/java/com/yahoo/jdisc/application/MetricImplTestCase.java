@@ -15,6 +15,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -56,6 +57,43 @@ public class MetricImplTestCase {
         assertEquals(consumer.ctx, ctx);
     }
 
+    @Test
+    public void requireThatHandleFallsBackToConsumer() {
+        final MyConsumer consumer = new MyConsumer();
+        Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(MetricConsumer.class).toInstance(consumer);
+            }
+        });
+        Metric.Handle handle = injector.getInstance(Metric.class).handle("foo", null);
+        handle.set(6);
+        assertEquals(6, consumer.map.get("foo").intValue());
+        handle.add(9);
+        assertEquals(15, consumer.map.get("foo").intValue());
+    }
+
+    @Test
+    public void requireThatHandleIsCreatedByConsumer() {
+        Metric.Handle consumerHandle = new Metric.Handle() {
+            @Override public void set(double val) { }
+            @Override public void add(long val) { }
+        };
+        Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(MetricConsumer.class).toInstance(new MyConsumer() {
+                    @Override
+                    public Metric.Handle createHandle(String key, Metric.Context ctx) { return consumerHandle; }
+                });
+            }
+        });
+        Metric metric = injector.getInstance(Metric.class);
+        assertSame(consumerHandle, metric.handle("foo", null));
+    }
+
     @Test
     public void requireThatWorkerMetricHasPrecedence() throws InterruptedException {
         final MyConsumer globalConsumer = new MyConsumer();
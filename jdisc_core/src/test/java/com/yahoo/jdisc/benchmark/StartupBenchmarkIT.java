@@ -0,0 +1,121 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.benchmark;
+
+import com.yahoo.jdisc.application.Application;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the time to cold start a minimal jdisc application with and without an application class data sharing
+ * archive, which is created by a training run of the same application with -XX:ArchiveClassesAtExit.
+ * This must run after packaging, as class data sharing requires the classes to be in jar files.
+ * It starts a dozen JVMs, so it is ignored by default, like the other benchmarks, and must be run manually.
+ *
+ * @author agent
+ */
+public class StartupBenchmarkIT {
+
+    private static final int NUM_RUNS = 5;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    @Ignore // Benchmark, not a test
+    public void runStartupMeasurements() throws Exception {
+        File archive = new File(tempFolder.getRoot(), "jdisc.jsa");
+        String classPath = "target/jdisc_core-jar-with-dependencies.jar" + File.pathSeparator + applicationJar();
+
+        startAndStop(classPath, "-XX:ArchiveClassesAtExit=" + archive);
+        assertTrue("Class data sharing archive is created", archive.exists());
+
+        long[] withoutArchive = new long[NUM_RUNS];
+        long[] withArchive = new long[NUM_RUNS];
+        for (int i = 0; i < NUM_RUNS; ++i) {
+            withoutArchive[i] = startAndStop(classPath);
+            withArchive[i] = startAndStop(classPath, "-XX:SharedArchiveFile=" + archive, "-Xshare:on");
+        }
+        System.err.format("%25s%15s%15s\n", "Startup time (ms)", "median", "min");
+        System.err.format("%25s%15d%15d\n", "without archive", median(withoutArchive), min(withoutArchive));
+        System.err.format("%25s%15d%15d\n", "with archive", median(withArchive), min(withArchive));
+    }
+
+    /** Starts and stops the application in a new JVM, and returns the wall time in milliseconds */
+    private long startAndStop(String classPath, String... jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-Djdisc.exitAfterStart=true");
+        command.add("-Djdisc.cache.path=" + tempFolder.newFolder());
+        command.add("-cp");
+        command.add(classPath);
+        command.add("com.yahoo.jdisc.core.StandaloneMain");
+        command.add(BenchmarkApplication.class.getName());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                                                     .redirectOutput(tempFolder.newFile())
+                                                     .start();
+        assertTrue("Application exits after starting", process.waitFor(2, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /** Returns the path to a jar file with the application class, as class data sharing does not archive directories */
+    private String applicationJar() throws Exception {
+        File jar = tempFolder.newFile("application.jar");
+        String entryName = BenchmarkApplication.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()));
+             InputStream in = getClass().getClassLoader().getResourceAsStream(entryName)) {
+            out.putNextEntry(new JarEntry(entryName));
+            in.transferTo(out);
+        }
+        return jar.getPath();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long min(long[] values) {
+        return Arrays.stream(values).min().getAsLong();
+    }
+
+    public static class BenchmarkApplication implements Application {
+
+        @Override
+        public void start() {
+
+        }
+
+        @Override
+        public void stop() {
+
+        }
+
+        @Override
+        public void destroy() {
+
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.messagebus;
 
+import com.yahoo.component.Version;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.messagebus.routing.Route;
 
@@ -18,6 +19,8 @@ public abstract class Message extends Routable {
     private long timeRemaining = 0;
     private boolean retryEnabled = true;
     private int retry = 0;
+    private Version encodedVersion = null;
+    private byte[] encodedPayload = null;
 
     @Override
     public void swapState(Routable rhs) {
@@ -44,7 +47,10 @@ public abstract class Message extends Routable {
             long timeRemaining = this.timeRemaining;
             this.timeRemaining = msg.timeRemaining;
             msg.timeRemaining = timeRemaining;
+
+            msg.clearEncodedPayload();
         }
+        clearEncodedPayload();
     }
 
     /** Returns the route of this routable */
@@ -227,5 +233,36 @@ public abstract class Message extends Routable {
         this.retry = retry;
         return this;
     }
-}
 
+    /**
+     * Returns the payload this message was last encoded to for the given protocol version by the network layer, or
+     * null if it has not been encoded for that version since the cache was last cleared. This allows a message that is
+     * routed to multiple recipients, or that is resent, to be serialized only once.
+     *
+     * @param version The version the payload must have been encoded for.
+     * @return The cached payload, or null.
+     */
+    public synchronized byte[] getEncodedPayload(Version version) {
+        return version.equals(encodedVersion) ? encodedPayload : null;
+    }
+
+    /**
+     * Caches the payload this message was encoded to for the given protocol version. The network layer calls this
+     * after encoding, and the cache is cleared when message bus starts routing this message anew, and when the reply
+     * to it is returned.
+     *
+     * @param version The version the payload was encoded for.
+     * @param payload The encoded payload.
+     */
+    public synchronized void setEncodedPayload(Version version, byte[] payload) {
+        this.encodedVersion = version;
+        this.encodedPayload = payload;
+    }
+
+    /** Discards any payload cached by {@link #setEncodedPayload(Version, byte[])}. */
+    public synchronized void clearEncodedPayload() {
+        this.encodedVersion = null;
+        this.encodedPayload = null;
+    }
+
+}
@@ -48,11 +48,13 @@ public class SendProxy implements MessageHandler, ReplyHandler {
             }
         }
         this.msg = msg;
+        msg.clearEncodedPayload(); // content may have changed since this message was last sent
         RoutingNode root = new RoutingNode(mbus, net, resender, this, msg);
         root.send();
     }
 
     public void handleReply(Reply reply) {
+        msg.clearEncodedPayload(); // no more resends, so the payload is no longer needed
         if (reply == null) {
             msg.discard();
         } else {
@@ -407,19 +407,22 @@ public class RPCNetwork implements Network, MethodHandler {
                 replyError(ctx, ErrorCode.TIMEOUT, "Aborting transmission because zero time remains.");
                 return;
             }
-            byte[] payload;
-            try {
-                payload = protocol.encode(ctx.version, ctx.msg);
-            } catch (Exception e) {
-                StringWriter out = new StringWriter();
-                e.printStackTrace(new PrintWriter(out));
-                replyError(ctx, ErrorCode.ENCODE_ERROR, out.toString());
-                return;
-            }
-            if (payload == null || payload.length == 0) {
-                replyError(ctx, ErrorCode.ENCODE_ERROR,
-                           "Protocol '" + ctx.msg.getProtocol() + "' failed to encode message.");
-                return;
+            byte[] payload = ctx.msg.getEncodedPayload(ctx.version);
+            if (payload == null) {
+                try {
+                    payload = protocol.encode(ctx.version, ctx.msg);
+                } catch (Exception e) {
+                    StringWriter out = new StringWriter();
+                    e.printStackTrace(new PrintWriter(out));
+                    replyError(ctx, ErrorCode.ENCODE_ERROR, out.toString());
+                    return;
+                }
+                if (payload == null || payload.length == 0) {
+                    replyError(ctx, ErrorCode.ENCODE_ERROR,
+                               "Protocol '" + ctx.msg.getProtocol() + "' failed to encode message.");
+                    return;
+                }
+                ctx.msg.setEncodedPayload(ctx.version, payload);
             }
             RPCSendAdapter adapter = getSendAdapter(ctx.version);
             if (adapter == null) {
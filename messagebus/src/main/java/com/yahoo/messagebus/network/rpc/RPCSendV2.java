@@ -100,7 +100,7 @@ public class RPCSendV2 extends RPCSend {
         root.setLong(TRACELEVEL_F, traceLevel);
         root.setData(BLOB_F, payload);
 
-        Compressor.Compression compressionResult = BinaryFormat.encode_and_compress(slime, compressor);
+        Compressor.Compression compressionResult = wireCompatible(BinaryFormat.encode_and_compress(slime, compressor));
 
         v.add(new Int8Value(compressionResult.type().getCode()));
         v.add(new Int32Value(compressionResult.uncompressedSize()));
@@ -199,11 +199,18 @@ public class RPCSendV2 extends RPCSend {
             }
         }
 
-        Compressor.Compression compressionResult = BinaryFormat.encode_and_compress(slime, compressor);
+        Compressor.Compression compressionResult = wireCompatible(BinaryFormat.encode_and_compress(slime, compressor));
 
         ret.add(new Int8Value(compressionResult.type().getCode()));
         ret.add(new Int32Value(compressionResult.uncompressedSize()));
         ret.add(new DataValue(compressionResult.data()));
     }
 
+    /** Returns the given compression, if it can be decoded by both Java and C++ peers */
+    static Compressor.Compression wireCompatible(Compressor.Compression compression) {
+        if (compression.type() == CompressionType.ZLIB_DICTIONARY)
+            throw new IllegalArgumentException(compression.type() + " is not supported by C++ peers, and must not be sent");
+        return compression;
+    }
+
 }
@@ -2,9 +2,15 @@
 package com.yahoo.messagebus.network.rpc;
 
 import com.yahoo.component.Version;
+import com.yahoo.component.Vtag;
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
 import com.yahoo.jrt.slobrok.server.Slobrok;
 import com.yahoo.messagebus.DestinationSession;
 import com.yahoo.messagebus.DestinationSessionParams;
+import com.yahoo.messagebus.EmptyReply;
+import com.yahoo.messagebus.Error;
+import com.yahoo.messagebus.ErrorCode;
 import com.yahoo.messagebus.Message;
 import com.yahoo.messagebus.MessageBusParams;
 import com.yahoo.messagebus.Protocol;
@@ -13,7 +19,9 @@ import com.yahoo.messagebus.Routable;
 import com.yahoo.messagebus.SourceSession;
 import com.yahoo.messagebus.SourceSessionParams;
 import com.yahoo.messagebus.network.rpc.test.TestServer;
+import com.yahoo.messagebus.routing.RetryTransientErrorsPolicy;
 import com.yahoo.messagebus.routing.Route;
+import com.yahoo.messagebus.routing.RoutingContext;
 import com.yahoo.messagebus.routing.RoutingPolicy;
 import com.yahoo.messagebus.test.Receptor;
 import com.yahoo.text.Utf8String;
@@ -21,6 +29,8 @@ import org.junit.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -53,6 +63,81 @@ public class RPCNetworkTestCase {
         assertTrue(actual, actual.contains(expected.toString()));
     }
 
+    @Test
+    public void requireThatMessageIsEncodedOnceForAllRecipients() throws Exception {
+        Slobrok slobrok = new Slobrok();
+        MyProtocol protocol = MyProtocol.newCounting();
+        TestServer server = new TestServer(new MessageBusParams().addProtocol(protocol),
+                                           new RPCNetworkParams().setSlobrokConfigId(slobrok.configId()));
+        Receptor receptor = new Receptor();
+        SourceSession src = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(receptor));
+        DestinationSession foo = server.mb.createDestinationSession(new DestinationSessionParams().setName("foo"));
+        DestinationSession bar = server.mb.createDestinationSession(new DestinationSessionParams().setName("bar"));
+        protocol.recipients = List.of(Route.parse(foo.getConnectionSpec()), Route.parse(bar.getConnectionSpec()));
+        protocol.version = Vtag.currentVersion;
+
+        MyMessage msg = new MyMessage();
+        msg.setRetryEnabled(false);
+        assertTrue(src.send(msg.setRoute(Route.parse("[" + MyProtocol.NAME + "]"))).isAccepted());
+        assertNotNull(receptor.getReply(60));
+        assertEquals(1, protocol.encodeCount.get());
+        assertNotNull("the payload is cached while sending", protocol.payloadWhenMerging);
+        assertNull("the payload is released when the send completes", msg.getEncodedPayload(Vtag.currentVersion));
+
+        assertTrue(src.send(msg.setRoute(Route.parse("[" + MyProtocol.NAME + "]"))).isAccepted());
+        assertNotNull(receptor.getReply(60));
+        assertEquals("a new send re-encodes the message", 2, protocol.encodeCount.get());
+    }
+
+    @Test
+    public void requireThatJavaOnlyCompressionIsNotSent() {
+        assertEquals(CompressionType.LZ4,
+                     RPCSendV2.wireCompatible(new Compressor.Compression(CompressionType.LZ4, 3, new byte[3])).type());
+        try {
+            RPCSendV2.wireCompatible(new Compressor.Compression(CompressionType.ZLIB_DICTIONARY, 3, new byte[3]));
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("ZLIB_DICTIONARY is not supported by C++ peers, and must not be sent", e.getMessage());
+        }
+    }
+
+    @Test
+    public void requireThatResentMessageIsNotEncodedAgain() throws Exception {
+        Slobrok slobrok = new Slobrok();
+        MyProtocol protocol = MyProtocol.newCounting();
+        protocol.decodable = true;
+        TestServer server = new TestServer(new MessageBusParams().addProtocol(protocol)
+                                                                 .setRetryPolicy(new RetryTransientErrorsPolicy().setBaseDelay(0)),
+                                           new RPCNetworkParams().setSlobrokConfigId(slobrok.configId()));
+        Receptor replies = new Receptor();
+        Receptor messages = new Receptor();
+        SourceSession src = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(replies));
+        DestinationSession dst = server.mb.createDestinationSession(new DestinationSessionParams().setMessageHandler(messages));
+        assertTrue(src.send(new MyMessage().setRoute(Route.parse(dst.getConnectionSpec()))).isAccepted());
+
+        Message msg = messages.getMessage(60);
+        assertNotNull(msg);
+        Reply reply = new EmptyReply();
+        reply.swapState(msg);
+        reply.addError(new Error(ErrorCode.TRANSIENT_ERROR, "try again"));
+        dst.reply(reply);
+
+        assertNotNull("the message is resent", msg = messages.getMessage(60));
+        dst.acknowledge(msg);
+        reply = replies.getReply(60);
+        assertNotNull(reply);
+        assertFalse(reply.hasErrors());
+        assertEquals("the resent message is not encoded again", 1, protocol.encodeCount.get());
+
+        dst.destroy();
+        src.destroy();
+        server.destroy();
+        slobrok.stop();
+    }
+
     private static class MyMessage extends Message {
 
         @Override
@@ -70,6 +155,11 @@ public class RPCNetworkTestCase {
 
         final static String NAME = "myProtocol";
         final RuntimeException encodeException;
+        final AtomicInteger encodeCount = new AtomicInteger();
+        List<Route> recipients = List.of();
+        Version version = null;
+        volatile byte[] payloadWhenMerging = null;
+        boolean decodable = false;
 
         MyProtocol(RuntimeException encodeException) {
             this.encodeException = encodeException;
@@ -82,21 +172,35 @@ public class RPCNetworkTestCase {
 
         @Override
         public byte[] encode(Version version, Routable routable) {
-            throw encodeException;
+            if (encodeException != null) throw encodeException;
+            if (routable instanceof Message)
+                encodeCount.incrementAndGet();
+            return new byte[] { 1, 2, 3 };
         }
 
         @Override
         public Routable decode(Version version, byte[] payload) {
-            return null;
+            return decodable ? new MyMessage() : null;
         }
 
         @Override
         public RoutingPolicy createPolicy(String name, String param) {
-            return null;
+            return new RoutingPolicy() {
+                @Override public void select(RoutingContext context) { context.addChildren(recipients); }
+                @Override public void merge(RoutingContext context) {
+                    payloadWhenMerging = context.getMessage().getEncodedPayload(version);
+                    context.setReply(context.getChildIterator().removeReply());
+                }
+                @Override public void destroy() { }
+            };
         }
 
         static MyProtocol newEncodeException(RuntimeException e) {
             return new MyProtocol(e);
         }
+
+        static MyProtocol newCounting() {
+            return new MyProtocol(null);
+        }
     }
 }
@@ -0,0 +1,97 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision;
+
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.config.provision.ClusterSpec;
+import com.yahoo.config.provision.NodeType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An index of the nodes in a snapshot {@link NodeList} by hostname, parent hostname, state, type, owner and cluster,
+ * such that the common filters on a snapshot can be answered in time proportional to the size of the result,
+ * rather than the size of the list. Each index is built on first use, so snapshots which are not filtered by
+ * some property do not pay for indexing it.
+ *
+ * The nodes of each index entry are kept in the order of the indexed list.
+ *
+ * This is thread safe.
+ *
+ * @author agent
+ */
+final class NodeIndex {
+
+    private final List<Node> nodes;
+
+    private volatile Map<String, Node> byHostname;
+    private volatile Map<String, List<Node>> byParentHostname;
+    private volatile Map<Node.State, List<Node>> byState;
+    private volatile Map<NodeType, List<Node>> byType;
+    private volatile Map<ApplicationId, List<Node>> byOwner;
+    private volatile Map<ClusterSpec.Id, List<Node>> byCluster;
+
+    NodeIndex(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /** Returns the first node with the given hostname, if any */
+    Optional<Node> node(String hostname) {
+        Map<String, Node> byHostname = this.byHostname;
+        if (byHostname == null) {
+            byHostname = new HashMap<>();
+            for (Node node : nodes)
+                byHostname.putIfAbsent(node.hostname(), node);
+            this.byHostname = byHostname;
+        }
+        return Optional.ofNullable(byHostname.get(hostname));
+    }
+
+    /** Returns the nodes having the given parent hostname */
+    List<Node> childrenOf(String hostname) {
+        if (byParentHostname == null)
+            byParentHostname = groupBy(node -> node.parentHostname());
+        return byParentHostname.getOrDefault(hostname, List.of());
+    }
+
+    /** Returns the nodes in the given state */
+    List<Node> state(Node.State state) {
+        if (byState == null)
+            byState = groupBy(node -> Optional.of(node.state()));
+        return byState.getOrDefault(state, List.of());
+    }
+
+    /** Returns the nodes of the given type */
+    List<Node> type(NodeType type) {
+        if (byType == null)
+            byType = groupBy(node -> Optional.of(node.type()));
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /** Returns the nodes allocated to the given application */
+    List<Node> owner(ApplicationId application) {
+        if (byOwner == null)
+            byOwner = groupBy(node -> node.allocation().map(allocation -> allocation.owner()));
+        return byOwner.getOrDefault(application, List.of());
+    }
+
+    /** Returns the nodes allocated to a cluster with the given id, in any application */
+    List<Node> cluster(ClusterSpec.Id cluster) {
+        if (byCluster == null)
+            byCluster = groupBy(node -> node.allocation().map(allocation -> allocation.membership().cluster().id()));
+        return byCluster.getOrDefault(cluster, List.of());
+    }
+
+    private <KEY> Map<KEY, List<Node>> groupBy(Function<Node, Optional<KEY>> key) {
+        Map<KEY, List<Node>> groups = new HashMap<>();
+        for (Node node : nodes)
+            key.apply(node).ifPresent(value -> groups.computeIfAbsent(value, __ -> new ArrayList<>()).add(node));
+        groups.replaceAll((value, group) -> List.copyOf(group));
+        return groups;
+    }
+
+}
@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,13 +32,25 @@ import static java.util.stream.Collectors.collectingAndThen;
  */
 public class NodeList extends AbstractFilteringList<Node, NodeList> {
 
+    private final boolean negate;
+
+    /** The index of the nodes in this if this is a snapshot of the node repository, or null for other lists */
+    private final NodeIndex index;
+
     protected NodeList(List<Node> nodes, boolean negate) {
+        this(nodes, negate, false);
+    }
+
+    private NodeList(List<Node> nodes, boolean negate, boolean indexed) {
         super(nodes, negate, NodeList::new);
+        this.negate = negate;
+        this.index = indexed ? new NodeIndex(asList()) : null;
     }
 
     /** Returns the node with the given hostname from this list, or empty if it is not present  */
     public Optional<Node> node(String hostname) {
-        return matching(node -> node.hostname().equals(hostname)).first();
+        if (negate || index == null) return matching(node -> node.hostname().equals(hostname)).first();
+        return index.node(hostname);
     }
 
     /** Returns the subset of nodes which are retired */
@@ -138,12 +151,14 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
 
     /** Returns the subset of nodes assigned to the given cluster */
     public NodeList cluster(ClusterSpec.Id cluster) {
-        return matching(node -> node.allocation().isPresent() && node.allocation().get().membership().cluster().id().equals(cluster));
+        return indexed(index -> index.cluster(cluster),
+                       node -> node.allocation().isPresent() && node.allocation().get().membership().cluster().id().equals(cluster));
     }
 
     /** Returns the subset of nodes owned by the given application */
     public NodeList owner(ApplicationId application) {
-        return matching(node -> node.allocation().map(a -> a.owner().equals(application)).orElse(false));
+        return indexed(index -> index.owner(application),
+                       node -> node.allocation().map(a -> a.owner().equals(application)).orElse(false));
     }
 
     /** Returns the subset of nodes allocated to a tester instance */
@@ -154,7 +169,7 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
     /** Returns the subset of nodes matching any of the given node type(s) */
     public NodeList nodeType(NodeType first, NodeType... rest) {
         if (rest.length == 0) {
-            return matching(node -> node.type() == first);
+            return indexed(index -> index.type(first), node -> node.type() == first);
         }
         EnumSet<NodeType> nodeTypes = EnumSet.of(first, rest);
         return matching(node -> nodeTypes.contains(node.type()));
@@ -172,7 +187,7 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
 
     /** Returns the child nodes of the given parent node */
     public NodeList childrenOf(String hostname) {
-        return matching(node -> node.hasParent(hostname));
+        return indexed(index -> index.childrenOf(hostname), node -> node.hasParent(hostname));
     }
 
     public NodeList childrenOf(Node parent) {
@@ -182,13 +197,15 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
     /** Returns the subset of nodes that are in any of the given state(s) */
     public NodeList state(Node.State first, Node.State... rest) {
         if (rest.length == 0) {
-            return matching(node -> node.state() == first);
+            return indexed(index -> index.state(first), node -> node.state() == first);
         }
         return state(EnumSet.of(first, rest));
     }
 
     /** Returns the subset of nodes that are in any of the given state(s) */
     public NodeList state(Set<Node.State> nodeStates) {
+        if (nodeStates.size() == 1)
+            return state(nodeStates.iterator().next());
         return matching(node -> nodeStates.contains(node.state()));
     }
 
@@ -217,6 +234,7 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
 
     /** Returns the parent node of the given child node */
     public Optional<Node> parentOf(Node child) {
+        if (index != null) return child.parentHostname().flatMap(index::node);
         return child.parentHostname()
                     .flatMap(parentHostname -> stream().filter(node -> node.hostname().equals(parentHostname))
                                                        .findFirst());
@@ -301,6 +319,15 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
             throw new IllegalStateException("Nodes belong to multiple clusters");
     }
 
+    /**
+     * Returns the nodes looked up in the index of this, which must be the ones matching the given condition,
+     * or the nodes not matching the condition if this is negated. Lists without an index are scanned instead.
+     */
+    private NodeList indexed(Function<NodeIndex, List<Node>> lookup, Predicate<Node> condition) {
+        if (negate || index == null) return matching(condition);
+        return new NodeList(lookup.apply(index), false);
+    }
+
     /** Returns the nodes of this as a stream */
     public Stream<Node> stream() { return asList().stream(); }
 
@@ -312,6 +339,14 @@ public class NodeList extends AbstractFilteringList<Node, NodeList> {
         return new NodeList(nodes, false);
     }
 
+    /**
+     * Returns a list of the given nodes which indexes them for the common filters. This is meant for snapshots of
+     * the node repository, which are filtered many times. Lists derived from this by filtering are not indexed.
+     */
+    public static NodeList snapshotOf(List<Node> nodes) {
+        return new NodeList(nodes, false, true);
+    }
+
     @Override
     public String toString() {
         return asList().toString();
@@ -18,6 +18,9 @@ import java.util.stream.Collectors;
 
 /**
  * An in-memory implementation of the metrics Db.
+ * Node metrics are stored compressed by column (see {@link NodeMetricColumns}), such that many days of
+ * metrics for many nodes can be kept in memory, and are looked up by hostname, such that reading the
+ * metrics of some nodes does not require reading the metrics of all.
  * Thread model: One writer, many readers.
  *
  * @author bratseth
@@ -26,8 +29,8 @@ public class MemoryMetricsDb implements MetricsDb {
 
     private final Clock clock;
 
-    /** Metric time series by node (hostname). Each list of metric snapshots is sorted by increasing timestamp */
-    private final Map<String, NodeTimeseries> nodeTimeseries = new HashMap<>();
+    /** Metric time series by node (hostname) */
+    private final Map<String, NodeMetricColumns> nodeMetrics = new HashMap<>();
 
     private final Map<Pair<ApplicationId, ClusterSpec.Id>, ClusterTimeseries> clusterTimeseries = new HashMap<>();
 
@@ -70,11 +73,9 @@ public class MemoryMetricsDb implements MetricsDb {
         Instant startTime = clock().instant().minus(period);
         synchronized (lock) {
             if (hostnames.isEmpty())
-                return nodeTimeseries.values().stream().map(ns -> ns.keepAfter(startTime)).collect(Collectors.toList());
+                return nodeMetrics.keySet().stream().map(hostname -> timeseries(hostname, startTime)).collect(Collectors.toList());
             else
-                return hostnames.stream()
-                                .map(hostname -> nodeTimeseries.getOrDefault(hostname, new NodeTimeseries(hostname, List.of())).keepAfter(startTime))
-                                .collect(Collectors.toList());
+                return hostnames.stream().map(hostname -> timeseries(hostname, startTime)).collect(Collectors.toList());
         }
     }
 
@@ -87,15 +88,12 @@ public class MemoryMetricsDb implements MetricsDb {
     @Override
     public void gc() {
         synchronized (lock) {
-            // Each measurement is Object + long + float = 16 + 8 + 4 = 28 bytes
-            // 12 hours with 1k nodes and 3 resources and 1 measurement/sec is about 5Gb
-            for (String hostname : nodeTimeseries.keySet()) {
-                var timeseries = nodeTimeseries.get(hostname);
-                timeseries = timeseries.keepAfter(clock().instant().minus(Autoscaler.maxScalingWindow()));
-                if (timeseries.isEmpty())
-                    nodeTimeseries.remove(hostname);
-                else
-                    nodeTimeseries.put(hostname, timeseries);
+            Instant oldestTime = clock().instant().minus(Autoscaler.maxScalingWindow());
+            for (var iterator = nodeMetrics.values().iterator(); iterator.hasNext(); ) {
+                var metrics = iterator.next();
+                metrics.removeBefore(oldestTime);
+                if (metrics.isEmpty())
+                    iterator.remove();
             }
         }
     }
@@ -103,13 +101,13 @@ public class MemoryMetricsDb implements MetricsDb {
     @Override
     public void close() {}
 
+    private NodeTimeseries timeseries(String hostname, Instant startTime) {
+        NodeMetricColumns metrics = nodeMetrics.get(hostname);
+        return new NodeTimeseries(hostname, metrics == null ? List.of() : metrics.snapshots(startTime));
+    }
+
     private void add(String hostname, NodeMetricSnapshot snapshot) {
-        NodeTimeseries timeseries = nodeTimeseries.get(hostname);
-        if (timeseries == null) { // new node
-            timeseries = new NodeTimeseries(hostname, new ArrayList<>());
-            nodeTimeseries.put(hostname, timeseries);
-        }
-        nodeTimeseries.put(hostname, timeseries.add(snapshot));
+        nodeMetrics.computeIfAbsent(hostname, __ -> new NodeMetricColumns()).add(snapshot);
     }
 
     private void add(ApplicationId application, ClusterSpec.Id cluster, ClusterMetricSnapshot snapshot) {
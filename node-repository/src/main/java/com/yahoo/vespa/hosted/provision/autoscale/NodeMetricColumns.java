@@ -0,0 +1,401 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision.autoscale;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The metric snapshots of a single node, stored column by column, each column compressed
+ * by exploiting that consecutive values are usually equal or close:
+ * Timestamps are stored as the difference between consecutive deltas (delta-of-delta), which is zero when
+ * measurements arrive at a fixed interval, and doubles are stored as the XOR with the previous value,
+ * of which only the meaningful bits are kept. This typically uses a few bytes per snapshot rather than
+ * the ~150 bytes of a snapshot object.
+ *
+ * Snapshots are kept in increasing time order, in blocks of consecutive snapshots which are encoded separately,
+ * such that reading recent snapshots only decodes the blocks holding those. Appending a snapshot in time order
+ * is cheap, while inserting one out of order re-encodes the block it belongs in.
+ *
+ * This is not thread safe.
+ *
+ * @author agent
+ */
+class NodeMetricColumns {
+
+    /** The number of snapshots appended to a block before a new one is started */
+    static final int blockSize = 256;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int size = 0;
+
+    /** Adds a snapshot to this */
+    void add(NodeMetricSnapshot snapshot) {
+        long atMillis = snapshot.at().toEpochMilli();
+        Block last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (last != null && atMillis < last.lastAt) { // Out of order: Re-encode the first block ending after it
+            int index = 0;
+            while (blocks.get(index).lastAt <= atMillis)
+                index++;
+            List<NodeMetricSnapshot> snapshots = new ArrayList<>(blocks.get(index).snapshots(Long.MIN_VALUE));
+            snapshots.add(snapshot);
+            Collections.sort(snapshots);
+            blocks.set(index, Block.of(snapshots));
+        }
+        else {
+            if (last == null || last.size >= blockSize)
+                blocks.add(last = new Block());
+            last.append(snapshot);
+        }
+        size++;
+    }
+
+    /** Returns the snapshots in this at or after the given instant, in increasing time order */
+    List<NodeMetricSnapshot> snapshots(Instant oldestTime) {
+        long oldestMillis = oldestTime.equals(Instant.MIN) ? Long.MIN_VALUE : oldestTime.toEpochMilli();
+        List<NodeMetricSnapshot> snapshots = new ArrayList<>();
+        for (Block block : blocks)
+            if (block.lastAt >= oldestMillis)
+                snapshots.addAll(block.snapshots(oldestMillis));
+        return snapshots;
+    }
+
+    /** Removes all snapshots before the given instant from this */
+    void removeBefore(Instant oldestTime) {
+        long oldestMillis = oldestTime.toEpochMilli();
+        while ( ! blocks.isEmpty() && blocks.get(0).lastAt < oldestMillis)
+            size -= blocks.remove(0).size;
+        if ( ! blocks.isEmpty() && blocks.get(0).firstAt < oldestMillis) {
+            Block first = blocks.get(0);
+            Block kept = Block.of(first.snapshots(oldestMillis));
+            size -= first.size - kept.size;
+            blocks.set(0, kept);
+        }
+    }
+
+    boolean isEmpty() { return size == 0; }
+
+    int size() { return size; }
+
+    /** Returns the approximate number of bytes used by the data in this */
+    long bytes() {
+        return blocks.stream().mapToLong(Block::bytes).sum();
+    }
+
+    /** A sequence of snapshots in increasing time order, encoded by column */
+    private static class Block {
+
+        private final TimestampColumn at = new TimestampColumn();
+        private final DoubleColumn cpu = new DoubleColumn();
+        private final DoubleColumn memory = new DoubleColumn();
+        private final DoubleColumn disk = new DoubleColumn();
+        private final LongColumn generation = new LongColumn();
+        private final BooleanColumn inService = new BooleanColumn();
+        private final BooleanColumn stable = new BooleanColumn();
+        private final DoubleColumn queryRate = new DoubleColumn();
+        private int size = 0;
+        private long firstAt = Long.MIN_VALUE;
+        private long lastAt = Long.MIN_VALUE;
+
+        static Block of(List<NodeMetricSnapshot> snapshots) {
+            Block block = new Block();
+            snapshots.forEach(block::append);
+            return block;
+        }
+
+        /** Appends a snapshot which is not older than any snapshot in this */
+        void append(NodeMetricSnapshot snapshot) {
+            at.add(snapshot.at().toEpochMilli());
+            cpu.add(snapshot.load().cpu());
+            memory.add(snapshot.load().memory());
+            disk.add(snapshot.load().disk());
+            generation.add(snapshot.generation());
+            inService.add(snapshot.inService());
+            stable.add(snapshot.stable());
+            queryRate.add(snapshot.queryRate());
+            if (size == 0)
+                firstAt = snapshot.at().toEpochMilli();
+            lastAt = snapshot.at().toEpochMilli();
+            size++;
+        }
+
+        /** Returns the snapshots in this at or after the given epoch millisecond */
+        List<NodeMetricSnapshot> snapshots(long oldestMillis) {
+            List<NodeMetricSnapshot> snapshots = new ArrayList<>();
+            var at = this.at.reader();
+            var cpu = this.cpu.reader();
+            var memory = this.memory.reader();
+            var disk = this.disk.reader();
+            var generation = this.generation.reader();
+            var inService = this.inService.reader();
+            var stable = this.stable.reader();
+            var queryRate = this.queryRate.reader();
+            for (int i = 0; i < size; i++) {
+                long atMillis = at.next();
+                double cpuValue = cpu.next(), memoryValue = memory.next(), diskValue = disk.next();
+                long generationValue = generation.next();
+                boolean inServiceValue = inService.next(), stableValue = stable.next();
+                double queryRateValue = queryRate.next();
+                if (atMillis < oldestMillis) continue;
+                snapshots.add(new NodeMetricSnapshot(Instant.ofEpochMilli(atMillis),
+                                                     new Load(cpuValue, memoryValue, diskValue),
+                                                     generationValue,
+                                                     inServiceValue,
+                                                     stableValue,
+                                                     queryRateValue));
+            }
+            return snapshots;
+        }
+
+        long bytes() {
+            return (at.bits.size() + cpu.bits.size() + memory.bits.size() + disk.bits.size() + generation.bits.size() +
+                    inService.bits.size() + stable.bits.size() + queryRate.bits.size()) / 8;
+        }
+
+    }
+
+    /** Millisecond timestamps, stored as delta-of-deltas in variable length buckets */
+    private static class TimestampColumn {
+
+        private final Bits bits = new Bits();
+        private long previous = 0;
+        private long previousDelta = 0;
+
+        void add(long value) {
+            long delta = value - previous;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                bits.write(0b0, 1);
+            }
+            else if (fits(deltaOfDelta, 14)) {
+                bits.write(0b10, 2);
+                bits.write(deltaOfDelta, 14);
+            }
+            else if (fits(deltaOfDelta, 24)) {
+                bits.write(0b110, 3);
+                bits.write(deltaOfDelta, 24);
+            }
+            else if (fits(deltaOfDelta, 32)) {
+                bits.write(0b1110, 4);
+                bits.write(deltaOfDelta, 32);
+            }
+            else {
+                bits.write(0b1111, 4);
+                bits.write(deltaOfDelta, 64);
+            }
+            previous = value;
+            previousDelta = delta;
+        }
+
+        Reader reader() { return new Reader(bits.reader()); }
+
+        private static boolean fits(long value, int bitCount) {
+            return value >= -(1L << (bitCount - 1)) && value < (1L << (bitCount - 1));
+        }
+
+        static class Reader {
+
+            private final Bits.Reader bits;
+            private long previous = 0;
+            private long previousDelta = 0;
+
+            Reader(Bits.Reader bits) { this.bits = bits; }
+
+            long next() {
+                long deltaOfDelta;
+                if (bits.read(1) == 0)
+                    deltaOfDelta = 0;
+                else if (bits.read(1) == 0)
+                    deltaOfDelta = bits.readSigned(14);
+                else if (bits.read(1) == 0)
+                    deltaOfDelta = bits.readSigned(24);
+                else if (bits.read(1) == 0)
+                    deltaOfDelta = bits.readSigned(32);
+                else
+                    deltaOfDelta = bits.read(64);
+                previousDelta += deltaOfDelta;
+                previous += previousDelta;
+                return previous;
+            }
+
+        }
+
+    }
+
+    /** Doubles, stored as the meaningful bits of the XOR with the previous value */
+    private static class DoubleColumn {
+
+        private final Bits bits = new Bits();
+        private long previous = 0;
+        private int previousLeading = -1;
+        private int previousTrailing = 0;
+
+        void add(double value) {
+            long valueBits = Double.doubleToLongBits(value);
+            long xor = valueBits ^ previous;
+            if (xor == 0) {
+                bits.write(0b0, 1);
+            }
+            else {
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    bits.write(0b10, 2);
+                    bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                }
+                else {
+                    int meaningful = 64 - leading - trailing;
+                    bits.write(0b11, 2);
+                    bits.write(leading, 5);
+                    bits.write(meaningful - 1, 6);
+                    bits.write(xor >>> trailing, meaningful);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = valueBits;
+        }
+
+        Reader reader() { return new Reader(bits.reader()); }
+
+        static class Reader {
+
+            private final Bits.Reader bits;
+            private long previous = 0;
+            private int previousLeading = 0;
+            private int previousTrailing = 0;
+
+            Reader(Bits.Reader bits) { this.bits = bits; }
+
+            double next() {
+                if (bits.read(1) == 1) {
+                    if (bits.read(1) == 1) {
+                        previousLeading = (int) bits.read(5);
+                        previousTrailing = 64 - previousLeading - ((int) bits.read(6) + 1);
+                    }
+                    previous ^= bits.read(64 - previousLeading - previousTrailing) << previousTrailing;
+                }
+                return Double.longBitsToDouble(previous);
+            }
+
+        }
+
+    }
+
+    /** Longs which rarely change, stored as a single bit when unchanged */
+    private static class LongColumn {
+
+        private final Bits bits = new Bits();
+        private long previous = 0;
+
+        void add(long value) {
+            if (value == previous) {
+                bits.write(0b0, 1);
+            }
+            else {
+                bits.write(0b1, 1);
+                bits.write(value, 64);
+            }
+            previous = value;
+        }
+
+        Reader reader() { return new Reader(bits.reader()); }
+
+        static class Reader {
+
+            private final Bits.Reader bits;
+            private long previous = 0;
+
+            Reader(Bits.Reader bits) { this.bits = bits; }
+
+            long next() {
+                if (bits.read(1) == 1)
+                    previous = bits.read(64);
+                return previous;
+            }
+
+        }
+
+    }
+
+    private static class BooleanColumn {
+
+        private final Bits bits = new Bits();
+
+        void add(boolean value) {
+            bits.write(value ? 1 : 0, 1);
+        }
+
+        Reader reader() { return new Reader(bits.reader()); }
+
+        static class Reader {
+
+            private final Bits.Reader bits;
+
+            Reader(Bits.Reader bits) { this.bits = bits; }
+
+            boolean next() { return bits.read(1) == 1; }
+
+        }
+
+    }
+
+    /** An append-only sequence of bits */
+    private static class Bits {
+
+        private long[] words = new long[2];
+        private long size = 0;
+
+        /** Writes the given number (1-64) of the lowest bits of the given value, most significant first */
+        void write(long value, int count) {
+            if (count < 64)
+                value &= (1L << count) - 1;
+            int index = (int) (size >>> 6);
+            int free = 64 - (int) (size & 63);
+            if (index + 1 >= words.length) {
+                long[] newWords = new long[words.length * 2];
+                System.arraycopy(words, 0, newWords, 0, words.length);
+                words = newWords;
+            }
+            if (count <= free) {
+                words[index] |= value << (free - count);
+            }
+            else {
+                words[index] |= value >>> (count - free);
+                words[index + 1] |= value << (64 - (count - free));
+            }
+            size += count;
+        }
+
+        /** Returns the number of bits in this */
+        long size() { return size; }
+
+        Reader reader() { return new Reader(); }
+
+        class Reader {
+
+            private long position = 0;
+
+            /** Reads the given number (1-64) of bits as the lowest bits of a long */
+            long read(int count) {
+                int index = (int) (position >>> 6);
+                int offset = (int) (position & 63);
+                int free = 64 - offset;
+                position += count;
+                if (count <= free)
+                    return (words[index] << offset) >>> (64 - count);
+                long high = (words[index] << offset) >>> offset;
+                return (high << (count - free)) | (words[index + 1] >>> (64 - (count - free)));
+            }
+
+            /** Reads the given number (1-64) of bits as a two's complement signed value */
+            long readSigned(int count) {
+                return (read(count) << (64 - count)) >> (64 - count);
+            }
+
+        }
+
+    }
+
+}
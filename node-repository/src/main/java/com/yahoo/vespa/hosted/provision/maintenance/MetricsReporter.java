@@ -137,6 +137,7 @@ public class MetricsReporter extends NodeRepositoryMaintainer {
         metric.set("cache.curator.hitRate", curatorCacheStats.hitRate(), null);
         metric.set("cache.curator.evictionCount", curatorCacheStats.evictionCount(), null);
         metric.set("cache.curator.size", curatorCacheStats.size(), null);
+        metric.set("cache.curator.reloadCount", curatorCacheStats.reloadCount(), null);
     }
 
     private void updateMaintenanceMetrics() {
@@ -6,6 +6,7 @@ import com.yahoo.concurrent.maintenance.Maintainer;
 import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.NodeType;
 import com.yahoo.jdisc.Metric;
+import com.yahoo.vespa.curator.stats.LockStats;
 import com.yahoo.vespa.hosted.provision.Node;
 import com.yahoo.vespa.hosted.provision.NodeList;
 import com.yahoo.vespa.hosted.provision.NodeRepository;
@@ -39,6 +40,11 @@ public abstract class NodeRepositoryMaintainer extends Maintainer {
     /** Returns the node repository clock */
     protected Clock clock() { return nodeRepository.clock(); }
 
+    @Override
+    protected Duration lockWaitTime() {
+        return LockStats.getForCurrentThread().getTotalAcquireDuration();
+    }
+
     /** A utility to group active tenant nodes by application */
     protected Map<ApplicationId, NodeList> activeNodesByApplication() {
         return nodeRepository().nodes()
@@ -61,6 +67,14 @@ public abstract class NodeRepositoryMaintainer extends Maintainer {
             metric.set("maintenance.successFactor", successFactor, metric.createContext(Map.of("job", job)));
         }
 
+        @Override
+        public void profiled(String job, Duration wallTime, Duration cpuTime, Duration lockWaitTime) {
+            Metric.Context context = metric.createContext(Map.of("job", job));
+            metric.set("maintenance.duration", wallTime.toMillis(), context);
+            metric.set("maintenance.cpuTime", cpuTime.toMillis(), context);
+            metric.set("maintenance.lockWaitTime", lockWaitTime.toMillis(), context);
+        }
+
     }
 
 }
@@ -101,6 +101,7 @@ public class Nodes {
      * @param inState the states to return nodes from. If no states are given, all nodes of the given type are returned
      */
     public NodeList list(Node.State... inState) {
+        if (inState.length == 0) return db.readSnapshot();
         return NodeList.copyOf(db.readNodes(inState));
     }
 
@@ -9,12 +9,22 @@ package com.yahoo.vespa.hosted.provision.persistence;
 public class CacheStats {
 
     private final double hitRate;
+    private final long hitCount;
+    private final long missCount;
     private final long evictionCount;
+    private final long reloadCount;
     private final long size;
 
     public CacheStats(double hitRate, long evictionCount, long size) {
+        this(hitRate, 0, 0, evictionCount, 0, size);
+    }
+
+    public CacheStats(double hitRate, long hitCount, long missCount, long evictionCount, long reloadCount, long size) {
         this.hitRate = hitRate;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
         this.evictionCount = evictionCount;
+        this.reloadCount = reloadCount;
         this.size = size;
     }
 
@@ -23,11 +33,26 @@ public class CacheStats {
         return hitRate;
     }
 
+    /** The number of lookups that were served from the cache */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /** The number of lookups that had to be loaded into the cache */
+    public long missCount() {
+        return missCount;
+    }
+
     /** The number of entries that have been evicted */
     public long evictionCount() {
         return evictionCount;
     }
 
+    /** The number of times the entire cache has been discarded, because it could not be updated incrementally */
+    public long reloadCount() {
+        return reloadCount;
+    }
+
     /** The current size of the cache */
     public long size() {
         return size;
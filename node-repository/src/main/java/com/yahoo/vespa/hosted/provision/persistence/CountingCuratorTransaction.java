@@ -1,10 +1,15 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.hosted.provision.persistence;
 
+import com.yahoo.path.Path;
+import com.yahoo.transaction.Transaction;
 import com.yahoo.vespa.curator.Curator;
-import com.yahoo.vespa.curator.recipes.CuratorCounter;
+import com.yahoo.vespa.curator.transaction.CuratorOperation;
 import com.yahoo.vespa.curator.transaction.CuratorTransaction;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * CuratorTransaction wrapper which increments a counter, to signal invalidation of node repository caches.
  *
@@ -17,26 +22,28 @@ import com.yahoo.vespa.curator.transaction.CuratorTransaction;
  * The usual locking for modifications of shared data is then enough to ensure the cache provides a
  * consistent view of the shared data, with one exception: when incrementing the counter fails. This is
  * assumed to be extremely rare, and the consequence is temporary neglect of cache invalidation.
+ * Each increment is recorded with the paths of the operations of this, such that the local cache
+ * only needs to invalidate those.
  *
  * @author jonmv
  */
 class CountingCuratorTransaction extends CuratorTransaction {
 
-    private final CuratorCounter counter;
+    private final CuratorDatabase database;
 
-    public CountingCuratorTransaction(Curator curator, CuratorCounter counter) {
+    public CountingCuratorTransaction(Curator curator, CuratorDatabase database) {
         super(curator);
-        this.counter = counter;
+        this.database = database;
     }
 
     @Override
     public void prepare() {
         try {
-            counter.get();
+            database.changeGeneration();
             super.prepare();
         }
         finally {
-            counter.next();
+            database.incrementGeneration(changedPaths());
         }
     }
 
@@ -46,13 +53,20 @@ class CountingCuratorTransaction extends CuratorTransaction {
             super.commit();
         }
         finally {
-            counter.next();
+            database.incrementGeneration(changedPaths());
         }
     }
 
+    private Set<Path> changedPaths() {
+        Set<Path> paths = new HashSet<>();
+        for (Transaction.Operation operation : operations())
+            paths.add(Path.fromString(((CuratorOperation) operation).path()));
+        return paths;
+    }
+
     @Override
     public String toString() {
-        return "(" + super.toString() + "), INCREMENT " + counter;
+        return "(" + super.toString() + "), INCREMENT change counter";
     }
 
 }
@@ -13,11 +13,16 @@ import com.yahoo.vespa.curator.transaction.CuratorTransaction;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -27,23 +32,37 @@ import java.util.stream.Collectors;
  * using a global, shared counter. The counter is updated on all write operations, ensured by wrapping write
  * operations in a try block, with the counter increment in a finally block. Locks must be used to ensure consistency.
  *
+ * Writes made through this record which paths they changed with the counter generation they produced,
+ * such that the cache can be brought up to date by invalidating just those paths. The cache is only
+ * discarded entirely when the counter has been incremented by some other writer, e.g., another config server.
+ *
  * @author bratseth
  * @author jonmv
  */
 public class CuratorDatabase {
 
+    /** The max number of generations of local changes to remember for a cache which is not read */
+    private static final int maxLocalChanges = 1000;
+
     private final Curator curator;
 
     /** A shared atomic counter which is incremented every time we write to the curator database */
     private final CuratorCounter changeGenerationCounter;
 
     /** A partial cache of the Curator database, which is only valid if generations match */
-    private final AtomicReference<Cache> cache = new AtomicReference<>();
+    private volatile Cache cache;
+
+    /** The paths changed by each counter generation produced by this, which are not yet applied to the cache */
+    private final SortedMap<Long, Set<Path>> localChanges = new TreeMap<>();
 
     /** Whether we should return data from the cache or always read from ZooKeeper */
     private final boolean useCache;
 
-    private final Object cacheCreationLock = new Object();
+    /** Guards changes to the cache, and to localChanges */
+    private final Object cacheLock = new Object();
+
+    private final AbstractCache.SimpleStatsCounter stats = new AbstractCache.SimpleStatsCounter();
+    private final AtomicLong reloads = new AtomicLong();
 
     /**
      * Creates a curator database
@@ -55,7 +74,7 @@ public class CuratorDatabase {
         this.useCache = useCache;
         this.curator = curator;
         changeGenerationCounter = new CuratorCounter(curator, root.append("changeCounter"));
-        cache.set(newCache(changeGenerationCounter.get()));
+        cache = newCache(changeGenerationCounter.get());
     }
 
     /** Returns all hosts configured to be part of this ZooKeeper cluster */
@@ -81,15 +100,19 @@ public class CuratorDatabase {
      */
     public CuratorTransaction newCuratorTransactionIn(NestedTransaction transaction) {
         // Wrap the curator transaction with an increment of the generation counter.
-        CountingCuratorTransaction curatorTransaction = new CountingCuratorTransaction(curator, changeGenerationCounter);
+        CountingCuratorTransaction curatorTransaction = new CountingCuratorTransaction(curator, this);
         transaction.add(curatorTransaction);
         return curatorTransaction;
     }
 
     /** Creates a path in curator and all its parents as necessary. If the path already exists this does nothing. */
     void create(Path path) {
-        if (curator.create(path))
-            changeGenerationCounter.next(); // Increment counter to ensure getChildren sees any change.
+        if (curator.create(path)) {
+            Set<Path> created = new HashSet<>();
+            for (Path parent = path; ! parent.isRoot(); parent = parent.getParentPath())
+                created.add(parent);
+            incrementGeneration(created); // Increment counter to ensure getChildren sees any change.
+        }
     }
 
     /** Returns whether given path exists */
@@ -97,6 +120,24 @@ public class CuratorDatabase {
         return curator.exists(path);
     }
 
+    /** Returns the current generation of the change counter */
+    long changeGeneration() {
+        return changeGenerationCounter.get();
+    }
+
+    /**
+     * Increments the change counter, and records that the given paths changed in the new generation.
+     * This must be called after any write to the given paths has completed, successfully or not.
+     */
+    void incrementGeneration(Set<Path> changedPaths) {
+        long generation = changeGenerationCounter.next(); // A ZooKeeper round trip, so not done while holding the lock
+        if ( ! useCache) return;
+        synchronized (cacheLock) {
+            if (generation > cache.generation && localChanges.size() < maxLocalChanges)
+                localChanges.put(generation, changedPaths);
+        }
+    }
+
     // --------- Read operations -------------------------------------------------------------------------------
     // These can read from the memory file system, which accurately mirrors the ZooKeeper content IF
     // the current generation counter is the same as it was when data was put into the cache, AND
@@ -107,50 +148,74 @@ public class CuratorDatabase {
 
     Optional<byte[]> getData(Path path) { return getSession().getData(path); }
 
-    /** Invalidates the current cache if outdated. */
+    /** Brings the cache up to date if outdated. */
     Session getSession() {
-        if (changeGenerationCounter.get() != cache.get().generation)
-            synchronized (cacheCreationLock) {
-                while (changeGenerationCounter.get() != cache.get().generation)
-                    cache.set(newCache(changeGenerationCounter.get()));
+        if (changeGenerationCounter.get() != cache.generation)
+            synchronized (cacheLock) {
+                // Our own increments may not be recorded yet, in which case they are treated as changes by others
+                long generation = changeGenerationCounter.get();
+                if (generation != cache.generation)
+                    cache = updated(cache, generation);
             }
-            
-        return cache.get();
+
+        return cache;
+    }
+
+    /** Returns the given cache brought up to the given generation, by invalidating local changes, or a new cache */
+    private Cache updated(Cache cache, long generation) {
+        SortedMap<Long, Set<Path>> changes = localChanges.headMap(generation + 1);
+        try {
+            if (generation > cache.generation && changes.tailMap(cache.generation + 1).size() == generation - cache.generation) {
+                for (Set<Path> paths : changes.tailMap(cache.generation + 1).values())
+                    cache.invalidate(paths);
+                cache.generation = generation;
+                return cache;
+            }
+            reloads.incrementAndGet();
+            return newCache(generation);
+        }
+        finally {
+            changes.clear();
+        }
     }
 
     CacheStats cacheStats() {
-        return cache.get().stats();
+        var stats = this.stats.snapshot();
+        return new CacheStats(stats.hitRate(), stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                              reloads.get(), cache.size());
     }
 
     /** Caches must only be instantiated using this method */
     private Cache newCache(long generation) {
-        return useCache ? new Cache(generation, curator) : new NoCache(generation, curator);
+        return useCache ? new Cache(generation, curator, stats) : new NoCache(generation, curator, stats);
     }
 
     /**
      * A thread safe partial snapshot of the curator database content with a given generation.
-     * This is merely a recording of what Curator returned at various points in time when 
-     * it had the counter at this generation.
+     * This is merely a recording of what Curator returned at various points in time when
+     * it had the counter at this generation. Entries are removed when they are changed by
+     * this database, and the generation of the cache is moved forward accordingly.
      */
     private static class Cache implements Session {
 
-        private final long generation;
+        private volatile long generation;
 
         /** The curator instance used to fetch missing data */
         protected final Curator curator;
 
         // The data of this partial state mirror. The amount of curator state mirrored in this may grow
-        // over time by multiple threads. Growing is the only operation permitted by this.
+        // over time by multiple threads, and shrinks only by invalidation of paths which are changed.
         // The content of the map is immutable.
         private final Map<Path, List<String>> children = new ConcurrentHashMap<>();
         private final Map<Path, Optional<byte[]>> data = new ConcurrentHashMap<>();
 
-        private final AbstractCache.SimpleStatsCounter stats = new AbstractCache.SimpleStatsCounter();
+        private final AbstractCache.StatsCounter stats;
 
         /** Create an empty snapshot at a given generation (as an empty snapshot is a valid partial snapshot) */
-        private Cache(long generation, Curator curator) {
+        private Cache(long generation, Curator curator, AbstractCache.StatsCounter stats) {
             this.generation = generation;
             this.curator = curator;
+            this.stats = stats;
         }
 
         @Override
@@ -174,17 +239,32 @@ public class CuratorDatabase {
             });
         }
 
-        public CacheStats stats() {
-            var stats = this.stats.snapshot();
-            return new CacheStats(stats.hitRate(), stats.evictionCount(), children.size() + data.size());
+        /** Removes the data and children of the given paths, and the children of their parents */
+        void invalidate(Set<Path> paths) {
+            for (Path path : paths) {
+                evict(data, path);
+                evict(children, path);
+                if ( ! path.isRoot())
+                    evict(children, path.getParentPath());
+            }
         }
 
+        private void evict(Map<Path, ?> values, Path path) {
+            if (values.remove(path) != null)
+                stats.recordEviction();
+        }
+
+        @Override
+        public OptionalLong generation() { return OptionalLong.of(generation); }
+
+        int size() { return children.size() + data.size(); }
+
     }
 
     /** An implementation of the curator database cache which does no caching */
     private static class NoCache extends Cache {
 
-        private NoCache(long generation, Curator curator) { super(generation, curator); }
+        private NoCache(long generation, Curator curator, AbstractCache.StatsCounter stats) { super(generation, curator, stats); }
 
         @Override
         public List<String> getChildren(Path path) { return curator.getChildren(path); }
@@ -192,6 +272,9 @@ public class CuratorDatabase {
         @Override
         public Optional<byte[]> getData(Path path) { return curator.getData(path); }
 
+        @Override
+        public OptionalLong generation() { return OptionalLong.empty(); }
+
     }
 
     interface Session {
@@ -206,6 +289,11 @@ public class CuratorDatabase {
          */
         Optional<byte[]> getData(Path path);
 
+        /**
+         * Returns the change counter generation of the data in this, or empty if this always reads the current data.
+         */
+        OptionalLong generation();
+
     }
 
 }
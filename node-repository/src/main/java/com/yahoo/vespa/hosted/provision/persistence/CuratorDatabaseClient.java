@@ -19,6 +19,7 @@ import com.yahoo.vespa.curator.recipes.CuratorCounter;
 import com.yahoo.vespa.curator.transaction.CuratorOperations;
 import com.yahoo.vespa.curator.transaction.CuratorTransaction;
 import com.yahoo.vespa.hosted.provision.Node;
+import com.yahoo.vespa.hosted.provision.NodeList;
 import com.yahoo.vespa.hosted.provision.applications.Application;
 import com.yahoo.vespa.hosted.provision.lb.LoadBalancer;
 import com.yahoo.vespa.hosted.provision.lb.LoadBalancerId;
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -77,6 +79,9 @@ public class CuratorDatabaseClient {
     private final Clock clock;
     private final CuratorCounter provisionIndexCounter;
 
+    /** The last snapshot of all nodes, if any */
+    private volatile NodeSnapshot snapshot = null;
+
     public CuratorDatabaseClient(NodeFlavors flavors, Curator curator, Clock clock, boolean useCache, long nodeCacheSize) {
         this.nodeSerializer = new NodeSerializer(flavors, nodeCacheSize);
         this.db = new CuratorDatabase(curator, root, useCache);
@@ -247,10 +252,30 @@ public class CuratorDatabaseClient {
      * @return the nodes in a mutable list owned by the caller
      */
     public List<Node> readNodes(Node.State ... states) {
-        List<Node> nodes = new ArrayList<>();
         if (states.length == 0)
             states = Node.State.values();
+        return readNodes(db.getSession(), states);
+    }
+
+    /**
+     * Returns all nodes, as a snapshot which is indexed for the common filters. The same snapshot is returned
+     * until the nodes are changed, such that its index is built at most once for all readers.
+     */
+    public NodeList readSnapshot() {
         CuratorDatabase.Session session = db.getSession();
+        OptionalLong generation = session.generation();
+        NodeSnapshot snapshot = this.snapshot;
+        if (snapshot != null && generation.isPresent() && snapshot.generation == generation.getAsLong())
+            return snapshot.nodes;
+
+        NodeList nodes = NodeList.snapshotOf(readNodes(session, Node.State.values()));
+        if (generation.isPresent() && generation.equals(session.generation())) // Unchanged while reading
+            this.snapshot = new NodeSnapshot(generation.getAsLong(), nodes);
+        return nodes;
+    }
+
+    private List<Node> readNodes(CuratorDatabase.Session session, Node.State ... states) {
+        List<Node> nodes = new ArrayList<>();
         for (Node.State state : states) {
             for (String hostname : session.getChildren(toPath(state))) {
                 Optional<Node> node = readNode(session, hostname, state);
@@ -545,4 +570,17 @@ public class CuratorDatabaseClient {
                                             : CuratorOperations.create(path.getAbsolute(), data);
     }
 
+    /** A snapshot of all nodes, read at a given change counter generation */
+    private static class NodeSnapshot {
+
+        private final long generation;
+        private final NodeList nodes;
+
+        NodeSnapshot(long generation, NodeList nodes) {
+            this.generation = generation;
+            this.nodes = nodes;
+        }
+
+    }
+
 }
@@ -1,11 +1,17 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.hosted.provision;
 
+import com.yahoo.component.Version;
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.config.provision.ClusterMembership;
+import com.yahoo.config.provision.ClusterSpec;
 import com.yahoo.config.provision.Flavor;
 import com.yahoo.config.provision.NodeFlavors;
 import com.yahoo.config.provision.NodeResources;
 import com.yahoo.config.provision.NodeType;
 import com.yahoo.config.provisioning.FlavorsConfig;
+import com.yahoo.vespa.hosted.provision.node.Allocation;
+import com.yahoo.vespa.hosted.provision.node.Generation;
 import com.yahoo.vespa.hosted.provision.node.IP;
 import com.yahoo.vespa.hosted.provision.provisioning.FlavorConfigBuilder;
 import com.yahoo.vespa.hosted.provision.provisioning.ProvisioningTester;
@@ -21,6 +27,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +39,7 @@ public class NodeListMicroBenchmarkTest {
     private final NodeResources resources0 = new NodeResources(1, 30, 20, 1.5);
     private int nodeCounter = 0;
     private static final int hostCount = 1000;
+    private static final int applicationCount = 100;
 
     @Ignore
     @Test
@@ -61,6 +69,63 @@ public class NodeListMicroBenchmarkTest {
         System.out.println("Calling NodeList.childrenOf took " + duration + " (" + duration.toNanos() / iterations / 1000 + " microseconds per invocation)");
     }
 
+    @Ignore
+    @Test
+    public void testChainedFilters() {
+        List<Node> nodes = createHosts();
+        List<Node> childNodes = nodes.stream().map(host -> createNodes(host.hostname())).flatMap(Collection::stream).collect(Collectors.toList());
+        nodes.addAll(allocate(childNodes));
+
+        int iterations = 10000;
+        Random random = new Random(0);
+        List<ApplicationId> applications = new ArrayList<>();
+        for (int i = 0; i < iterations; i++)
+            applications.add(application(random.nextInt(applicationCount)));
+
+        NodeList snapshot = NodeList.snapshotOf(nodes);
+        // Warmup for stable results.
+        for (int i = 0; i < iterations; i++) {
+            chainedFilters(NodeList.copyOf(nodes), applications.get(i));
+            chainedFilters(NodeList.snapshotOf(nodes), applications.get(i));
+            chainedFilters(snapshot, applications.get(i));
+        }
+
+        time("a list without index", iterations, i -> chainedFilters(NodeList.copyOf(nodes), applications.get(i)));
+        time("a new snapshot each time", iterations, i -> chainedFilters(NodeList.snapshotOf(nodes), applications.get(i)));
+        time("a reused snapshot", iterations, i -> chainedFilters(snapshot, applications.get(i)));
+    }
+
+    private static NodeList chainedFilters(NodeList nodes, ApplicationId application) {
+        return nodes.state(Node.State.active).owner(application).cluster(ClusterSpec.Id.from("c0"));
+    }
+
+    private static void time(String description, int iterations, IntConsumer task) {
+        Instant start = Instant.now();
+        for (int i = 0; i < iterations; i++)
+            task.accept(i);
+        Duration duration = Duration.between(start, Instant.now());
+        System.out.println("Chained filters on " + description + " took " + duration + " (" +
+                           duration.toNanos() / iterations / 1000 + " microseconds per invocation)");
+    }
+
+    private List<Node> allocate(List<Node> nodes) {
+        List<Node> allocated = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            ClusterMembership membership = ClusterMembership.from("container/c" + (i % 2) + "/0/" + i, Version.fromString("7.1"), Optional.empty());
+            allocated.add(Node.create(node.hostname(), node.hostname(), getFlavor("node"), Node.State.active, NodeType.tenant)
+                              .parentHostname(node.parentHostname().get())
+                              .ipConfig(node.ipConfig())
+                              .allocation(new Allocation(application(i % applicationCount), membership, resources0, Generation.initial(), false))
+                              .build());
+        }
+        return allocated;
+    }
+
+    private static ApplicationId application(int index) {
+        return ApplicationId.from("tenant" + index, "application", "default");
+    }
+
     private List<Node> createHosts() {
         List<Node> hosts = new ArrayList<>();
         for (int i = 0; i < hostCount; i++) {
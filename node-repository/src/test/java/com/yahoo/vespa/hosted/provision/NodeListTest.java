@@ -0,0 +1,92 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision;
+
+import com.yahoo.component.Version;
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.config.provision.ClusterMembership;
+import com.yahoo.config.provision.ClusterSpec;
+import com.yahoo.config.provision.Flavor;
+import com.yahoo.config.provision.NodeResources;
+import com.yahoo.config.provision.NodeType;
+import com.yahoo.vespa.hosted.provision.node.Allocation;
+import com.yahoo.vespa.hosted.provision.node.Generation;
+import com.yahoo.vespa.hosted.provision.node.IP;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class NodeListTest {
+
+    private final ApplicationId app1 = ApplicationId.from("t1", "a1", "default");
+    private final ApplicationId app2 = ApplicationId.from("t2", "a2", "default");
+
+    private final Node host1 = node("host1", Optional.empty(), Node.State.ready, NodeType.host, Optional.empty(), null);
+    private final Node host2 = node("host2", Optional.empty(), Node.State.failed, NodeType.host, Optional.empty(), null);
+    private final Node node1 = node("node1", Optional.of("host1"), Node.State.active, NodeType.tenant, Optional.of(app1), "content/c1/0/0/stateful");
+    private final Node node2 = node("node2", Optional.of("host1"), Node.State.active, NodeType.tenant, Optional.of(app2), "container/c2/0/0");
+    private final Node node3 = node("node3", Optional.of("host2"), Node.State.ready, NodeType.tenant, Optional.empty(), null);
+    private final Node node4 = node("node4", Optional.of("host1"), Node.State.active, NodeType.tenant, Optional.of(app1), "content/c1/0/1/stateful");
+    private final NodeList nodes = NodeList.snapshotOf(List.of(host1, node1, host2, node2, node3, node4));
+
+    @Test
+    public void indexed_filters_return_matching_nodes_in_list_order() {
+        assertEquals(List.of(node1, node2, node4), nodes.state(Node.State.active).asList());
+        assertEquals(List.of(host1, node3), nodes.state(EnumSet.of(Node.State.ready)).asList());
+        assertEquals(List.of(), nodes.state(Node.State.parked).asList());
+        assertEquals(List.of(host1, host2), nodes.nodeType(NodeType.host).asList());
+        assertEquals(List.of(node1, node2, node4), nodes.childrenOf("host1").asList());
+        assertEquals(List.of(node1, node4), nodes.owner(app1).asList());
+        assertEquals(List.of(node2), nodes.cluster(ClusterSpec.Id.from("c2")).asList());
+        assertEquals(List.of(node4), nodes.owner(app1).state(Node.State.active).childrenOf(host1).first(2).not().first(1).asList());
+        assertEquals(Optional.of(node3), nodes.node("node3"));
+        assertEquals(Optional.empty(), nodes.node("node5"));
+        assertEquals(Optional.of(host2), nodes.parentOf(node3));
+        assertEquals(Optional.empty(), nodes.parentOf(host1));
+    }
+
+    @Test
+    public void indexed_filters_can_be_negated() {
+        assertEquals(List.of(host1, host2, node3), nodes.not().state(Node.State.active).asList());
+        assertEquals(List.of(node1, node2, node3, node4), nodes.not().nodeType(NodeType.host).asList());
+        assertEquals(List.of(host1, host2, node3), nodes.not().childrenOf("host1").asList());
+        assertEquals(List.of(host1, host2, node2, node3), nodes.not().owner(app1).asList());
+        assertEquals(List.of(host1, node1, host2, node3, node4), nodes.not().cluster(ClusterSpec.Id.from("c2")).asList());
+        assertEquals(Optional.of(node1), nodes.not().node("host1"));
+    }
+
+    @Test
+    public void lists_without_index_return_the_same_nodes() {
+        NodeList plain = NodeList.copyOf(nodes.asList());
+        assertEquals(nodes.state(Node.State.active).asList(), plain.state(Node.State.active).asList());
+        assertEquals(nodes.nodeType(NodeType.host).asList(), plain.nodeType(NodeType.host).asList());
+        assertEquals(nodes.childrenOf("host1").asList(), plain.childrenOf("host1").asList());
+        assertEquals(nodes.owner(app1).asList(), plain.owner(app1).asList());
+        assertEquals(nodes.cluster(ClusterSpec.Id.from("c2")).asList(), plain.cluster(ClusterSpec.Id.from("c2")).asList());
+        assertEquals(nodes.not().owner(app1).asList(), plain.not().owner(app1).asList());
+        assertEquals(nodes.node("node3"), plain.node("node3"));
+        assertEquals(nodes.parentOf(node3), plain.parentOf(node3));
+        assertEquals(nodes.state(Node.State.ready).parentOf(node1), plain.state(Node.State.ready).parentOf(node1));
+    }
+
+    private static Node node(String hostname, Optional<String> parentHostname, Node.State state, NodeType type,
+                             Optional<ApplicationId> owner, String membership) {
+        Node.Builder builder = Node.create(hostname, hostname, new Flavor(NodeResources.unspecified()), state, type);
+        parentHostname.ifPresent(builder::parentHostname);
+        builder.ipConfig(type.isHost() ? IP.Config.of(Set.of("::1"), Set.of("::2"), List.of()) : IP.Config.ofEmptyPool(Set.of("::3")));
+        owner.ifPresent(application -> builder.allocation(new Allocation(application,
+                                                                         ClusterMembership.from(membership, Version.fromString("7.1"), Optional.empty()),
+                                                                         NodeResources.unspecified(),
+                                                                         Generation.initial(),
+                                                                         false)));
+        return builder.build();
+    }
+
+}
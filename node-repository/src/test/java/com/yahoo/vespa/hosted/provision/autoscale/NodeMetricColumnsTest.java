@@ -0,0 +1,111 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision.autoscale;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class NodeMetricColumnsTest {
+
+    @Test
+    public void snapshots_round_trip() {
+        Random random = new Random(0);
+        Instant at = Instant.ofEpochMilli(1_600_000_000_123L);
+        List<NodeMetricSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Mostly regular intervals with some jitter and gaps
+            at = at.plusMillis(i % 100 == 0 ? 3_600_000 + random.nextInt(100_000) : 60_000 + random.nextInt(3) - 1);
+            snapshots.add(new NodeMetricSnapshot(at,
+                                                 new Load(i % 10 == 0 ? 0.5 : random.nextDouble(),
+                                                          0.6 + i / 10 * 0.001,
+                                                          i % 7 == 0 ? 0 : random.nextDouble() / 1e9),
+                                                 i / 100 - 1,
+                                                 i % 3 != 0,
+                                                 i % 2 == 0,
+                                                 i < 500 ? 0 : random.nextGaussian() * 1000));
+        }
+
+        NodeMetricColumns columns = new NodeMetricColumns();
+        snapshots.forEach(columns::add);
+        assertEquals(snapshots.size(), columns.size());
+        assertEqual(snapshots, columns.snapshots(Instant.MIN));
+        assertEqual(snapshots.subList(500, 1000), columns.snapshots(snapshots.get(500).at()));
+
+        columns.removeBefore(snapshots.get(900).at());
+        assertEqual(snapshots.subList(900, 1000), columns.snapshots(Instant.MIN));
+        columns.removeBefore(at.plusMillis(1));
+        assertTrue(columns.isEmpty());
+    }
+
+    @Test
+    public void snapshots_are_kept_in_time_order() {
+        Instant start = Instant.ofEpochMilli(1_600_000_000_000L);
+        NodeMetricColumns columns = new NodeMetricColumns();
+        columns.add(snapshot(start.plusSeconds(60), 0.2));
+        columns.add(snapshot(start.plusSeconds(180), 0.4));
+        columns.add(snapshot(start.plusSeconds(120), 0.3));
+        columns.add(snapshot(start, 0.1));
+
+        List<NodeMetricSnapshot> snapshots = columns.snapshots(Instant.MIN);
+        assertEquals(4, snapshots.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(start.plusSeconds(60 * i), snapshots.get(i).at());
+            assertEquals(0.1 * (i + 1), snapshots.get(i).load().cpu(), 0.000001);
+        }
+    }
+
+    @Test
+    public void late_snapshots_are_inserted_in_the_block_they_belong_in() {
+        Instant start = Instant.ofEpochMilli(1_600_000_000_000L);
+        List<NodeMetricSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < NodeMetricColumns.blockSize * 3; i++)
+            snapshots.add(snapshot(start.plusSeconds(60 * i), i * 0.001));
+
+        NodeMetricColumns columns = new NodeMetricColumns();
+        for (int i = 0; i < snapshots.size(); i++)
+            if (i % 100 != 50) columns.add(snapshots.get(i));
+        for (int i = 50; i < snapshots.size(); i += 100)
+            columns.add(snapshots.get(i));
+
+        assertEquals(snapshots.size(), columns.size());
+        assertEqual(snapshots, columns.snapshots(Instant.MIN));
+        assertEqual(snapshots.subList(300, snapshots.size()), columns.snapshots(snapshots.get(300).at()));
+
+        columns.removeBefore(snapshots.get(400).at());
+        assertEquals(snapshots.size() - 400, columns.size());
+        assertEqual(snapshots.subList(400, snapshots.size()), columns.snapshots(Instant.MIN));
+    }
+
+    @Test
+    public void regular_measurements_are_compact() {
+        Instant at = Instant.ofEpochMilli(1_600_000_000_000L);
+        NodeMetricColumns columns = new NodeMetricColumns();
+        for (int i = 0; i < 2880; i++) { // Two days of measurements each minute
+            columns.add(snapshot(at, 0.5 + (i % 60) * 0.001));
+            at = at.plus(Duration.ofMinutes(1));
+        }
+        assertTrue("Bytes per snapshot: " + (double) columns.bytes() / columns.size(),
+                   columns.bytes() < columns.size() * 16);
+    }
+
+    private static NodeMetricSnapshot snapshot(Instant at, double cpu) {
+        return new NodeMetricSnapshot(at, new Load(cpu, 0.5, 0.5), 3, true, true, 100);
+    }
+
+    private static void assertEqual(List<NodeMetricSnapshot> expected, List<NodeMetricSnapshot> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+    }
+
+}
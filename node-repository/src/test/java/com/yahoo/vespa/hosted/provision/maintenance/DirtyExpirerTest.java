@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author freva
@@ -53,11 +54,14 @@ public class DirtyExpirerTest {
         tester.nodeRepository().database().addNodesInState(List.of(node), node.state(), Agent.system);
 
         Duration expiryTimeout = Duration.ofMinutes(30);
-        DirtyExpirer expirer = new DirtyExpirer(tester.nodeRepository(), expiryTimeout, new TestMetric());
+        TestMetric metric = new TestMetric();
+        DirtyExpirer expirer = new DirtyExpirer(tester.nodeRepository(), expiryTimeout, metric);
 
         assertEquals(Node.State.dirty, tester.nodeRepository().nodes().list().first().get().state());
         expirer.run();
         assertEquals(Node.State.dirty, tester.nodeRepository().nodes().list().first().get().state());
+        for (String profileMetric : List.of("maintenance.duration", "maintenance.cpuTime", "maintenance.lockWaitTime"))
+            assertTrue(profileMetric + " is reported", metric.values.get(profileMetric).longValue() >= 0);
 
         tester.clock().advance(expiryTimeout.plusSeconds(1));
         expirer.run();
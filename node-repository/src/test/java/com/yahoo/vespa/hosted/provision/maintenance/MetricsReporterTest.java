@@ -119,14 +119,18 @@ public class MetricsReporterTest {
         expectedMetrics.put("suspendedSeconds", 123L);
         expectedMetrics.put("numberOfServices", 0L);
 
-        expectedMetrics.put("cache.nodeObject.hitRate", 0.6D);
+        // Nodes are read again only when changed, as lists of all nodes are reused until then
+        expectedMetrics.put("cache.nodeObject.hitRate", 1D / 3);
         expectedMetrics.put("cache.nodeObject.evictionCount", 0L);
         expectedMetrics.put("cache.nodeObject.size", 2L);
 
         nodeRepository.nodes().list();
-        expectedMetrics.put("cache.curator.hitRate", 0.52D);
-        expectedMetrics.put("cache.curator.evictionCount", 0L);
-        expectedMetrics.put("cache.curator.size", 12L);
+        // All writes are made by this, so the cache is never reloaded. Instead, the paths changed by the writes are
+        // evicted from it, and the rest is kept, which gives more entries than a cache reloaded on each write
+        expectedMetrics.put("cache.curator.hitRate", 30D / 67);
+        expectedMetrics.put("cache.curator.evictionCount", 5L);
+        expectedMetrics.put("cache.curator.size", 32L);
+        expectedMetrics.put("cache.curator.reloadCount", 0L);
 
         tester.clock().setInstant(Instant.ofEpochSecond(124));
 
@@ -4,18 +4,26 @@ package com.yahoo.vespa.hosted.provision.persistence;
 import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.ApplicationName;
 import com.yahoo.config.provision.InstanceName;
+import com.yahoo.config.provision.NodeFlavors;
 import com.yahoo.config.provision.NodeType;
 import com.yahoo.config.provision.TenantName;
+import com.yahoo.transaction.NestedTransaction;
 import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.mock.MockCurator;
 import com.yahoo.vespa.hosted.provision.Node;
+import com.yahoo.vespa.hosted.provision.NodeList;
+import com.yahoo.vespa.hosted.provision.node.Agent;
+import com.yahoo.vespa.hosted.provision.node.IP;
 import com.yahoo.vespa.hosted.provision.provisioning.FlavorConfigBuilder;
 import org.junit.Test;
 
 import java.time.Clock;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author mpolden
@@ -23,8 +31,8 @@ import static org.junit.Assert.assertEquals;
 public class CuratorDatabaseClientTest {
 
     private final Curator curator = new MockCurator();
-    private final CuratorDatabaseClient zkClient = new CuratorDatabaseClient(
-            FlavorConfigBuilder.createDummies("default"), curator, Clock.systemUTC(), true, 1000);
+    private final NodeFlavors flavors = FlavorConfigBuilder.createDummies("default");
+    private final CuratorDatabaseClient zkClient = new CuratorDatabaseClient(flavors, curator, Clock.systemUTC(), true, 1000);
 
     @Test
     public void can_read_stored_host_information() throws Exception {
@@ -36,6 +44,28 @@ public class CuratorDatabaseClientTest {
         assertEquals(NodeType.host, allocatedNodes.get(0).type());
     }
 
+    @Test
+    public void snapshot_is_reused_until_nodes_change() {
+        addHost("host1");
+        NodeList snapshot = zkClient.readSnapshot();
+        assertEquals(List.of("host1"), snapshot.mapToList(Node::hostname));
+        assertSame(snapshot, zkClient.readSnapshot());
+
+        addHost("host2");
+        NodeList changed = zkClient.readSnapshot();
+        assertNotSame(snapshot, changed);
+        assertEquals(List.of("host1", "host2"), changed.mapToList(Node::hostname));
+        assertSame(changed, zkClient.readSnapshot());
+    }
+
+    private void addHost(String hostname) {
+        Node host = Node.create(hostname, IP.Config.of(Set.of("::1"), Set.of(), List.of()), hostname,
+                                flavors.getFlavorOrThrow("default"), NodeType.host).build();
+        NestedTransaction transaction = new NestedTransaction();
+        zkClient.addNodesInState(List.of(host), Node.State.provisioned, Agent.system, transaction);
+        transaction.commit();
+    }
+
     @Test
     public void locks_can_be_acquired_and_released() {
         ApplicationId app = ApplicationId.from(TenantName.from("testTenant"), ApplicationName.from("testApp"), InstanceName.from("testInstance"));
@@ -16,7 +16,6 @@ import java.util.List;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 /**
@@ -49,8 +48,30 @@ public class CuratorDatabaseTest {
         commitCreate("/2/2", database);
         List<String> children1Call3 = database.getChildren(Path.fromString("/1"));
         assertEquals(2, database.getChildren(Path.fromString("/2")).size());
-        assertFalse("We do not reuse cached data in different parts of the tree when there are commits",
-                    children1Call3 == children1Call2);
+        assertTrue("We reuse cached data in different parts of the tree when there are local commits",
+                   children1Call3 == children1Call2);
+        assertEquals(0, database.cacheStats().reloadCount());
+    }
+
+    @Test
+    public void testCacheIsReloadedOnChangesByOthers() throws Exception {
+        MockCurator curator = new MockCurator();
+        CuratorDatabase database = new CuratorDatabase(curator, Path.fromString("/"), true);
+        CuratorDatabase other = new CuratorDatabase(curator, Path.fromString("/"), true);
+
+        commitCreate("/1", database);
+        List<String> children1Call1 = database.getChildren(Path.fromString("/1"));
+        assertEquals(0, children1Call1.size());
+
+        commitCreate("/1/1", other);
+        List<String> children1Call2 = database.getChildren(Path.fromString("/1"));
+        assertEquals(1, children1Call2.size());
+        assertEquals(1, database.cacheStats().reloadCount());
+
+        commitCreate("/2", database);
+        assertTrue("We reuse cached data after a reload", children1Call2 == database.getChildren(Path.fromString("/1")));
+        assertEquals(1, database.cacheStats().reloadCount());
+        assertEquals(3, database.cacheStats().hitCount() + database.cacheStats().missCount());
     }
 
     @Test
@@ -156,6 +177,9 @@ public class CuratorDatabaseTest {
             return transaction;
         }
 
+        @Override
+        public String path() { return "/"; }
+
         @Override
         public void check(Curator curator, TransactionChanges changes) { }
 
@@ -172,6 +172,10 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
     private final Clock clock;
     private final Duration handlerTimeout;
     private final Metric metric;
+    private final Metric.Handle succeeded;
+    private final Metric.Handle notFound;
+    private final Metric.Handle conditionNotMet;
+    private final Metric.Handle failed;
     private final DocumentApiMetrics metrics;
     private final DocumentOperationParser parser;
     private final long maxThrottled;
@@ -206,6 +210,10 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
         this.handlerTimeout = handlerTimeout;
         this.parser = new DocumentOperationParser(documentmanagerConfig);
         this.metric = metric;
+        this.succeeded = metric.handle(MetricNames.SUCCEEDED, null);
+        this.notFound = metric.handle(MetricNames.NOT_FOUND, null);
+        this.conditionNotMet = metric.handle(MetricNames.CONDITION_NOT_MET, null);
+        this.failed = metric.handle(MetricNames.FAILED, null);
         this.metrics = new DocumentApiMetrics(metricReceiver, "documentV1");
         this.maxThrottled = executorConfig.maxThrottled();
         this.access = access;
@@ -1042,28 +1050,28 @@ public class DocumentV1ApiHandler extends AbstractRequestHandler {
 
     private void updatePutMetrics(Outcome outcome) {
         switch (outcome) {
-            case SUCCESS: metric.add(MetricNames.SUCCEEDED, 1, null); break;
-            case CONDITION_FAILED: metric.add(MetricNames.CONDITION_NOT_MET, 1, null); break;
-            default: metric.add(MetricNames.FAILED, 1, null); break;
+            case SUCCESS: succeeded.add(1); break;
+            case CONDITION_FAILED: conditionNotMet.add(1); break;
+            default: failed.add(1); break;
         }
     }
 
     private void updateUpdateMetrics(Outcome outcome, boolean create) {
         if (create && outcome == Outcome.NOT_FOUND) outcome = Outcome.SUCCESS; // >_<
         switch (outcome) {
-            case SUCCESS: metric.add(MetricNames.SUCCEEDED, 1, null); break;
-            case NOT_FOUND: metric.add(MetricNames.NOT_FOUND, 1, null); break;
-            case CONDITION_FAILED: metric.add(MetricNames.CONDITION_NOT_MET, 1, null); break;
-            default: metric.add(MetricNames.FAILED, 1, null); break;
+            case SUCCESS: succeeded.add(1); break;
+            case NOT_FOUND: notFound.add(1); break;
+            case CONDITION_FAILED: conditionNotMet.add(1); break;
+            default: failed.add(1); break;
         }
     }
 
     private void updateRemoveMetrics(Outcome outcome) {
         switch (outcome) {
             case SUCCESS:
-            case NOT_FOUND: metric.add(MetricNames.SUCCEEDED, 1, null); break;
-            case CONDITION_FAILED: metric.add(MetricNames.CONDITION_NOT_MET, 1, null); break;
-            default: metric.add(MetricNames.FAILED, 1, null); break;
+            case NOT_FOUND: succeeded.add(1); break;
+            case CONDITION_FAILED: conditionNotMet.add(1); break;
+            default: failed.add(1); break;
         }
     }
 
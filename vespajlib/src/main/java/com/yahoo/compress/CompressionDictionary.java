@@ -0,0 +1,177 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Adler32;
+
+/**
+ * A dictionary of byte sequences which are common in some kind of data, e.g. documents of a given type.
+ * Priming a compressor with a dictionary makes small inputs, which contain too little repetition on their own,
+ * compress well. The same dictionary must be used to compress and decompress.
+ *
+ * Dictionaries are trained offline from sample data using {@link #train}, and their content is then
+ * distributed to the compressing and decompressing parties.
+ *
+ * @author agent
+ */
+public class CompressionDictionary {
+
+    /** The largest dictionary which is useful, as matches can be no further back than this */
+    public static final int maxSize = 32 * 1024;
+
+    /** The length of the byte sequences whose frequencies are counted during training */
+    private static final int dmerSize = 8;
+
+    /** The length of the sample segments which are selected into a dictionary during training */
+    private static final int segmentSize = 64;
+
+    private final byte[] content;
+    private final int id;
+
+    /** Creates a dictionary from content which is produced by {@link #content} of an existing dictionary */
+    public CompressionDictionary(byte[] content) {
+        if (content.length == 0)
+            throw new IllegalArgumentException("A dictionary cannot be empty");
+        if (content.length > maxSize)
+            throw new IllegalArgumentException("A dictionary cannot be larger than " + maxSize + " bytes, but got " +
+                                               content.length);
+        this.content = content.clone();
+        Adler32 checksum = new Adler32();
+        checksum.update(this.content);
+        this.id = (int) checksum.getValue();
+    }
+
+    /** Returns the id of this, which is the Adler-32 checksum of its content, as stored in compressed data */
+    public int id() { return id; }
+
+    /** Returns a copy of the content of this */
+    public byte[] content() { return content.clone(); }
+
+    byte[] contentReference() { return content; }
+
+    /** Returns the size of this dictionary in bytes */
+    public int size() { return content.length; }
+
+    /**
+     * Trains a dictionary from a collection of representative samples.
+     * This greedily selects segments of the samples which cover the byte sequences occurring in the most samples,
+     * and places the most valuable segments last, where they are cheapest to refer to.
+     *
+     * @param samples the samples to train on, each e.g. a serialized document
+     * @param size the maximum size of the dictionary to produce, at most {@link #maxSize}
+     * @return the trained dictionary
+     * @throws IllegalArgumentException if the size is out of range, or the samples are too small to train on
+     */
+    public static CompressionDictionary train(Collection<byte[]> samples, int size) {
+        if (size < segmentSize || size > maxSize)
+            throw new IllegalArgumentException("Dictionary size must be between " + segmentSize + " and " + maxSize +
+                                               ", but was " + size);
+
+        // Count the number of samples in which each dmer occurs
+        Map<Long, Integer> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> dmersInSample = new HashSet<>();
+            for (int i = 0; i + dmerSize <= sample.length; i++)
+                dmersInSample.add(dmer(sample, i));
+            for (Long dmer : dmersInSample)
+                frequencies.merge(dmer, 1, Integer::sum);
+        }
+
+        byte[] data = concatenate(samples);
+        if (data.length < segmentSize)
+            throw new IllegalArgumentException("Need at least " + segmentSize + " bytes of samples, but got " + data.length);
+
+        // Pick the best segment from each epoch, as in the COVER algorithm
+        int epochs = Math.max(1, Math.min(size / segmentSize, data.length / segmentSize));
+        int epochSize = data.length / epochs;
+        List<Segment> segments = new ArrayList<>();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Segment best = bestSegment(data, epoch * epochSize, Math.min(data.length, (epoch + 1) * epochSize), frequencies);
+            if (best == null) continue;
+            segments.add(best);
+            for (int i = best.start; i + dmerSize <= best.start + segmentSize; i++)
+                frequencies.remove(dmer(data, i)); // already covered
+        }
+        if (segments.isEmpty())
+            throw new IllegalArgumentException("The samples contain no common byte sequences to train on");
+
+        segments.sort(Comparator.comparingLong((Segment segment) -> segment.score));
+        byte[] content = new byte[segments.size() * segmentSize];
+        for (int i = 0; i < segments.size(); i++)
+            System.arraycopy(data, segments.get(i).start, content, i * segmentSize, segmentSize);
+        if (content.length > size)
+            content = Arrays.copyOfRange(content, content.length - size, content.length);
+        return new CompressionDictionary(content);
+    }
+
+    /** Returns the segment in the given range which has the highest total frequency of its dmers, or null if none */
+    private static Segment bestSegment(byte[] data, int start, int end, Map<Long, Integer> frequencies) {
+        if (end - start < segmentSize) return null;
+
+        int dmersInSegment = segmentSize - dmerSize + 1;
+        long score = 0;
+        for (int i = start; i < start + dmersInSegment; i++)
+            score += frequencies.getOrDefault(dmer(data, i), 0);
+
+        Segment best = new Segment(start, score);
+        for (int segmentStart = start + 1; segmentStart + segmentSize <= end; segmentStart++) {
+            score -= frequencies.getOrDefault(dmer(data, segmentStart - 1), 0);
+            score += frequencies.getOrDefault(dmer(data, segmentStart + dmersInSegment - 1), 0);
+            if (score > best.score)
+                best = new Segment(segmentStart, score);
+        }
+        return best.score > dmersInSegment ? best : null; // require some dmers to occur in more than one sample
+    }
+
+    private static long dmer(byte[] data, int offset) {
+        long dmer = 0;
+        for (int i = 0; i < dmerSize; i++)
+            dmer = (dmer << 8) | (data[offset + i] & 0xff);
+        return dmer;
+    }
+
+    private static byte[] concatenate(Collection<byte[]> samples) {
+        byte[] data = new byte[samples.stream().mapToInt(sample -> sample.length).sum()];
+        int offset = 0;
+        for (byte[] sample : samples) {
+            System.arraycopy(sample, 0, data, offset, sample.length);
+            offset += sample.length;
+        }
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if ( ! (o instanceof CompressionDictionary)) return false;
+        CompressionDictionary other = (CompressionDictionary) o;
+        return id == other.id && Arrays.equals(content, other.content);
+    }
+
+    @Override
+    public int hashCode() { return id; }
+
+    @Override
+    public String toString() { return "compression dictionary " + Integer.toHexString(id) + " of " + content.length + " bytes"; }
+
+    private static class Segment {
+
+        final int start;
+        final long score;
+
+        Segment(int start, long score) {
+            this.start = start;
+            this.score = score;
+        }
+
+    }
+
+}
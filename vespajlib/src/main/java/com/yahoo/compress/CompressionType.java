@@ -12,7 +12,13 @@ public enum CompressionType {
     NONE((byte) 0),
     INCOMPRESSIBLE((byte) 5),
     LZ4((byte) 6),
-    ZSTD((byte) 7);
+    ZSTD((byte) 7),
+    /**
+     * Zlib primed with a {@link CompressionDictionary} shared by both ends. This is only known by Java:
+     * it must never be sent to peers which may be implemented in C++, such as over messagebus or the
+     * config protocol, as they will fail to decode it.
+     */
+    ZLIB_DICTIONARY((byte) 8);
 
     private final byte code;
 
@@ -41,6 +47,8 @@ public enum CompressionType {
                 return LZ4;
             case ((byte) 7):
                 return ZSTD;
+            case ((byte) 8):
+                return ZLIB_DICTIONARY;
             default:
                 throw new IllegalArgumentException("Unknown compression type ordinal " + value);
         }
@@ -24,6 +24,7 @@ public class Compressor {
     private final int level;
     private final double compressionThresholdFactor;
     private final int compressMinSizeBytes;
+    private final DictionaryCompressor dictionaryCompressor;
 
     private static final LZ4Factory factory = LZ4Factory.fastestInstance();
 
@@ -51,10 +52,29 @@ public class Compressor {
      * @param compressMinSizeBytes the minimal input data size to perform compression
      */
     public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes) {
+        this(type, level, compressionThresholdFactor, compressMinSizeBytes, null);
+    }
+
+    /**
+     * Creates a compressor which can also compress and decompress {@link CompressionType#ZLIB_DICTIONARY}
+     * using the given dictionary.
+     *
+     * @param type the type of compression to use to compress data
+     * @param level a number between 0 and 9 where a higher value means more compression
+     * @param compressionThresholdFactor the compression factor we need to achieve to return the compressed data
+     *                                   instead of raw data
+     * @param compressMinSizeBytes the minimal input data size to perform compression
+     * @param dictionary the dictionary to use with ZLIB_DICTIONARY, or null if that type is not supported by this
+     */
+    public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes,
+                      CompressionDictionary dictionary) {
+        if (type == CompressionType.ZLIB_DICTIONARY && dictionary == null)
+            throw new IllegalArgumentException(type + " requires a dictionary");
         this.type = type;
         this.level = level;
         this.compressionThresholdFactor = compressionThresholdFactor;
         this.compressMinSizeBytes = compressMinSizeBytes;
+        this.dictionaryCompressor = dictionary == null ? null : new DictionaryCompressor(dictionary, level);
     }
 
     /** Returns the default compression type used by this */
@@ -103,6 +123,15 @@ public class Compressor {
                 }
                 byte[] compressed = zstdCompressor.compress(data, offset, len);
                 return new Compression(CompressionType.ZSTD, len, compressed);
+            case ZLIB_DICTIONARY:
+                if (len < compressMinSizeBytes) {
+                    return compact(CompressionType.INCOMPRESSIBLE, data, offset, len);
+                }
+                byte[] dictionaryCompressed = dictionaryCompressor(requestedCompression).compress(data, offset, len);
+                if (dictionaryCompressed.length >= len * compressionThresholdFactor) {
+                    return compact(CompressionType.INCOMPRESSIBLE, data, offset, len);
+                }
+                return new Compression(CompressionType.ZLIB_DICTIONARY, len, dictionaryCompressed);
             default:
                 throw new IllegalArgumentException(requestedCompression + " is not supported");
         }
@@ -114,6 +143,13 @@ public class Compressor {
         }
         return new Compression(type, len, data);
     }
+
+    private DictionaryCompressor dictionaryCompressor(CompressionType type) {
+        if (dictionaryCompressor == null)
+            throw new IllegalArgumentException(type + " is not supported by a compressor without a dictionary");
+        return dictionaryCompressor;
+    }
+
     private LZ4Compressor getCompressor() {
         return level < 7 ? factory.fastCompressor() : factory.highCompressor();
     }
@@ -158,6 +194,11 @@ public class Compressor {
                     }
                 });
                 return decompressedData;
+            case ZLIB_DICTIONARY:
+                int endOfCompressed = expectedCompressedSize.isPresent() ? compressedDataOffset + expectedCompressedSize.get() : compressedData.length;
+                return dictionaryCompressor(compression).decompress(compressedData, compressedDataOffset,
+                                                                    endOfCompressed - compressedDataOffset,
+                                                                    expectedUncompressedSize);
             default:
                 throw new IllegalArgumentException(compression + " is not supported");
         }
@@ -0,0 +1,95 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressor which primes compression with a {@link CompressionDictionary}, to compress small inputs
+ * such as single documents effectively. The output is in the zlib format, which records the id of the dictionary
+ * used, so decompressing with the wrong dictionary fails rather than producing garbage.
+ *
+ * This is used by {@link Compressor} for {@link CompressionType#ZLIB_DICTIONARY}.
+ * This class is thread safe.
+ *
+ * @author agent
+ */
+public class DictionaryCompressor {
+
+    private final CompressionDictionary dictionary;
+    private final int level;
+
+    /** Creates a compressor using the given dictionary and the default compression level */
+    public DictionaryCompressor(CompressionDictionary dictionary) {
+        this(dictionary, 6);
+    }
+
+    /**
+     * Creates a compressor.
+     *
+     * @param dictionary the dictionary to prime compression and decompression with
+     * @param level a number between 0 and 9 where a higher value means more compression
+     */
+    public DictionaryCompressor(CompressionDictionary dictionary, int level) {
+        if (level < 0 || level > 9)
+            throw new IllegalArgumentException("Compression level must be between 0 and 9, but was " + level);
+        this.dictionary = dictionary;
+        this.level = level;
+    }
+
+    public CompressionDictionary dictionary() { return dictionary; }
+
+    public byte[] compress(byte[] input, int inputOffset, int inputLength) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setDictionary(dictionary.contentReference());
+            deflater.setInput(input, inputOffset, inputLength);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(inputLength / 2 + 16);
+            byte[] buffer = new byte[Math.max(64, Math.min(inputLength, 0x10000))];
+            while ( ! deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses data compressed with this dictionary.
+     *
+     * @throws IllegalArgumentException if the data is corrupt, was compressed with another dictionary,
+     *                                  or does not decompress to the expected size
+     */
+    public byte[] decompress(byte[] input, int inputOffset, int inputLength, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, inputOffset, inputLength);
+            byte[] output = new byte[uncompressedLength];
+            int length = inflater.inflate(output);
+            if (inflater.needsDictionary()) {
+                if (inflater.getAdler() != dictionary.id())
+                    throw new IllegalArgumentException("Data was compressed with dictionary " +
+                                                       Integer.toHexString(inflater.getAdler()) + ", not " + dictionary);
+                inflater.setDictionary(dictionary.contentReference());
+                length = inflater.inflate(output);
+            }
+            if (length != uncompressedLength || ! inflater.finished())
+                throw new IllegalArgumentException("Expected " + uncompressedLength + " bytes of decompressed data, " +
+                                                   "but got " + (inflater.finished() ? length : "more"));
+            return output;
+        }
+        catch (DataFormatException e) {
+            throw new IllegalArgumentException("Could not decompress data using " + dictionary, e);
+        }
+        finally {
+            inflater.end();
+        }
+    }
+
+}
@@ -1,7 +1,7 @@
 // Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.concurrent.maintenance;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
 /**
  * Tracks and forwards maintenance job metrics.
@@ -16,4 +16,12 @@ public abstract class JobMetrics {
      */
     public abstract void completed(String job, double successFactor);
 
+    /**
+     * Records the time spent by a run of a job which acquired the job lock: the wall clock time of the run,
+     * the CPU time spent by the thread running it, and the time this thread spent waiting for the job lock
+     * and any other locks the job acquired, as far as the maintainer is able to tell.
+     * This is called before {@link #completed} for such runs. This default implementation does nothing.
+     */
+    public void profiled(String job, Duration wallTime, Duration cpuTime, Duration lockWaitTime) { }
+
 }
@@ -4,6 +4,8 @@ package com.yahoo.concurrent.maintenance;
 import com.yahoo.concurrent.UncheckedTimeoutException;
 import com.yahoo.net.HostName;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
@@ -100,6 +102,13 @@ public abstract class Maintainer implements Runnable {
         return new BigDecimal(factor).setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 
+    /**
+     * Returns the total time the current thread has spent waiting for locks, excluding the job lock, or zero if this
+     * is not known. Subclasses which can tell should override this, such that lock wait time is included
+     * when profiling runs of this.
+     */
+    protected Duration lockWaitTime() { return Duration.ZERO; }
+
     /** Returns the interval at which this job is set to run */
     protected Duration interval() { return interval; }
 
@@ -109,8 +118,20 @@ public abstract class Maintainer implements Runnable {
         log.log(Level.FINE, () -> "Running " + this.getClass().getSimpleName());
 
         double successFactor = 0;
+        long startNanos = System.nanoTime();
+        long startCpuNanos = currentThreadCpuNanos();
         try (var lock = jobControl.lockJob(name())) {
-            successFactor = maintain();
+            long jobLockWaitNanos = System.nanoTime() - startNanos;
+            Duration startLockWait = lockWaitTime();
+            try {
+                successFactor = maintain();
+            }
+            finally {
+                jobMetrics.profiled(name(),
+                                    Duration.ofNanos(System.nanoTime() - startNanos),
+                                    Duration.ofNanos(currentThreadCpuNanos() - startCpuNanos),
+                                    lockWaitTime().minus(startLockWait).plusNanos(jobLockWaitNanos));
+            }
         }
         catch (UncheckedTimeoutException e) {
             if (ignoreCollision)
@@ -127,6 +148,11 @@ public abstract class Maintainer implements Runnable {
         log.log(Level.FINE, () -> "Finished " + this.getClass().getSimpleName());
     }
 
+    private static long currentThreadCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
     /** Returns the simple name of this job */
     public final String name() {
         return name == null ? this.getClass().getSimpleName() : name;
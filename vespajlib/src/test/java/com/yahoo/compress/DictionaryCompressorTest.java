@@ -0,0 +1,79 @@
+// Copyright Yahoo. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+class DictionaryCompressorTest {
+
+    @Test
+    void small_documents_compress_better_with_a_trained_dictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            samples.add(document(i));
+        CompressionDictionary dictionary = CompressionDictionary.train(samples, 4096);
+        assertTrue(dictionary.size() <= 4096);
+
+        byte[] input = document(1000);
+        DictionaryCompressor compressor = new DictionaryCompressor(dictionary);
+        byte[] compressed = compressor.compress(input, 0, input.length);
+        byte[] withoutDictionary = new ZstdCompressor().compress(input, 0, input.length);
+        assertTrue(compressed.length * 2 < withoutDictionary.length,
+                   () -> "Compressed to " + compressed.length + " bytes with dictionary, " +
+                         withoutDictionary.length + " bytes without");
+
+        assertArrayEquals(input, compressor.decompress(compressed, 0, compressed.length, input.length));
+    }
+
+    @Test
+    void decompressing_with_another_dictionary_fails() {
+        CompressionDictionary dictionary = new CompressionDictionary(document(1));
+        CompressionDictionary other = new CompressionDictionary(document(2));
+        byte[] input = document(3);
+        byte[] compressed = new DictionaryCompressor(dictionary).compress(input, 0, input.length);
+        assertEquals("Data was compressed with dictionary " + Integer.toHexString(dictionary.id()) + ", not " + other,
+                     assertThrows(IllegalArgumentException.class,
+                                  () -> new DictionaryCompressor(other).decompress(compressed, 0, compressed.length, input.length))
+                             .getMessage());
+    }
+
+    @Test
+    void compressor_uses_the_dictionary_for_zlib_dictionary() {
+        CompressionDictionary dictionary = new CompressionDictionary(document(1));
+        Compressor compressor = new Compressor(CompressionType.ZLIB_DICTIONARY, 6, 0.95, 0, dictionary);
+        byte[] input = document(2);
+        Compressor.Compression compression = compressor.compress(input);
+        assertEquals(CompressionType.ZLIB_DICTIONARY, compression.type());
+        assertEquals(input.length, compression.uncompressedSize());
+        assertArrayEquals(input, compressor.decompress(compression));
+
+        assertEquals("ZLIB_DICTIONARY is not supported by a compressor without a dictionary",
+                     assertThrows(IllegalArgumentException.class, () -> new Compressor().decompress(compression)).getMessage());
+    }
+
+    @Test
+    void dictionary_content_round_trips() {
+        CompressionDictionary dictionary = new CompressionDictionary(document(1));
+        assertEquals(dictionary, new CompressionDictionary(dictionary.content()));
+        assertEquals(dictionary.id(), new CompressionDictionary(dictionary.content()).id());
+    }
+
+    private static byte[] document(int id) {
+        return ("{\"put\":\"id:music:music::" + id + "\",\"fields\":{\"title\":\"Song number " + id + "\"," +
+                "\"artist\":\"Artist " + (id % 7) + "\",\"year\":" + (1950 + id % 70) + ",\"duration\":" + (120 + id % 300) + "," +
+                "\"genre\":\"" + (id % 2 == 0 ? "rock" : "jazz") + "\",\"popularity\":" + (id % 100) + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+}
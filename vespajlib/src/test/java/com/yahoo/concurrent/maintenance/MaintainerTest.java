@@ -9,6 +9,8 @@ import java.time.Instant;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author freva
@@ -67,15 +69,42 @@ public class MaintainerTest {
         assertEquals(0, jobMetrics.successFactor, delta);
     }
 
+    @Test
+    public void runs_are_profiled() {
+        TestJobMetrics jobMetrics = new TestJobMetrics();
+        TestMaintainer maintainer = new TestMaintainer(null, jobControl, jobMetrics);
+
+        maintainer.successOnNextRun(1.0).run();
+        assertEquals(1, jobMetrics.profiledRuns);
+        assertFalse(jobMetrics.wallTime.isNegative());
+        assertFalse(jobMetrics.cpuTime.isNegative());
+        assertFalse(jobMetrics.lockWaitTime.isNegative());
+        assertTrue(jobMetrics.lockWaitTime.compareTo(jobMetrics.wallTime) <= 0);
+
+        // Failing runs are also profiled
+        maintainer.throwOnNextRun(new RuntimeException()).run();
+        assertEquals(2, jobMetrics.profiledRuns);
+    }
+
     private static class TestJobMetrics extends JobMetrics {
 
         double successFactor = 0.0;
+        int profiledRuns = 0;
+        Duration wallTime, cpuTime, lockWaitTime;
 
         @Override
         public void completed(String job, double successFactor) {
             this.successFactor = successFactor;
         }
 
+        @Override
+        public void profiled(String job, Duration wallTime, Duration cpuTime, Duration lockWaitTime) {
+            this.profiledRuns++;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.lockWaitTime = lockWaitTime;
+        }
+
     }
 
 }
@@ -36,6 +36,9 @@ public class ThreadLockStats {
     /** Non-empty if there is an ongoing recording for this thread. */
     private volatile Optional<RecordedLockAttempts> ongoingRecording = Optional.empty();
 
+    /** The total time this thread has spent acquiring locks, whether successfully or not. */
+    private volatile Duration acquireDuration = Duration.ZERO;
+
     ThreadLockStats(Thread currentThread) {
         this.thread = currentThread;
     }
@@ -66,6 +69,8 @@ public class ThreadLockStats {
     /** The most recent and deeply nested ongoing lock attempt. */
     public Optional<LockAttempt> getBottomMostOngoingLockAttempt() { return Optional.ofNullable(lockAttemptsStack.peekLast()); }
     public Optional<RecordedLockAttempts> getOngoingRecording() { return ongoingRecording; }
+    /** The total time this thread has spent acquiring locks, whether successfully or not. */
+    public Duration getTotalAcquireDuration() { return acquireDuration; }
 
     /** Mutable method (see class doc) */
     public void invokingAcquire(String lockPath, Duration timeout) {
@@ -89,12 +94,18 @@ public class ThreadLockStats {
 
     /** Mutable method (see class doc) */
     public void acquireFailed() {
-        removeLastLockAttempt(LockAttempt::acquireFailed);
+        removeLastLockAttempt(lockAttempt -> {
+            lockAttempt.acquireFailed();
+            addAcquireDuration(lockAttempt);
+        });
     }
 
     /** Mutable method (see class doc) */
     public void acquireTimedOut() {
-        removeLastLockAttempt(LockAttempt::timedOut);
+        removeLastLockAttempt(lockAttempt -> {
+            lockAttempt.timedOut();
+            addAcquireDuration(lockAttempt);
+        });
     }
 
     /** Mutable method (see class doc) */
@@ -105,6 +116,7 @@ public class ThreadLockStats {
             // return false in a small window if these two statements were reversed.  Not a biggie,
             // but seems better to ensure LockAttempt is updated first.
             lockAttempt.lockAcquired();
+            addAcquireDuration(lockAttempt);
 
             if (!lockAttempt.isReentry()) {
                 LockStats.getGlobal().notifyOfThreadHoldingLock(thread, lockAttempt.getLockPath(), debug);
@@ -209,6 +221,10 @@ public class ThreadLockStats {
         }
     }
 
+    private void addAcquireDuration(LockAttempt lockAttempt) {
+        acquireDuration = acquireDuration.plus(lockAttempt.getDurationOfAcquire());
+    }
+
     private LockMetrics getGlobalLockMetrics(String lockPath) {
         return LockStats.getGlobal().getLockMetrics(lockPath);
     }
@@ -23,6 +23,9 @@ class CuratorCreateOperation implements CuratorOperation {
         this.data = data;
     }
 
+    @Override
+    public String path() { return path; }
+
     @Override
     public void check(Curator curator, TransactionChanges changes) {
         int lastSlash = path.lastIndexOf("/");
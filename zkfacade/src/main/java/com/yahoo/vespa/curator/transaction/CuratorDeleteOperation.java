@@ -17,6 +17,9 @@ class CuratorDeleteOperation implements CuratorOperation {
         this.path = path;
     }
 
+    @Override
+    public String path() { return path; }
+
     @Override
     public void check(Curator curator, TransactionChanges changes) {
         if (  ! curator.exists(Path.fromString(path)) && ! changes.create(path))
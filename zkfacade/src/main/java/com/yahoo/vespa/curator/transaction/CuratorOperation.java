@@ -13,6 +13,9 @@ import org.apache.curator.framework.api.transaction.CuratorTransaction;
  */
 public interface CuratorOperation extends Transaction.Operation {
 
+    /** Returns the absolute path of the node this operation changes */
+    String path();
+
     /**
      * Returns the transaction resulting from combining this operation with the input transaction
      *
@@ -21,6 +21,9 @@ class CuratorSetDataOperation implements CuratorOperation {
         this.data = data;
     }
 
+    @Override
+    public String path() { return path; }
+
     @Override
     public void check(Curator curator, TransactionChanges changes) {
         if ( ! curator.exists(Path.fromString(path)) && ! changes.create(path) )
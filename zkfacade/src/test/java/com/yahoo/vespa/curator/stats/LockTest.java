@@ -130,6 +130,20 @@ public class LockTest {
         assertLockMetricsIs(expectedMetrics);
     }
 
+    @Test
+    public void acquireDurationIsAccumulatedPerThread() throws Exception {
+        when(mutex.acquire(anyLong(), any())).thenAnswer(invocation -> { Thread.sleep(10); return true; });
+
+        lock.acquire(acquireTimeout);
+        lock.close();
+        Duration afterFirst = LockStats.getForCurrentThread().getTotalAcquireDuration();
+        assertTrue(afterFirst + " includes the wait", afterFirst.toMillis() >= 10);
+
+        lock2.acquire(acquireTimeout);
+        lock2.close();
+        assertTrue(LockStats.getForCurrentThread().getTotalAcquireDuration().minus(afterFirst).toMillis() >= 10);
+    }
+
     @Test
     public void acquired() throws Exception {
         when(mutex.acquire(anyLong(), any())).thenReturn(true);